@@ -0,0 +1,93 @@
+package org.example.registration.bench;
+
+import org.example.registration.config.DynamoDbConfig;
+import org.example.registration.config.StorageConfig;
+import org.example.registration.dao.Stores;
+import org.example.registration.dao.embedded.EmbeddedDatabase;
+import org.example.registration.model.Course;
+import org.example.registration.model.Student;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Opens the stores a benchmark runs against, selected by its {@code backend} parameter:
+ *   embedded   in-process store in a temporary directory (no network; the ceiling)
+ *   dynamodb   DynamoDB Local at -Dbench.dynamodb.endpoint (default http://localhost:8000),
+ *              with the tables from dynamodb_create_tables.sh
+ *
+ * Rows are written under a per-run prefix and left in DynamoDB; the embedded directory is deleted.
+ */
+final class BenchmarkBackend implements AutoCloseable {
+    static final String ENDPOINT_PROPERTY = "bench.dynamodb.endpoint";
+
+    final Stores stores;
+    // unique per trial so repeated runs against the same DynamoDB tables never collide
+    final String prefix = "BENCH" + System.nanoTime();
+    private final Path dir;
+
+    private BenchmarkBackend(Stores stores, Path dir) {
+        this.stores = stores;
+        this.dir = dir;
+    }
+
+    static BenchmarkBackend open(String backend) throws IOException {
+        switch (backend) {
+            case "embedded":
+                Path dir = Files.createTempDirectory("registration-bench");
+                return new BenchmarkBackend(EmbeddedDatabase.open(dir).stores(), dir);
+            case "dynamodb":
+                String endpoint = System.getProperty(ENDPOINT_PROPERTY, DynamoDbConfig.LOCAL_ENDPOINT);
+                DynamoDbClient client = DynamoDbConfig.createClient(endpoint);
+                try {
+                    client.describeTable(b -> b.tableName("Course"));
+                } catch (Exception e) {
+                    client.close();
+                    throw new IllegalStateException("DynamoDB not available at " + endpoint
+                            + " (start DynamoDB Local and create the tables, or run with -p backend=embedded): "
+                            + e.getMessage(), e);
+                }
+                return new BenchmarkBackend(Stores.dynamoDb(client), null);
+            default:
+                throw new IllegalArgumentException("Unknown backend " + backend + " (expected embedded or dynamodb)");
+        }
+    }
+
+    /**
+     * A student row with a placeholder hash; enough for enroll/drop, which only check existence.
+     */
+    Student putStudent(String studentId) {
+        Student s = new Student();
+        s.studentId = studentId;
+        s.name = "Bench " + studentId;
+        s.email = studentId.toLowerCase() + "@bench.example.edu";
+        s.passwordHash = "";
+        stores.students.putStudent(s);
+        return s;
+    }
+
+    Course putCourse(String courseId, int maxSeats) {
+        Course c = new Course();
+        c.courseId = courseId;
+        c.title = "Benchmark " + courseId;
+        c.maxSeats = maxSeats;
+        if (!stores.courses.putCourse(c)) throw new IllegalStateException("Could not create course " + courseId);
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        StorageConfig.shutdown(stores);
+        if (dir != null) {
+            try (Stream<Path> files = Files.walk(dir)) {
+                for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.deleteIfExists(p);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.registration.bench;
+
+import org.example.registration.dao.CourseDao;
+import org.example.registration.dao.Stores;
+import org.example.registration.dao.TransactionDao;
+import org.example.registration.dao.TransactionStore.EnrollResult;
+import org.example.registration.model.Course;
+import org.example.registration.model.Student;
+import org.example.registration.service.RegistrationService;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap allocated per enroll on the DynamoDB code path: key and item maps, expression values,
+ * request builders. The client is a canned in-process stub, so the numbers cover this
+ * repository's request building and item conversion and none of the SDK's marshalling or
+ * network. Run with the GC profiler and compare {@code gc.alloc.rate.norm} (bytes per call)
+ * between builds:
+ *
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar EnrollAllocation -prof gc
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EnrollAllocationBenchmark {
+    private static final String STUDENT_ID = "S1001";
+    private static final String COURSE_ID = "CS101";
+
+    private TransactionDao transactions;
+    private CourseDao courses;
+    private RegistrationService service;
+
+    @Setup
+    public void setUp() {
+        DynamoDbClient client = new CannedClient();
+        transactions = new TransactionDao(client);
+        courses = new CourseDao(client);
+        service = new RegistrationService(Stores.dynamoDb(client));
+    }
+
+    /**
+     * The enroll transaction alone: seat update, enrollment put and waitlist check.
+     */
+    @Benchmark
+    public EnrollResult transactionEnroll() {
+        return transactions.enroll(STUDENT_ID, COURSE_ID);
+    }
+
+    /**
+     * Single-item seat reservation (cached course, unsharded).
+     */
+    @Benchmark
+    public boolean reserveSeat() {
+        return courses.reserveSeatIfAvailable(COURSE_ID);
+    }
+
+    /**
+     * RegistrationService.enroll end to end: validation, the concurrent existence reads (served
+     * from the DAO caches after the first call) and the transaction.
+     */
+    @Benchmark
+    public String serviceEnroll() {
+        return service.enroll(STUDENT_ID, COURSE_ID, false);
+    }
+
+    /**
+     * Answers reads with one fixed student and course and accepts every write.
+     */
+    static final class CannedClient implements DynamoDbClient {
+        private final Map<String, AttributeValue> student;
+        private final Map<String, AttributeValue> course;
+
+        CannedClient() {
+            Student s = new Student();
+            s.studentId = STUDENT_ID;
+            s.name = "Ada Lovelace";
+            s.email = "ada@example.edu";
+            s.passwordHash = "$2a$10$abcdefghijklmnopqrstuuQ2Fq2Wc5m2JmOQy8rXzkmyYIpX1s0b6";
+            student = s.toItem();
+
+            Course c = new Course();
+            c.courseId = COURSE_ID;
+            c.title = "Introduction to Computer Science";
+            c.maxSeats = 1_000_000;
+            course = c.toItem();
+        }
+
+        @Override
+        public GetItemResponse getItem(GetItemRequest request) {
+            Map<String, AttributeValue> item = switch (request.tableName()) {
+                case "Student" -> student;
+                case "Course" -> course;
+                default -> null;
+            };
+            return item == null ? GetItemResponse.builder().build() : GetItemResponse.builder().item(item).build();
+        }
+
+        @Override
+        public TransactWriteItemsResponse transactWriteItems(TransactWriteItemsRequest request) {
+            return TransactWriteItemsResponse.builder().build();
+        }
+
+        @Override
+        public UpdateItemResponse updateItem(UpdateItemRequest request) {
+            return UpdateItemResponse.builder().build();
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.registration.bench;
+
+import org.example.registration.service.RegistrationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RegistrationService.enroll and drop. Neither can repeat on the same student/course pair (a
+ * student drops a course only once), so each iteration is one timed batch of {@link #BATCH}
+ * calls over fresh students prepared outside the timing; divide the reported time by BATCH for
+ * the per-call cost.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, batchSize = EnrollDropBenchmark.BATCH)
+@Measurement(iterations = 10, batchSize = EnrollDropBenchmark.BATCH)
+@Fork(1)
+public class EnrollDropBenchmark {
+    static final int BATCH = 200;
+
+    @State(Scope.Benchmark)
+    public static class Backend {
+        @Param({"embedded", "dynamodb"})
+        public String backend;
+
+        BenchmarkBackend db;
+        RegistrationService service;
+        String courseId;
+        private int batches;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            db = BenchmarkBackend.open(backend);
+            service = new RegistrationService(db.stores);
+            courseId = db.prefix + "-C";
+            db.putCourse(courseId, 1_000_000);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            db.close();
+        }
+
+        String[] freshStudents() {
+            int batch = batches++;
+            String[] ids = new String[BATCH];
+            for (int i = 0; i < BATCH; i++) {
+                ids[i] = db.putStudent(db.prefix + "-B" + batch + "-" + i).studentId;
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * Students not yet enrolled in the course.
+     */
+    @State(Scope.Thread)
+    public static class EnrollBatch {
+        String[] students;
+        String[] results = new String[BATCH];
+        int next;
+
+        @Setup(Level.Iteration)
+        public void prepare(Backend backend) {
+            students = backend.freshStudents();
+            next = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void verify() {
+            check(results, next, "Enrolled successfully.");
+        }
+    }
+
+    /**
+     * Students enrolled in the course who have never dropped it.
+     */
+    @State(Scope.Thread)
+    public static class DropBatch {
+        String[] students;
+        String[] results = new String[BATCH];
+        int next;
+
+        @Setup(Level.Iteration)
+        public void prepare(Backend backend) {
+            students = backend.freshStudents();
+            for (String sid : students) {
+                String r = backend.service.enroll(sid, backend.courseId, false);
+                if (!r.startsWith("Enrolled")) throw new IllegalStateException("Benchmark setup enroll failed: " + r);
+            }
+            next = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void verify() {
+            check(results, next, "Dropped from course.");
+        }
+    }
+
+    // a batch that silently hit an error path would measure the wrong thing
+    private static void check(String[] results, int count, String expected) {
+        for (int i = 0; i < count; i++) {
+            if (!expected.equals(results[i])) {
+                throw new IllegalStateException("Expected \"" + expected + "\" but got \"" + results[i] + "\"");
+            }
+        }
+    }
+
+    @Benchmark
+    public String enroll(Backend backend, EnrollBatch batch) {
+        int i = batch.next++;
+        return batch.results[i] = backend.service.enroll(batch.students[i], backend.courseId, false);
+    }
+
+    @Benchmark
+    public String drop(Backend backend, DropBatch batch) {
+        int i = batch.next++;
+        return batch.results[i] = backend.service.drop(batch.students[i], backend.courseId);
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.registration.bench;
+
+import org.example.registration.model.Course;
+import org.example.registration.model.Student;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Item conversion done on every read and write: Course.fromItem/toItem and Student.fromItem.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelCodecBenchmark {
+    private Course course;
+    private Map<String, AttributeValue> courseItem;
+    private Map<String, AttributeValue> legacyCourseItem;
+    private Map<String, AttributeValue> studentItem;
+
+    @Setup
+    public void setUp() {
+        course = new Course();
+        course.courseId = "CS101";
+        course.title = "Introduction to Computer Science";
+        course.maxSeats = 120;
+        course.currentEnrolled = 87;
+        courseItem = course.toItem();
+
+        // pre-migration rows use courseName instead of title
+        legacyCourseItem = Map.of(
+                "courseId", AttributeValue.builder().s("CS102").build(),
+                "courseName", AttributeValue.builder().s("Data Structures").build(),
+                "maxSeats", AttributeValue.builder().n("60").build(),
+                "currentEnrolled", AttributeValue.builder().n("12").build());
+
+        Student s = new Student();
+        s.studentId = "S1001";
+        s.name = "Ada Lovelace";
+        s.email = "ada@example.edu";
+        s.passwordHash = "$2a$10$abcdefghijklmnopqrstuuQ2Fq2Wc5m2JmOQy8rXzkmyYIpX1s0b6";
+        studentItem = s.toItem();
+    }
+
+    @Benchmark
+    public Map<String, AttributeValue> courseToItem() {
+        return course.toItem();
+    }
+
+    @Benchmark
+    public Course courseFromItem() {
+        return Course.fromItem(courseItem);
+    }
+
+    @Benchmark
+    public Course courseFromLegacyItem() {
+        return Course.fromItem(legacyCourseItem);
+    }
+
+    @Benchmark
+    public Student studentFromItem() {
+        return Student.fromItem(studentItem);
+    }
+}
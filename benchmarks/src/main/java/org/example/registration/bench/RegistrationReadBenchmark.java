@@ -0,0 +1,78 @@
+package org.example.registration.bench;
+
+import org.example.registration.model.StudentSchedule;
+import org.example.registration.service.RegistrationService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady-state reads through RegistrationService: login (one lookup plus a BCrypt verify at the
+ * configured cost; pass -jvmArgsAppend -Dregistration.bcrypt.cost=4 to see the lookup alone) and
+ * getMyCourses for a student with three enrollments and two waitlist entries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RegistrationReadBenchmark {
+    private static final String PASSWORD = "Bench#Passw0rd";
+
+    @Param({"embedded", "dynamodb"})
+    public String backend;
+
+    private BenchmarkBackend db;
+    private RegistrationService service;
+    private String studentId;
+    private String unknownStudentId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        db = BenchmarkBackend.open(backend);
+        service = new RegistrationService(db.stores);
+        studentId = db.prefix + "-S";
+        unknownStudentId = db.prefix + "-NOBODY";
+
+        String signedUp = service.signup(studentId, "Bench Student", studentId.toLowerCase() + "@bench.example.edu", PASSWORD);
+        if (!signedUp.startsWith("Signed up")) throw new IllegalStateException("Benchmark signup failed: " + signedUp);
+
+        for (int i = 0; i < 3; i++) {
+            String courseId = db.prefix + "-OPEN" + i;
+            db.putCourse(courseId, 100);
+            service.enroll(studentId, courseId, false);
+        }
+        // full courses: someone else holds the only seat, the benchmark student waits
+        String holder = db.putStudent(db.prefix + "-HOLDER").studentId;
+        for (int i = 0; i < 2; i++) {
+            String courseId = db.prefix + "-FULL" + i;
+            db.putCourse(courseId, 1);
+            service.enroll(holder, courseId, false);
+            service.enroll(studentId, courseId, true);
+        }
+        if (service.getMyCourses(studentId).entries.size() != 5) {
+            throw new IllegalStateException("Benchmark schedule not set up: " + service.getMyCourses(studentId).entries.size() + " entries");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        db.close();
+    }
+
+    @Benchmark
+    public boolean login() {
+        return service.login(studentId, PASSWORD);
+    }
+
+    @Benchmark
+    public boolean loginUnknownStudent() {
+        return service.login(unknownStudentId, PASSWORD);
+    }
+
+    @Benchmark
+    public StudentSchedule getMyCourses() {
+        return service.getMyCourses(studentId);
+    }
+}
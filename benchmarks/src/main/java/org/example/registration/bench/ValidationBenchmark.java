@@ -0,0 +1,53 @@
+package org.example.registration.bench;
+
+import org.example.registration.util.ValidationUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The signup validation regexes, on accepted and rejected input.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidationBenchmark {
+    private String studentId = "S1001_ab";
+    private String email = "First.Last+reg@cs.university.edu";
+    private String badEmail = "first.last@university";
+    private String password = "Correct#Horse9Battery";
+    private String weakPassword = "alllowercaseletters";
+
+    @Benchmark
+    public boolean validStudentId() {
+        return ValidationUtil.isValidStudentId(studentId);
+    }
+
+    @Benchmark
+    public boolean validEmail() {
+        return ValidationUtil.isValidEmail(email);
+    }
+
+    @Benchmark
+    public boolean invalidEmail() {
+        return ValidationUtil.isValidEmail(badEmail);
+    }
+
+    @Benchmark
+    public boolean validPassword() {
+        return ValidationUtil.isValidPassword(password);
+    }
+
+    @Benchmark
+    public boolean weakPassword() {
+        return ValidationUtil.isValidPassword(weakPassword);
+    }
+
+    @Benchmark
+    public String normalizeEmail() {
+        return ValidationUtil.normalizeEmail(email);
+    }
+}
@@ -1,35 +1,55 @@
 #!/usr/bin/env bash
-# Creates DynamoDB tables on local DynamoDB (endpoint http://localhost:8000)
+# Creates the DynamoDB tables the application uses on local DynamoDB (endpoint http://localhost:8000).
+# Same tables as setup_dynamodb_local.cmd, without the sample rows (load those with
+# sample_data/load_sample_data.sh).
 AWS="aws --endpoint-url http://localhost:8000 --region us-east-1 dynamodb"
 
-echo "Creating Students table..."
-$AWS create-table --table-name Students \
+echo "Creating Student table..."
+$AWS create-table --table-name Student \
   --attribute-definitions AttributeName=studentId,AttributeType=S \
   --key-schema AttributeName=studentId,KeyType=HASH \
   --billing-mode PAY_PER_REQUEST
 
-echo "Creating Courses table..."
-$AWS create-table --table-name Courses \
+echo "Creating EmailIndex table..."
+$AWS create-table --table-name EmailIndex \
+  --attribute-definitions AttributeName=email,AttributeType=S \
+  --key-schema AttributeName=email,KeyType=HASH \
+  --billing-mode PAY_PER_REQUEST
+
+echo "Creating Course table..."
+$AWS create-table --table-name Course \
   --attribute-definitions AttributeName=courseId,AttributeType=S \
   --key-schema AttributeName=courseId,KeyType=HASH \
   --billing-mode PAY_PER_REQUEST
 
-echo "Creating Enrollments table..."
-$AWS create-table --table-name Enrollments \
+echo "Creating Enrollment table..."
+$AWS create-table --table-name Enrollment \
   --attribute-definitions AttributeName=studentId,AttributeType=S AttributeName=courseId,AttributeType=S \
   --key-schema AttributeName=studentId,KeyType=HASH AttributeName=courseId,KeyType=RANGE \
   --billing-mode PAY_PER_REQUEST
 
-echo "Creating Waitlists table... (PK=courseId, SK=seq)"
-$AWS create-table --table-name Waitlists \
-  --attribute-definitions AttributeName=courseId,AttributeType=S AttributeName=seq,AttributeType=N \
-  --key-schema AttributeName=courseId,KeyType=HASH AttributeName=seq,KeyType=RANGE \
+echo "Creating DropHistory table... (PK=studentCourse, SK=droppedAt)"
+$AWS create-table --table-name DropHistory \
+  --attribute-definitions AttributeName=studentCourse,AttributeType=S AttributeName=droppedAt,AttributeType=N \
+  --key-schema AttributeName=studentCourse,KeyType=HASH AttributeName=droppedAt,KeyType=RANGE \
+  --billing-mode PAY_PER_REQUEST
+
+echo "Creating Waitlist table... (PK=courseId, SK=createdAt)"
+$AWS create-table --table-name Waitlist \
+  --attribute-definitions AttributeName=courseId,AttributeType=S AttributeName=createdAt,AttributeType=S \
+  --key-schema AttributeName=courseId,KeyType=HASH AttributeName=createdAt,KeyType=RANGE \
+  --billing-mode PAY_PER_REQUEST
+
+echo "Creating WaitlistByStudent table... (PK=studentId, SK=courseId)"
+$AWS create-table --table-name WaitlistByStudent \
+  --attribute-definitions AttributeName=studentId,AttributeType=S AttributeName=courseId,AttributeType=S \
+  --key-schema AttributeName=studentId,KeyType=HASH AttributeName=courseId,KeyType=RANGE \
   --billing-mode PAY_PER_REQUEST
 
-echo "Creating StudentLogs table..."
-$AWS create-table --table-name StudentLogs \
-  --attribute-definitions AttributeName=logId,AttributeType=S \
-  --key-schema AttributeName=logId,KeyType=HASH \
+echo "Creating CourseSeatShard table... (PK=courseId, SK=shard)"
+$AWS create-table --table-name CourseSeatShard \
+  --attribute-definitions AttributeName=courseId,AttributeType=S AttributeName=shard,AttributeType=N \
+  --key-schema AttributeName=courseId,KeyType=HASH AttributeName=shard,KeyType=RANGE \
   --billing-mode PAY_PER_REQUEST
 
 echo "Done."
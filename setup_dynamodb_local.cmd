@@ -14,6 +14,10 @@ aws dynamodb delete-table --table-name Student --endpoint-url %ENDPOINT% --regio
 aws dynamodb delete-table --table-name EmailIndex --endpoint-url %ENDPOINT% --region %REGION% >nul 2>&1
 aws dynamodb delete-table --table-name Course --endpoint-url %ENDPOINT% --region %REGION% >nul 2>&1
 aws dynamodb delete-table --table-name Enrollment --endpoint-url %ENDPOINT% --region %REGION% >nul 2>&1
+aws dynamodb delete-table --table-name DropHistory --endpoint-url %ENDPOINT% --region %REGION% >nul 2>&1
+aws dynamodb delete-table --table-name Waitlist --endpoint-url %ENDPOINT% --region %REGION% >nul 2>&1
+aws dynamodb delete-table --table-name WaitlistByStudent --endpoint-url %ENDPOINT% --region %REGION% >nul 2>&1
+aws dynamodb delete-table --table-name CourseSeatShard --endpoint-url %ENDPOINT% --region %REGION% >nul 2>&1
 
 timeout /t 2 >nul
 
@@ -50,6 +54,34 @@ aws dynamodb create-table --table-name Enrollment ^
   --provisioned-throughput ReadCapacityUnits=5,WriteCapacityUnits=5 ^
   --endpoint-url %ENDPOINT% --region %REGION%
 
+echo Creating DropHistory table (PK=studentCourse, SK=droppedAt)...
+aws dynamodb create-table --table-name DropHistory ^
+  --attribute-definitions AttributeName=studentCourse,AttributeType=S AttributeName=droppedAt,AttributeType=N ^
+  --key-schema AttributeName=studentCourse,KeyType=HASH AttributeName=droppedAt,KeyType=RANGE ^
+  --provisioned-throughput ReadCapacityUnits=5,WriteCapacityUnits=5 ^
+  --endpoint-url %ENDPOINT% --region %REGION%
+
+echo Creating Waitlist table (PK=courseId, SK=createdAt)...
+aws dynamodb create-table --table-name Waitlist ^
+  --attribute-definitions AttributeName=courseId,AttributeType=S AttributeName=createdAt,AttributeType=S ^
+  --key-schema AttributeName=courseId,KeyType=HASH AttributeName=createdAt,KeyType=RANGE ^
+  --provisioned-throughput ReadCapacityUnits=5,WriteCapacityUnits=5 ^
+  --endpoint-url %ENDPOINT% --region %REGION%
+
+echo Creating WaitlistByStudent table (PK=studentId, SK=courseId)...
+aws dynamodb create-table --table-name WaitlistByStudent ^
+  --attribute-definitions AttributeName=studentId,AttributeType=S AttributeName=courseId,AttributeType=S ^
+  --key-schema AttributeName=studentId,KeyType=HASH AttributeName=courseId,KeyType=RANGE ^
+  --provisioned-throughput ReadCapacityUnits=5,WriteCapacityUnits=5 ^
+  --endpoint-url %ENDPOINT% --region %REGION%
+
+echo Creating CourseSeatShard table (PK=courseId, SK=shard)...
+aws dynamodb create-table --table-name CourseSeatShard ^
+  --attribute-definitions AttributeName=courseId,AttributeType=S AttributeName=shard,AttributeType=N ^
+  --key-schema AttributeName=courseId,KeyType=HASH AttributeName=shard,KeyType=RANGE ^
+  --provisioned-throughput ReadCapacityUnits=5,WriteCapacityUnits=5 ^
+  --endpoint-url %ENDPOINT% --region %REGION%
+
 timeout /t 2 >nul
 
 echo.
@@ -1,9 +1,9 @@
 package org.example.registration;
 
-import org.example.registration.config.DynamoDbConfig;
+import org.example.registration.config.StorageConfig;
+import org.example.registration.dao.Stores;
 import org.example.registration.service.AdminService;
 import org.example.registration.service.RegistrationService;
-import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 
 import java.util.Scanner;
 
@@ -11,14 +11,16 @@ public class Main {
     private static final boolean DEBUG = false;
 
     public static void main(String[] args) {
-        DynamoDbClient client = DynamoDbConfig.createClient();
-        RegistrationService service = new RegistrationService(client);
+        Stores stores = StorageConfig.createStores();
+        RegistrationService service = new RegistrationService(stores);
         Scanner sc = new Scanner(System.in);
         String loggedInStudent = null;
 
         System.out.println("===================================");
         System.out.println("Student Course Registration System");
         System.out.println("===================================");
+        String warmUp = service.warmUp();
+        if (DEBUG) System.out.println(warmUp);
 
         while (true) {
             System.out.println("\nMain Menu:");
@@ -113,7 +115,7 @@ public class Main {
                     String pw = sc.nextLine().trim();
 
                     if (user.equalsIgnoreCase("admin") && pw.equals("Admin@123")) {
-                        AdminService admin = new AdminService(client);
+                        AdminService admin = new AdminService(stores);
                         System.out.println("\nAdmin logged in successfully!");
 
                         while (true) {
@@ -126,6 +128,9 @@ public class Main {
                             System.out.println("6) View Waitlisted Students");
                             System.out.println("7) View Drop History");
                             System.out.println("8) Logout");
+                            System.out.println("9) Shard Course Seats");
+                            System.out.println("10) Import Enrollments (CSV/NDJSON)");
+                            System.out.println("11) Data-Layer Metrics");
                             System.out.print("> ");
                             String c = sc.nextLine().trim();
 
@@ -206,6 +211,31 @@ public class Main {
                                     System.out.println("Logging out of Admin mode...");
                                     break;
                                 }
+                                case "9": {
+                                    System.out.print("Course ID: ");
+                                    String cid2 = sc.nextLine().trim().toUpperCase();
+                                    System.out.print("Number of shards: ");
+                                    String shardsInput = sc.nextLine().trim();
+                                    try {
+                                        System.out.println(admin.shardCourseSeats(cid2, Integer.parseInt(shardsInput)));
+                                    } catch (NumberFormatException nfe) {
+                                        System.out.println("Invalid shard count. Please enter a whole number.");
+                                    }
+                                    System.out.println("------------------------------------------------");
+                                    break;
+                                }
+                                case "10": {
+                                    System.out.print("File path: ");
+                                    String path = sc.nextLine().trim();
+                                    System.out.println(admin.importEnrollments(path));
+                                    System.out.println("------------------------------------------------");
+                                    break;
+                                }
+                                case "11": {
+                                    System.out.println(admin.metricsReport());
+                                    System.out.println("------------------------------------------------");
+                                    break;
+                                }
                                 default: {
                                     System.out.println("Invalid choice.");
                                 }
@@ -223,7 +253,7 @@ public class Main {
                 case "7": {
                     System.out.println("Exiting...");
                     sc.close();
-                    client.close();
+                    StorageConfig.shutdown(stores);
                     return;
                 }
                 case "8": { // Forgot Password
@@ -277,8 +307,8 @@ public class Main {
             return;
         }
         int i = 1;
-        for (String line : my) {
-            System.out.printf("%d) %s%n", i++, line);
+        for (var entry : my.entries) {
+            System.out.printf("%d) %s%n", i++, entry);
         }
     }
 }
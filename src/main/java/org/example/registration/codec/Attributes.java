@@ -0,0 +1,105 @@
+package org.example.registration.codec;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+/**
+ * Shared AttributeValue constants and scalar encoders/decoders for every table.
+ *
+ * AttributeValue is immutable, so the values that show up on every request (the empty string,
+ * small counters, seat deltas) are built once and handed out as-is instead of going through a
+ * fresh builder each time.
+ */
+public final class Attributes {
+    // counters, shard numbers and seat counts stay far below this in practice
+    static final int CACHED_NUMBERS = 1024;
+    private static final AttributeValue[] NUMBERS = new AttributeValue[CACHED_NUMBERS];
+
+    static {
+        for (int i = 0; i < CACHED_NUMBERS; i++) NUMBERS[i] = AttributeValue.builder().n(Integer.toString(i)).build();
+    }
+
+    public static final AttributeValue ZERO = NUMBERS[0];
+    public static final AttributeValue ONE = NUMBERS[1];
+    public static final AttributeValue EMPTY = AttributeValue.builder().s("").build();
+
+    private Attributes() {
+    }
+
+    // ----------------------
+    // Encoding
+    // ----------------------
+
+    public static AttributeValue s(String value) {
+        if (value != null && value.isEmpty()) return EMPTY;
+        return AttributeValue.builder().s(value).build();
+    }
+
+    /**
+     * Like {@link #s(String)} but maps null to the empty string, as the models do for optional fields.
+     */
+    public static AttributeValue sOrEmpty(String value) {
+        return value == null || value.isEmpty() ? EMPTY : AttributeValue.builder().s(value).build();
+    }
+
+    public static AttributeValue n(long value) {
+        if (value >= 0 && value < CACHED_NUMBERS) return NUMBERS[(int) value];
+        return AttributeValue.builder().n(Long.toString(value)).build();
+    }
+
+    /**
+     * Single-attribute key.
+     */
+    public static Map<String, AttributeValue> key(String name, String value) {
+        return Map.of(name, s(value));
+    }
+
+    /**
+     * Two-attribute key from already-encoded values, so one encoded id can be reused across the
+     * items of a transaction.
+     */
+    public static Map<String, AttributeValue> key(String pkName, AttributeValue pk, String skName, AttributeValue sk) {
+        return Map.of(pkName, pk, skName, sk);
+    }
+
+    // ----------------------
+    // Decoding
+    // ----------------------
+
+    /**
+     * String attribute, or null when absent or not a string.
+     */
+    public static String str(Map<String, AttributeValue> item, String name) {
+        AttributeValue v = item == null ? null : item.get(name);
+        return v == null ? null : v.s();
+    }
+
+    public static String str(Map<String, AttributeValue> item, String name, String fallback) {
+        String v = str(item, name);
+        return v == null ? fallback : v;
+    }
+
+    /**
+     * Numeric attribute as an int; 0 when absent or malformed.
+     */
+    public static int intOf(Map<String, AttributeValue> item, String name) {
+        AttributeValue v = item == null ? null : item.get(name);
+        if (v == null || v.n() == null) return 0;
+        try {
+            return Integer.parseInt(v.n());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public static long longOf(Map<String, AttributeValue> item, String name, long fallback) {
+        AttributeValue v = item == null ? null : item.get(name);
+        if (v == null || v.n() == null) return fallback;
+        try {
+            return Long.parseLong(v.n());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
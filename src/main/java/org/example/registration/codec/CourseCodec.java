@@ -0,0 +1,137 @@
+package org.example.registration.codec;
+
+import org.example.registration.model.Course;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+import static org.example.registration.codec.Attributes.*;
+
+/**
+ * Course and CourseSeatShard items, plus the seat-counter expressions shared by the single-item
+ * and transactional seat updates.
+ */
+public final class CourseCodec {
+    // Condition: maxSeats must exist AND (currentEnrolled not exists OR currentEnrolled < maxSeats)
+    public static final String RESERVE_CONDITION = "attribute_exists(maxSeats) AND (attribute_not_exists(currentEnrolled) OR currentEnrolled < maxSeats)";
+    // Update: increment currentEnrolled (initialize to 0 if not exists)
+    public static final String RESERVE_UPDATE = "SET currentEnrolled = if_not_exists(currentEnrolled, :zero) + :one";
+    // Condition: currentEnrolled > 0
+    public static final String RELEASE_CONDITION = "attribute_exists(currentEnrolled) AND currentEnrolled > :zero";
+    public static final String RELEASE_UPDATE = "SET currentEnrolled = currentEnrolled - :one";
+    // The same conditions on the Course item itself: once a course is sharded its own counter is pinned
+    // full and must not move, so a caller that still thinks it is unsharded fails here and re-reads
+    public static final String COURSE_RESERVE_CONDITION = "attribute_not_exists(shardCount) AND " + RESERVE_CONDITION;
+    public static final String COURSE_RELEASE_CONDITION = "attribute_not_exists(shardCount) AND " + RELEASE_CONDITION;
+    /**
+     * Values for all the seat expressions above.
+     */
+    public static final Map<String, AttributeValue> SEAT_VALUES = Map.of(":one", ONE, ":zero", ZERO);
+
+    // Capacity change: only maxSeats and version are written, never the seat counter
+    public static final String MAX_SEATS_UPDATE = "SET maxSeats = :max, version = :next";
+    // Condition: nobody else changed the course since it was read, and the new capacity covers every seat taken
+    public static final String MAX_SEATS_CONDITION = "version = :v AND (attribute_not_exists(currentEnrolled) OR currentEnrolled <= :max)";
+    // Same, for a course written before versions existed
+    public static final String MAX_SEATS_CONDITION_UNVERSIONED = "(attribute_not_exists(version) OR version = :v) AND (attribute_not_exists(currentEnrolled) OR currentEnrolled <= :max)";
+
+    private CourseCodec() {
+    }
+
+    public static Map<String, AttributeValue> key(String courseId) {
+        return Attributes.key("courseId", courseId);
+    }
+
+    public static Map<String, AttributeValue> key(AttributeValue courseId) {
+        return Map.of("courseId", courseId);
+    }
+
+    public static Map<String, AttributeValue> shardKey(String courseId, int shard) {
+        return shardKey(s(courseId), shard);
+    }
+
+    public static Map<String, AttributeValue> shardKey(AttributeValue courseId, int shard) {
+        return Map.of("courseId", courseId, "shard", n(shard));
+    }
+
+    public static Map<String, AttributeValue> encode(Course c) {
+        AttributeValue id = s(c.courseId);
+        AttributeValue title = sOrEmpty(c.title);
+        AttributeValue max = n(c.maxSeats);
+        AttributeValue enrolled = n(c.currentEnrolled);
+        AttributeValue version = n(c.version);
+        if (c.shardCount > 0) {
+            return Map.of("courseId", id, "title", title, "maxSeats", max, "currentEnrolled", enrolled,
+                    "shardCount", n(c.shardCount), "version", version);
+        }
+        return Map.of("courseId", id, "title", title, "maxSeats", max, "currentEnrolled", enrolled, "version", version);
+    }
+
+    /**
+     * Reads a Course item, accepting the legacy courseName / currentEnrolledCount attributes.
+     * Returns null (after a warning) for a record missing a required attribute.
+     */
+    public static Course decode(Map<String, AttributeValue> item) {
+        if (item == null || item.isEmpty()) return null;
+
+        // courseId
+        var idAttr = item.get("courseId");
+        if (idAttr == null || idAttr.s() == null) {
+            System.err.println("⚠ Course record missing courseId: " + item);
+            return null;
+        }
+
+        var titleAttr = item.get("title");
+        if (titleAttr == null || titleAttr.s() == null) titleAttr = item.get("courseName");
+        if (titleAttr == null || titleAttr.s() == null) {
+            System.err.println("⚠ Course record missing title/courseName: " + item);
+            return null;
+        }
+
+        // maxSeats (must be numeric N)
+        var maxAttr = item.get("maxSeats");
+        if (maxAttr == null || maxAttr.n() == null) {
+            System.err.println("⚠ Course record missing maxSeats: " + item);
+            return null;
+        }
+
+        // currentEnrolled: try canonical 'currentEnrolled' then legacy 'currentEnrolledCount'
+        var currAttr = item.get("currentEnrolled");
+        if (currAttr == null || currAttr.n() == null) currAttr = item.get("currentEnrolledCount");
+
+        if (currAttr == null || currAttr.n() == null) {
+            System.err.println("⚠ Course record missing currentEnrolled/currentEnrolledCount: " + item);
+            return null;
+        }
+
+        Course c = new Course();
+        c.courseId = idAttr.s();
+        c.title = titleAttr.s();
+
+        try {
+            c.maxSeats = Integer.parseInt(maxAttr.n());
+        } catch (NumberFormatException e) {
+            System.err.println("⚠ Invalid maxSeats in Course record: " + item);
+            return null;
+        }
+
+        try {
+            c.currentEnrolled = Integer.parseInt(currAttr.n());
+        } catch (NumberFormatException e) {
+            System.err.println("⚠ Invalid currentEnrolled in Course record: " + item);
+            return null;
+        }
+
+        var shardAttr = item.get("shardCount");
+        if (shardAttr != null && shardAttr.n() != null) {
+            try {
+                c.shardCount = Integer.parseInt(shardAttr.n());
+            } catch (NumberFormatException e) {
+                System.err.println("⚠ Invalid shardCount in Course record: " + item);
+            }
+        }
+
+        c.version = longOf(item, "version", 0);
+        return c;
+    }
+}
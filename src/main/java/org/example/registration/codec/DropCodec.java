@@ -0,0 +1,76 @@
+package org.example.registration.codec;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.example.registration.codec.Attributes.n;
+import static org.example.registration.codec.Attributes.s;
+
+/**
+ * DropHistory ledger items, keyed by studentCourse ("studentId#courseId") with droppedAt as the
+ * sort key.
+ */
+public final class DropCodec {
+    public static final String ACTOR_STUDENT = "STUDENT";
+    public static final String ACTOR_SYSTEM = "SYSTEM";
+    public static final String REASON_LEFT_WAITLIST = "Removed from waitlist by student";
+    /**
+     * Ledger records of a student dropping an enrollment, the only ones that rule out another drop.
+     * Promotions (SYSTEM), admin actions and leaving the waitlist share the partition.
+     */
+    public static final String STUDENT_DROP_FILTER = "actor = :student AND reason <> :leftWaitlist";
+    private static final AttributeValue STUDENT_VALUE = s(ACTOR_STUDENT);
+    private static final AttributeValue SYSTEM_VALUE = s(ACTOR_SYSTEM);
+
+    private DropCodec() {
+    }
+
+    public static String ledgerKey(String studentId, String courseId) {
+        return studentId + "#" + courseId;
+    }
+
+    public static Map<String, AttributeValue> item(String studentId, String courseId, String actor, String reason,
+                                                   long droppedAt) {
+        return item(s(studentId), s(courseId), actor, reason, droppedAt);
+    }
+
+    /**
+     * A ledger item built from already-encoded ids; each call gets a fresh dropId.
+     */
+    public static Map<String, AttributeValue> item(AttributeValue studentId, AttributeValue courseId, String actor,
+                                                   String reason, long droppedAt) {
+        return Map.of(
+                "studentCourse", s(ledgerKey(studentId.s(), courseId.s())),
+                "droppedAt", n(droppedAt),
+                "dropId", s(UUID.randomUUID().toString()),
+                "studentId", studentId,
+                "courseId", courseId,
+                "actor", actorValue(actor),
+                "reason", s(reason));
+    }
+
+    /**
+     * Expression values for {@link #STUDENT_DROP_FILTER}.
+     */
+    public static Map<String, AttributeValue> studentDropValues() {
+        return Map.of(":student", STUDENT_VALUE, ":leftWaitlist", s(REASON_LEFT_WAITLIST));
+    }
+
+    /**
+     * In-memory form of {@link #STUDENT_DROP_FILTER}.
+     */
+    public static boolean isStudentDrop(Map<String, AttributeValue> item) {
+        AttributeValue actor = item.get("actor");
+        AttributeValue reason = item.get("reason");
+        return actor != null && ACTOR_STUDENT.equals(actor.s())
+                && !(reason != null && REASON_LEFT_WAITLIST.equals(reason.s()));
+    }
+
+    private static AttributeValue actorValue(String actor) {
+        if (ACTOR_STUDENT.equals(actor)) return STUDENT_VALUE;
+        if (ACTOR_SYSTEM.equals(actor)) return SYSTEM_VALUE;
+        return s(actor);
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.registration.codec;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+import static org.example.registration.codec.Attributes.s;
+
+/**
+ * Enrollment rows (PK studentId, SK courseId).
+ */
+public final class EnrollmentCodec {
+    public static final String ENROLLED = "ENROLLED";
+    private static final AttributeValue ENROLLED_VALUE = s(ENROLLED);
+
+    private EnrollmentCodec() {
+    }
+
+    public static Map<String, AttributeValue> key(String studentId, String courseId) {
+        return key(s(studentId), s(courseId));
+    }
+
+    public static Map<String, AttributeValue> key(AttributeValue studentId, AttributeValue courseId) {
+        return Map.of("studentId", studentId, "courseId", courseId);
+    }
+
+    public static Map<String, AttributeValue> item(String studentId, String courseId, String status) {
+        return item(s(studentId), s(courseId), status);
+    }
+
+    /**
+     * An enrollment row stamped with the current time, built from already-encoded ids.
+     */
+    public static Map<String, AttributeValue> item(AttributeValue studentId, AttributeValue courseId, String status) {
+        return Map.of(
+                "studentId", studentId,
+                "courseId", courseId,
+                "status", ENROLLED.equals(status) ? ENROLLED_VALUE : s(status),
+                "createdAt", s(Long.toString(System.currentTimeMillis())));
+    }
+}
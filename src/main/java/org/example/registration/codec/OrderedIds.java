@@ -0,0 +1,68 @@
+package org.example.registration.codec;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-ordered unique string keys of the form {@code <millis>.<sequence>.<node>}: 13 digits of
+ * epoch milliseconds, a 7-digit sequence within the millisecond and an 8-hex-digit id picked once
+ * per process. Every key has the same length, so string order is time order, and a key always
+ * sorts after a plain 13-digit millisecond key written before it.
+ *
+ * <p>Within a process keys are strictly increasing even when the clock steps back or more than
+ * 2^20 keys are taken in one millisecond (the millisecond part then runs slightly ahead of the
+ * wall clock). Across processes keys from the same millisecond are ordered by sequence and then
+ * node, and the node part keeps two processes from producing the same key.
+ */
+public final class OrderedIds {
+    static final int SEQUENCE_BITS = 20;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int MILLIS_DIGITS = 13;
+    private static final int SEQUENCE_DIGITS = 7;
+    static final int LENGTH = MILLIS_DIGITS + 1 + SEQUENCE_DIGITS + 1 + 8;
+
+    private final LongSupplier clock;
+    private final String node;
+    private final AtomicLong last = new AtomicLong();
+
+    public OrderedIds() {
+        this(System::currentTimeMillis, Integer.toHexString(ThreadLocalRandom.current().nextInt() | 0x10000000));
+    }
+
+    OrderedIds(LongSupplier clock, String node) {
+        this.clock = clock;
+        this.node = node;
+    }
+
+    public String next() {
+        long floor = clock.getAsLong() << SEQUENCE_BITS;
+        long stamp = last.accumulateAndGet(floor, (prev, now) -> Math.max(prev + 1, now));
+
+        StringBuilder sb = new StringBuilder(LENGTH);
+        pad(sb, stamp >>> SEQUENCE_BITS, MILLIS_DIGITS);
+        sb.append('.');
+        pad(sb, stamp & SEQUENCE_MASK, SEQUENCE_DIGITS);
+        return sb.append('.').append(node).toString();
+    }
+
+    /**
+     * Epoch milliseconds of a key from {@link #next()} or of a legacy plain-millisecond key;
+     * -1 when it is neither.
+     */
+    public static long millisOf(String key) {
+        if (key == null) return -1;
+        int dot = key.indexOf('.');
+        try {
+            return Long.parseLong(dot < 0 ? key : key.substring(0, dot));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void pad(StringBuilder sb, long value, int width) {
+        String digits = Long.toString(value);
+        for (int i = digits.length(); i < width; i++) sb.append('0');
+        sb.append(digits);
+    }
+}
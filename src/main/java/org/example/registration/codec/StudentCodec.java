@@ -0,0 +1,52 @@
+package org.example.registration.codec;
+
+import org.example.registration.model.Student;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+import static org.example.registration.codec.Attributes.*;
+
+/**
+ * Student and EmailIndex items.
+ */
+public final class StudentCodec {
+    private StudentCodec() {
+    }
+
+    public static Map<String, AttributeValue> key(String studentId) {
+        return Attributes.key("studentId", studentId);
+    }
+
+    public static Map<String, AttributeValue> encode(Student st) {
+        return Map.of(
+                "studentId", s(st.studentId),
+                "name", sOrEmpty(st.name),
+                "email", st.email == null ? EMPTY : s(st.email.toLowerCase()),
+                "passwordHash", sOrEmpty(st.passwordHash));
+    }
+
+    /**
+     * Missing name, email or passwordHash read as the empty string.
+     */
+    public static Student decode(Map<String, AttributeValue> item) {
+        if (item == null || item.isEmpty()) return null;
+        Student st = new Student();
+        st.studentId = str(item, "studentId");
+        st.name = str(item, "name", "");
+        st.email = str(item, "email", "");
+        st.passwordHash = str(item, "passwordHash", "");
+        return st;
+    }
+
+    /**
+     * EmailIndex row; the email is stored lower-cased.
+     */
+    public static Map<String, AttributeValue> emailIndexItem(String email, String studentId) {
+        return Map.of("email", s(email.toLowerCase()), "studentId", s(studentId));
+    }
+
+    public static Map<String, AttributeValue> emailKey(String email) {
+        return Attributes.key("email", email.toLowerCase());
+    }
+}
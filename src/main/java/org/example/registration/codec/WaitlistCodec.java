@@ -0,0 +1,66 @@
+package org.example.registration.codec;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.example.registration.codec.Attributes.s;
+
+/**
+ * Waitlist entries (PK courseId, SK createdAt) and their WaitlistByStudent index rows
+ * (PK studentId, SK courseId). New entries take their createdAt from {@link #nextCreatedAt()}.
+ */
+public final class WaitlistCodec {
+    private static final OrderedIds CREATED_AT = new OrderedIds();
+
+    private WaitlistCodec() {
+    }
+
+    /**
+     * Sort key for a new entry: later than every key this process handed out before, and unique
+     * across processes (see {@link OrderedIds}).
+     */
+    public static String nextCreatedAt() {
+        return CREATED_AT.next();
+    }
+
+    /**
+     * A waitlist entry; name and email are copied from {@code extra} when present.
+     */
+    public static Map<String, AttributeValue> entry(AttributeValue courseId, AttributeValue createdAt,
+                                                    AttributeValue studentId, Map<String, String> extra) {
+        boolean hasName = extra != null && extra.containsKey("name");
+        boolean hasEmail = extra != null && extra.containsKey("email");
+        if (!hasName && !hasEmail) return Map.of("courseId", courseId, "createdAt", createdAt, "studentId", studentId);
+
+        Map<String, AttributeValue> item = new HashMap<>(8);
+        item.put("courseId", courseId);
+        item.put("createdAt", createdAt);
+        item.put("studentId", studentId);
+        if (hasName) item.put("name", s(extra.get("name")));
+        if (hasEmail) item.put("email", s(extra.get("email")));
+        return item;
+    }
+
+    public static Map<String, AttributeValue> indexItem(AttributeValue studentId, AttributeValue courseId,
+                                                        AttributeValue createdAt) {
+        return Map.of("studentId", studentId, "courseId", courseId, "createdAt", createdAt);
+    }
+
+    public static Map<String, AttributeValue> entryKey(String courseId, String createdAt) {
+        return entryKey(s(courseId), s(createdAt));
+    }
+
+    public static Map<String, AttributeValue> entryKey(AttributeValue courseId, AttributeValue createdAt) {
+        return Map.of("courseId", courseId, "createdAt", createdAt);
+    }
+
+    public static Map<String, AttributeValue> indexKey(String studentId, String courseId) {
+        return indexKey(s(studentId), s(courseId));
+    }
+
+    public static Map<String, AttributeValue> indexKey(AttributeValue studentId, AttributeValue courseId) {
+        return Map.of("studentId", studentId, "courseId", courseId);
+    }
+}
@@ -1,18 +1,53 @@
 package org.example.registration.config;
 
+import org.example.registration.metrics.DynamoDbMetricsInterceptor;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import java.net.URI;
+import java.time.Duration;
 
 public class DynamoDbConfig {
+    // Max concurrent HTTP connections for the async client (in-flight requests beyond this are queued by Netty)
+    private static final int ASYNC_MAX_CONCURRENCY = 1024;
+    public static final String LOCAL_ENDPOINT = "http://localhost:8000"; // DynamoDB Local
+
     public static DynamoDbClient createClient() {
+        return createClient(LOCAL_ENDPOINT);
+    }
+
+    public static DynamoDbClient createClient(String endpoint) {
         return DynamoDbClient.builder()
-                .endpointOverride(URI.create("http://localhost:8000")) // DynamoDB Local
+                .endpointOverride(URI.create(endpoint))
+                .credentialsProvider(StaticCredentialsProvider.create(
+                        AwsBasicCredentials.create("dummy", "dummy")))
+                .region(Region.US_EAST_1)
+                .overrideConfiguration(instrumented())
+                .build();
+    }
+
+    public static DynamoDbAsyncClient createAsyncClient() {
+        return DynamoDbAsyncClient.builder()
+                .endpointOverride(URI.create(LOCAL_ENDPOINT))
                 .credentialsProvider(StaticCredentialsProvider.create(
                         AwsBasicCredentials.create("dummy", "dummy")))
                 .region(Region.US_EAST_1)
+                .overrideConfiguration(instrumented())
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(ASYNC_MAX_CONCURRENCY)
+                        .maxPendingConnectionAcquires(ASYNC_MAX_CONCURRENCY * 10)
+                        .connectionAcquisitionTimeout(Duration.ofSeconds(10)))
+                .build();
+    }
+
+    // every request is timed, counted and asked for its consumed capacity (see DaoMetrics)
+    private static ClientOverrideConfiguration instrumented() {
+        return ClientOverrideConfiguration.builder()
+                .addExecutionInterceptor(new DynamoDbMetricsInterceptor())
                 .build();
     }
 }
@@ -0,0 +1,82 @@
+package org.example.registration.config;
+
+import org.example.registration.dao.Stores;
+import org.example.registration.dao.embedded.EmbeddedDatabase;
+import org.example.registration.events.AuditLogProjector;
+import org.example.registration.events.DropHistoryProjector;
+import org.example.registration.events.EventOutbox;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Picks the storage backend at startup (system properties):
+ *   registration.storage        "dynamodb" (default, DynamoDB Local) or "embedded"
+ *   registration.embedded.dir   data directory of the embedded store (default ./data)
+ *   registration.events         "outbox" (default: journal events, project drop history and the
+ *                               audit log in the background) or "inline" (project on the request path)
+ *   registration.events.dir     event journal directory (default ./events, or events/ under the
+ *                               embedded data directory)
+ */
+public class StorageConfig {
+    public static final String BACKEND_PROPERTY = "registration.storage";
+    public static final String DATA_DIR_PROPERTY = "registration.embedded.dir";
+    public static final String EVENTS_PROPERTY = "registration.events";
+    public static final String EVENTS_DIR_PROPERTY = "registration.events.dir";
+
+    public static Stores createStores() {
+        String mode = System.getProperty(EVENTS_PROPERTY, "outbox").trim().toLowerCase(Locale.ROOT);
+        if (!mode.equals("outbox") && !mode.equals("inline")) {
+            throw new IllegalArgumentException("Unknown " + EVENTS_PROPERTY + ": " + mode + " (expected outbox or inline)");
+        }
+        Stores stores = createBackend();
+        if (mode.equals("inline")) return stores;
+
+        Path dir = Path.of(System.getProperty(EVENTS_DIR_PROPERTY,
+                stores.dynamoDbClient == null ? dataDir().resolve("events").toString() : "events"));
+        try {
+            return stores.withEvents(EventOutbox.open(dir,
+                    List.of(new DropHistoryProjector(stores.drops), new AuditLogProjector(dir.resolve("audit.log")))));
+        } catch (IOException e) {
+            shutdown(stores);
+            throw new UncheckedIOException("Could not open event journal in " + dir.toAbsolutePath(), e);
+        }
+    }
+
+    private static Path dataDir() {
+        return Path.of(System.getProperty(DATA_DIR_PROPERTY, "data"));
+    }
+
+    private static Stores createBackend() {
+        String backend = System.getProperty(BACKEND_PROPERTY, "dynamodb").trim().toLowerCase(Locale.ROOT);
+        switch (backend) {
+            case "embedded":
+                Path dir = dataDir();
+                try {
+                    return EmbeddedDatabase.open(dir).stores();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Could not open embedded store in " + dir.toAbsolutePath(), e);
+                }
+            case "dynamodb":
+                return Stores.dynamoDb(DynamoDbConfig.createClient());
+            default:
+                throw new IllegalArgumentException("Unknown " + BACKEND_PROPERTY + ": " + backend
+                        + " (expected dynamodb or embedded)");
+        }
+    }
+
+    /**
+     * Drains the event outbox, closes the backend and, for DynamoDB, the client created by {@link #createStores()}.
+     */
+    public static void shutdown(Stores stores) {
+        try {
+            stores.close();
+        } catch (Exception e) {
+            System.err.println("Error closing storage: " + e.getMessage());
+        }
+        if (stores.dynamoDbClient != null) stores.dynamoDbClient.close();
+    }
+}
@@ -0,0 +1,286 @@
+package org.example.registration.dao;
+
+import org.example.registration.codec.CourseCodec;
+import org.example.registration.model.Course;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.example.registration.codec.Attributes.ONE;
+import static org.example.registration.codec.Attributes.ZERO;
+import static org.example.registration.codec.Attributes.intOf;
+import static org.example.registration.codec.Attributes.n;
+import static org.example.registration.codec.Attributes.s;
+
+/**
+ * Non-blocking counterpart of {@link CourseDao}. Like the blocking DAO, errors are logged and
+ * mapped to null/false/empty results instead of failing the future, reads of a sharded course
+ * report the summed shard totals and seat updates go to the shards.
+ */
+public class AsyncCourseDao {
+    private final DynamoDbAsyncClient client;
+    private final String tableName = "Course";
+    private final int scanSegments;
+    private static final int BATCH_GET_LIMIT = 100;
+    private static final int MAX_BATCH_ATTEMPTS = 8;
+
+    public AsyncCourseDao(DynamoDbAsyncClient client) {
+        this(client, ParallelScanner.configuredParallelism());
+    }
+
+    public AsyncCourseDao(DynamoDbAsyncClient client, int scanSegments) {
+        this.client = client;
+        this.scanSegments = Math.max(1, scanSegments);
+    }
+
+    public CompletableFuture<Course> getCourse(String courseId) {
+        GetItemRequest req = GetItemRequest.builder()
+                .tableName(tableName)
+                .key(CourseCodec.key(courseId))
+                .build();
+        return client.getItem(req)
+                .thenCompose(res -> {
+                    Course c = res.hasItem() ? Course.fromItem(res.item()) : null;
+                    if (c == null || c.shardCount <= 0) return CompletableFuture.completedFuture(c);
+                    return shardTotals(c.courseId).thenApply(totals -> {
+                        applyTotals(c, totals);
+                        return c;
+                    });
+                })
+                .exceptionally(t -> {
+                    System.err.println("Error getCourse: " + AsyncSupport.unwrap(t).getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Segmented scan: all segments are in flight at once and each follows pagination to the end.
+     */
+    public CompletableFuture<List<Course>> listAllCourses() {
+        Queue<Course> courses = new ConcurrentLinkedQueue<>();
+        CompletableFuture<?>[] segments = new CompletableFuture<?>[scanSegments];
+        for (int seg = 0; seg < scanSegments; seg++) {
+            ScanRequest req = ScanRequest.builder()
+                    .tableName(tableName)
+                    .segment(seg)
+                    .totalSegments(scanSegments)
+                    .build();
+            segments[seg] = client.scanPaginator(req).items().subscribe(item -> {
+                Course c = Course.fromItem(item);
+                if (c != null) courses.add(c);
+            });
+        }
+        return CompletableFuture.allOf(segments)
+                .thenCompose(v -> {
+                    List<Course> list = new ArrayList<>(courses);
+                    if (list.stream().noneMatch(c -> c.shardCount > 0)) return CompletableFuture.completedFuture(list);
+                    // one scan of the shard table instead of a Query per sharded course
+                    Map<String, int[]> totals = new HashMap<>();
+                    return client.scanPaginator(ScanRequest.builder().tableName(CourseDao.SHARD_TABLE).build())
+                            .items()
+                            .subscribe(shard -> addShard(totals, shard))
+                            .thenApply(done -> {
+                                for (Course c : list) {
+                                    if (c.shardCount > 0 && totals.containsKey(c.courseId)) applyTotals(c, totals.get(c.courseId));
+                                }
+                                return list;
+                            });
+                })
+                .exceptionally(t -> {
+                    System.err.println("Error listing courses: " + AsyncSupport.unwrap(t).getMessage());
+                    return Collections.emptyList();
+                });
+    }
+
+    /**
+     * Titles for a set of course ids via BatchGetItem; chunks run concurrently and
+     * UnprocessedKeys are retried with backoff.
+     */
+    public CompletableFuture<Map<String, String>> getCourseTitles(Collection<String> courseIds) {
+        if (courseIds == null || courseIds.isEmpty()) return CompletableFuture.completedFuture(new HashMap<>());
+
+        List<String> ids = new ArrayList<>(new LinkedHashSet<>(courseIds));
+        Map<String, String> titles = Collections.synchronizedMap(new HashMap<>());
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += BATCH_GET_LIMIT) {
+            List<Map<String, AttributeValue>> keys = new ArrayList<>();
+            for (String id : ids.subList(from, Math.min(from + BATCH_GET_LIMIT, ids.size()))) {
+                keys.add(CourseCodec.key(id));
+            }
+            Map<String, KeysAndAttributes> request = Map.of(tableName, KeysAndAttributes.builder()
+                    .keys(keys)
+                    .projectionExpression("#id, #t, #n")
+                    .expressionAttributeNames(Map.of("#id", "courseId", "#t", "title", "#n", "courseName"))
+                    .build());
+            chunks.add(batchGetTitles(request, titles, 0));
+        }
+        return CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0]))
+                .thenApply(v -> (Map<String, String>) new HashMap<>(titles))
+                .exceptionally(t -> {
+                    System.err.println("Error batch-fetching course titles: " + AsyncSupport.unwrap(t).getMessage());
+                    return new HashMap<>(titles);
+                });
+    }
+
+    private CompletableFuture<Void> batchGetTitles(Map<String, KeysAndAttributes> pending,
+                                                   Map<String, String> titles, int attempt) {
+        if (pending.isEmpty()) return CompletableFuture.completedFuture(null);
+        if (attempt >= MAX_BATCH_ATTEMPTS) {
+            System.err.println("Warning: giving up on unprocessed course keys after " + attempt + " attempts");
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> delay = attempt == 0 ? CompletableFuture.completedFuture(null) : AsyncSupport.backoff(attempt);
+        return delay
+                .thenCompose(v -> client.batchGetItem(BatchGetItemRequest.builder().requestItems(pending).build()))
+                .thenCompose(res -> {
+                    for (var item : res.responses().getOrDefault(tableName, List.of())) {
+                        var id = item.get("courseId");
+                        var title = item.get("title");
+                        if (title == null || title.s() == null) title = item.get("courseName");
+                        if (id != null && title != null && title.s() != null) titles.put(id.s(), title.s());
+                    }
+                    Map<String, KeysAndAttributes> next = res.hasUnprocessedKeys() ? res.unprocessedKeys() : Map.of();
+                    return batchGetTitles(next, titles, attempt + 1);
+                });
+    }
+
+    /**
+     * Takes a seat on the Course item, or on the shards (random one first) if the course is sharded.
+     * The Course item refuses the update once sharded and returns itself, so no read comes first.
+     */
+    public CompletableFuture<Boolean> reserveSeatIfAvailable(String courseId) {
+        return updateSeat(courseId, true);
+    }
+
+    public CompletableFuture<Boolean> releaseSeat(String courseId) {
+        return updateSeat(courseId, false);
+    }
+
+    private CompletableFuture<Boolean> updateSeat(String courseId, boolean reserve) {
+        String errorPrefix = reserve ? "Error reserving seat: " : "Error releasing seat: ";
+        return client.updateItem(seatRequest(courseId, -1, reserve))
+                .thenApply(res -> true)
+                .exceptionallyCompose(t -> {
+                    Throwable cause = AsyncSupport.unwrap(t);
+                    if (!(cause instanceof ConditionalCheckFailedException ccfe)) {
+                        System.err.println(errorPrefix + cause.getMessage());
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    int shards = CourseDao.shardsOf(ccfe.item());
+                    if (shards <= 0) return CompletableFuture.completedFuture(false);
+                    return updateShardSeat(courseId, CourseDao.probeOrder(shards), 0, reserve, errorPrefix);
+                });
+    }
+
+    // tries the shards in order until one has a seat to give (or take back)
+    private CompletableFuture<Boolean> updateShardSeat(String courseId, int[] order, int i, boolean reserve,
+                                                       String errorPrefix) {
+        if (i >= order.length) return CompletableFuture.completedFuture(false);
+        return conditionalUpdate(seatRequest(courseId, order[i], reserve), errorPrefix)
+                .thenCompose(ok -> ok
+                        ? CompletableFuture.completedFuture(true)
+                        : updateShardSeat(courseId, order, i + 1, reserve, errorPrefix));
+    }
+
+    // shard < 0 targets the Course item
+    private UpdateItemRequest seatRequest(String courseId, int shard, boolean reserve) {
+        return UpdateItemRequest.builder()
+                .tableName(shard < 0 ? tableName : CourseDao.SHARD_TABLE)
+                .key(shard < 0 ? CourseCodec.key(courseId) : CourseCodec.shardKey(courseId, shard))
+                .updateExpression(reserve ? CourseCodec.RESERVE_UPDATE : CourseCodec.RELEASE_UPDATE)
+                .conditionExpression(CourseDao.seatCondition(shard, reserve))
+                .expressionAttributeValues(CourseCodec.SEAT_VALUES)
+                .returnValuesOnConditionCheckFailure(shard < 0
+                        ? ReturnValuesOnConditionCheckFailure.ALL_OLD
+                        : ReturnValuesOnConditionCheckFailure.NONE)
+                .build();
+    }
+
+    /**
+     * Raises maxSeats on an unsharded course. Sharded courses are refused (false): their capacity
+     * lives on the shards, see {@link CourseDao#incrementMaxSeats}.
+     */
+    public CompletableFuture<Boolean> incrementMaxSeats(String courseId, int by) {
+        if (by <= 0) return CompletableFuture.completedFuture(false);
+        UpdateItemRequest req = UpdateItemRequest.builder()
+                .tableName(tableName)
+                .key(CourseCodec.key(courseId))
+                .updateExpression("SET maxSeats = if_not_exists(maxSeats, :zero) + :inc, "
+                        + "version = if_not_exists(version, :zero) + :one")
+                .conditionExpression("attribute_not_exists(shardCount)")
+                .expressionAttributeValues(Map.of(":inc", n(by), ":zero", ZERO, ":one", ONE))
+                .build();
+        return conditionalUpdate(req, "Error incrementing maxSeats: ");
+    }
+
+    public CompletableFuture<Boolean> putCourse(Course course) {
+        if (course == null || course.courseId == null || course.courseId.trim().isEmpty()) {
+            System.err.println("putCourse: invalid course object");
+            return CompletableFuture.completedFuture(false);
+        }
+        PutItemRequest req = PutItemRequest.builder()
+                .tableName(tableName)
+                .conditionExpression("attribute_not_exists(courseId)")
+                .item(course.toItem())
+                .build();
+        return client.putItem(req)
+                .thenApply(res -> true)
+                .exceptionally(t -> {
+                    Throwable cause = AsyncSupport.unwrap(t);
+                    if (!(cause instanceof ConditionalCheckFailedException)) {
+                        System.err.println("Error putCourse: " + cause.getMessage());
+                    }
+                    return false;
+                });
+    }
+
+    public CompletableFuture<Boolean> deleteCourse(String courseId) {
+        return client.deleteItem(DeleteItemRequest.builder().tableName(tableName).key(CourseCodec.key(courseId)).build())
+                .thenApply(res -> true)
+                .exceptionally(t -> {
+                    System.err.println("Error deleting course: " + AsyncSupport.unwrap(t).getMessage());
+                    return false;
+                });
+    }
+
+    // {maxSeats, currentEnrolled} summed over the course's shards
+    private CompletableFuture<int[]> shardTotals(String courseId) {
+        Map<String, int[]> totals = new HashMap<>();
+        QueryRequest req = QueryRequest.builder()
+                .tableName(CourseDao.SHARD_TABLE)
+                .keyConditionExpression("courseId = :cid")
+                .expressionAttributeValues(Map.of(":cid", s(courseId)))
+                .build();
+        return client.queryPaginator(req).items()
+                .subscribe(shard -> addShard(totals, shard))
+                .thenApply(v -> totals.getOrDefault(courseId, new int[2]));
+    }
+
+    private static void addShard(Map<String, int[]> totals, Map<String, AttributeValue> shard) {
+        var id = shard.get("courseId");
+        if (id == null || id.s() == null) return;
+        int[] t = totals.computeIfAbsent(id.s(), k -> new int[2]);
+        t[0] += intOf(shard, "maxSeats");
+        t[1] += intOf(shard, "currentEnrolled");
+    }
+
+    private static void applyTotals(Course c, int[] totals) {
+        c.maxSeats = totals[0];
+        c.currentEnrolled = totals[1];
+    }
+
+    private CompletableFuture<Boolean> conditionalUpdate(UpdateItemRequest req, String errorPrefix) {
+        return client.updateItem(req)
+                .thenApply(res -> true)
+                .exceptionally(t -> {
+                    Throwable cause = AsyncSupport.unwrap(t);
+                    if (!(cause instanceof ConditionalCheckFailedException)) {
+                        System.err.println(errorPrefix + cause.getMessage());
+                    }
+                    return false;
+                });
+    }
+}
@@ -0,0 +1,85 @@
+package org.example.registration.dao;
+
+import org.example.registration.codec.DropCodec;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static org.example.registration.codec.Attributes.s;
+
+/**
+ * Non-blocking counterpart of {@link DropDao}; same ledger layout (studentCourse / droppedAt).
+ */
+public class AsyncDropDao {
+    private final DynamoDbAsyncClient client;
+    private final String tableName = "DropHistory";
+    private static final int MAX_PUT_ATTEMPTS = 3;
+
+    public AsyncDropDao(DynamoDbAsyncClient client) {
+        this.client = client;
+    }
+
+    public CompletableFuture<Boolean> recordDrop(String studentId, String courseId, String actor, String reason) {
+        String sid = studentId == null || studentId.isBlank() ? "UNKNOWN_STUDENT" : studentId;
+        String cid = courseId == null || courseId.isBlank() ? "UNKNOWN_COURSE" : courseId;
+        return putLedgerItem(sid, cid, actor == null ? "UNKNOWN" : actor, reason == null ? "" : reason,
+                System.currentTimeMillis(), 0);
+    }
+
+    private CompletableFuture<Boolean> putLedgerItem(String studentId, String courseId, String actor, String reason,
+                                                     long droppedAt, int attempt) {
+        if (attempt >= MAX_PUT_ATTEMPTS) {
+            System.err.println("Error recording drop: could not allocate a unique droppedAt for "
+                    + studentId + " / " + courseId);
+            return CompletableFuture.completedFuture(false);
+        }
+        Map<String, AttributeValue> item = DropCodec.item(studentId, courseId, actor, reason, droppedAt);
+
+        return client.putItem(PutItemRequest.builder()
+                        .tableName(tableName)
+                        .item(item)
+                        .conditionExpression("attribute_not_exists(droppedAt)")
+                        .build())
+                .thenApply(res -> CompletableFuture.completedFuture(true))
+                .exceptionally(t -> {
+                    Throwable cause = AsyncSupport.unwrap(t);
+                    if (cause instanceof ConditionalCheckFailedException) {
+                        return putLedgerItem(studentId, courseId, actor, reason, droppedAt + 1, attempt + 1);
+                    }
+                    System.err.println("Error recording drop (PutItem): " + cause.getMessage());
+                    return CompletableFuture.completedFuture(false);
+                })
+                .thenCompose(f -> f);
+    }
+
+    /**
+     * Same filter as {@link DropDao#hasDroppedBefore}: only a student's own drop of an enrollment counts.
+     */
+    public CompletableFuture<Boolean> hasDroppedBefore(String studentId, String courseId) {
+        Map<String, AttributeValue> values = new HashMap<>(DropCodec.studentDropValues());
+        values.put(":pk", s(DropDao.ledgerKey(studentId, courseId)));
+        return hasDroppedBefore(values, null)
+                .exceptionally(t -> {
+                    System.err.println("Error checking previous drop: " + AsyncSupport.unwrap(t).getMessage());
+                    return false;
+                });
+    }
+
+    private CompletableFuture<Boolean> hasDroppedBefore(Map<String, AttributeValue> values,
+                                                        Map<String, AttributeValue> startKey) {
+        QueryRequest.Builder req = QueryRequest.builder()
+                .tableName(tableName)
+                .keyConditionExpression("studentCourse = :pk")
+                .filterExpression(DropCodec.STUDENT_DROP_FILTER)
+                .expressionAttributeValues(values)
+                .consistentRead(true);
+        if (startKey != null) req.exclusiveStartKey(startKey);
+        return client.query(req.build()).thenCompose(res -> {
+            if (res.count() > 0) return CompletableFuture.completedFuture(true);
+            if (!res.hasLastEvaluatedKey() || res.lastEvaluatedKey().isEmpty()) return CompletableFuture.completedFuture(false);
+            return hasDroppedBefore(values, res.lastEvaluatedKey());
+        });
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.registration.dao;
+
+import org.example.registration.codec.StudentCodec;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link EmailIndexDao}.
+ */
+public class AsyncEmailIndexDao {
+    private final DynamoDbAsyncClient client;
+    private final String table = "EmailIndex";
+
+    public AsyncEmailIndexDao(DynamoDbAsyncClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Completes exceptionally with ConditionalCheckFailedException when the email is taken.
+     */
+    public CompletableFuture<Void> putEmail(String email, String studentId) {
+        if (email == null) return CompletableFuture.failedFuture(new IllegalArgumentException("email is null"));
+
+        Map<String, AttributeValue> item = StudentCodec.emailIndexItem(email, studentId);
+
+        return client.putItem(PutItemRequest.builder()
+                        .tableName(table)
+                        .item(item)
+                        .conditionExpression("attribute_not_exists(email)")
+                        .build())
+                .thenApply(res -> null);
+    }
+
+    public CompletableFuture<Boolean> emailExists(String email) {
+        if (email == null) return CompletableFuture.completedFuture(false);
+
+        Map<String, AttributeValue> key = StudentCodec.emailKey(email);
+
+        return client.getItem(GetItemRequest.builder().tableName(table).key(key).build())
+                .thenApply(res -> res.hasItem() && !res.item().isEmpty())
+                .exceptionally(t -> {
+                    Throwable cause = AsyncSupport.unwrap(t);
+                    if (cause instanceof ResourceNotFoundException) {
+                        System.err.println("Table '" + table + "' not found. Please create it. (" + cause.getMessage() + ")");
+                        return false;
+                    }
+                    throw new java.util.concurrent.CompletionException(cause);
+                });
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.registration.dao;
+
+import org.example.registration.codec.EnrollmentCodec;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static org.example.registration.codec.Attributes.s;
+
+/**
+ * Non-blocking counterpart of {@link EnrollmentDao}.
+ */
+public class AsyncEnrollmentDao {
+    private final DynamoDbAsyncClient client;
+    private final String tableName = "Enrollment";
+
+    public AsyncEnrollmentDao(DynamoDbAsyncClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Unlike the blocking putEnrollment, failures are not swallowed: the future completes exceptionally.
+     */
+    public CompletableFuture<Void> putEnrollment(String studentId, String courseId, String status) {
+        Map<String, AttributeValue> item = EnrollmentCodec.item(studentId, courseId, status);
+
+        return client.putItem(PutItemRequest.builder().tableName(tableName).item(item).build())
+                .thenApply(res -> null);
+    }
+
+    public CompletableFuture<Boolean> deleteEnrollment(String studentId, String courseId) {
+        DeleteItemRequest req = DeleteItemRequest.builder()
+                .tableName(tableName)
+                .key(key(studentId, courseId))
+                .conditionExpression("attribute_exists(studentId) AND attribute_exists(courseId)")
+                .build();
+        return client.deleteItem(req)
+                .thenApply(res -> true)
+                .exceptionally(t -> {
+                    Throwable cause = AsyncSupport.unwrap(t);
+                    if (!(cause instanceof ConditionalCheckFailedException)) {
+                        System.err.println("Error deleting enrollment: " + cause.getMessage());
+                    }
+                    return false;
+                });
+    }
+
+    public CompletableFuture<Boolean> isEnrolled(String studentId, String courseId) {
+        GetItemRequest req = GetItemRequest.builder()
+                .tableName(tableName)
+                .key(key(studentId, courseId))
+                .consistentRead(true) // ensure we see most recent writes
+                .build();
+        return client.getItem(req)
+                .thenApply(res -> res.hasItem() && !res.item().isEmpty())
+                .exceptionally(t -> {
+                    System.err.println("Error checking enrollment: " + AsyncSupport.unwrap(t).getMessage());
+                    return false;
+                });
+    }
+
+    public CompletableFuture<List<Map<String, AttributeValue>>> listEnrollmentsByStudent(String studentId) {
+        QueryRequest req = QueryRequest.builder()
+                .tableName(tableName)
+                .keyConditionExpression("studentId = :sid")
+                .expressionAttributeValues(Map.of(":sid", s(studentId)))
+                .build();
+        List<Map<String, AttributeValue>> out = Collections.synchronizedList(new ArrayList<>());
+        return client.queryPaginator(req).items().subscribe(out::add)
+                .thenApply(v -> (List<Map<String, AttributeValue>>) new ArrayList<>(out))
+                .exceptionally(t -> {
+                    System.err.println("Error querying enrollments: " + AsyncSupport.unwrap(t).getMessage());
+                    return Collections.emptyList();
+                });
+    }
+
+    private static Map<String, AttributeValue> key(String studentId, String courseId) {
+        Map<String, AttributeValue> key = EnrollmentCodec.key(studentId, courseId);
+        return key;
+    }
+}
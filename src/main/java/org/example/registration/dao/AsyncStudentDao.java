@@ -0,0 +1,66 @@
+package org.example.registration.dao;
+
+import org.example.registration.codec.StudentCodec;
+import org.example.registration.model.Student;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.example.registration.codec.Attributes.s;
+
+/**
+ * Non-blocking counterpart of {@link StudentDao}. Failures surface through the returned future.
+ */
+public class AsyncStudentDao {
+    private final DynamoDbAsyncClient client;
+    private final String table = "Student";
+
+    public AsyncStudentDao(DynamoDbAsyncClient client) { this.client = client; }
+
+    public CompletableFuture<Void> updatePassword(String studentId, String hashedPassword) {
+        UpdateItemRequest req = UpdateItemRequest.builder()
+                .tableName(table)
+                .key(key(studentId))
+                .updateExpression("SET #pwd = :p")
+                .expressionAttributeNames(Map.of("#pwd", "passwordHash"))
+                .expressionAttributeValues(Map.of(":p", s(hashedPassword)))
+                .conditionExpression("attribute_exists(studentId)") // ensure the student exists
+                .build();
+        return client.updateItem(req).thenApply(res -> null);
+    }
+
+    public CompletableFuture<Void> putStudent(Student s) {
+        PutItemRequest req = PutItemRequest.builder()
+                .tableName(table)
+                .item(s.toItem())
+                .conditionExpression("attribute_not_exists(studentId)")
+                .build();
+        return client.putItem(req).thenApply(res -> null);
+    }
+
+    public CompletableFuture<Student> getStudent(String studentId) {
+        return client.getItem(GetItemRequest.builder().tableName(table).key(key(studentId)).build())
+                .thenApply(res -> res.hasItem() ? Student.fromItem(res.item()) : null);
+    }
+
+    public CompletableFuture<Boolean> exists(String studentId) {
+        return client.getItem(GetItemRequest.builder()
+                        .tableName(table)
+                        .key(key(studentId))
+                        .projectionExpression("studentId")
+                        .build())
+                .thenApply(res -> res.hasItem() && !res.item().isEmpty());
+    }
+
+    public CompletableFuture<Void> deleteStudentById(String studentId) {
+        return client.deleteItem(DeleteItemRequest.builder().tableName(table).key(key(studentId)).build())
+                .thenApply(res -> null);
+    }
+
+    private static Map<String, AttributeValue> key(String studentId) {
+        Map<String, AttributeValue> key = StudentCodec.key(studentId);
+        return key;
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.registration.dao;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small helpers shared by the async DAOs.
+ */
+final class AsyncSupport {
+    private AsyncSupport() {
+    }
+
+    /**
+     * Strips the CompletionException/ExecutionException wrappers CompletableFuture adds.
+     */
+    static Throwable unwrap(Throwable t) {
+        while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    /**
+     * Completes after a jittered exponential backoff without holding a thread while waiting.
+     */
+    static CompletableFuture<Void> backoff(int attempt) {
+        long capped = Math.min(1000L, 25L << Math.min(attempt, 6));
+        long delay = ThreadLocalRandom.current().nextLong(capped / 2, capped + 1);
+        return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS));
+    }
+}
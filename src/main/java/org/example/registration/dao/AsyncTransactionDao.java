@@ -0,0 +1,134 @@
+package org.example.registration.dao;
+
+import org.example.registration.dao.TransactionStore.DropOutcome;
+import org.example.registration.dao.TransactionStore.EnrollResult;
+import org.example.registration.dao.TransactionStore.SignupResult;
+import org.example.registration.model.Student;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItemsRequest;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non-blocking counterpart of {@link TransactionDao}: the same transactions and retry rules
+ * ({@link RegistrationTransactions}), with backoff that does not park a thread. Like the blocking
+ * DAO, unexpected errors are logged and reported as ERROR rather than failing the future.
+ */
+public class AsyncTransactionDao {
+    private final DynamoDbAsyncClient client;
+
+    public AsyncTransactionDao(DynamoDbAsyncClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Creates the Student row and its EmailIndex row together; neither is written if either key is taken.
+     */
+    public CompletableFuture<SignupResult> signup(Student student) {
+        return signup(RegistrationTransactions.signupRequest(student), 0);
+    }
+
+    private CompletableFuture<SignupResult> signup(TransactWriteItemsRequest req, int attempt) {
+        return client.transactWriteItems(req)
+                .thenApply(res -> SignupResult.CREATED)
+                .exceptionallyCompose(t -> {
+                    Throwable cause = AsyncSupport.unwrap(t);
+                    if (!(cause instanceof TransactionCanceledException tce)) {
+                        System.err.println("Error in signup transaction: " + cause.getMessage());
+                        return CompletableFuture.completedFuture(SignupResult.ERROR);
+                    }
+                    SignupResult result = RegistrationTransactions.signupCancelled(TransactionDao.reasonCodes(tce), attempt);
+                    if (result != null) return CompletableFuture.completedFuture(result);
+                    return AsyncSupport.backoff(attempt).thenCompose(v -> signup(req, attempt + 1));
+                });
+    }
+
+    /**
+     * Reserves a seat (from the shards when shardCount &gt; 0), writes the enrollment and checks the
+     * student is not waitlisted, atomically.
+     */
+    public CompletableFuture<EnrollResult> enroll(String studentId, String courseId, int shardCount) {
+        return enroll(new RegistrationTransactions.Enroll(studentId, courseId, shardCount));
+    }
+
+    private CompletableFuture<EnrollResult> enroll(RegistrationTransactions.Enroll enroll) {
+        return client.transactWriteItems(enroll.request())
+                .thenApply(res -> EnrollResult.ENROLLED)
+                .exceptionallyCompose(t -> {
+                    Throwable cause = AsyncSupport.unwrap(t);
+                    if (!(cause instanceof TransactionCanceledException tce)) {
+                        System.err.println("Error in enroll transaction: " + cause.getMessage());
+                        return CompletableFuture.completedFuture(EnrollResult.ERROR);
+                    }
+                    switch (enroll.cancelled(tce)) {
+                        case DONE:
+                            return CompletableFuture.completedFuture(enroll.result);
+                        case BACKOFF:
+                            return AsyncSupport.backoff(enroll.conflicts++).thenCompose(v -> enroll(enroll));
+                        default:
+                            return enroll(enroll);
+                    }
+                });
+    }
+
+    /**
+     * Drops an enrollment and hands the seat to the head of the waitlist in the same transaction,
+     * or releases it if nobody is waiting. See {@link TransactionDao#dropAndPromote}.
+     */
+    public CompletableFuture<DropOutcome> dropAndPromote(String studentId, String courseId, String reason,
+                                                         int shardCount) {
+        return drop(new RegistrationTransactions.Drop(studentId, courseId, reason, shardCount));
+    }
+
+    private CompletableFuture<DropOutcome> drop(RegistrationTransactions.Drop drop) {
+        if (drop.exhausted()) return CompletableFuture.completedFuture(drop.outcome);
+        if (!drop.needsHeads()) return attempt(drop);
+        return client.query(drop.headQuery())
+                .handle((res, t) -> {
+                    if (t != null) {
+                        System.err.println("Error reading waitlist head: " + AsyncSupport.unwrap(t).getMessage());
+                        return CompletableFuture.completedFuture(error());
+                    }
+                    drop.heads(res.items());
+                    return attempt(drop);
+                })
+                .thenCompose(f -> f);
+    }
+
+    private CompletableFuture<DropOutcome> attempt(RegistrationTransactions.Drop drop) {
+        return client.transactWriteItems(drop.request())
+                .thenApply(res -> drop.succeeded())
+                .exceptionallyCompose(t -> {
+                    Throwable cause = AsyncSupport.unwrap(t);
+                    if (!(cause instanceof TransactionCanceledException tce)) {
+                        System.err.println("Error in drop transaction: " + cause.getMessage());
+                        return CompletableFuture.completedFuture(error());
+                    }
+                    switch (drop.cancelled(tce)) {
+                        case DONE:
+                            return CompletableFuture.completedFuture(drop.outcome);
+                        case DISCARD_HEAD:
+                            return discardWaitlistEntry(drop).thenCompose(v -> drop(drop));
+                        case BACKOFF:
+                            return AsyncSupport.backoff(drop.conflicts++).thenCompose(v -> drop(drop));
+                        default:
+                            return drop(drop);
+                    }
+                });
+    }
+
+    private CompletableFuture<Void> discardWaitlistEntry(RegistrationTransactions.Drop drop) {
+        return client.transactWriteItems(drop.discardRequest())
+                .<Void>thenApply(res -> null)
+                .exceptionally(t -> {
+                    System.err.println("Warning: failed to discard stale waitlist entry for " + drop.staleStudentId()
+                            + ": " + AsyncSupport.unwrap(t).getMessage());
+                    return null;
+                });
+    }
+
+    private static DropOutcome error() {
+        return new DropOutcome(DropOutcome.Status.ERROR, null);
+    }
+}
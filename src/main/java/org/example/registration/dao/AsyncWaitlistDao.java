@@ -0,0 +1,209 @@
+package org.example.registration.dao;
+
+import org.example.registration.codec.WaitlistCodec;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+import static org.example.registration.codec.Attributes.s;
+
+/**
+ * Non-blocking counterpart of {@link WaitlistDao}; same Waitlist / WaitlistByStudent layout.
+ */
+public class AsyncWaitlistDao {
+    private final DynamoDbAsyncClient client;
+    private final String tableName = "Waitlist";
+    private final String indexTableName = "WaitlistByStudent";
+    private static final int MAX_APPEND_ATTEMPTS = 5;
+    private static final int MAX_CLAIM_ROUNDS = 8;
+
+    public AsyncWaitlistDao(DynamoDbAsyncClient client) {
+        this.client = client;
+    }
+
+    public CompletableFuture<Boolean> addToWaitlist(String courseId, String studentId, Map<String, String> extra) {
+        return append(s(courseId), s(studentId), extra, 0);
+    }
+
+    /**
+     * Same retry rules as {@link WaitlistDao#addToWaitlist}: a taken createdAt or a transaction
+     * conflict retries with a fresh key, a failed index condition means already waitlisted.
+     */
+    private CompletableFuture<Boolean> append(AttributeValue cid, AttributeValue sid, Map<String, String> extra, int attempt) {
+        if (attempt >= MAX_APPEND_ATTEMPTS) {
+            System.err.println("Error adding to waitlist: could not allocate a unique createdAt for "
+                    + sid.s() + " / " + cid.s());
+            return CompletableFuture.completedFuture(false);
+        }
+        AttributeValue ts = s(WaitlistCodec.nextCreatedAt());
+        return client.transactWriteItems(TransactWriteItemsRequest.builder()
+                        .transactItems(
+                                TransactWriteItem.builder().put(Put.builder()
+                                        .tableName(tableName)
+                                        .item(WaitlistCodec.entry(cid, ts, sid, extra))
+                                        .conditionExpression("attribute_not_exists(createdAt)")
+                                        .build()).build(),
+                                TransactWriteItem.builder().put(Put.builder()
+                                        .tableName(indexTableName)
+                                        .item(WaitlistCodec.indexItem(sid, cid, ts))
+                                        .conditionExpression("attribute_not_exists(studentId)")
+                                        .build()).build())
+                        .build())
+                .thenApply(res -> true)
+                .exceptionallyCompose(t -> {
+                    Throwable cause = AsyncSupport.unwrap(t);
+                    if (!(cause instanceof TransactionCanceledException tce)) {
+                        System.err.println("Error adding to waitlist: " + cause.getMessage());
+                        return CompletableFuture.completedFuture(false);
+                    }
+                    List<String> codes = TransactionDao.reasonCodes(tce);
+                    if (TransactionDao.failed(codes, 1)) return CompletableFuture.completedFuture(false);
+                    if (codes.contains("TransactionConflict")) {
+                        return AsyncSupport.backoff(attempt).thenCompose(v -> append(cid, sid, extra, attempt + 1));
+                    }
+                    if (TransactionDao.failed(codes, 0)) return append(cid, sid, extra, attempt + 1);
+                    System.err.println("Error adding to waitlist: " + tce.getMessage());
+                    return CompletableFuture.completedFuture(false);
+                });
+    }
+
+    /**
+     * Same claim rules as {@link WaitlistDao#popFirstWaitlistedStudent}.
+     */
+    public CompletableFuture<String> popFirstWaitlistedStudent(String courseId) {
+        return popRound(s(courseId), 1, 0)
+                .exceptionally(t -> {
+                    System.err.println("Error popping waitlist student: " + AsyncSupport.unwrap(t).getMessage());
+                    return null;
+                });
+    }
+
+    private CompletableFuture<String> popRound(AttributeValue cid, int window, int round) {
+        if (round >= MAX_CLAIM_ROUNDS) {
+            System.err.println("Error popping waitlist student: gave up after repeated contention for " + cid.s());
+            return CompletableFuture.completedFuture(null);
+        }
+        QueryRequest query = QueryRequest.builder()
+                .tableName(tableName)
+                .keyConditionExpression("courseId = :cid")
+                .expressionAttributeValues(Map.of(":cid", cid))
+                .scanIndexForward(true) // oldest first
+                .limit(window)
+                .consistentRead(true)
+                .build();
+        return client.query(query)
+                .thenCompose(res -> {
+                    List<Map<String, AttributeValue>> heads = res.items();
+                    if (heads.isEmpty()) return CompletableFuture.completedFuture((String) null);
+                    return claimFrom(cid, heads, 0)
+                            .thenCompose(sid -> sid != null
+                                    ? CompletableFuture.completedFuture(sid)
+                                    : popRound(cid, WaitlistDao.CLAIM_WINDOW, round + 1));
+                });
+    }
+
+    // oldest first: the first claim that wins is the oldest unclaimed entry
+    private CompletableFuture<String> claimFrom(AttributeValue cid, List<Map<String, AttributeValue>> heads, int i) {
+        if (i == heads.size()) return CompletableFuture.completedFuture(null);
+        return claim(cid, heads.get(i).get("createdAt"))
+                .thenCompose(sid -> sid != null
+                        ? CompletableFuture.completedFuture(sid)
+                        : claimFrom(cid, heads, i + 1));
+    }
+
+    /**
+     * Conditional delete of one entry; completes with its student, or null if another pop won.
+     */
+    private CompletableFuture<String> claim(AttributeValue cid, AttributeValue createdAt) {
+        return client.deleteItem(DeleteItemRequest.builder()
+                        .tableName(tableName)
+                        .key(WaitlistCodec.entryKey(cid, createdAt))
+                        .conditionExpression("attribute_exists(createdAt)")
+                        .returnValues(ReturnValue.ALL_OLD)
+                        .build())
+                .thenCompose(res -> {
+                    AttributeValue sid = res.attributes().get("studentId");
+                    return client.deleteItem(DeleteItemRequest.builder()
+                                    .tableName(indexTableName)
+                                    .key(WaitlistCodec.indexKey(sid, cid))
+                                    // only if the index row still points at this entry
+                                    .conditionExpression("createdAt = :ts")
+                                    .expressionAttributeValues(Map.of(":ts", createdAt))
+                                    .build())
+                            .handle((r, t) -> {
+                                Throwable cause = t == null ? null : AsyncSupport.unwrap(t);
+                                if (cause != null && !(cause instanceof ConditionalCheckFailedException)) {
+                                    System.err.println("Warning: failed to remove waitlist index row for " + sid.s()
+                                            + ": " + cause.getMessage());
+                                }
+                                return sid.s();
+                            });
+                })
+                .exceptionallyCompose(t -> AsyncSupport.unwrap(t) instanceof ConditionalCheckFailedException
+                        ? CompletableFuture.completedFuture(null)
+                        : CompletableFuture.failedFuture(t));
+    }
+
+    public CompletableFuture<Boolean> removeAllWaitlistEntries(String courseId, String studentId) {
+        return getIndexRow(courseId, studentId)
+                .<Boolean>thenCompose(row -> {
+                    if (row == null || !row.containsKey("createdAt")) return CompletableFuture.completedFuture(false);
+                    return deleteEntryAndIndex(courseId, row.get("createdAt").s(), studentId).thenApply(v -> true);
+                })
+                .exceptionally(t -> {
+                    System.err.println("Error removing waitlist entries: " + AsyncSupport.unwrap(t).getMessage());
+                    return false;
+                });
+    }
+
+    public CompletableFuture<List<Map<String, AttributeValue>>> getWaitlistsByStudent(String studentId) {
+        QueryRequest req = QueryRequest.builder()
+                .tableName(indexTableName)
+                .keyConditionExpression("studentId = :sid")
+                .expressionAttributeValues(Map.of(":sid", s(studentId)))
+                .consistentRead(true)
+                .build();
+        List<Map<String, AttributeValue>> out = Collections.synchronizedList(new ArrayList<>());
+        return client.queryPaginator(req).items().subscribe(out::add)
+                .thenApply(v -> (List<Map<String, AttributeValue>>) new ArrayList<>(out))
+                .exceptionally(t -> {
+                    System.err.println("Error getting waitlists by student: " + AsyncSupport.unwrap(t).getMessage());
+                    return Collections.emptyList();
+                });
+    }
+
+    public CompletableFuture<Boolean> isStudentOnWaitlist(String courseId, String studentId) {
+        return getIndexRow(courseId, studentId)
+                .<Boolean>thenApply(row -> row != null)
+                .exceptionally(t -> {
+                    System.err.println("Error checking waitlist: " + AsyncSupport.unwrap(t).getMessage());
+                    return false;
+                });
+    }
+
+    private CompletableFuture<Map<String, AttributeValue>> getIndexRow(String courseId, String studentId) {
+        return client.getItem(GetItemRequest.builder()
+                        .tableName(indexTableName)
+                        .key(WaitlistCodec.indexKey(studentId, courseId))
+                        .consistentRead(true)
+                        .build())
+                .thenApply(res -> res.hasItem() && !res.item().isEmpty() ? res.item() : null);
+    }
+
+    private CompletableFuture<Void> deleteEntryAndIndex(String courseId, String createdAt, String studentId) {
+        return client.transactWriteItems(TransactWriteItemsRequest.builder()
+                        .transactItems(
+                                TransactWriteItem.builder().delete(Delete.builder()
+                                        .tableName(tableName)
+                                        .key(WaitlistCodec.entryKey(courseId, createdAt))
+                                        .build()).build(),
+                                TransactWriteItem.builder().delete(Delete.builder()
+                                        .tableName(indexTableName)
+                                        .key(WaitlistCodec.indexKey(studentId, courseId))
+                                        .build()).build())
+                        .build())
+                .thenApply(res -> null);
+    }
+}
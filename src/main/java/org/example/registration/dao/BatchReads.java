@@ -0,0 +1,57 @@
+package org.example.registration.dao;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * BatchGetItem over any number of keys: 100 keys per request, UnprocessedKeys retried with
+ * exponential backoff. Keys that do not exist are simply absent from the result.
+ */
+final class BatchReads {
+    static final int BATCH_GET_LIMIT = 100;
+    private static final int MAX_BATCH_ATTEMPTS = 8;
+
+    private BatchReads() {
+    }
+
+    /**
+     * @param projection projection expression, or null for whole items
+     * @param names      expression attribute names used by the projection, or null
+     */
+    static List<Map<String, AttributeValue>> getAll(DynamoDbClient client, String table,
+                                                    List<Map<String, AttributeValue>> keys,
+                                                    String projection, Map<String, String> names)
+            throws InterruptedException {
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += BATCH_GET_LIMIT) {
+            KeysAndAttributes.Builder request = KeysAndAttributes.builder()
+                    .keys(keys.subList(from, Math.min(from + BATCH_GET_LIMIT, keys.size())));
+            if (projection != null) request.projectionExpression(projection);
+            if (names != null && !names.isEmpty()) request.expressionAttributeNames(names);
+            Map<String, KeysAndAttributes> pending = Map.of(table, request.build());
+
+            for (int attempt = 0; !pending.isEmpty(); attempt++) {
+                if (attempt >= MAX_BATCH_ATTEMPTS) {
+                    System.err.println("Warning: giving up on unprocessed " + table + " keys after " + attempt + " attempts");
+                    break;
+                }
+                if (attempt > 0) backoff(attempt);
+
+                BatchGetItemResponse res = client.batchGetItem(BatchGetItemRequest.builder()
+                        .requestItems(pending)
+                        .build());
+                items.addAll(res.responses().getOrDefault(table, List.of()));
+                pending = res.hasUnprocessedKeys() ? res.unprocessedKeys() : Map.of();
+            }
+        }
+        return items;
+    }
+
+    static void backoff(int attempt) throws InterruptedException {
+        long capped = Math.min(1000L, 25L << Math.min(attempt, 6));
+        Thread.sleep(ThreadLocalRandom.current().nextLong(capped / 2, capped + 1));
+    }
+}
@@ -0,0 +1,222 @@
+package org.example.registration.dao;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams writes into DynamoDB through BatchWriteItem. Writes are buffered into 25-item batches
+ * and sent by a bounded pool of worker threads; UnprocessedItems are resent with exponential
+ * backoff and jitter. The producer blocks once every worker has a batch in flight and one more is
+ * queued, so memory stays flat however large the input.
+ *
+ * BatchWriteItem has no conditions and rejects two writes to the same key in one request, so
+ * callers de-duplicate keys first. Degree of parallelism defaults to twice the number of cores
+ * and can be overridden with the system property "registration.batch.parallelism".
+ *
+ * <pre>
+ * try (BatchWriter writer = new BatchWriter(client)) {
+ *     for (...) writer.put("Enrollment", item);
+ * }   // close() flushes and waits
+ * </pre>
+ */
+public class BatchWriter implements AutoCloseable {
+    public static final String PARALLELISM_PROPERTY = "registration.batch.parallelism";
+    static final int BATCH_LIMIT = 25;
+    private static final int MAX_BATCH_ATTEMPTS = 8;
+
+    private static final AtomicInteger POOL_IDS = new AtomicInteger();
+
+    private final DynamoDbClient client;
+    private final int parallelism;
+    private final ThreadPoolExecutor pool;
+    private final Semaphore slots;
+
+    private final Map<String, List<WriteRequest>> buffers = new HashMap<>();
+    private final List<Future<?>> inFlight = new ArrayList<>();
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final Queue<FailedWrite> failures = new ConcurrentLinkedQueue<>();
+
+    /**
+     * A write that was still unprocessed (or errored) after every retry.
+     */
+    public static class FailedWrite {
+        public final String table;
+        public final WriteRequest request;
+
+        FailedWrite(String table, WriteRequest request) {
+            this.table = table;
+            this.request = request;
+        }
+
+        /** The item of a failed put, or null for a failed delete. */
+        public Map<String, AttributeValue> item() {
+            return request.putRequest() == null ? null : request.putRequest().item();
+        }
+    }
+
+    public BatchWriter(DynamoDbClient client) {
+        this(client, configuredParallelism());
+    }
+
+    public BatchWriter(DynamoDbClient client, int parallelism) {
+        if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be positive");
+        this.client = client;
+        this.parallelism = parallelism;
+        this.slots = new Semaphore(parallelism + 1);
+
+        int poolId = POOL_IDS.incrementAndGet();
+        AtomicInteger threadIds = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(parallelism, parallelism, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "batch-" + poolId + "-worker-" + threadIds.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    public static int configuredParallelism() {
+        int def = Runtime.getRuntime().availableProcessors() * 2;
+        try {
+            int configured = Integer.parseInt(System.getProperty(PARALLELISM_PROPERTY, String.valueOf(def)));
+            return configured > 0 ? configured : def;
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+
+    public void put(String table, Map<String, AttributeValue> item) {
+        add(table, WriteRequest.builder().putRequest(PutRequest.builder().item(item).build()).build());
+    }
+
+    public void delete(String table, Map<String, AttributeValue> key) {
+        add(table, WriteRequest.builder().deleteRequest(DeleteRequest.builder().key(key).build()).build());
+    }
+
+    private synchronized void add(String table, WriteRequest request) {
+        // one buffer (and so one table) per batch keeps failure reporting simple
+        List<WriteRequest> buffer = buffers.computeIfAbsent(table, t -> new ArrayList<>(BATCH_LIMIT));
+        buffer.add(request);
+        if (buffer.size() >= BATCH_LIMIT) dispatch(table);
+    }
+
+    private void dispatch(String table) {
+        List<WriteRequest> batch = buffers.remove(table);
+        if (batch == null || batch.isEmpty()) return;
+
+        try {
+            slots.acquire(); // backpressure: wait for a free worker
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            batch.forEach(r -> failures.add(new FailedWrite(table, r)));
+            return;
+        }
+        inFlight.removeIf(Future::isDone);
+        inFlight.add(pool.submit(() -> {
+            try {
+                writeBatch(table, batch);
+            } finally {
+                slots.release();
+            }
+        }));
+    }
+
+    private void writeBatch(String table, List<WriteRequest> batch) {
+        batches.incrementAndGet();
+        List<WriteRequest> pending = batch;
+        for (int attempt = 0; !pending.isEmpty(); attempt++) {
+            if (attempt >= MAX_BATCH_ATTEMPTS) {
+                System.err.println("Warning: giving up on " + pending.size() + " unprocessed writes to " + table
+                        + " after " + attempt + " attempts");
+                break;
+            }
+            if (attempt > 0) {
+                retries.incrementAndGet();
+                if (!backoff(attempt)) break;
+            }
+            try {
+                BatchWriteItemResponse res = client.batchWriteItem(BatchWriteItemRequest.builder()
+                        .requestItems(Map.of(table, pending))
+                        .build());
+                List<WriteRequest> unprocessed = res.hasUnprocessedItems()
+                        ? res.unprocessedItems().getOrDefault(table, List.of())
+                        : List.of();
+                written.addAndGet(pending.size() - unprocessed.size());
+                pending = unprocessed;
+            } catch (ProvisionedThroughputExceededException | RequestLimitExceededException throttled) {
+                // whole batch throttled; retry it after backing off
+            } catch (Exception e) {
+                System.err.println("Error writing batch to " + table + ": " + e.getMessage());
+                break;
+            }
+        }
+        for (WriteRequest r : pending) failures.add(new FailedWrite(table, r));
+    }
+
+    private static boolean backoff(int attempt) {
+        try {
+            long capped = Math.min(2000L, 25L << Math.min(attempt, 7));
+            Thread.sleep(ThreadLocalRandom.current().nextLong(capped / 2, capped + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Sends any partial batch and waits until every write has completed or failed.
+     */
+    public void flush() {
+        List<Future<?>> waiting;
+        synchronized (this) {
+            for (String table : new ArrayList<>(buffers.keySet())) dispatch(table);
+            waiting = new ArrayList<>(inFlight);
+            inFlight.clear();
+        }
+        for (Future<?> f : waiting) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                System.err.println("Error in batch writer: " + e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+        pool.shutdown();
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public long written() {
+        return written.get();
+    }
+
+    public long batches() {
+        return batches.get();
+    }
+
+    public long retries() {
+        return retries.get();
+    }
+
+    public List<FailedWrite> failures() {
+        return new ArrayList<>(failures);
+    }
+}
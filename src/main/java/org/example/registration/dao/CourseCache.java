@@ -0,0 +1,126 @@
+package org.example.registration.dao;
+
+import org.example.registration.model.Course;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded, TTL-expiring in-process cache of Course items (LRU eviction). Callers always get a copy,
+ * so mutating a returned Course never changes the cached one.
+ *
+ * Titles and maxSeats are what the cache is for; currentEnrolled may be up to one TTL old and must
+ * not be used for seat decisions (those are conditional updates on the server).
+ */
+public class CourseCache {
+    public static final String MAX_ENTRIES_PROPERTY = "registration.courseCache.maxEntries";
+    public static final String TTL_SECONDS_PROPERTY = "registration.courseCache.ttlSeconds";
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private record Entry(Course course, long loadedAt) {
+    }
+
+    public CourseCache() {
+        this(Integer.getInteger(MAX_ENTRIES_PROPERTY, 1024),
+                TimeUnit.SECONDS.toNanos(Long.getLong(TTL_SECONDS_PROPERTY, 30L)));
+    }
+
+    public CourseCache(int maxEntries, long ttlNanos) {
+        this(maxEntries, ttlNanos, System::nanoTime);
+    }
+
+    CourseCache(int maxEntries, long ttlNanos, LongSupplier clock) {
+        if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries must be positive");
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlNanos;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > CourseCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * A copy of the cached course, or null on a miss (absent or expired).
+     */
+    public Course get(String courseId) {
+        if (courseId == null) return null;
+        synchronized (entries) {
+            Entry e = entries.get(courseId);
+            if (e != null && clock.getAsLong() - e.loadedAt < ttlNanos) {
+                hits.incrementAndGet();
+                return e.course.copy();
+            }
+            if (e != null) entries.remove(courseId);
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(Course course) {
+        if (course == null || course.courseId == null) return;
+        Entry e = new Entry(course.copy(), clock.getAsLong());
+        synchronized (entries) {
+            entries.put(course.courseId, e);
+        }
+    }
+
+    public void invalidate(String courseId) {
+        if (courseId == null) return;
+        synchronized (entries) {
+            entries.remove(courseId);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long hits() {
+        return hits.get();
+    }
+
+    public long misses() {
+        return misses.get();
+    }
+
+    public long evictions() {
+        return evictions.get();
+    }
+
+    public double hitRate() {
+        long h = hits.get(), total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CourseCache[size=%d/%d, hits=%d, misses=%d, evictions=%d, hitRate=%.1f%%]",
+                size(), maxEntries, hits(), misses(), evictions(), hitRate() * 100);
+    }
+}
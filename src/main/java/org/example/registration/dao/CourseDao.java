@@ -1,29 +1,84 @@
 package org.example.registration.dao;
 
+import org.example.registration.codec.CourseCodec;
 import org.example.registration.model.Course;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
 import java.util.*;
 
-public class CourseDao {
+import static org.example.registration.codec.Attributes.*;
+
+/**
+ * Course reads and seat counters.
+ *
+ * Hot courses can be switched to sharded capacity ({@link #enableSharding}): the seats are split
+ * across N counter items in CourseSeatShard (PK courseId, SK shard) and a reservation tries a random
+ * shard first, then the others, so concurrent enrolls no longer queue on one item. The Course item
+ * keeps the total in maxSeats and is pinned full (currentEnrolled = maxSeats); seat updates on it are
+ * conditional on shardCount being absent, so a caller with a stale unsharded view neither takes nor
+ * frees a seat there but re-reads the course and goes to the shards. Reads report the summed shard totals.
+ */
+public class CourseDao implements CourseStore {
     private final DynamoDbClient client;
+    private final ParallelScanner scanner;
+    private final CourseCache cache;
     private final String tableName = "Course";
+    static final String SHARD_TABLE = "CourseSeatShard";
+    // shard items + the Course item must fit in one TransactWriteItems call
+    public static final int MAX_SHARDS = 99;
+    private static final int MAX_SHARD_UPDATE_ATTEMPTS = 3;
+    private static final int MAX_SEAT_CAS_ATTEMPTS = 5;
+    private static final int MAX_VERSION_ATTEMPTS = 5;
 
     public CourseDao(DynamoDbClient client) {
+        this(client, new ParallelScanner(client));
+    }
+
+    public CourseDao(DynamoDbClient client, ParallelScanner scanner) {
+        this(client, scanner, new CourseCache());
+    }
+
+    public CourseDao(DynamoDbClient client, ParallelScanner scanner, CourseCache cache) {
         this.client = client;
+        this.scanner = scanner;
+        this.cache = cache;
     }
 
+    public CourseCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Read-through cached lookup. currentEnrolled on the result may be up to one cache TTL old;
+     * use {@link #getCourseFresh(String)} when the live count matters.
+     */
     public Course getCourse(String courseId) {
+        Course cached = cache.get(courseId);
+        if (cached != null) return cached;
+        return loadCourse(courseId, false);
+    }
+
+    /**
+     * Consistent read that bypasses (and refreshes) the cache.
+     */
+    public Course getCourseFresh(String courseId) {
+        return loadCourse(courseId, true);
+    }
+
+    private Course loadCourse(String courseId, boolean consistent) {
         try {
             GetItemRequest req = GetItemRequest.builder()
                     .tableName(tableName)
-                    .key(Map.of("courseId", AttributeValue.builder().s(courseId).build()))
+                    .key(CourseCodec.key(courseId))
+                    .consistentRead(consistent)
                     .build();
             GetItemResponse res = client.getItem(req);
             if (!res.hasItem()) return null;
             Map<String, AttributeValue> item = res.item();
             Course c = Course.fromItem(item);
+            if (c != null && c.shardCount > 0) applyShardTotals(c, consistent);
+            cache.put(c);
             return c;
         } catch (Exception e) {
             System.err.println("Error getCourse: " + e.getMessage());
@@ -31,15 +86,72 @@ public class CourseDao {
         }
     }
 
+    /**
+     * Titles for a set of course ids, fetched with BatchGetItem (100 keys per request).
+     * UnprocessedKeys are retried with exponential backoff. Unknown ids are absent from the result.
+     */
+    public Map<String, String> getCourseTitles(Collection<String> courseIds) {
+        Map<String, String> titles = new HashMap<>();
+        if (courseIds == null || courseIds.isEmpty()) return titles;
+
+        List<String> ids = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(courseIds)) {
+            Course cached = cache.get(id);
+            if (cached != null && cached.title != null) titles.put(id, cached.title);
+            else ids.add(id);
+        }
+        if (ids.isEmpty()) return titles;
+        try {
+            List<Map<String, AttributeValue>> keys = new ArrayList<>();
+            for (String id : ids) keys.add(CourseCodec.key(id));
+            var items = BatchReads.getAll(client, tableName, keys,
+                    "#id, #t, #n", Map.of("#id", "courseId", "#t", "title", "#n", "courseName"));
+            for (var item : items) {
+                var id = item.get("courseId");
+                var title = item.get("title");
+                if (title == null || title.s() == null) title = item.get("courseName");
+                if (id != null && title != null && title.s() != null) titles.put(id.s(), title.s());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted batch-fetching course titles");
+        } catch (Exception e) {
+            System.err.println("Error batch-fetching course titles: " + e.getMessage());
+        }
+        return titles;
+    }
+
     public List<Course> listAllCourses() {
         try {
             ScanRequest req = ScanRequest.builder().tableName(tableName).build();
-            ScanResponse res = client.scan(req);
             List<Course> list = new ArrayList<>();
-            for (var item : res.items()) {
+            boolean anySharded = false;
+            for (var item : scanner.scanAll(req)) {
                 Course c = Course.fromItem(item);
-                if (c != null) list.add(c);
+                if (c != null) {
+                    list.add(c);
+                    anySharded |= c.shardCount > 0;
+                }
+            }
+            if (anySharded) {
+                // one scan of the shard table instead of a Query per sharded course
+                Map<String, int[]> totals = new HashMap<>();
+                for (var shard : scanner.scanAll(ScanRequest.builder().tableName(SHARD_TABLE).build())) {
+                    var id = shard.get("courseId");
+                    if (id == null || id.s() == null) continue;
+                    int[] t = totals.computeIfAbsent(id.s(), k -> new int[2]);
+                    t[0] += intOf(shard, "maxSeats");
+                    t[1] += intOf(shard, "currentEnrolled");
+                }
+                for (Course c : list) {
+                    int[] t = totals.get(c.courseId);
+                    if (c.shardCount > 0 && t != null) {
+                        c.maxSeats = t[0];
+                        c.currentEnrolled = t[1];
+                    }
+                }
             }
+            list.forEach(cache::put);
             return list;
         } catch (Exception e) {
             System.err.println("Error listing courses: " + e.getMessage());
@@ -47,95 +159,111 @@ public class CourseDao {
         }
     }
     public boolean reserveSeatIfAvailable(String courseId) {
-        try {
-            Map<String, AttributeValue> key = Map.of("courseId", AttributeValue.builder().s(courseId).build());
-
-            // Condition: maxSeats must exist AND (currentEnrolled not exists OR currentEnrolled < maxSeats)
-            String condition = "attribute_exists(maxSeats) AND (attribute_not_exists(currentEnrolled) OR currentEnrolled < maxSeats)";
-
-            // Update: increment currentEnrolled (initialize to 0 if not exists)
-            String updateExpression = "SET currentEnrolled = if_not_exists(currentEnrolled, :zero) + :one";
-
-            UpdateItemRequest req = UpdateItemRequest.builder()
-                    .tableName(tableName)
-                    .key(key)
-                    .updateExpression(updateExpression)
-                    .conditionExpression(condition)
-                    .expressionAttributeValues(Map.of(
-                            ":one", AttributeValue.builder().n("1").build(),
-                            ":zero", AttributeValue.builder().n("0").build()
-                    ))
-                    .build();
-
-            client.updateItem(req);
-            return true;
-        } catch (ConditionalCheckFailedException ccfe) {
-            return false;
-        } catch (Exception e) {
-            System.err.println("Error reserving seat: " + e.getMessage());
-            return false;
+        int shards = shardCountOf(courseId);
+        if (shards <= 0) {
+            if (updateSeat(courseId, -1, true)) return true;
+            // full, or sharded since the cached read
+            shards = freshShardCount(courseId);
+        }
+        for (int shard : probeOrder(shards)) {
+            if (updateSeat(courseId, shard, true)) return true;
         }
+        return false;
     }
     public boolean releaseSeat(String courseId) {
-        try {
-            Map<String, AttributeValue> key = Map.of("courseId", AttributeValue.builder().s(courseId).build());
-
-            // Condition: currentEnrolled > 0
-            String condition = "attribute_exists(currentEnrolled) AND currentEnrolled > :zero";
-
-            String updateExpression = "SET currentEnrolled = currentEnrolled - :one";
-
-            UpdateItemRequest req = UpdateItemRequest.builder()
-                    .tableName(tableName)
-                    .key(key)
-                    .updateExpression(updateExpression)
-                    .conditionExpression(condition)
-                    .expressionAttributeValues(Map.of(
-                            ":one", AttributeValue.builder().n("1").build(),
-                            ":zero", AttributeValue.builder().n("0").build()
-                    ))
-                    .build();
+        int shards = shardCountOf(courseId);
+        if (shards <= 0) {
+            if (updateSeat(courseId, -1, false)) return true;
+            shards = freshShardCount(courseId);
+        }
+        for (int shard : probeOrder(shards)) {
+            if (updateSeat(courseId, shard, false)) return true;
+        }
+        // Nothing to decrement
+        return false;
+    }
 
-            client.updateItem(req);
+    // shard < 0 targets the Course item, which refuses once the course is sharded
+    private boolean updateSeat(String courseId, int shard, boolean reserve) {
+        try {
+            client.updateItem(UpdateItemRequest.builder()
+                    .tableName(shard < 0 ? tableName : SHARD_TABLE)
+                    .key(shard < 0 ? CourseCodec.key(courseId) : CourseCodec.shardKey(courseId, shard))
+                    .updateExpression(reserve ? CourseCodec.RESERVE_UPDATE : CourseCodec.RELEASE_UPDATE)
+                    .conditionExpression(seatCondition(shard, reserve))
+                    .expressionAttributeValues(CourseCodec.SEAT_VALUES)
+                    .build());
             return true;
         } catch (ConditionalCheckFailedException ccfe) {
-            // Nothing to decrement
             return false;
         } catch (Exception e) {
-            System.err.println("Error releasing seat: " + e.getMessage());
+            System.err.println("Error " + (reserve ? "reserving" : "releasing") + " seat: " + e.getMessage());
             return false;
         }
     }
     public boolean incrementMaxSeats(String courseId, int by) {
         if (by <= 0) return false;
         try {
-            Map<String, AttributeValue> key = Map.of("courseId", AttributeValue.builder().s(courseId).build());
+            Course c = getCourseFresh(courseId);
+            if (c != null && c.shardCount > 0) return resizeShards(courseId, c.maxSeats + by);
+
+            Map<String, AttributeValue> key = CourseCodec.key(courseId);
             UpdateItemRequest req = UpdateItemRequest.builder()
                     .tableName(tableName)
                     .key(key)
-                    .updateExpression("SET maxSeats = if_not_exists(maxSeats, :zero) + :inc")
-                    .expressionAttributeValues(Map.of(
-                            ":inc", AttributeValue.builder().n(String.valueOf(by)).build(),
-                            ":zero", AttributeValue.builder().n("0").build()
-                    ))
+                    .updateExpression("SET maxSeats = if_not_exists(maxSeats, :zero) + :inc, "
+                            + "version = if_not_exists(version, :zero) + :one")
+                    .expressionAttributeValues(Map.of(":inc", n(by), ":zero", ZERO, ":one", ONE))
                     .build();
             client.updateItem(req);
             return true;
         } catch (Exception e) {
             System.err.println("Error incrementing maxSeats: " + e.getMessage());
             return false;
+        } finally {
+            cache.invalidate(courseId);
         }
     }
-    public void putCourseForUpdate(Course course) {
+    public SeatChange updateMaxSeats(String courseId, int newSeats) {
+        Course c = null;
         try {
-            Map<String, AttributeValue> item = course.toItem();
-            PutItemRequest req = PutItemRequest.builder()
-                    .tableName(tableName)
-                    .item(item)
-                    .build();
-            client.putItem(req);
+            for (int attempt = 0; attempt < MAX_VERSION_ATTEMPTS; attempt++) {
+                c = getCourseFresh(courseId);
+                if (c == null) return new SeatChange(SeatChange.Status.NOT_FOUND, null);
+                if (newSeats < c.currentEnrolled) return new SeatChange(SeatChange.Status.BELOW_ENROLLED, c);
+
+                if (c.shardCount > 0) {
+                    // seat changes go to the shards; the Course item only mirrors the total
+                    if (resizeShards(courseId, newSeats)) return new SeatChange(SeatChange.Status.UPDATED, c);
+                    System.err.println("Error updating maxSeats: could not resize seat shards for " + courseId);
+                    return new SeatChange(SeatChange.Status.ERROR, c);
+                }
+
+                try {
+                    client.updateItem(UpdateItemRequest.builder()
+                            .tableName(tableName)
+                            .key(CourseCodec.key(courseId))
+                            .updateExpression(CourseCodec.MAX_SEATS_UPDATE)
+                            .conditionExpression(c.version == 0
+                                    ? CourseCodec.MAX_SEATS_CONDITION_UNVERSIONED
+                                    : CourseCodec.MAX_SEATS_CONDITION)
+                            .expressionAttributeValues(Map.of(
+                                    ":max", n(newSeats),
+                                    ":v", n(c.version),
+                                    ":next", n(c.version + 1)))
+                            .build());
+                    return new SeatChange(SeatChange.Status.UPDATED, c);
+                } catch (ConditionalCheckFailedException ccfe) {
+                    // another admin change, or enrolls went past newSeats; re-read and decide again
+                }
+            }
+            System.err.println("updateMaxSeats: " + courseId + " kept changing, giving up");
+            return new SeatChange(SeatChange.Status.CONFLICT, c);
         } catch (Exception e) {
-            System.err.println("Error putCourseForUpdate: " + e.getMessage());
+            System.err.println("Error updating maxSeats: " + e.getMessage());
+            return new SeatChange(SeatChange.Status.ERROR, c);
+        } finally {
+            cache.invalidate(courseId);
         }
     }
     public boolean putCourse(Course course) {
@@ -143,6 +271,7 @@ public class CourseDao {
             System.err.println("putCourse: invalid course object");
             return false;
         }
+        cache.invalidate(course.courseId);
         try {
             Map<String, AttributeValue> item = course.toItem();
 
@@ -164,9 +293,32 @@ public class CourseDao {
         }
     }
 
+    /**
+     * Which of the given course ids already have a Course item, via BatchGetItem (bulk loads). Errors are thrown.
+     */
+    public Set<String> findExistingIds(Collection<String> courseIds) throws InterruptedException {
+        Set<String> existing = new HashSet<>();
+        if (courseIds == null || courseIds.isEmpty()) return existing;
+        List<Map<String, AttributeValue>> keys = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(courseIds)) keys.add(CourseCodec.key(id));
+        for (var item : BatchReads.getAll(client, tableName, keys, "courseId", null)) existing.add(item.get("courseId").s());
+        return existing;
+    }
+
+    /**
+     * Queues a put of a new course on a batch writer. BatchWriteItem puts cannot be conditional and
+     * would replace an existing item's counter, version and shardCount, so callers skip courses
+     * that exist ({@link #findExistingIds}).
+     */
+    public void queueCourse(BatchWriter writer, Course course) {
+        writer.put(tableName, course.toItem());
+        cache.invalidate(course.courseId);
+    }
+
     public boolean deleteCourse(String courseId) {
         try {
-            Map<String, AttributeValue> key = Map.of("courseId", AttributeValue.builder().s(courseId).build());
+            if (shardCountOf(courseId) > 0) deleteShards(courseId);
+            Map<String, AttributeValue> key = CourseCodec.key(courseId);
             DeleteItemRequest req = DeleteItemRequest.builder()
                     .tableName(tableName)
                     .key(key)
@@ -176,6 +328,337 @@ public class CourseDao {
         } catch (Exception e) {
             System.err.println("Error deleting course: " + e.getMessage());
             return false;
+        } finally {
+            cache.invalidate(courseId);
+        }
+    }
+
+    // ----------------------
+    // Aggregated seat changes
+    // ----------------------
+
+    /**
+     * Reserves up to {@code wanted} seats in one conditional update per counter (per shard when
+     * sharded) instead of one update per student. Each update is a compare-and-set on the observed
+     * count, re-read and retried if a concurrent enroll moves it.
+     *
+     * @return seats actually granted, between 0 and wanted
+     */
+    public int reserveSeats(String courseId, int wanted) {
+        if (wanted <= 0) return 0;
+        int granted = 0;
+        try {
+            int shards = shardCountOf(courseId);
+            for (int attempt = 0; attempt < MAX_SEAT_CAS_ATTEMPTS && granted < wanted; attempt++) {
+                boolean contended = false;
+                List<Map<String, AttributeValue>> counters = shards > 0
+                        ? readShards(courseId, true)
+                        : courseCounter(courseId);
+                if (shards <= 0 && !counters.isEmpty() && intOf(counters.get(0), "shardCount") > 0) {
+                    // sharded since the cached read: the Course item's counter is pinned, use the shards
+                    shards = intOf(counters.get(0), "shardCount");
+                    counters = readShards(courseId, true);
+                }
+                for (var counter : counters) {
+                    int free = intOf(counter, "maxSeats") - intOf(counter, "currentEnrolled");
+                    if (free <= 0) continue;
+                    int take = Math.min(free, wanted - granted);
+                    if (casSeats(courseId, shards > 0 ? intOf(counter, "shard") : -1,
+                            intOf(counter, "currentEnrolled"), take)) {
+                        granted += take;
+                        if (granted == wanted) break;
+                    } else {
+                        contended = true;
+                    }
+                }
+                if (!contended) break; // every counter was read as full
+            }
+            return granted;
+        } catch (Exception e) {
+            // seats already taken stay taken; the caller must fill or release them
+            System.err.println("Error reserving seats in bulk: " + e.getMessage());
+            return granted;
+        } finally {
+            cache.invalidate(courseId);
+        }
+    }
+
+    /**
+     * Gives back seats taken by {@link #reserveSeats} whose enrollments could not be written.
+     */
+    public int releaseSeats(String courseId, int count) {
+        if (count <= 0) return 0;
+        int released = 0;
+        try {
+            if (shardCountOf(courseId) <= 0) {
+                try {
+                    client.updateItem(UpdateItemRequest.builder()
+                            .tableName(tableName)
+                            .key(CourseCodec.key(courseId))
+                            .updateExpression("SET currentEnrolled = currentEnrolled - :n")
+                            .conditionExpression("attribute_not_exists(shardCount) AND currentEnrolled >= :n")
+                            .expressionAttributeValues(Map.of(":n", n(count)))
+                            .build());
+                    return count;
+                } catch (ConditionalCheckFailedException ccfe) {
+                    if (freshShardCount(courseId) <= 0) {
+                        System.err.println("Warning: seat counter for " + courseId + " is below " + count + ", not releasing");
+                        return 0;
+                    }
+                }
+            }
+            while (released < count && releaseSeat(courseId)) released++;
+            return released;
+        } catch (Exception e) {
+            System.err.println("Error releasing seats in bulk: " + e.getMessage());
+            return released;
+        } finally {
+            cache.invalidate(courseId);
+        }
+    }
+
+    private List<Map<String, AttributeValue>> courseCounter(String courseId) {
+        var res = client.getItem(GetItemRequest.builder()
+                .tableName(tableName)
+                .key(CourseCodec.key(courseId))
+                .projectionExpression("maxSeats, currentEnrolled, shardCount")
+                .consistentRead(true)
+                .build());
+        return res.hasItem() && !res.item().isEmpty() ? List.of(res.item()) : List.of();
+    }
+
+    // shard < 0 targets the Course item
+    private boolean casSeats(String courseId, int shard, int observed, int add) {
+        try {
+            client.updateItem(UpdateItemRequest.builder()
+                    .tableName(shard < 0 ? tableName : SHARD_TABLE)
+                    .key(shard < 0 ? CourseCodec.key(courseId) : CourseCodec.shardKey(courseId, shard))
+                    .updateExpression("SET currentEnrolled = :next")
+                    .conditionExpression(shard < 0
+                            ? "attribute_not_exists(shardCount) AND currentEnrolled = :seen AND maxSeats >= :next"
+                            : "currentEnrolled = :seen AND maxSeats >= :next")
+                    .expressionAttributeValues(Map.of(":seen", n(observed), ":next", n(observed + add)))
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException ccfe) {
+            return false;
+        }
+    }
+
+    // ----------------------
+    // Sharded capacity
+    // ----------------------
+
+    /**
+     * Splits the course's seats and current count across {@code shards} counter items. Each shard
+     * gets an even share of both, so no shard starts over capacity. Retries if a concurrent
+     * enroll or drop moves the counter while splitting.
+     */
+    public boolean enableSharding(String courseId, int shards) {
+        if (shards < 2 || shards > MAX_SHARDS) {
+            System.err.println("enableSharding: shard count must be between 2 and " + MAX_SHARDS);
+            return false;
+        }
+        try {
+            for (int attempt = 0; attempt < MAX_SHARD_UPDATE_ATTEMPTS; attempt++) {
+                Course c = getCourseFresh(courseId);
+                if (c == null || c.shardCount > 0) return false;
+
+                List<TransactWriteItem> items = new ArrayList<>();
+                // 0: mark the course sharded and pin its own counter at full
+                items.add(TransactWriteItem.builder().update(Update.builder()
+                        .tableName(tableName)
+                        .key(CourseCodec.key(courseId))
+                        .updateExpression("SET shardCount = :n, currentEnrolled = maxSeats")
+                        .conditionExpression("attribute_not_exists(shardCount) AND maxSeats = :max AND currentEnrolled = :cur")
+                        .expressionAttributeValues(Map.of(
+                                ":n", n(shards),
+                                ":max", n(c.maxSeats),
+                                ":cur", n(c.currentEnrolled)))
+                        .build()).build());
+                for (int i = 0; i < shards; i++) {
+                    Map<String, AttributeValue> shard = new HashMap<>(CourseCodec.shardKey(courseId, i));
+                    shard.put("maxSeats", n(share(c.maxSeats, shards, i)));
+                    shard.put("currentEnrolled", n(share(c.currentEnrolled, shards, i)));
+                    items.add(TransactWriteItem.builder().put(Put.builder()
+                            .tableName(SHARD_TABLE)
+                            .item(shard)
+                            .conditionExpression("attribute_not_exists(courseId)")
+                            .build()).build());
+                }
+
+                try {
+                    client.transactWriteItems(TransactWriteItemsRequest.builder().transactItems(items).build());
+                    return true;
+                } catch (TransactionCanceledException tce) {
+                    if (!seatCounterMoved(tce)) {
+                        System.err.println("Error enabling seat shards for " + courseId + ": " + tce.getMessage());
+                        return false;
+                    }
+                } finally {
+                    cache.invalidate(courseId);
+                }
+            }
+            System.err.println("enableSharding: " + courseId + " kept changing, giving up");
+            return false;
+        } catch (Exception e) {
+            System.err.println("Error enabling seat shards: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Sets the total capacity of a sharded course. Every shard keeps its current count and the free
+     * seats are spread evenly; a shard whose count grew past its new limit cancels and retries.
+     */
+    private boolean resizeShards(String courseId, int newMaxSeats) {
+        try {
+            for (int attempt = 0; attempt < MAX_SHARD_UPDATE_ATTEMPTS; attempt++) {
+                List<Map<String, AttributeValue>> shards = readShards(courseId, true);
+                if (shards.isEmpty()) return false;
+                int enrolled = 0;
+                for (var shard : shards) enrolled += intOf(shard, "currentEnrolled");
+                if (newMaxSeats < enrolled) return false;
+
+                int free = newMaxSeats - enrolled;
+                List<TransactWriteItem> items = new ArrayList<>();
+                for (int i = 0; i < shards.size(); i++) {
+                    var shard = shards.get(i);
+                    int max = intOf(shard, "currentEnrolled") + share(free, shards.size(), i);
+                    items.add(TransactWriteItem.builder().update(Update.builder()
+                            .tableName(SHARD_TABLE)
+                            .key(CourseCodec.shardKey(courseId, intOf(shard, "shard")))
+                            .updateExpression("SET maxSeats = :m")
+                            .conditionExpression("currentEnrolled <= :m")
+                            .expressionAttributeValues(Map.of(":m", n(max)))
+                            .build()).build());
+                }
+                items.add(TransactWriteItem.builder().update(Update.builder()
+                        .tableName(tableName)
+                        .key(CourseCodec.key(courseId))
+                        .updateExpression("SET maxSeats = :m, currentEnrolled = :m, "
+                                + "version = if_not_exists(version, :zero) + :one")
+                        .expressionAttributeValues(Map.of(":m", n(newMaxSeats), ":zero", ZERO, ":one", ONE))
+                        .build()).build());
+
+                try {
+                    client.transactWriteItems(TransactWriteItemsRequest.builder().transactItems(items).build());
+                    return true;
+                } catch (TransactionCanceledException tce) {
+                    if (!seatCounterMoved(tce)) throw tce;
+                }
+            }
+            return false;
+        } finally {
+            cache.invalidate(courseId);
+        }
+    }
+
+    private void deleteShards(String courseId) {
+        try {
+            for (var shard : readShards(courseId, false)) {
+                client.deleteItem(DeleteItemRequest.builder()
+                        .tableName(SHARD_TABLE)
+                        .key(CourseCodec.shardKey(courseId, intOf(shard, "shard")))
+                        .build());
+            }
+        } catch (Exception e) {
+            System.err.println("Warning: failed to remove seat shards for " + courseId + ": " + e.getMessage());
+        }
+    }
+
+    private void applyShardTotals(Course c, boolean consistent) {
+        int max = 0, enrolled = 0;
+        for (var shard : readShards(c.courseId, consistent)) {
+            max += intOf(shard, "maxSeats");
+            enrolled += intOf(shard, "currentEnrolled");
+        }
+        c.maxSeats = max;
+        c.currentEnrolled = enrolled;
+    }
+
+    private List<Map<String, AttributeValue>> readShards(String courseId, boolean consistent) {
+        List<Map<String, AttributeValue>> shards = new ArrayList<>();
+        Map<String, AttributeValue> startKey = null;
+        do {
+            QueryResponse res = client.query(QueryRequest.builder()
+                    .tableName(SHARD_TABLE)
+                    .keyConditionExpression("courseId = :cid")
+                    .expressionAttributeValues(Map.of(":cid", s(courseId)))
+                    .consistentRead(consistent)
+                    .exclusiveStartKey(startKey)
+                    .build());
+            shards.addAll(res.items());
+            startKey = res.hasLastEvaluatedKey() && !res.lastEvaluatedKey().isEmpty() ? res.lastEvaluatedKey() : null;
+        } while (startKey != null);
+        return shards;
+    }
+
+    private int shardCountOf(String courseId) {
+        Course c = getCourse(courseId);
+        return c == null ? 0 : c.shardCount;
+    }
+
+    // after the Course item refused a seat update: was it sharded since the cached read?
+    private int freshShardCount(String courseId) {
+        Course c = getCourseFresh(courseId);
+        return c == null ? 0 : c.shardCount;
+    }
+
+    /**
+     * Every shard index once, starting at a random one, so concurrent callers spread out.
+     */
+    static int[] probeOrder(int shardCount) {
+        int start = java.util.concurrent.ThreadLocalRandom.current().nextInt(shardCount);
+        int[] order = new int[shardCount];
+        for (int i = 0; i < shardCount; i++) order[i] = (start + i) % shardCount;
+        return order;
+    }
+
+    /**
+     * Seat counter update for a TransactWriteItems call; shard &lt; 0 targets the Course item. That
+     * one fails once the course is sharded and returns the item (see {@link #shardsOf}).
+     */
+    static Update seatUpdate(String courseId, int shard, boolean reserve) {
+        return seatUpdate(s(courseId), shard, reserve);
+    }
+
+    static Update seatUpdate(AttributeValue courseId, int shard, boolean reserve) {
+        return Update.builder()
+                .tableName(shard < 0 ? "Course" : SHARD_TABLE)
+                .key(shard < 0 ? CourseCodec.key(courseId) : CourseCodec.shardKey(courseId, shard))
+                .updateExpression(reserve ? CourseCodec.RESERVE_UPDATE : CourseCodec.RELEASE_UPDATE)
+                .conditionExpression(seatCondition(shard, reserve))
+                .expressionAttributeValues(CourseCodec.SEAT_VALUES)
+                .returnValuesOnConditionCheckFailure(shard < 0
+                        ? ReturnValuesOnConditionCheckFailure.ALL_OLD
+                        : ReturnValuesOnConditionCheckFailure.NONE)
+                .build();
+    }
+
+    static String seatCondition(int shard, boolean reserve) {
+        if (shard < 0) return reserve ? CourseCodec.COURSE_RESERVE_CONDITION : CourseCodec.COURSE_RELEASE_CONDITION;
+        return reserve ? CourseCodec.RESERVE_CONDITION : CourseCodec.RELEASE_CONDITION;
+    }
+
+    /**
+     * shardCount of a Course item returned by a failed {@link #seatUpdate}; 0 if it is not sharded.
+     */
+    static int shardsOf(Map<String, AttributeValue> course) {
+        return course == null ? 0 : intOf(course, "shardCount");
+    }
+
+    // i-th of n near-equal parts of total (the first total % n parts get one extra)
+    static int share(int total, int n, int i) {
+        return total / n + (i < total % n ? 1 : 0);
+    }
+
+    private static boolean seatCounterMoved(TransactionCanceledException tce) {
+        if (!tce.hasCancellationReasons()) return false;
+        for (CancellationReason r : tce.cancellationReasons()) {
+            String code = r.code();
+            if ("ConditionalCheckFailed".equals(code) || "TransactionConflict".equals(code)) return true;
         }
+        return false;
     }
 }
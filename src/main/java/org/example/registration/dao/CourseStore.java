@@ -0,0 +1,84 @@
+package org.example.registration.dao;
+
+import org.example.registration.model.Course;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Course rows and their seat counters. Implemented by {@link CourseDao} (DynamoDB) and the embedded backend.
+ */
+public interface CourseStore {
+
+    /**
+     * Outcome of {@link #updateMaxSeats}, with the course as read by the attempt that decided it
+     * (null when not found).
+     */
+    class SeatChange {
+        public enum Status { UPDATED, NOT_FOUND, BELOW_ENROLLED, CONFLICT, ERROR }
+
+        public final Status status;
+        public final Course before;
+
+        public SeatChange(Status status, Course before) {
+            this.status = status;
+            this.before = before;
+        }
+    }
+
+    /**
+     * May serve a slightly stale currentEnrolled; use {@link #getCourseFresh(String)} when the live count matters.
+     */
+    Course getCourse(String courseId);
+
+    Course getCourseFresh(String courseId);
+
+    /**
+     * Titles for the given ids; unknown ids are absent from the result.
+     */
+    Map<String, String> getCourseTitles(Collection<String> courseIds);
+
+    List<Course> listAllCourses();
+
+    /**
+     * Takes one seat if currentEnrolled &lt; maxSeats, atomically.
+     */
+    boolean reserveSeatIfAvailable(String courseId);
+
+    /**
+     * Gives one seat back if currentEnrolled &gt; 0, atomically.
+     */
+    boolean releaseSeat(String courseId);
+
+    boolean incrementMaxSeats(String courseId, int by);
+
+    /**
+     * Sets maxSeats and bumps the version, writing no other attribute. The write is conditional on
+     * the version read and on the new capacity still covering currentEnrolled, so concurrent enrolls
+     * keep going and are never overwritten; a lost race is re-read and retried a bounded number of times.
+     */
+    SeatChange updateMaxSeats(String courseId, int newSeats);
+
+    /**
+     * Creates the course; false if the id already exists.
+     */
+    boolean putCourse(Course course);
+
+    boolean deleteCourse(String courseId);
+
+    /**
+     * Reserves up to {@code wanted} seats at once.
+     *
+     * @return seats actually granted, between 0 and wanted
+     */
+    int reserveSeats(String courseId, int wanted);
+
+    int releaseSeats(String courseId, int count);
+
+    /**
+     * Spreads the seat counter of a hot course across {@code shards} counters; false if the backend
+     * cannot (or need not) do so.
+     */
+    boolean enableSharding(String courseId, int shards);
+}
@@ -1,15 +1,37 @@
 package org.example.registration.dao;
 
+import org.example.registration.codec.DropCodec;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
 import java.util.*;
-public class DropDao {
+
+import static org.example.registration.codec.Attributes.s;
+
+/**
+ * Drop ledger. Items are keyed by studentCourse ("studentId#courseId") with droppedAt as the
+ * sort key, so every per-student/per-course lookup is a single-partition Query.
+ */
+public class DropDao implements DropStore {
     private final DynamoDbClient client;
+    private final ParallelScanner scanner;
     private final String tableName = "DropHistory";
+    private static final int MAX_PUT_ATTEMPTS = 3;
 
     public DropDao(DynamoDbClient client) {
+        this(client, new ParallelScanner(client));
+    }
+
+    public DropDao(DynamoDbClient client, ParallelScanner scanner) {
         this.client = client;
+        this.scanner = scanner;
+    }
+
+    /**
+     * Partition key of the ledger for a student/course pair.
+     */
+    public static String ledgerKey(String studentId, String courseId) {
+        return DropCodec.ledgerKey(studentId, courseId);
     }
 
     public boolean recordDrop(String studentId, String courseId, String actor, String reason) {
@@ -19,31 +41,28 @@ public class DropDao {
             if (actor == null) actor = "UNKNOWN";
             if (reason == null) reason = "";
 
-            String dropId = UUID.randomUUID().toString();
-
-            Map<String, AttributeValue> item = new HashMap<>();
-            item.put("dropId", AttributeValue.builder().s(dropId).build()); // safe PK
-            item.put("studentId", AttributeValue.builder().s(studentId).build());
-            item.put("courseId", AttributeValue.builder().s(courseId).build());
-            item.put("actor", AttributeValue.builder().s(actor).build());
-            item.put("reason", AttributeValue.builder().s(reason).build());
-            item.put("droppedAt", AttributeValue.builder().n(String.valueOf(System.currentTimeMillis())).build());
-
-            PutItemRequest req = PutItemRequest.builder()
-                    .tableName(tableName)
-                    .item(item)
-                    .build();
-
-            client.putItem(req);
-
-            // confirm that the item exists (consistent read)
-            List<Map<String, AttributeValue>> found = debugFindDropsInternal(studentId, courseId);
-            if (found.isEmpty()) {
-                System.err.println("Warning: recordDrop wrote an item but subsequent scan found 0 items for "
-                        + studentId + " / " + courseId + ". This could indicate a table key mismatch.");
-                return false;
+            AttributeValue sid = s(studentId);
+            AttributeValue cid = s(courseId);
+            long droppedAt = System.currentTimeMillis();
+            for (int attempt = 0; attempt < MAX_PUT_ATTEMPTS; attempt++) {
+                Map<String, AttributeValue> item = DropCodec.item(sid, cid, actor, reason, droppedAt);
+
+                PutItemRequest req = PutItemRequest.builder()
+                        .tableName(tableName)
+                        .item(item)
+                        // two records for the same pair in the same millisecond must not overwrite each other
+                        .conditionExpression("attribute_not_exists(droppedAt)")
+                        .build();
+                try {
+                    client.putItem(req);
+                    return true;
+                } catch (ConditionalCheckFailedException ccfe) {
+                    droppedAt++;
+                }
             }
-            return true;
+            System.err.println("Error recording drop: could not allocate a unique droppedAt for "
+                    + studentId + " / " + courseId);
+            return false;
         } catch (Exception e) {
             System.err.println("Error recording drop (PutItem): " + e.getMessage());
             return false;
@@ -51,23 +70,50 @@ public class DropDao {
     }
 
     /**
-     * Check if a student has previously dropped a course.
-     * Uses consistentRead(true) so reads see the most recent writes.
+     * Ledger records for many students at once through a {@link BatchWriter}. The puts are not
+     * conditional (BatchWriteItem has no conditions); every student has its own partition key, so
+     * records within one call cannot collide.
+     */
+    @Override
+    public int recordDrops(String courseId, Collection<String> studentIds, String actor, String reason) {
+        AttributeValue cid = s(courseId);
+        long droppedAt = System.currentTimeMillis();
+        try (BatchWriter writer = new BatchWriter(client)) {
+            for (String studentId : studentIds) {
+                writer.put(tableName, DropCodec.item(s(studentId), cid, actor, reason == null ? "" : reason, droppedAt));
+            }
+            writer.flush();
+            return studentIds.size() - writer.failures().size();
+        } catch (Exception e) {
+            System.err.println("Error recording drops in bulk: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Check if a student has previously dropped an enrollment in a course.
+     * Single-partition Query on the ledger key with consistentRead(true), filtered to student drops
+     * ({@link DropCodec#STUDENT_DROP_FILTER}); no limit, since a limit applies before the filter.
      */
     public boolean hasDroppedBefore(String studentId, String courseId) {
         try {
-            ScanRequest req = ScanRequest.builder()
-                    .tableName(tableName)
-                    .filterExpression("studentId = :sid AND courseId = :cid")
-                    .expressionAttributeValues(Map.of(
-                            ":sid", AttributeValue.builder().s(studentId).build(),
-                            ":cid", AttributeValue.builder().s(courseId).build()))
-                    .limit(1)
-                    .consistentRead(true)
-                    .build();
-
-            ScanResponse res = client.scan(req);
-            return !res.items().isEmpty();
+            Map<String, AttributeValue> values = new HashMap<>(DropCodec.studentDropValues());
+            values.put(":pk", s(ledgerKey(studentId, courseId)));
+            Map<String, AttributeValue> startKey = null;
+            do {
+                QueryRequest.Builder req = QueryRequest.builder()
+                        .tableName(tableName)
+                        .keyConditionExpression("studentCourse = :pk")
+                        .filterExpression(DropCodec.STUDENT_DROP_FILTER)
+                        .expressionAttributeValues(values)
+                        .consistentRead(true);
+                if (startKey != null) req.exclusiveStartKey(startKey);
+
+                QueryResponse res = client.query(req.build());
+                if (res.count() > 0) return true;
+                startKey = res.hasLastEvaluatedKey() && !res.lastEvaluatedKey().isEmpty() ? res.lastEvaluatedKey() : null;
+            } while (startKey != null);
+            return false;
         } catch (Exception e) {
             System.err.println("Error checking previous drop: " + e.getMessage());
             return false;
@@ -83,13 +129,12 @@ public class DropDao {
                     .tableName(tableName)
                     .filterExpression("courseId = :cid")
                     .expressionAttributeValues(Map.of(":cid",
-                            AttributeValue.builder().s(courseId).build()))
+                            s(courseId)))
                     .consistentRead(true)
                     .build();
 
-            ScanResponse res = client.scan(req);
             List<String> list = new ArrayList<>();
-            for (var item : res.items()) {
+            for (var item : scanner.scanAll(req)) {
                 String sid = item.containsKey("studentId") ? item.get("studentId").s() : "UNKNOWN";
                 String actor = item.containsKey("actor") ? item.get("actor").s() : "UNKNOWN";
                 String reason = item.containsKey("reason") ? item.get("reason").s() : "";
@@ -107,22 +152,20 @@ public class DropDao {
     // ----------------------
 
     /**
-     * Internal helper: scan and return matching raw items (consistent read).
+     * Internal helper: query and return the ledger items for a student/course (consistent read).
      */
     private List<Map<String, AttributeValue>> debugFindDropsInternal(String studentId, String courseId) {
         try {
-            ScanRequest req = ScanRequest.builder()
+            QueryRequest req = QueryRequest.builder()
                     .tableName(tableName)
-                    .filterExpression("studentId = :sid AND courseId = :cid")
+                    .keyConditionExpression("studentCourse = :pk")
                     .expressionAttributeValues(Map.of(
-                            ":sid", AttributeValue.builder().s(studentId).build(),
-                            ":cid", AttributeValue.builder().s(courseId).build()))
+                            ":pk", s(ledgerKey(studentId, courseId))))
                     .consistentRead(true)
                     .build();
-            ScanResponse res = client.scan(req);
-            return res.items();
+            return client.query(req).items();
         } catch (Exception e) {
-            System.err.println("Error scanning DropHistory (internal): " + e.getMessage());
+            System.err.println("Error querying DropHistory (internal): " + e.getMessage());
             return Collections.emptyList();
         }
     }
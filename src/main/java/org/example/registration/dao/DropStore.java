@@ -0,0 +1,32 @@
+package org.example.registration.dao;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Drop ledger. Implemented by {@link DropDao} (DynamoDB) and the embedded backend.
+ */
+public interface DropStore {
+
+    boolean recordDrop(String studentId, String courseId, String actor, String reason);
+
+    /**
+     * One ledger record per student, all with the same actor and reason.
+     *
+     * @return how many were recorded
+     */
+    default int recordDrops(String courseId, Collection<String> studentIds, String actor, String reason) {
+        int recorded = 0;
+        for (String studentId : studentIds) {
+            if (recordDrop(studentId, courseId, actor, reason)) recorded++;
+        }
+        return recorded;
+    }
+
+    boolean hasDroppedBefore(String studentId, String courseId);
+
+    /**
+     * "studentId (actor) - reason" lines for a course.
+     */
+    List<String> getDropHistoryByCourse(String courseId);
+}
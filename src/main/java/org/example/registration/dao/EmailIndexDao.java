@@ -1,13 +1,18 @@
 package org.example.registration.dao;
 
+import org.example.registration.codec.StudentCodec;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 
-public class EmailIndexDao {
+public class EmailIndexDao implements EmailIndexStore {
     private final DynamoDbClient client;
     private final String table = "EmailIndex";
 
@@ -18,9 +23,7 @@ public class EmailIndexDao {
         if (email == null) throw new IllegalArgumentException("email is null");
         String norm = email.toLowerCase();
 
-        Map<String, AttributeValue> item = new HashMap<>();
-        item.put("email", AttributeValue.builder().s(norm).build());
-        item.put("studentId", AttributeValue.builder().s(studentId).build());
+        Map<String, AttributeValue> item = StudentCodec.emailIndexItem(norm, studentId);
 
         try {
             client.putItem(PutItemRequest.builder()
@@ -34,12 +37,40 @@ public class EmailIndexDao {
         } // ResourceNotFoundException / DynamoDbException allowed to bubble up or be handled by service
     }
 
+    /**
+     * Queues an unconditional index row on a batch writer (bulk loads; uniqueness is the loader's job).
+     */
+    public void queueEmail(BatchWriter writer, String email, String studentId) {
+        writer.put(table, StudentCodec.emailIndexItem(email, studentId));
+    }
+
+    /**
+     * Queues the removal of an index row on a batch writer (bulk loads: a student's old email).
+     */
+    public void queueRemoval(BatchWriter writer, String email) {
+        writer.delete(table, StudentCodec.emailKey(email));
+    }
+
+    /**
+     * Owning studentId of each given email that has an index row, via BatchGetItem. Errors are
+     * thrown, not logged: a loader must not take a failed lookup for "free".
+     */
+    public Map<String, String> findOwners(Collection<String> emails) throws InterruptedException {
+        Map<String, String> owners = new HashMap<>();
+        if (emails == null || emails.isEmpty()) return owners;
+        List<Map<String, AttributeValue>> keys = new ArrayList<>();
+        for (String email : new LinkedHashSet<>(emails)) keys.add(StudentCodec.emailKey(email));
+        for (var item : BatchReads.getAll(client, table, keys, "email, studentId", null)) {
+            owners.put(item.get("email").s(), item.get("studentId").s());
+        }
+        return owners;
+    }
+
     public boolean emailExists(String email) {
         if (email == null) return false;
         String norm = email.toLowerCase();
 
-        Map<String, AttributeValue> key = new HashMap<>();
-        key.put("email", AttributeValue.builder().s(norm).build());
+        Map<String, AttributeValue> key = StudentCodec.emailKey(norm);
 
         try {
             var res = client.getItem(GetItemRequest.builder().tableName(table).key(key).build());
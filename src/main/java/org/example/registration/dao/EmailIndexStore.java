@@ -0,0 +1,14 @@
+package org.example.registration.dao;
+
+/**
+ * Email -&gt; studentId uniqueness index. Implemented by {@link EmailIndexDao} (DynamoDB) and the embedded backend.
+ */
+public interface EmailIndexStore {
+
+    /**
+     * Claims the (lower-cased) email; fails with ConditionalCheckFailedException if it is taken.
+     */
+    void putEmail(String email, String studentId);
+
+    boolean emailExists(String email);
+}
@@ -1,24 +1,30 @@
 package org.example.registration.dao;
 
+import org.example.registration.codec.EnrollmentCodec;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
 import java.util.*;
 
-public class EnrollmentDao {
+import static org.example.registration.codec.Attributes.s;
+import static org.example.registration.codec.Attributes.str;
+
+public class EnrollmentDao implements EnrollmentStore {
     private final DynamoDbClient client;
+    private final ParallelScanner scanner;
     private final String tableName = "Enrollment";
 
     public EnrollmentDao(DynamoDbClient client) {
+        this(client, new ParallelScanner(client));
+    }
+
+    public EnrollmentDao(DynamoDbClient client, ParallelScanner scanner) {
         this.client = client;
+        this.scanner = scanner;
     }
     public void putEnrollment(String studentId, String courseId, String status) {
         try {
-            Map<String, AttributeValue> item = new HashMap<>();
-            item.put("studentId", AttributeValue.builder().s(studentId).build());
-            item.put("courseId", AttributeValue.builder().s(courseId).build());
-            item.put("status", AttributeValue.builder().s(status).build());
-            item.put("createdAt", AttributeValue.builder().s(String.valueOf(System.currentTimeMillis())).build());
+            Map<String, AttributeValue> item = EnrollmentCodec.item(studentId, courseId, status);
 
             PutItemRequest req = PutItemRequest.builder()
                     .tableName(tableName)
@@ -30,11 +36,36 @@ public class EnrollmentDao {
             System.err.println("Error adding enrollment: " + e.getMessage());
         }
     }
+    /**
+     * Writes the rows through a {@link BatchWriter} (25 per BatchWriteItem, unprocessed items
+     * retried); students whose row still failed are returned.
+     */
+    @Override
+    public List<String> putEnrollments(String courseId, Collection<String> studentIds, String status) {
+        List<String> failed = new ArrayList<>();
+        try (BatchWriter writer = new BatchWriter(client)) {
+            for (String studentId : studentIds) queueEnrollment(writer, studentId, courseId, status);
+            writer.flush();
+            for (BatchWriter.FailedWrite f : writer.failures()) {
+                Map<String, AttributeValue> item = f.item();
+                if (item != null) failed.add(str(item, "studentId"));
+            }
+        } catch (Exception e) {
+            System.err.println("Error adding enrollments in bulk: " + e.getMessage());
+            return new ArrayList<>(studentIds);
+        }
+        return failed;
+    }
+
+    /**
+     * Queues an enrollment row on a batch writer; nothing is sent until the writer fills a batch.
+     */
+    public void queueEnrollment(BatchWriter writer, String studentId, String courseId, String status) {
+        writer.put(tableName, EnrollmentCodec.item(studentId, courseId, status));
+    }
     public boolean deleteEnrollment(String studentId, String courseId) {
         try {
-            Map<String, AttributeValue> key = new HashMap<>();
-            key.put("studentId", AttributeValue.builder().s(studentId).build());
-            key.put("courseId", AttributeValue.builder().s(courseId).build());
+            Map<String, AttributeValue> key = EnrollmentCodec.key(studentId, courseId);
 
             DeleteItemRequest req = DeleteItemRequest.builder()
                     .tableName(tableName)
@@ -55,9 +86,7 @@ public class EnrollmentDao {
     }
     public boolean isEnrolled(String studentId, String courseId) {
         try {
-            Map<String, AttributeValue> key = new HashMap<>();
-            key.put("studentId", AttributeValue.builder().s(studentId).build());
-            key.put("courseId", AttributeValue.builder().s(courseId).build());
+            Map<String, AttributeValue> key = EnrollmentCodec.key(studentId, courseId);
 
             GetItemRequest req = GetItemRequest.builder()
                     .tableName(tableName)
@@ -72,13 +101,80 @@ public class EnrollmentDao {
             return false;
         }
     }
+    /**
+     * Which of the given (studentId, courseId) pairs already have an enrollment row, via
+     * BatchGetItem. Pairs are given and returned as "studentId#courseId".
+     */
+    public Set<String> findExisting(Collection<String> studentCoursePairs) {
+        Set<String> existing = new HashSet<>();
+        if (studentCoursePairs == null || studentCoursePairs.isEmpty()) return existing;
+        try {
+            List<Map<String, AttributeValue>> keys = new ArrayList<>();
+            for (String pair : new LinkedHashSet<>(studentCoursePairs)) {
+                int sep = pair.indexOf('#');
+                if (sep <= 0) continue;
+                keys.add(EnrollmentCodec.key(pair.substring(0, sep), pair.substring(sep + 1)));
+            }
+            for (var item : BatchReads.getAll(client, tableName, keys, "studentId, courseId", null)) {
+                existing.add(item.get("studentId").s() + "#" + item.get("courseId").s());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted batch-checking enrollments");
+        } catch (Exception e) {
+            System.err.println("Error batch-checking enrollments: " + e.getMessage());
+        }
+        return existing;
+    }
+
+    /**
+     * All enrollment rows for a student: a Query on the studentId partition, following pagination.
+     */
+    public List<Map<String, AttributeValue>> listEnrollmentsByStudent(String studentId) {
+        try {
+            List<Map<String, AttributeValue>> out = new ArrayList<>();
+            Map<String, AttributeValue> startKey = null;
+            do {
+                QueryRequest.Builder req = QueryRequest.builder()
+                        .tableName(tableName)
+                        .keyConditionExpression("studentId = :sid")
+                        .expressionAttributeValues(Map.of(":sid", s(studentId)));
+                if (startKey != null) req.exclusiveStartKey(startKey);
+
+                QueryResponse res = client.query(req.build());
+                out.addAll(res.items());
+                startKey = res.hasLastEvaluatedKey() && !res.lastEvaluatedKey().isEmpty() ? res.lastEvaluatedKey() : null;
+            } while (startKey != null);
+            return out;
+        } catch (Exception e) {
+            System.err.println("Error querying enrollments: " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
     public List<Map<String, AttributeValue>> listAllEnrollments() {
         try {
             ScanRequest req = ScanRequest.builder().tableName(tableName).build();
-            return client.scan(req).items();
+            return scanner.scanAll(req);
         } catch (Exception e) {
             System.err.println("Error scanning enrollments: " + e.getMessage());
             return Collections.emptyList();
         }
     }
+
+    /**
+     * Enrollment rows for a course. courseId is the range key, so this is a filtered parallel scan.
+     */
+    public List<Map<String, AttributeValue>> listEnrollmentsByCourse(String courseId) {
+        try {
+            ScanRequest req = ScanRequest.builder()
+                    .tableName(tableName)
+                    .filterExpression("courseId = :cid")
+                    .expressionAttributeValues(Map.of(":cid", s(courseId)))
+                    .build();
+            return scanner.scanAll(req);
+        } catch (Exception e) {
+            System.err.println("Error scanning enrollments by course: " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
 }
@@ -0,0 +1,45 @@
+package org.example.registration.dao;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Enrollment rows (studentId, courseId). Rows are returned in their item shape so both backends
+ * hand callers the same attributes. Implemented by {@link EnrollmentDao} (DynamoDB) and the embedded backend.
+ */
+public interface EnrollmentStore {
+
+    void putEnrollment(String studentId, String courseId, String status);
+
+    /**
+     * Writes one enrollment row per student.
+     *
+     * @return the students whose row could not be written
+     */
+    default List<String> putEnrollments(String courseId, Collection<String> studentIds, String status) {
+        for (String studentId : studentIds) putEnrollment(studentId, courseId, status);
+        return List.of();
+    }
+
+    /**
+     * False if there was no such enrollment.
+     */
+    boolean deleteEnrollment(String studentId, String courseId);
+
+    boolean isEnrolled(String studentId, String courseId);
+
+    /**
+     * Which of the given "studentId#courseId" pairs already have an enrollment row.
+     */
+    Set<String> findExisting(Collection<String> studentCoursePairs);
+
+    List<Map<String, AttributeValue>> listEnrollmentsByStudent(String studentId);
+
+    List<Map<String, AttributeValue>> listAllEnrollments();
+
+    List<Map<String, AttributeValue>> listEnrollmentsByCourse(String courseId);
+}
@@ -0,0 +1,123 @@
+package org.example.registration.dao;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Parallel segmented Scan. A scan is split into Segment/TotalSegments slices that run on a bounded
+ * pool of worker threads; every slice follows LastEvaluatedKey until the table is exhausted.
+ *
+ * Degree of parallelism defaults to the number of cores and can be overridden with the
+ * system property "registration.scan.parallelism".
+ */
+public class ParallelScanner {
+    public static final String PARALLELISM_PROPERTY = "registration.scan.parallelism";
+
+    private static final AtomicInteger POOL_IDS = new AtomicInteger();
+
+    private final DynamoDbClient client;
+    private final int parallelism;
+    private final ThreadPoolExecutor pool;
+
+    public ParallelScanner(DynamoDbClient client) {
+        this(client, configuredParallelism());
+    }
+
+    public ParallelScanner(DynamoDbClient client, int parallelism) {
+        if (parallelism <= 0) throw new IllegalArgumentException("parallelism must be positive");
+        this.client = client;
+        this.parallelism = parallelism;
+
+        int poolId = POOL_IDS.incrementAndGet();
+        AtomicInteger threadIds = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(parallelism, parallelism, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "scan-" + poolId + "-worker-" + threadIds.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        // idle scanners hold no threads
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    public static int configuredParallelism() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        try {
+            int configured = Integer.parseInt(System.getProperty(PARALLELISM_PROPERTY, String.valueOf(cores)));
+            return configured > 0 ? configured : cores;
+        } catch (NumberFormatException e) {
+            return cores;
+        }
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Streams every item matching the template to the sink. The sink is invoked concurrently from
+     * worker threads and must be thread-safe. Segment, TotalSegments and ExclusiveStartKey on the
+     * template are overwritten.
+     */
+    public void scan(ScanRequest template, Consumer<Map<String, AttributeValue>> sink) {
+        if (parallelism == 1) {
+            scanSegment(template, null, sink, new AtomicBoolean());
+            return;
+        }
+
+        AtomicBoolean cancelled = new AtomicBoolean();
+        List<Future<?>> futures = new ArrayList<>(parallelism);
+        for (int segment = 0; segment < parallelism; segment++) {
+            final int seg = segment;
+            futures.add(pool.submit(() -> scanSegment(template, seg, sink, cancelled)));
+        }
+
+        try {
+            for (Future<?> f : futures) f.get();
+        } catch (ExecutionException e) {
+            cancelled.set(true);
+            futures.forEach(f -> f.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            throw new RuntimeException("Parallel scan of " + template.tableName() + " failed", cause);
+        } catch (InterruptedException e) {
+            cancelled.set(true);
+            futures.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Parallel scan of " + template.tableName() + " interrupted", e);
+        }
+    }
+
+    /**
+     * Collects every item matching the template. Order is not defined.
+     */
+    public List<Map<String, AttributeValue>> scanAll(ScanRequest template) {
+        Queue<Map<String, AttributeValue>> items = new ConcurrentLinkedQueue<>();
+        scan(template, items::add);
+        return new ArrayList<>(items);
+    }
+
+    private void scanSegment(ScanRequest template, Integer segment,
+                             Consumer<Map<String, AttributeValue>> sink, AtomicBoolean cancelled) {
+        Map<String, AttributeValue> startKey = null;
+        do {
+            ScanRequest.Builder req = template.toBuilder().exclusiveStartKey(startKey);
+            if (segment != null) req.segment(segment).totalSegments(parallelism);
+
+            ScanResponse res = client.scan(req.build());
+            for (var item : res.items()) {
+                if (cancelled.get()) return;
+                sink.accept(item);
+            }
+            startKey = res.hasLastEvaluatedKey() && !res.lastEvaluatedKey().isEmpty() ? res.lastEvaluatedKey() : null;
+        } while (startKey != null && !cancelled.get());
+    }
+}
@@ -0,0 +1,377 @@
+package org.example.registration.dao;
+
+import org.example.registration.codec.DropCodec;
+import org.example.registration.codec.EnrollmentCodec;
+import org.example.registration.codec.StudentCodec;
+import org.example.registration.codec.WaitlistCodec;
+import org.example.registration.dao.TransactionStore.DropOutcome;
+import org.example.registration.dao.TransactionStore.EnrollResult;
+import org.example.registration.dao.TransactionStore.SignupResult;
+import org.example.registration.model.Student;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.example.registration.codec.Attributes.s;
+import static org.example.registration.dao.TransactionDao.failed;
+import static org.example.registration.dao.TransactionDao.reasonCodes;
+
+/**
+ * The TransactWriteItems requests behind signup, enroll and drop, and how a cancelled one is
+ * retried. Shared by {@link TransactionDao} and {@link AsyncTransactionDao}, which only differ in
+ * how they send the requests and wait between attempts.
+ */
+final class RegistrationTransactions {
+    static final String STUDENT_TABLE = "Student";
+    static final String EMAIL_INDEX_TABLE = "EmailIndex";
+    static final String ENROLLMENT_TABLE = "Enrollment";
+    static final String WAITLIST_TABLE = "Waitlist";
+    static final String WAITLIST_INDEX_TABLE = "WaitlistByStudent";
+    static final String DROP_TABLE = "DropHistory";
+    static final int MAX_CONFLICT_RETRIES = 3;
+    static final int MAX_PROMOTION_ATTEMPTS = 5;
+    private static final String NEW_ROW = "attribute_not_exists(studentId)";
+    private static final int[] NO_SHARDS = {-1};
+
+    /**
+     * What to do after a cancelled transaction.
+     */
+    enum Next {
+        /** send the next request straight away */
+        RETRY,
+        /** back off ({@code conflicts} attempts so far), then send the next request */
+        BACKOFF,
+        /** drop: remove the stale head entry ({@link Drop#discardRequest()}), then retry */
+        DISCARD_HEAD,
+        /** finished; the result is on the attempt */
+        DONE
+    }
+
+    private RegistrationTransactions() {
+    }
+
+    // ----------------------
+    // Signup
+    // ----------------------
+
+    static TransactWriteItemsRequest signupRequest(Student student) {
+        String email = student.email == null ? "" : student.email;
+        return TransactWriteItemsRequest.builder()
+                .transactItems(
+                        // 0: student id must be new
+                        TransactWriteItem.builder().put(Put.builder()
+                                .tableName(STUDENT_TABLE)
+                                .item(student.toItem())
+                                .conditionExpression(NEW_ROW)
+                                .build()).build(),
+                        // 1: email must be new
+                        TransactWriteItem.builder().put(Put.builder()
+                                .tableName(EMAIL_INDEX_TABLE)
+                                .item(StudentCodec.emailIndexItem(email, student.studentId))
+                                .conditionExpression("attribute_not_exists(email)")
+                                .build()).build())
+                .build();
+    }
+
+    /**
+     * The result of a cancelled signup, or null if it was a conflict worth another attempt.
+     */
+    static SignupResult signupCancelled(List<String> codes, int attempt) {
+        if (failed(codes, 0)) return SignupResult.ID_TAKEN;
+        if (failed(codes, 1)) return SignupResult.EMAIL_TAKEN;
+        if (!codes.contains("TransactionConflict") || attempt >= MAX_CONFLICT_RETRIES) {
+            System.err.println("Signup transaction cancelled: " + codes);
+            return SignupResult.ERROR;
+        }
+        return null;
+    }
+
+    // ----------------------
+    // Enroll
+    // ----------------------
+
+    /**
+     * One enroll across its attempts: seat counter, new enrollment row and "not waitlisted" check.
+     * With shards the seat comes from a random shard first, then the others while they report full.
+     * A course sharded since the caller read it refuses the Course-item update; the shards are used instead.
+     */
+    static final class Enroll {
+        private final AttributeValue cid;
+        // everything but the seat counter is the same on every attempt, so it is built once
+        private final TransactWriteItem enrollment;
+        private final TransactWriteItem notWaitlisted;
+        private int[] seatTargets;
+        private int target;
+        int conflicts;
+        EnrollResult result;
+
+        Enroll(String studentId, String courseId, int shardCount) {
+            AttributeValue sid = s(studentId);
+            this.cid = s(courseId);
+            this.enrollment = TransactWriteItem.builder().put(Put.builder()
+                    .tableName(ENROLLMENT_TABLE)
+                    .item(EnrollmentCodec.item(sid, cid, EnrollmentCodec.ENROLLED))
+                    .conditionExpression(NEW_ROW)
+                    .build()).build();
+            this.notWaitlisted = TransactWriteItem.builder().conditionCheck(ConditionCheck.builder()
+                    .tableName(WAITLIST_INDEX_TABLE)
+                    .key(WaitlistCodec.indexKey(sid, cid))
+                    .conditionExpression(NEW_ROW)
+                    .build()).build();
+            this.seatTargets = shardCount > 0 ? CourseDao.probeOrder(shardCount) : NO_SHARDS;
+        }
+
+        TransactWriteItemsRequest request() {
+            return TransactWriteItemsRequest.builder()
+                    .transactItems(
+                            // 0: seat counter
+                            TransactWriteItem.builder().update(
+                                    CourseDao.seatUpdate(cid, seatTargets[target], true)).build(),
+                            // 1: enrollment row, must be new
+                            enrollment,
+                            // 2: not on the waitlist for this course
+                            notWaitlisted)
+                    .build();
+        }
+
+        Next cancelled(TransactionCanceledException tce) {
+            List<String> codes = reasonCodes(tce);
+            if (failed(codes, 1)) return done(EnrollResult.ALREADY_ENROLLED);
+            if (failed(codes, 2)) return done(EnrollResult.ALREADY_WAITLISTED);
+            if (failed(codes, 0)) {
+                if (seatTargets == NO_SHARDS) {
+                    int shards = shardsOnCourse(tce, 0);
+                    if (shards > 0) {
+                        seatTargets = CourseDao.probeOrder(shards);
+                        return Next.RETRY;
+                    }
+                }
+                if (++target < seatTargets.length) return Next.RETRY; // this shard is full, try the next
+                return done(EnrollResult.COURSE_FULL);
+            }
+            if (!codes.contains("TransactionConflict") || conflicts >= MAX_CONFLICT_RETRIES) {
+                System.err.println("Enroll transaction cancelled: " + codes);
+                return done(EnrollResult.ERROR);
+            }
+            return Next.BACKOFF;
+        }
+
+        private Next done(EnrollResult r) {
+            result = r;
+            return Next.DONE;
+        }
+    }
+
+    // ----------------------
+    // Drop and promote
+    // ----------------------
+
+    /**
+     * One drop across its attempts. Each attempt deletes the enrollment, records the drop and either
+     * hands the seat to the waitlist head ({@link #headQuery()}) or releases it, all in one
+     * transaction. Heads are tried oldest first: a head claimed by a concurrent drop or found stale
+     * moves the next attempt to the next entry, so the oldest unclaimed student is always promoted.
+     * As with {@link Enroll}, a released seat goes to the shards if the course was sharded since
+     * the caller read it.
+     */
+    static final class Drop {
+        private final AttributeValue sid;
+        private final AttributeValue cid;
+        private final String courseId;
+        private final String reason;
+        private int[] seatTargets;
+        private int maxAttempts;
+        private int target;
+        private boolean releaseSeat = true;
+        private int headWindow = 1;
+        private int attempt;
+        private List<Map<String, AttributeValue>> heads; // null: read the waitlist before the next attempt
+        private int next;
+        private Map<String, AttributeValue> head;
+        private Map<String, AttributeValue> stale;
+        int conflicts;
+        DropOutcome outcome;
+
+        Drop(String studentId, String courseId, String reason, int shardCount) {
+            this.sid = s(studentId);
+            this.cid = s(courseId);
+            this.courseId = courseId;
+            this.reason = reason;
+            this.seatTargets = shardCount > 0 ? CourseDao.probeOrder(shardCount) : NO_SHARDS;
+            this.maxAttempts = MAX_PROMOTION_ATTEMPTS + MAX_CONFLICT_RETRIES + seatTargets.length;
+        }
+
+        boolean exhausted() {
+            if (attempt < maxAttempts) return false;
+            System.err.println("Drop transaction gave up after repeated contention for " + courseId);
+            outcome = new DropOutcome(DropOutcome.Status.ERROR, null);
+            return true;
+        }
+
+        /**
+         * The oldest entry, or once the head is contended the oldest {@link WaitlistDao#CLAIM_WINDOW}.
+         */
+        QueryRequest headQuery() {
+            return QueryRequest.builder()
+                    .tableName(WAITLIST_TABLE)
+                    .keyConditionExpression("courseId = :cid")
+                    .expressionAttributeValues(Map.of(":cid", cid))
+                    .scanIndexForward(true) // oldest first
+                    .limit(headWindow)
+                    .consistentRead(true)
+                    .build();
+        }
+
+        boolean needsHeads() {
+            return heads == null;
+        }
+
+        void heads(List<Map<String, AttributeValue>> heads) {
+            this.heads = heads;
+            next = 0;
+            head = heads.isEmpty() ? null : heads.get(0);
+        }
+
+        // on to the next entry of the window already read (a free attempt), or read the waitlist again
+        private boolean advance() {
+            if (++next < heads.size()) {
+                head = heads.get(next);
+                maxAttempts++;
+                return true;
+            }
+            heads = null;
+            return false;
+        }
+
+        TransactWriteItemsRequest request() {
+            long now = System.currentTimeMillis() + attempt++;
+
+            List<TransactWriteItem> items = new ArrayList<>();
+            // 0: the dropping student's enrollment must exist
+            items.add(TransactWriteItem.builder().delete(Delete.builder()
+                    .tableName(ENROLLMENT_TABLE)
+                    .key(EnrollmentCodec.key(sid, cid))
+                    .conditionExpression("attribute_exists(studentId)")
+                    .build()).build());
+            // 1: drop ledger record
+            items.add(ledgerPut(sid, cid, DropCodec.ACTOR_STUDENT, reason, now));
+
+            if (head == null) {
+                if (releaseSeat) {
+                    // 2: give the seat back
+                    items.add(TransactWriteItem.builder().update(
+                            CourseDao.seatUpdate(cid, seatTargets[target], false)).build());
+                }
+            } else {
+                AttributeValue promotedId = head.get("studentId");
+                // 2: claim the head entry; fails if another drop got there first
+                items.add(TransactWriteItem.builder().delete(Delete.builder()
+                        .tableName(WAITLIST_TABLE)
+                        .key(WaitlistCodec.entryKey(cid, head.get("createdAt")))
+                        .conditionExpression("attribute_exists(createdAt)")
+                        .build()).build());
+                // 3: its reverse-index row
+                items.add(TransactWriteItem.builder().delete(Delete.builder()
+                        .tableName(WAITLIST_INDEX_TABLE)
+                        .key(WaitlistCodec.indexKey(promotedId, cid))
+                        .build()).build());
+                // 4: the promoted student's enrollment
+                items.add(TransactWriteItem.builder().put(Put.builder()
+                        .tableName(ENROLLMENT_TABLE)
+                        .item(EnrollmentCodec.item(promotedId, cid, EnrollmentCodec.ENROLLED))
+                        .conditionExpression(NEW_ROW)
+                        .build()).build());
+                // 5: promotion history
+                items.add(ledgerPut(promotedId, cid, DropCodec.ACTOR_SYSTEM, "Promoted from waitlist after drop", now));
+            }
+            return TransactWriteItemsRequest.builder().transactItems(items).build();
+        }
+
+        DropOutcome succeeded() {
+            return head == null
+                    ? new DropOutcome(DropOutcome.Status.DROPPED, null)
+                    : new DropOutcome(DropOutcome.Status.DROPPED_AND_PROMOTED, head.get("studentId").s());
+        }
+
+        Next cancelled(TransactionCanceledException tce) {
+            List<String> codes = reasonCodes(tce);
+            if (failed(codes, 0)) return done(DropOutcome.Status.NOT_ENROLLED);
+
+            if (head == null && failed(codes, 2)) {
+                heads = null; // someone may have joined the waitlist since; read it again
+                if (seatTargets == NO_SHARDS) {
+                    int shards = shardsOnCourse(tce, 2);
+                    if (shards > 0) {
+                        seatTargets = CourseDao.probeOrder(shards);
+                        maxAttempts += shards;
+                        return Next.RETRY;
+                    }
+                }
+                if (++target < seatTargets.length) return Next.RETRY; // empty shard, try the next one
+                // counter already at zero; drop without touching it
+                System.err.println("Warning: seat counter for " + courseId + " was already 0 on drop");
+                releaseSeat = false;
+                return Next.RETRY;
+            }
+            if (head != null && failed(codes, 4)) {
+                // stale entry: head is already enrolled, discard it and move on
+                stale = head;
+                advance();
+                return Next.DISCARD_HEAD;
+            }
+            if (head != null && failed(codes, 2)) {
+                // head claimed by a concurrent drop; the next entry is now the oldest unclaimed one
+                if (!advance()) headWindow = WaitlistDao.CLAIM_WINDOW;
+                return Next.RETRY;
+            }
+            heads = null; // anything else: start again from a fresh read
+            if (codes.contains("TransactionConflict") && conflicts < MAX_CONFLICT_RETRIES) return Next.BACKOFF;
+            if (failed(codes, 1) || failed(codes, 5)) return Next.RETRY; // ledger timestamp taken
+            System.err.println("Drop transaction cancelled: " + codes);
+            return done(DropOutcome.Status.ERROR);
+        }
+
+        /**
+         * Removes the stale head found by the last attempt (entry and index row).
+         */
+        TransactWriteItemsRequest discardRequest() {
+            return TransactWriteItemsRequest.builder()
+                    .transactItems(
+                            TransactWriteItem.builder().delete(Delete.builder()
+                                    .tableName(WAITLIST_TABLE)
+                                    .key(WaitlistCodec.entryKey(cid, stale.get("createdAt")))
+                                    .build()).build(),
+                            TransactWriteItem.builder().delete(Delete.builder()
+                                    .tableName(WAITLIST_INDEX_TABLE)
+                                    .key(WaitlistCodec.indexKey(stale.get("studentId"), cid))
+                                    .build()).build())
+                    .build();
+        }
+
+        String staleStudentId() {
+            return stale == null ? null : stale.get("studentId").s();
+        }
+
+        private Next done(DropOutcome.Status status) {
+            outcome = new DropOutcome(status, null);
+            return Next.DONE;
+        }
+    }
+
+    // shardCount of the Course item returned with the cancellation of item index (see CourseDao.seatUpdate)
+    private static int shardsOnCourse(TransactionCanceledException tce, int index) {
+        if (!tce.hasCancellationReasons() || index >= tce.cancellationReasons().size()) return 0;
+        return CourseDao.shardsOf(tce.cancellationReasons().get(index).item());
+    }
+
+    private static TransactWriteItem ledgerPut(AttributeValue studentId, AttributeValue courseId, String actor,
+                                               String reason, long droppedAt) {
+        return TransactWriteItem.builder().put(Put.builder()
+                .tableName(DROP_TABLE)
+                .item(DropCodec.item(studentId, courseId, actor, reason, droppedAt))
+                .conditionExpression("attribute_not_exists(droppedAt)")
+                .build()).build();
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.registration.dao;
+
+import org.example.registration.events.EventOutbox;
+import org.example.registration.events.EventSink;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+/**
+ * One backend's set of stores, handed to the services. {@link #dynamoDb(DynamoDbClient)} wires the
+ * DynamoDB DAOs; the embedded backend builds its own (see {@code EmbeddedDatabase#stores()}).
+ */
+public class Stores implements AutoCloseable {
+    public final StudentStore students;
+    public final EmailIndexStore emails;
+    public final CourseStore courses;
+    public final EnrollmentStore enrollments;
+    public final WaitlistStore waitlists;
+    public final DropStore drops;
+    public final TransactionStore transactions;
+    // DynamoDB-only tools (bulk import) need the client; null for other backends
+    public final DynamoDbClient dynamoDbClient;
+    // registration events for the services; null means they project inline
+    public final EventSink events;
+    private final AutoCloseable backend;
+
+    public Stores(StudentStore students, EmailIndexStore emails, CourseStore courses, EnrollmentStore enrollments,
+                  WaitlistStore waitlists, DropStore drops, TransactionStore transactions,
+                  DynamoDbClient dynamoDbClient, AutoCloseable backend) {
+        this(students, emails, courses, enrollments, waitlists, drops, transactions, dynamoDbClient, null, backend);
+    }
+
+    private Stores(StudentStore students, EmailIndexStore emails, CourseStore courses, EnrollmentStore enrollments,
+                   WaitlistStore waitlists, DropStore drops, TransactionStore transactions,
+                   DynamoDbClient dynamoDbClient, EventSink events, AutoCloseable backend) {
+        this.students = students;
+        this.emails = emails;
+        this.courses = courses;
+        this.enrollments = enrollments;
+        this.waitlists = waitlists;
+        this.drops = drops;
+        this.transactions = transactions;
+        this.dynamoDbClient = dynamoDbClient;
+        this.events = events;
+        this.backend = backend;
+    }
+
+    /**
+     * The same stores with events going to {@code outbox}; closing them drains and closes the
+     * outbox before the backend, so queued projections still reach it.
+     */
+    public Stores withEvents(EventOutbox outbox) {
+        AutoCloseable previous = backend;
+        AutoCloseable both = () -> {
+            try {
+                outbox.close();
+            } finally {
+                if (previous != null) previous.close();
+            }
+        };
+        return new Stores(students, emails, courses, enrollments, waitlists, drops, transactions, dynamoDbClient,
+                outbox, both);
+    }
+
+    /**
+     * The DynamoDB DAOs over one client, sharing a parallel scanner.
+     */
+    public static Stores dynamoDb(DynamoDbClient client) {
+        ParallelScanner scanner = new ParallelScanner(client);
+        return new Stores(
+                new StudentDao(client, scanner),
+                new EmailIndexDao(client),
+                new CourseDao(client, scanner),
+                new EnrollmentDao(client, scanner),
+                new WaitlistDao(client),
+                new DropDao(client, scanner),
+                new TransactionDao(client),
+                client,
+                null);
+    }
+
+    /**
+     * Closes the event outbox, if any, and the backend (the embedded store snapshots and closes its
+     * log); the DynamoDB client is left open.
+     */
+    @Override
+    public void close() throws Exception {
+        if (backend != null) backend.close();
+    }
+}
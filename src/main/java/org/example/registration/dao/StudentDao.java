@@ -1,33 +1,95 @@
 package org.example.registration.dao;
 
+import org.example.registration.codec.StudentCodec;
 import org.example.registration.model.Student;
+import org.example.registration.util.BloomFilter;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.example.registration.codec.Attributes.s;
+
+public class StudentDao implements StudentStore {
+    public static final String FILTER_MAX_AGE_PROPERTY = "registration.studentFilter.maxAgeSeconds";
 
-public class StudentDao {
     private final DynamoDbClient client;
+    private final ParallelScanner scanner;
     private final String table = "Student";
 
-    public StudentDao(DynamoDbClient client) { this.client = client; }
+    // Existence fast path: a Bloom filter of every known id (null until loaded) and a small LRU of
+    // ids confirmed to exist. The filter only sees ids written through this process (or present at
+    // load time), so its negatives are trusted for at most filterMaxAgeNanos; after that checks go
+    // to DynamoDB until a background reload picks up students created by other writers.
+    private static final double FILTER_FPP = 0.01;
+    private static final long MIN_FILTER_CAPACITY = 10_000;
+    private static final int POSITIVE_CACHE_SIZE = 4096;
+
+    private final long filterMaxAgeNanos;
+    private final LongSupplier clock;
+    private volatile BloomFilter knownIds;
+    private volatile long filterLoadedAt;
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private final Map<String, Boolean> confirmedIds = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > POSITIVE_CACHE_SIZE;
+                }
+            });
+    private final AtomicLong filterNegatives = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong filterReloads = new AtomicLong();
+
+    public StudentDao(DynamoDbClient client) { this(client, new ParallelScanner(client)); }
+
+    public StudentDao(DynamoDbClient client, ParallelScanner scanner) {
+        this(client, scanner, TimeUnit.SECONDS.toNanos(Long.getLong(FILTER_MAX_AGE_PROPERTY, 60L)), System::nanoTime);
+    }
+
+    StudentDao(DynamoDbClient client, ParallelScanner scanner, long filterMaxAgeNanos, LongSupplier clock) {
+        this.client = client;
+        this.scanner = scanner;
+        this.filterMaxAgeNanos = filterMaxAgeNanos;
+        this.clock = clock;
+    }
+
     public void updatePassword(String studentId, String hashedPassword) {
-        Map<String, AttributeValue> key = new HashMap<>();
-        key.put("studentId", AttributeValue.builder().s(studentId).build());
+        Map<String, AttributeValue> key = StudentCodec.key(studentId);
 
         UpdateItemRequest req = UpdateItemRequest.builder()
                 .tableName(table)
                 .key(key)
                 .updateExpression("SET #pwd = :p")
                 .expressionAttributeNames(Map.of("#pwd", "passwordHash"))
-                .expressionAttributeValues(Map.of(":p", AttributeValue.builder().s(hashedPassword).build()))
+                .expressionAttributeValues(Map.of(":p", s(hashedPassword)))
                 .conditionExpression("attribute_exists(studentId)") // ensure the student exists
                 .build();
 
         client.updateItem(req);
     }
 
+    public boolean replacePasswordHash(String studentId, String previousHash, String newHash) {
+        try {
+            client.updateItem(UpdateItemRequest.builder()
+                    .tableName(table)
+                    .key(StudentCodec.key(studentId))
+                    .updateExpression("SET #pwd = :p")
+                    .expressionAttributeNames(Map.of("#pwd", "passwordHash"))
+                    .expressionAttributeValues(Map.of(":p", s(newHash), ":prev", s(previousHash)))
+                    .conditionExpression("#pwd = :prev") // untouched since it was read
+                    .build());
+            return true;
+        } catch (ConditionalCheckFailedException ccfe) {
+            return false;
+        }
+    }
+
     public void putStudent(Student s) {
         PutItemRequest req = PutItemRequest.builder()
                 .tableName(table)
@@ -35,19 +97,180 @@ public class StudentDao {
                 .conditionExpression("attribute_not_exists(studentId)")
                 .build();
         client.putItem(req);
+        markKnown(s.studentId);
+    }
+
+    /**
+     * Queues an unconditional put on a batch writer (bulk loads overwrite existing rows).
+     */
+    public void queueStudent(BatchWriter writer, Student s) {
+        writer.put(table, s.toItem());
+        markKnown(s.studentId);
     }
 
     public Student getStudent(String studentId) {
-        Map<String, AttributeValue> key = new HashMap<>();
-        key.put("studentId", AttributeValue.builder().s(studentId).build());
+        Map<String, AttributeValue> key = StudentCodec.key(studentId);
         var res = client.getItem(GetItemRequest.builder().tableName(table).key(key).build());
         if (res.hasItem()) return Student.fromItem(res.item());
         return null;
     }
 
     public void deleteStudentById(String studentId) {
-        Map<String, AttributeValue> key = new HashMap<>();
-        key.put("studentId", AttributeValue.builder().s(studentId).build());
+        Map<String, AttributeValue> key = StudentCodec.key(studentId);
         client.deleteItem(DeleteItemRequest.builder().tableName(table).key(key).build());
+        // a Bloom filter cannot forget; the id now costs a GetItem and resolves to "missing"
+        confirmedIds.remove(studentId);
+    }
+
+    // ----------------------
+    // Existence checks
+    // ----------------------
+
+    /**
+     * False only if the student definitely does not exist (filter loaded, not too old, and negative).
+     * An expired filter answers true and starts a reload.
+     */
+    public boolean mightExist(String studentId) {
+        if (studentId == null) return false;
+        BloomFilter filter = knownIds;
+        if (filter == null) return true;
+        if (clock.getAsLong() - filterLoadedAt > filterMaxAgeNanos) {
+            reloadInBackground();
+            return true;
+        }
+        return filter.mightContain(studentId);
+    }
+
+    /**
+     * Does the student exist? A positive-cache hit or a definite filter negative avoids the network.
+     * The cache is asked first: an id marked while a reload was building its filter is only
+     * guaranteed to be there.
+     */
+    public boolean exists(String studentId) {
+        if (studentId == null) return false;
+        lookups.incrementAndGet();
+        if (confirmedIds.containsKey(studentId)) {
+            cacheHits.incrementAndGet();
+            return true;
+        }
+        if (!mightExist(studentId)) {
+            filterNegatives.incrementAndGet();
+            return false;
+        }
+
+        Map<String, AttributeValue> key = StudentCodec.key(studentId);
+        var res = client.getItem(GetItemRequest.builder()
+                .tableName(table)
+                .key(key)
+                .projectionExpression("studentId")
+                .build());
+        boolean found = res.hasItem() && !res.item().isEmpty();
+        if (found) markKnown(studentId);
+        return found;
+    }
+
+    /**
+     * Which of the given ids exist, via BatchGetItem. Definite filter negatives are not sent.
+     */
+    public Set<String> findExisting(Collection<String> studentIds) {
+        Set<String> existing = new HashSet<>();
+        if (studentIds == null || studentIds.isEmpty()) return existing;
+        List<Map<String, AttributeValue>> keys = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(studentIds)) {
+            if (confirmedIds.containsKey(id)) existing.add(id);
+            else if (mightExist(id)) keys.add(StudentCodec.key(id));
+        }
+        try {
+            for (var item : BatchReads.getAll(client, table, keys, "studentId", null)) {
+                String id = item.get("studentId").s();
+                existing.add(id);
+                markKnown(id);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted batch-checking students");
+        } catch (Exception e) {
+            System.err.println("Error batch-checking students: " + e.getMessage());
+        }
+        return existing;
+    }
+
+    /**
+     * Current email of each given student that exists, via BatchGetItem (bulk loads). Errors are thrown.
+     */
+    public Map<String, String> findEmails(Collection<String> studentIds) throws InterruptedException {
+        Map<String, String> emails = new HashMap<>();
+        if (studentIds == null || studentIds.isEmpty()) return emails;
+        List<Map<String, AttributeValue>> keys = new ArrayList<>();
+        for (String id : new LinkedHashSet<>(studentIds)) keys.add(StudentCodec.key(id));
+        for (var item : BatchReads.getAll(client, table, keys, "studentId, email", null)) {
+            var email = item.get("email");
+            if (email != null && email.s() != null && !email.s().isEmpty()) emails.put(item.get("studentId").s(), email.s());
+        }
+        return emails;
+    }
+
+    /**
+     * Records an id created outside putStudent (e.g. the signup transaction).
+     */
+    public void markKnown(String studentId) {
+        if (studentId == null) return;
+        BloomFilter filter = knownIds;
+        if (filter != null) filter.put(studentId);
+        confirmedIds.put(studentId, Boolean.TRUE);
+    }
+
+    /**
+     * Builds the Bloom filter from a parallel scan of student ids. Sized from DescribeTable's item
+     * count with 2x headroom for growth.
+     */
+    public BloomFilter loadExistenceFilter() {
+        long itemCount = 0;
+        try {
+            itemCount = client.describeTable(DescribeTableRequest.builder().tableName(table).build())
+                    .table().itemCount();
+        } catch (Exception e) {
+            System.err.println("Warning: could not describe " + table + ", sizing filter from default: " + e.getMessage());
+        }
+        BloomFilter filter = new BloomFilter(Math.max(MIN_FILTER_CAPACITY, itemCount * 2), FILTER_FPP);
+        // ids created elsewhere after the scan starts may be missed, so the age counts from here
+        long startedAt = clock.getAsLong();
+        scanner.scan(ScanRequest.builder().tableName(table).projectionExpression("studentId").build(), item -> {
+            var id = item.get("studentId");
+            if (id != null && id.s() != null) filter.put(id.s());
+        });
+        filterLoadedAt = startedAt;
+        knownIds = filter;
+        // publish first, then copy: ids marked while the scan ran are in confirmedIds, and ids
+        // marked from here on go to the new filter
+        synchronized (confirmedIds) {
+            confirmedIds.keySet().forEach(filter::put);
+        }
+        return filter;
+    }
+
+    private void reloadInBackground() {
+        if (!reloading.compareAndSet(false, true)) return;
+        Thread.ofVirtual().name("student-filter-reload").start(() -> {
+            try {
+                loadExistenceFilter();
+                filterReloads.incrementAndGet();
+            } catch (Exception e) {
+                System.err.println("Warning: could not reload student existence filter: " + e.getMessage());
+            } finally {
+                reloading.set(false);
+            }
+        });
+    }
+
+    public void warmUp() {
+        loadExistenceFilter();
+    }
+
+    public String existenceStats() {
+        BloomFilter filter = knownIds;
+        return String.format("StudentExistence[lookups=%d, filterNegatives=%d, positiveCacheHits=%d, filterReloads=%d, %s]",
+                lookups.get(), filterNegatives.get(), cacheHits.get(), filterReloads.get(),
+                filter == null ? "filter not loaded" : filter.toString());
     }
 }
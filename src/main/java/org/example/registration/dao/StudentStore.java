@@ -0,0 +1,55 @@
+package org.example.registration.dao;
+
+import org.example.registration.model.Student;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Student rows, keyed by studentId. Implemented by {@link StudentDao} (DynamoDB) and the embedded backend.
+ */
+public interface StudentStore {
+
+    /**
+     * Replaces the password hash; fails with ConditionalCheckFailedException if the student does not exist.
+     */
+    void updatePassword(String studentId, String hashedPassword);
+
+    /**
+     * Replaces the password hash only while it is still {@code previousHash}, so a rehash cannot
+     * undo a password change made meanwhile.
+     *
+     * @return false if the hash had changed (or the student is gone)
+     */
+    boolean replacePasswordHash(String studentId, String previousHash, String newHash);
+
+    /**
+     * Creates the student; fails with ConditionalCheckFailedException if the id is taken.
+     */
+    void putStudent(Student s);
+
+    Student getStudent(String studentId);
+
+    void deleteStudentById(String studentId);
+
+    /**
+     * False only if the student definitely does not exist; may be answered without a read.
+     */
+    boolean mightExist(String studentId);
+
+    boolean exists(String studentId);
+
+    Set<String> findExisting(Collection<String> studentIds);
+
+    /**
+     * Records an id created outside putStudent (e.g. the signup transaction).
+     */
+    void markKnown(String studentId);
+
+    /**
+     * Prepares existence checks at startup (e.g. loads a Bloom filter).
+     */
+    void warmUp();
+
+    String existenceStats();
+}
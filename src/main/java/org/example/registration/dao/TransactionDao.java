@@ -0,0 +1,160 @@
+package org.example.registration.dao;
+
+import org.example.registration.model.Student;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Multi-table registration writes done as a single TransactWriteItems call. Each method
+ * reports which condition cancelled the transaction so callers need no pre-reads. The requests
+ * and retry rules live in {@link RegistrationTransactions}, shared with {@link AsyncTransactionDao}.
+ */
+public class TransactionDao implements TransactionStore {
+    private final DynamoDbClient client;
+
+    public TransactionDao(DynamoDbClient client) {
+        this.client = client;
+    }
+
+    /**
+     * Creates the Student row and its EmailIndex row together; neither is written if either key is taken.
+     */
+    public SignupResult signup(Student student) {
+        TransactWriteItemsRequest req = RegistrationTransactions.signupRequest(student);
+        for (int attempt = 0; ; attempt++) {
+            try {
+                client.transactWriteItems(req);
+                return SignupResult.CREATED;
+            } catch (TransactionCanceledException tce) {
+                SignupResult result = RegistrationTransactions.signupCancelled(reasonCodes(tce), attempt);
+                if (result != null) return result;
+                backoff(attempt);
+            } catch (Exception e) {
+                System.err.println("Error in signup transaction: " + e.getMessage());
+                return SignupResult.ERROR;
+            }
+        }
+    }
+
+    /**
+     * Reserves a seat, writes the enrollment and checks the student is not waitlisted, atomically.
+     * COURSE_FULL also covers a course without maxSeats; callers check existence beforehand.
+     */
+    public EnrollResult enroll(String studentId, String courseId) {
+        return enroll(studentId, courseId, 0);
+    }
+
+    /**
+     * As {@link #enroll(String, String)}; with shardCount &gt; 0 the seat comes from the course's
+     * counter shards, starting at a random one and moving on while shards report full.
+     */
+    public EnrollResult enroll(String studentId, String courseId, int shardCount) {
+        RegistrationTransactions.Enroll enroll = new RegistrationTransactions.Enroll(studentId, courseId, shardCount);
+        while (true) {
+            try {
+                client.transactWriteItems(enroll.request());
+                return EnrollResult.ENROLLED;
+            } catch (TransactionCanceledException tce) {
+                switch (enroll.cancelled(tce)) {
+                    case DONE:
+                        return enroll.result;
+                    case BACKOFF:
+                        backoff(enroll.conflicts++);
+                        break;
+                    default:
+                        break;
+                }
+            } catch (Exception e) {
+                System.err.println("Error in enroll transaction: " + e.getMessage());
+                return EnrollResult.ERROR;
+            }
+        }
+    }
+
+    /**
+     * Drops an enrollment and, in the same transaction, promotes the head of the waitlist: the seat
+     * passes straight to the promoted student so the counter is untouched. With an empty waitlist the
+     * seat is released instead. If another drop claims the head first, the next head is tried; nobody
+     * is requeued. Once the head is contended, retries walk the first {@link WaitlistDao#CLAIM_WINDOW}
+     * entries oldest first, so the oldest student nobody else has claimed is the one promoted.
+     */
+    public DropOutcome dropAndPromote(String studentId, String courseId, String reason) {
+        return dropAndPromote(studentId, courseId, reason, 0);
+    }
+
+    /**
+     * As {@link #dropAndPromote(String, String, String)}; with shardCount &gt; 0 a released seat goes
+     * back to the first counter shard (from a random start) that has one to give.
+     */
+    public DropOutcome dropAndPromote(String studentId, String courseId, String reason, int shardCount) {
+        RegistrationTransactions.Drop drop = new RegistrationTransactions.Drop(studentId, courseId, reason, shardCount);
+        while (!drop.exhausted()) {
+            if (drop.needsHeads()) {
+                try {
+                    drop.heads(client.query(drop.headQuery()).items());
+                } catch (Exception e) {
+                    System.err.println("Error reading waitlist head: " + e.getMessage());
+                    return new DropOutcome(DropOutcome.Status.ERROR, null);
+                }
+            }
+
+            try {
+                client.transactWriteItems(drop.request());
+                return drop.succeeded();
+            } catch (TransactionCanceledException tce) {
+                switch (drop.cancelled(tce)) {
+                    case DONE:
+                        return drop.outcome;
+                    case DISCARD_HEAD:
+                        discardWaitlistEntry(drop);
+                        break;
+                    case BACKOFF:
+                        backoff(drop.conflicts++);
+                        break;
+                    default:
+                        break;
+                }
+            } catch (Exception e) {
+                System.err.println("Error in drop transaction: " + e.getMessage());
+                return new DropOutcome(DropOutcome.Status.ERROR, null);
+            }
+        }
+        return drop.outcome;
+    }
+
+    // ----------------------
+    // Helpers
+    // ----------------------
+
+    private void discardWaitlistEntry(RegistrationTransactions.Drop drop) {
+        try {
+            client.transactWriteItems(drop.discardRequest());
+        } catch (Exception e) {
+            System.err.println("Warning: failed to discard stale waitlist entry for " + drop.staleStudentId()
+                    + ": " + e.getMessage());
+        }
+    }
+
+    static List<String> reasonCodes(TransactionCanceledException tce) {
+        if (!tce.hasCancellationReasons()) return List.of();
+        List<String> codes = new ArrayList<>();
+        for (CancellationReason r : tce.cancellationReasons()) codes.add(r.code() == null ? "None" : r.code());
+        return codes;
+    }
+
+    static boolean failed(List<String> codes, int index) {
+        return index < codes.size() && "ConditionalCheckFailed".equals(codes.get(index));
+    }
+
+    static void backoff(int attempt) {
+        try {
+            long capped = Math.min(200L, 10L << attempt);
+            Thread.sleep(ThreadLocalRandom.current().nextLong(capped / 2, capped + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.registration.dao;
+
+import org.example.registration.model.Student;
+
+/**
+ * Multi-row registration writes that must land together. Implemented by {@link TransactionDao}
+ * (TransactWriteItems) and the embedded backend.
+ */
+public interface TransactionStore {
+
+    enum SignupResult { CREATED, ID_TAKEN, EMAIL_TAKEN, ERROR }
+
+    enum EnrollResult { ENROLLED, COURSE_FULL, ALREADY_ENROLLED, ALREADY_WAITLISTED, ERROR }
+
+    class DropOutcome {
+        public enum Status { DROPPED, DROPPED_AND_PROMOTED, NOT_ENROLLED, ERROR }
+
+        public final Status status;
+        public final String promotedStudentId;
+
+        public DropOutcome(Status status, String promotedStudentId) {
+            this.status = status;
+            this.promotedStudentId = promotedStudentId;
+        }
+    }
+
+    /**
+     * Creates the Student row and its EmailIndex row; neither is kept if either key is taken.
+     */
+    SignupResult signup(Student student);
+
+    default EnrollResult enroll(String studentId, String courseId) {
+        return enroll(studentId, courseId, 0);
+    }
+
+    /**
+     * Reserves a seat and writes the enrollment, provided the student is not on the course's waitlist.
+     * shardCount is the course's seat shard count (0 when unsharded).
+     */
+    EnrollResult enroll(String studentId, String courseId, int shardCount);
+
+    default DropOutcome dropAndPromote(String studentId, String courseId, String reason) {
+        return dropAndPromote(studentId, courseId, reason, 0);
+    }
+
+    /**
+     * Drops an enrollment and hands the seat to the head of the waitlist, or releases it if nobody is waiting.
+     */
+    DropOutcome dropAndPromote(String studentId, String courseId, String reason, int shardCount);
+}
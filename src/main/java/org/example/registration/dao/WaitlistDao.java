@@ -1,177 +1,359 @@
 package org.example.registration.dao;
 
+import org.example.registration.codec.WaitlistCodec;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
 import java.util.*;
 
-public class WaitlistDao {
+import static org.example.registration.codec.Attributes.s;
+
+/**
+ * Waitlist entries live in "Waitlist" (PK courseId, SK createdAt). Every entry has a reverse-index
+ * row in "WaitlistByStudent" (PK studentId, SK courseId) holding the entry's createdAt, so
+ * per-student checks are key lookups instead of table scans. Both rows are written and removed
+ * together in one transaction. createdAt is a time-ordered unique key
+ * ({@link WaitlistCodec#nextCreatedAt()}) and the entry put is conditional, so concurrent joins
+ * never overwrite each other's position.
+ */
+public class WaitlistDao implements WaitlistStore {
     private final DynamoDbClient client;
     private final String tableName = "Waitlist";
+    private final String indexTableName = "WaitlistByStudent";
+    private static final int MAX_APPEND_ATTEMPTS = 5;
+    private static final int MAX_CLAIM_ROUNDS = 8;
+    static final int CLAIM_WINDOW = 8;
 
     public WaitlistDao(DynamoDbClient client) {
         this.client = client;
     }
-    public void addToWaitlist(String courseId, String studentId, Map<String, String> extra) {
+
+    public boolean addToWaitlist(String courseId, String studentId, Map<String, String> extra) {
         try {
-            String createdAt = String.valueOf(System.currentTimeMillis());
-
-            Map<String, AttributeValue> item = new HashMap<>();
-            item.put("courseId", AttributeValue.builder().s(courseId).build());
-            item.put("createdAt", AttributeValue.builder().s(createdAt).build());
-            item.put("studentId", AttributeValue.builder().s(studentId).build());
-
-            if (extra != null) {
-                if (extra.containsKey("name"))
-                    item.put("name", AttributeValue.builder().s(extra.get("name")).build());
-                if (extra.containsKey("email"))
-                    item.put("email", AttributeValue.builder().s(extra.get("email")).build());
+            AttributeValue cid = s(courseId);
+            AttributeValue sid = s(studentId);
+            int conflicts = 0;
+            for (int attempt = 0; attempt < MAX_APPEND_ATTEMPTS; attempt++) {
+                AttributeValue ts = s(WaitlistCodec.nextCreatedAt());
+                try {
+                    client.transactWriteItems(TransactWriteItemsRequest.builder()
+                            .transactItems(
+                                    TransactWriteItem.builder().put(Put.builder()
+                                            .tableName(tableName)
+                                            .item(WaitlistCodec.entry(cid, ts, sid, extra))
+                                            // never overwrite another student's position
+                                            .conditionExpression("attribute_not_exists(createdAt)")
+                                            .build()).build(),
+                                    TransactWriteItem.builder().put(Put.builder()
+                                            .tableName(indexTableName)
+                                            .item(WaitlistCodec.indexItem(sid, cid, ts))
+                                            // one waitlist entry per student per course
+                                            .conditionExpression("attribute_not_exists(studentId)")
+                                            .build()).build())
+                            .build());
+                    return true;
+                } catch (TransactionCanceledException tce) {
+                    List<String> codes = TransactionDao.reasonCodes(tce);
+                    if (TransactionDao.failed(codes, 1)) return false; // student is already waitlisted for this course
+                    if (codes.contains("TransactionConflict")) {
+                        TransactionDao.backoff(conflicts++);
+                    } else if (!TransactionDao.failed(codes, 0)) {
+                        System.err.println("Error adding to waitlist: " + tce.getMessage());
+                        return false;
+                    }
+                    // key taken or conflicting write: retry with a fresh createdAt
+                }
             }
-
-            PutItemRequest req = PutItemRequest.builder()
-                    .tableName(tableName)
-                    .item(item)
-                    .build();
-
-            client.putItem(req);
+            System.err.println("Error adding to waitlist: could not allocate a unique createdAt for "
+                    + studentId + " / " + courseId);
+            return false;
         } catch (Exception e) {
             System.err.println("Error adding to waitlist: " + e.getMessage());
+            return false;
         }
     }
+
+    /**
+     * Claims the oldest entry with a DeleteItem conditioned on the entry still existing
+     * (ReturnValues ALL_OLD), so of two concurrent pops only one gets a given student; the loser
+     * moves on to the next head. Once the head is contended, a pop reads the first
+     * {@value #CLAIM_WINDOW} entries and tries them oldest first, skipping the ones another pop
+     * claimed, so the waitlist is served in order even with promoters running side by side.
+     */
     public String popFirstWaitlistedStudent(String courseId) {
         try {
-            QueryRequest query = QueryRequest.builder()
-                    .tableName(tableName)
-                    .keyConditionExpression("courseId = :cid")
-                    .expressionAttributeValues(Map.of(":cid", AttributeValue.builder().s(courseId).build()))
-                    .scanIndexForward(true) // oldest first
-                    .limit(1)
-                    .consistentRead(true) // prefer fresh data when promoting
-                    .build();
+            AttributeValue cid = s(courseId);
+            int window = 1;
+            for (int round = 0; round < MAX_CLAIM_ROUNDS; round++) {
+                List<Map<String, AttributeValue>> heads = client.query(QueryRequest.builder()
+                        .tableName(tableName)
+                        .keyConditionExpression("courseId = :cid")
+                        .expressionAttributeValues(Map.of(":cid", cid))
+                        .scanIndexForward(true) // oldest first
+                        .limit(window)
+                        .consistentRead(true) // prefer fresh data when promoting
+                        .build()).items();
+                if (heads.isEmpty()) return null;
 
-            QueryResponse res = client.query(query);
-            if (res.count() == 0) return null;
-
-            Map<String, AttributeValue> first = res.items().get(0);
-            String studentId = first.get("studentId").s();
-            String createdAt = first.get("createdAt").s();
-
-            // remove the popped entry
-            removeWaitlistEntry(courseId, createdAt);
-            return studentId;
+                for (var head : heads) {
+                    Map<String, AttributeValue> claimed = claim(cid, head.get("createdAt"));
+                    if (claimed != null) return claimed.get("studentId").s();
+                }
+                window = CLAIM_WINDOW;
+            }
+            System.err.println("Error popping waitlist student: gave up after repeated contention for " + courseId);
+            return null;
         } catch (Exception e) {
             System.err.println("Error popping waitlist student: " + e.getMessage());
             return null;
         }
     }
+
+    /**
+     * Bulk pop: one range query over the head of the waitlist, then a conditional claim per entry
+     * (see {@link #popFirstWaitlistedStudent}). Entries claimed by a concurrent pop are skipped and
+     * the query continues past them until {@code max} entries are claimed or the list runs out.
+     * Returns the entries as they were stored, so one can be put back with {@link #restoreWaitlistEntry}.
+     */
+    @Override
+    public List<Map<String, AttributeValue>> popWaitlistEntries(String courseId, int max) {
+        List<Map<String, AttributeValue>> popped = new ArrayList<>();
+        if (max <= 0) return popped;
+        try {
+            AttributeValue cid = s(courseId);
+            Map<String, AttributeValue> startKey = null;
+            do {
+                QueryRequest.Builder query = QueryRequest.builder()
+                        .tableName(tableName)
+                        .keyConditionExpression("courseId = :cid")
+                        .expressionAttributeValues(Map.of(":cid", cid))
+                        .scanIndexForward(true) // oldest first
+                        .limit(max - popped.size())
+                        .consistentRead(true);
+                if (startKey != null) query.exclusiveStartKey(startKey);
+
+                QueryResponse res = client.query(query.build());
+                for (var entry : res.items()) {
+                    Map<String, AttributeValue> claimed = claim(cid, entry.get("createdAt"));
+                    if (claimed != null) popped.add(claimed);
+                }
+                startKey = res.hasLastEvaluatedKey() && !res.lastEvaluatedKey().isEmpty() ? res.lastEvaluatedKey() : null;
+            } while (popped.size() < max && startKey != null);
+        } catch (Exception e) {
+            System.err.println("Error popping waitlist students: " + e.getMessage());
+        }
+        return popped;
+    }
+
+    /**
+     * Writes the entry and its index row back in one transaction, both conditional on being absent.
+     */
+    @Override
+    public boolean restoreWaitlistEntry(Map<String, AttributeValue> entry) {
+        try {
+            client.transactWriteItems(TransactWriteItemsRequest.builder()
+                    .transactItems(
+                            TransactWriteItem.builder().put(Put.builder()
+                                    .tableName(tableName)
+                                    .item(entry)
+                                    .conditionExpression("attribute_not_exists(createdAt)")
+                                    .build()).build(),
+                            TransactWriteItem.builder().put(Put.builder()
+                                    .tableName(indexTableName)
+                                    .item(WaitlistCodec.indexItem(entry.get("studentId"), entry.get("courseId"), entry.get("createdAt")))
+                                    .conditionExpression("attribute_not_exists(studentId)")
+                                    .build()).build())
+                    .build());
+            return true;
+        } catch (TransactionCanceledException tce) {
+            return false; // rejoined meanwhile
+        } catch (Exception e) {
+            System.err.println("Error restoring waitlist entry: " + e.getMessage());
+            return false;
+        }
+    }
+
     public boolean removeWaitlistEntry(String courseId, String createdAt) {
         try {
-            Map<String, AttributeValue> key = Map.of(
-                    "courseId", AttributeValue.builder().s(courseId).build(),
-                    "createdAt", AttributeValue.builder().s(createdAt).build()
-            );
+            AttributeValue cid = s(courseId);
+            AttributeValue ts = s(createdAt);
             DeleteItemRequest req = DeleteItemRequest.builder()
                     .tableName(tableName)
-                    .key(key)
+                    .key(WaitlistCodec.entryKey(cid, ts))
+                    .returnValues(ReturnValue.ALL_OLD)
                     .build();
-            client.deleteItem(req);
+            var old = client.deleteItem(req).attributes();
+
+            if (old != null && old.containsKey("studentId")) releaseIndexRow(old.get("studentId"), cid, ts);
             return true;
         } catch (Exception e) {
             System.err.println("Error removing waitlist entry: " + e.getMessage());
             return false;
         }
     }
+
     public boolean removeAllWaitlistEntries(String courseId, String studentId) {
         try {
-            // Scan for all items matching both courseId and studentId
-            ScanRequest scanReq = ScanRequest.builder()
-                    .tableName(tableName)
-                    .filterExpression("courseId = :cid AND studentId = :sid")
-                    .expressionAttributeValues(Map.of(
-                            ":cid", AttributeValue.builder().s(courseId).build(),
-                            ":sid", AttributeValue.builder().s(studentId).build()
-                    ))
-                    .consistentRead(true) // make sure we see latest state
-                    .build();
+            Map<String, AttributeValue> indexRow = getIndexRow(courseId, studentId);
+            if (indexRow == null || !indexRow.containsKey("createdAt")) return false;
 
-            ScanResponse res = client.scan(scanReq);
-            if (res.items().isEmpty()) return false;
-
-            for (var item : res.items()) {
-                if (item.containsKey("createdAt")) {
-                    String createdAt = item.get("createdAt").s();
-                    Map<String, AttributeValue> key = Map.of(
-                            "courseId", AttributeValue.builder().s(courseId).build(),
-                            "createdAt", AttributeValue.builder().s(createdAt).build()
-                    );
-                    try {
-                        client.deleteItem(DeleteItemRequest.builder()
-                                .tableName(tableName)
-                                .key(key)
-                                .build());
-                    } catch (Exception ex) {
-                        System.err.println("Warning: failed to delete waitlist item " + key + ": " + ex.getMessage());
-                    }
-                }
-            }
+            deleteEntryAndIndex(courseId, indexRow.get("createdAt").s(), studentId);
             return true;
         } catch (Exception e) {
             System.err.println("Error removing waitlist entries: " + e.getMessage());
             return false;
         }
     }
+
+    /**
+     * All waitlist index rows (studentId, courseId, createdAt) for a student.
+     * limit <= 0 returns every row; pagination is followed to the end.
+     */
     public List<Map<String, AttributeValue>> getWaitlistsByStudent(String studentId, int limit) {
         try {
-            ScanRequest req = ScanRequest.builder()
-                    .tableName(tableName)
-                    .filterExpression("studentId = :sid")
-                    .expressionAttributeValues(Map.of(":sid",
-                            AttributeValue.builder().s(studentId).build()))
-                    .limit(limit > 0 ? limit : 100)
-                    .consistentRead(true) // prefer fresh results
-                    .build();
+            List<Map<String, AttributeValue>> out = new ArrayList<>();
+            Map<String, AttributeValue> startKey = null;
+            do {
+                QueryRequest.Builder req = QueryRequest.builder()
+                        .tableName(indexTableName)
+                        .keyConditionExpression("studentId = :sid")
+                        .expressionAttributeValues(Map.of(":sid",
+                                s(studentId)))
+                        .consistentRead(true); // prefer fresh results
+                if (startKey != null) req.exclusiveStartKey(startKey);
 
-            ScanResponse res = client.scan(req);
-            return res.items();
+                QueryResponse res = client.query(req.build());
+                out.addAll(res.items());
+                if (limit > 0 && out.size() >= limit) return out.subList(0, limit);
+                startKey = res.hasLastEvaluatedKey() && !res.lastEvaluatedKey().isEmpty() ? res.lastEvaluatedKey() : null;
+            } while (startKey != null);
+            return out;
         } catch (Exception e) {
             System.err.println("Error getting waitlists by student: " + e.getMessage());
             return Collections.emptyList();
         }
     }
+
     public List<Map<String, AttributeValue>> getWaitlistsByCourse(String courseId) {
         try {
-            QueryRequest query = QueryRequest.builder()
-                    .tableName(tableName)
-                    .keyConditionExpression("courseId = :cid")
-                    .expressionAttributeValues(Map.of(":cid",
-                            AttributeValue.builder().s(courseId).build()))
-                    .scanIndexForward(true)
-                    .consistentRead(true) // prefer fresh results for admin actions
-                    .build();
+            List<Map<String, AttributeValue>> out = new ArrayList<>();
+            Map<String, AttributeValue> startKey = null;
+            do {
+                QueryRequest.Builder query = QueryRequest.builder()
+                        .tableName(tableName)
+                        .keyConditionExpression("courseId = :cid")
+                        .expressionAttributeValues(Map.of(":cid",
+                                s(courseId)))
+                        .scanIndexForward(true)
+                        .consistentRead(true); // prefer fresh results for admin actions
+                if (startKey != null) query.exclusiveStartKey(startKey);
 
-            QueryResponse res = client.query(query);
-            return res.items();
+                QueryResponse res = client.query(query.build());
+                out.addAll(res.items());
+                startKey = res.hasLastEvaluatedKey() && !res.lastEvaluatedKey().isEmpty() ? res.lastEvaluatedKey() : null;
+            } while (startKey != null);
+            return out;
         } catch (Exception e) {
             System.err.println("Error getting waitlists by course: " + e.getMessage());
             return Collections.emptyList();
         }
     }
-    public boolean isStudentOnWaitlist(String courseId, String studentId) {
+
+    /**
+     * One consistent query for the oldest {@code limit} entries.
+     */
+    @Override
+    public List<Map<String, AttributeValue>> getWaitlistHead(String courseId, int limit) {
+        if (limit <= 0) return Collections.emptyList();
         try {
-            ScanRequest req = ScanRequest.builder()
+            return client.query(QueryRequest.builder()
                     .tableName(tableName)
-                    .filterExpression("courseId = :cid AND studentId = :sid")
-                    .expressionAttributeValues(Map.of(
-                            ":cid", AttributeValue.builder().s(courseId).build(),
-                            ":sid", AttributeValue.builder().s(studentId).build()))
-                    .consistentRead(true) // ensure up-to-date check
-                    .build();
+                    .keyConditionExpression("courseId = :cid")
+                    .expressionAttributeValues(Map.of(":cid", s(courseId)))
+                    .scanIndexForward(true) // oldest first
+                    .limit(limit)
+                    .consistentRead(true)
+                    .build()).items();
+        } catch (Exception e) {
+            System.err.println("Error reading waitlist head: " + e.getMessage());
+            return Collections.emptyList();
+        }
+    }
 
-            ScanResponse res = client.scan(req);
-            return !res.items().isEmpty();
+    public boolean isStudentOnWaitlist(String courseId, String studentId) {
+        try {
+            return getIndexRow(courseId, studentId) != null;
         } catch (Exception e) {
             System.err.println("Error checking waitlist: " + e.getMessage());
             return false;
         }
     }
+
+    // ----------------------
+    // Helpers
+    // ----------------------
+
+    private Map<String, AttributeValue> getIndexRow(String courseId, String studentId) {
+        GetItemResponse res = client.getItem(GetItemRequest.builder()
+                .tableName(indexTableName)
+                .key(WaitlistCodec.indexKey(studentId, courseId))
+                .consistentRead(true) // ensure up-to-date check
+                .build());
+        return res.hasItem() && !res.item().isEmpty() ? res.item() : null;
+    }
+
+    /**
+     * Deletes one entry if it still exists and returns it, or null if a concurrent pop claimed it first.
+     */
+    private Map<String, AttributeValue> claim(AttributeValue courseId, AttributeValue createdAt) {
+        Map<String, AttributeValue> old;
+        try {
+            old = client.deleteItem(DeleteItemRequest.builder()
+                    .tableName(tableName)
+                    .key(WaitlistCodec.entryKey(courseId, createdAt))
+                    .conditionExpression("attribute_exists(createdAt)")
+                    .returnValues(ReturnValue.ALL_OLD)
+                    .build()).attributes();
+        } catch (ConditionalCheckFailedException lost) {
+            return null;
+        }
+        AttributeValue studentId = old.get("studentId");
+        try {
+            releaseIndexRow(studentId, courseId, createdAt);
+        } catch (Exception e) {
+            // the entry is ours already; a leftover index row must not lose the student
+            System.err.println("Warning: failed to remove waitlist index row for " + studentId.s() + ": " + e.getMessage());
+        }
+        return old;
+    }
+
+    /**
+     * Drops the reverse-index row only if it still points at the given entry.
+     */
+    private void releaseIndexRow(AttributeValue studentId, AttributeValue courseId, AttributeValue createdAt) {
+        try {
+            client.deleteItem(DeleteItemRequest.builder()
+                    .tableName(indexTableName)
+                    .key(WaitlistCodec.indexKey(studentId, courseId))
+                    .conditionExpression("createdAt = :ts")
+                    .expressionAttributeValues(Map.of(":ts", createdAt))
+                    .build());
+        } catch (ConditionalCheckFailedException ignored) {
+            // index row belongs to a newer entry
+        }
+    }
+
+    private void deleteEntryAndIndex(String courseId, String createdAt, String studentId) {
+        client.transactWriteItems(TransactWriteItemsRequest.builder()
+                .transactItems(
+                        TransactWriteItem.builder().delete(Delete.builder()
+                                .tableName(tableName)
+                                .key(WaitlistCodec.entryKey(courseId, createdAt))
+                                .build()).build(),
+                        TransactWriteItem.builder().delete(Delete.builder()
+                                .tableName(indexTableName)
+                                .key(WaitlistCodec.indexKey(studentId, courseId))
+                                .build()).build())
+                .build());
+    }
 }
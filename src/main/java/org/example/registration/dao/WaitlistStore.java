@@ -0,0 +1,55 @@
+package org.example.registration.dao;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-course waitlists (oldest first) with a per-student index. Implemented by {@link WaitlistDao}
+ * (DynamoDB) and the embedded backend.
+ */
+public interface WaitlistStore {
+
+    /**
+     * False if the student is already waitlisted for the course.
+     */
+    boolean addToWaitlist(String courseId, String studentId, Map<String, String> extra);
+
+    /**
+     * Removes and returns the oldest waitlisted student, or null if the waitlist is empty.
+     */
+    String popFirstWaitlistedStudent(String courseId);
+
+    /**
+     * Removes and returns up to {@code max} entries from the head of the waitlist, oldest first.
+     */
+    List<Map<String, AttributeValue>> popWaitlistEntries(String courseId, int max);
+
+    /**
+     * Puts a popped entry back under its original createdAt, so the student keeps their place.
+     * False if the student has joined the course's waitlist again since, or the entry could not be written.
+     */
+    boolean restoreWaitlistEntry(Map<String, AttributeValue> entry);
+
+    boolean removeWaitlistEntry(String courseId, String createdAt);
+
+    boolean removeAllWaitlistEntries(String courseId, String studentId);
+
+    /**
+     * Index rows (studentId, courseId, createdAt) for a student; limit &lt;= 0 returns every row.
+     */
+    List<Map<String, AttributeValue>> getWaitlistsByStudent(String studentId, int limit);
+
+    /**
+     * Entries for a course, oldest first.
+     */
+    List<Map<String, AttributeValue>> getWaitlistsByCourse(String courseId);
+
+    /**
+     * The oldest {@code limit} entries for a course, without removing them.
+     */
+    List<Map<String, AttributeValue>> getWaitlistHead(String courseId, int limit);
+
+    boolean isStudentOnWaitlist(String courseId, String studentId);
+}
@@ -0,0 +1,153 @@
+package org.example.registration.dao.embedded;
+
+import org.example.registration.codec.Attributes;
+import org.example.registration.dao.CourseStore;
+import org.example.registration.model.Course;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.*;
+
+/**
+ * Courses held in memory. Seat changes are lock-free compare-and-set loops on the course row:
+ * concurrent enrolls never wait on each other, they retry against the count they lost to.
+ * There is no cache (reads are already local) and no seat sharding (a CAS retry is cheap).
+ */
+class EmbeddedCourseStore implements CourseStore {
+    private final Table courses;
+
+    EmbeddedCourseStore(Table courses) {
+        this.courses = courses;
+    }
+
+    @Override
+    public Course getCourse(String courseId) {
+        return courseId == null ? null : Course.fromItem(courses.get(courseId, null));
+    }
+
+    @Override
+    public Course getCourseFresh(String courseId) {
+        return getCourse(courseId);
+    }
+
+    @Override
+    public Map<String, String> getCourseTitles(Collection<String> courseIds) {
+        Map<String, String> titles = new HashMap<>();
+        if (courseIds == null) return titles;
+        for (String id : courseIds) {
+            var item = courses.get(id, null);
+            String title = Items.str(item, "title");
+            if (title == null) title = Items.str(item, "courseName");
+            if (title != null) titles.put(id, title);
+        }
+        return titles;
+    }
+
+    @Override
+    public List<Course> listAllCourses() {
+        List<Course> list = new ArrayList<>();
+        courses.scan(item -> {
+            Course c = Course.fromItem(item);
+            if (c != null) list.add(c);
+        });
+        return list;
+    }
+
+    @Override
+    public boolean reserveSeatIfAvailable(String courseId) {
+        return reserveSeats(courseId, 1) == 1;
+    }
+
+    @Override
+    public boolean releaseSeat(String courseId) {
+        return courses.update(courseId, null, current -> {
+            int enrolled = Items.intAttr(current, "currentEnrolled");
+            return current == null || enrolled <= 0 ? current : withEnrolled(current, enrolled - 1);
+        });
+    }
+
+    @Override
+    public boolean incrementMaxSeats(String courseId, int by) {
+        if (by <= 0) return false;
+        return courses.update(courseId, null, current -> current == null
+                ? null
+                : withCapacity(current, Items.intAttr(current, "maxSeats") + by));
+    }
+
+    @Override
+    public SeatChange updateMaxSeats(String courseId, int newSeats) {
+        if (courseId == null) return new SeatChange(SeatChange.Status.NOT_FOUND, null);
+        SeatChange[] change = new SeatChange[1];
+        courses.update(courseId, null, current -> {
+            Course c = Course.fromItem(current);
+            if (c == null) {
+                change[0] = new SeatChange(SeatChange.Status.NOT_FOUND, null);
+                return current;
+            }
+            if (newSeats < c.currentEnrolled) {
+                change[0] = new SeatChange(SeatChange.Status.BELOW_ENROLLED, c);
+                return current;
+            }
+            change[0] = new SeatChange(SeatChange.Status.UPDATED, c);
+            return withCapacity(current, newSeats);
+        });
+        return change[0];
+    }
+
+    @Override
+    public boolean putCourse(Course course) {
+        if (course == null || course.courseId == null || course.courseId.trim().isEmpty()) {
+            System.err.println("putCourse: invalid course object");
+            return false;
+        }
+        return courses.putIfAbsent(course.toItem());
+    }
+
+    @Override
+    public boolean deleteCourse(String courseId) {
+        courses.delete(courseId, null);
+        return true;
+    }
+
+    @Override
+    public int reserveSeats(String courseId, int wanted) {
+        if (wanted <= 0 || courseId == null) return 0;
+        int[] granted = new int[1];
+        courses.update(courseId, null, current -> {
+            granted[0] = 0;
+            if (current == null || current.get("maxSeats") == null) return current;
+            int enrolled = Items.intAttr(current, "currentEnrolled");
+            int free = Items.intAttr(current, "maxSeats") - enrolled;
+            if (free <= 0) return current;
+            granted[0] = Math.min(free, wanted);
+            return withEnrolled(current, enrolled + granted[0]);
+        });
+        return granted[0];
+    }
+
+    @Override
+    public int releaseSeats(String courseId, int count) {
+        if (count <= 0) return 0;
+        boolean released = courses.update(courseId, null, current -> {
+            int enrolled = Items.intAttr(current, "currentEnrolled");
+            return current == null || enrolled < count ? current : withEnrolled(current, enrolled - count);
+        });
+        if (!released) System.err.println("Warning: seat counter for " + courseId + " is below " + count + ", not releasing");
+        return released ? count : 0;
+    }
+
+    @Override
+    public boolean enableSharding(String courseId, int shards) {
+        System.err.println("enableSharding: the embedded store does not shard seats; its seat updates never block");
+        return false;
+    }
+
+    private static Map<String, AttributeValue> withEnrolled(Map<String, AttributeValue> course, int enrolled) {
+        return Items.with(course, "currentEnrolled", Items.n(enrolled));
+    }
+
+    // a capacity change also bumps the version, as the DynamoDB store does
+    private static Map<String, AttributeValue> withCapacity(Map<String, AttributeValue> course, int maxSeats) {
+        long version = Attributes.longOf(course, "version", 0);
+        return Items.with(Items.with(course, "maxSeats", Items.n(maxSeats)), "version", Items.n(version + 1));
+    }
+}
@@ -0,0 +1,320 @@
+package org.example.registration.dao.embedded;
+
+import org.example.registration.dao.Stores;
+import org.example.registration.util.FileSync;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Embedded, file-backed storage: the registration tables live in concurrent in-memory maps
+ * ({@link Table}), every row change is appended to a write-ahead log, and the log is periodically
+ * folded into a snapshot so startup replays only the tail. Runs small campuses and edge
+ * deployments without DynamoDB, and gives a no-network ceiling to compare the remote backend with.
+ *
+ * Data directory layout:
+ *   snapshot-N.dat   every live row as of a checkpoint; replay continues with wal-N.log
+ *   wal-N.log        row changes, oldest segment first
+ *
+ * Each row change is logged on its own, so a multi-row operation (enroll, drop) interrupted by a
+ * crash can come back half applied. Tuning (system properties):
+ *   registration.embedded.fsync            "interval" (default, sync every 20 ms) or "always"
+ *   registration.embedded.snapshotRecords  log records between automatic snapshots (default 100000)
+ */
+public class EmbeddedDatabase implements AutoCloseable {
+    public static final String FSYNC_PROPERTY = "registration.embedded.fsync";
+    public static final String SNAPSHOT_RECORDS_PROPERTY = "registration.embedded.snapshotRecords";
+    private static final long DEFAULT_SNAPSHOT_RECORDS = 100_000;
+
+    final Table students = new Table(this, "Student", "studentId", null, false);
+    final Table emails = new Table(this, "EmailIndex", "email", null, false);
+    final Table courses = new Table(this, "Course", "courseId", null, false);
+    final Table enrollments = new Table(this, "Enrollment", "studentId", "courseId", false);
+    final Table waitlist = new Table(this, "Waitlist", "courseId", "createdAt", false);
+    final Table waitlistByStudent = new Table(this, "WaitlistByStudent", "studentId", "courseId", false);
+    final Table drops = new Table(this, "DropHistory", "studentCourse", "droppedAt", true);
+    private final Map<String, Table> tables = new LinkedHashMap<>();
+
+    private final Path dir;
+    private final long snapshotEvery;
+    private final AtomicLong seq = new AtomicLong();
+    // changes hold the read side; a checkpoint takes the write side to rotate the log and purge tombstones
+    private final ReentrantReadWriteLock checkpointLock = new ReentrantReadWriteLock();
+    private final Queue<Tombstone> tombstones = new ConcurrentLinkedQueue<>();
+    private final AtomicLong loggedSinceSnapshot = new AtomicLong();
+    private final AtomicBoolean snapshotScheduled = new AtomicBoolean();
+    private final ExecutorService snapshotter;
+    private WriteAheadLog wal;
+    private volatile boolean closed;
+
+    private record Tombstone(ConcurrentSkipListMap<String, Table.Row> partition, String sk, Table.Row row) {
+    }
+
+    private EmbeddedDatabase(Path dir, long snapshotEvery) {
+        this.dir = dir;
+        this.snapshotEvery = snapshotEvery;
+        for (Table t : List.of(students, emails, courses, enrollments, waitlist, waitlistByStudent, drops)) {
+            tables.put(t.name, t);
+        }
+        this.snapshotter = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "embedded-snapshot");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Opens (or creates) the store in {@code dir}: loads the newest snapshot, replays the log
+     * segments after it and starts a fresh segment.
+     */
+    public static EmbeddedDatabase open(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        EmbeddedDatabase db = new EmbeddedDatabase(dir, configuredSnapshotRecords());
+        db.recover();
+        return db;
+    }
+
+    private static long configuredSnapshotRecords() {
+        try {
+            long n = Long.parseLong(System.getProperty(SNAPSHOT_RECORDS_PROPERTY, String.valueOf(DEFAULT_SNAPSHOT_RECORDS)).trim());
+            return n > 0 ? n : DEFAULT_SNAPSHOT_RECORDS;
+        } catch (NumberFormatException e) {
+            return DEFAULT_SNAPSHOT_RECORDS;
+        }
+    }
+
+    private static WriteAheadLog.Durability configuredDurability() {
+        return "always".equalsIgnoreCase(System.getProperty(FSYNC_PROPERTY, "interval").trim())
+                ? WriteAheadLog.Durability.ALWAYS
+                : WriteAheadLog.Durability.INTERVAL;
+    }
+
+    /**
+     * The registration stores over this database; closing them closes the database.
+     */
+    public Stores stores() {
+        EmbeddedCourseStore courseStore = new EmbeddedCourseStore(courses);
+        EmbeddedWaitlistStore waitlistStore = new EmbeddedWaitlistStore(waitlist, waitlistByStudent);
+        EmbeddedDropStore dropStore = new EmbeddedDropStore(drops);
+        return new Stores(
+                new EmbeddedStudentStore(students),
+                new EmbeddedEmailIndexStore(emails),
+                courseStore,
+                new EmbeddedEnrollmentStore(enrollments),
+                waitlistStore,
+                dropStore,
+                new EmbeddedTransactionStore(students, emails, enrollments, waitlistByStudent,
+                        courseStore, waitlistStore, dropStore),
+                null,
+                this);
+    }
+
+    // ----------------------
+    // Change path (called by Table)
+    // ----------------------
+
+    void beginChange() {
+        if (closed) throw new IllegalStateException("embedded store is closed");
+        checkpointLock.readLock().lock();
+    }
+
+    void endChange() {
+        checkpointLock.readLock().unlock();
+    }
+
+    long nextSeq() {
+        return seq.incrementAndGet();
+    }
+
+    void logChange(Table table, String pk, String sk, Table.Row row) {
+        try {
+            wal.append(ItemCodec.encode(table.name, pk, sk, row.seq, row.item));
+        } catch (IOException e) {
+            // the change is already visible in memory; surface the lost durability to the caller
+            throw new UncheckedIOException("Could not log change to " + table.name, e);
+        }
+        if (loggedSinceSnapshot.incrementAndGet() >= snapshotEvery && snapshotScheduled.compareAndSet(false, true)) {
+            snapshotter.execute(this::snapshotInBackground);
+        }
+    }
+
+    void tombstoned(ConcurrentSkipListMap<String, Table.Row> partition, String sk, Table.Row row) {
+        tombstones.add(new Tombstone(partition, sk, row));
+    }
+
+    // ----------------------
+    // Snapshots and recovery
+    // ----------------------
+
+    /**
+     * Writes every live row to a new snapshot and deletes the log segments and snapshots it
+     * replaces. Changes keep flowing while the rows are written: anything the snapshot misses is in
+     * the new log segment, and replay keeps the newest version of each row.
+     */
+    public synchronized void snapshot() throws IOException {
+        if (closed) return;
+        long replayFrom;
+        checkpointLock.writeLock().lock();
+        try {
+            // no change is in flight here, so every record so far is in the old segments
+            replayFrom = wal.rotate();
+            loggedSinceSnapshot.set(0);
+            for (Tombstone t; (t = tombstones.poll()) != null; ) t.partition().remove(t.sk(), t.row());
+        } finally {
+            checkpointLock.writeLock().unlock();
+        }
+
+        Path tmp = dir.resolve(snapshotName(replayFrom) + ".tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 20))) {
+            for (Table table : tables.values()) {
+                table.forEachRow((pk, sk, row) ->
+                        ItemCodec.writeFrame(out, ItemCodec.encode(table.name, pk, sk, row.seq, row.item)));
+            }
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(tmp, dir.resolve(snapshotName(replayFrom)), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        // the rename must be on disk before the files it replaces are gone
+        FileSync.syncDirectory(dir);
+
+        deleteSnapshotsBefore(replayFrom);
+        WriteAheadLog.deleteSegmentsBefore(dir, replayFrom);
+    }
+
+    private void snapshotInBackground() {
+        try {
+            if (!closed) snapshot();
+        } catch (Exception e) {
+            System.err.println("Warning: embedded snapshot failed: " + e.getMessage());
+        } finally {
+            snapshotScheduled.set(false);
+        }
+    }
+
+    private void recover() throws IOException {
+        long snapshot = latest("snapshot-", ".dat");
+        long replayed = 0;
+        if (snapshot >= 0) replayed += load(dir.resolve(snapshotName(snapshot)));
+
+        long lastSegment = Math.max(snapshot, 0);
+        List<Long> segments = new ArrayList<>();
+        try (var files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                String name = p.getFileName().toString();
+                long n = WriteAheadLog.segmentOf(name);
+                if (n >= 0 && n >= snapshot) segments.add(n);
+                if (name.endsWith(".tmp")) Files.deleteIfExists(p); // unfinished snapshot
+            }
+        }
+        Collections.sort(segments);
+        long logRecords = 0;
+        for (long n : segments) {
+            logRecords += load(dir.resolve(WriteAheadLog.segmentName(n)));
+            lastSegment = Math.max(lastSegment, n);
+        }
+        replayed += logRecords;
+
+        for (Table t : tables.values()) t.purgeTombstones();
+        // never append to a segment that may end in a torn frame
+        wal = new WriteAheadLog(dir, lastSegment + 1, configuredDurability());
+        if (logRecords > 0) {
+            System.out.println("Embedded store: recovered " + replayed + " records from " + dir.toAbsolutePath());
+            // fold the replayed log into a snapshot so the next start is fast
+            snapshotScheduled.set(true);
+            snapshotter.execute(this::snapshotInBackground);
+        }
+    }
+
+    /**
+     * Applies every intact frame of a snapshot or log segment; stops at a torn tail.
+     */
+    private long load(Path file) throws IOException {
+        long records = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 20))) {
+            for (byte[] payload; (payload = ItemCodec.readFrame(in)) != null; records++) {
+                ItemCodec.Record r = ItemCodec.decode(payload);
+                Table table = tables.get(r.table);
+                if (table == null) {
+                    System.err.println("Warning: skipping record for unknown table " + r.table + " in " + file.getFileName());
+                    continue;
+                }
+                table.replay(r.pk, r.sk, r.seq, r.item);
+                if (r.seq > seq.get()) seq.set(r.seq);
+            }
+        } catch (ItemCodec.TornFrameException torn) {
+            // a crash mid-append: everything before the torn frame is intact
+            System.err.println("Warning: " + file.getFileName() + " ends in an incomplete record (" + torn.getMessage()
+                    + "); recovered " + records + " records before it");
+        }
+        return records;
+    }
+
+    private long latest(String prefix, String suffix) throws IOException {
+        long best = -1;
+        try (var files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                String name = p.getFileName().toString();
+                if (!name.startsWith(prefix) || !name.endsWith(suffix)) continue;
+                try {
+                    best = Math.max(best, Long.parseLong(name.substring(prefix.length(), name.length() - suffix.length())));
+                } catch (NumberFormatException ignored) {
+                    // not one of ours
+                }
+            }
+        }
+        return best;
+    }
+
+    private void deleteSnapshotsBefore(long keep) throws IOException {
+        try (var files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                String name = p.getFileName().toString();
+                if (name.startsWith("snapshot-") && name.endsWith(".dat") && !name.equals(snapshotName(keep))) {
+                    Files.deleteIfExists(p);
+                }
+            }
+        }
+    }
+
+    private static String snapshotName(long replayFrom) {
+        return String.format("snapshot-%010d.dat", replayFrom);
+    }
+
+    public String stats() {
+        StringBuilder sb = new StringBuilder("EmbeddedDatabase[dir=").append(dir.toAbsolutePath());
+        for (Table t : tables.values()) sb.append(", ").append(t.name).append('=').append(t.size());
+        return sb.append(", seq=").append(seq.get()).append(", logAppends=").append(wal.appended()).append(']').toString();
+    }
+
+    /**
+     * Stops without the final snapshot, leaving the directory as a crash would (after the last
+     * fsync). For recovery tests.
+     */
+    synchronized void abandon() throws IOException {
+        closed = true;
+        snapshotter.shutdownNow();
+        wal.close();
+    }
+
+    /**
+     * Takes a final snapshot (so the next start replays nothing) and closes the log.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        try {
+            snapshot();
+        } finally {
+            closed = true;
+            snapshotter.shutdown();
+            wal.close();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.registration.dao.embedded;
+
+import org.example.registration.codec.DropCodec;
+import org.example.registration.dao.DropStore;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class EmbeddedDropStore implements DropStore {
+    private static final int MAX_PUT_ATTEMPTS = 100;
+    private final Table drops;
+
+    EmbeddedDropStore(Table drops) {
+        this.drops = drops;
+    }
+
+    @Override
+    public boolean recordDrop(String studentId, String courseId, String actor, String reason) {
+        if (studentId == null || studentId.isBlank()) studentId = "UNKNOWN_STUDENT";
+        if (courseId == null || courseId.isBlank()) courseId = "UNKNOWN_COURSE";
+        if (actor == null) actor = "UNKNOWN";
+        if (reason == null) reason = "";
+
+        // two records for the same pair in the same millisecond take consecutive droppedAt values
+        AttributeValue sid = Items.s(studentId);
+        AttributeValue cid = Items.s(courseId);
+        long droppedAt = System.currentTimeMillis();
+        for (int attempt = 0; attempt < MAX_PUT_ATTEMPTS; attempt++, droppedAt++) {
+            if (drops.putIfAbsent(DropCodec.item(sid, cid, actor, reason, droppedAt))) return true;
+        }
+        System.err.println("Error recording drop: could not allocate a unique droppedAt for " + studentId + " / " + courseId);
+        return false;
+    }
+
+    @Override
+    public boolean hasDroppedBefore(String studentId, String courseId) {
+        for (var item : drops.query(DropCodec.ledgerKey(studentId, courseId), 0)) {
+            if (DropCodec.isStudentDrop(item)) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public List<String> getDropHistoryByCourse(String courseId) {
+        List<String> list = new ArrayList<>();
+        drops.scan(item -> {
+            if (!courseId.equals(Items.str(item, "courseId"))) return;
+            String sid = item.containsKey("studentId") ? Items.str(item, "studentId") : "UNKNOWN";
+            String actor = item.containsKey("actor") ? Items.str(item, "actor") : "UNKNOWN";
+            String reason = item.containsKey("reason") ? Items.str(item, "reason") : "";
+            list.add(sid + " (" + actor + ") - " + reason);
+        });
+        return list;
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.registration.dao.embedded;
+
+import org.example.registration.codec.StudentCodec;
+import org.example.registration.dao.EmailIndexStore;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+
+class EmbeddedEmailIndexStore implements EmailIndexStore {
+    private final Table emails;
+
+    EmbeddedEmailIndexStore(Table emails) {
+        this.emails = emails;
+    }
+
+    @Override
+    public void putEmail(String email, String studentId) {
+        if (email == null) throw new IllegalArgumentException("email is null");
+        String norm = email.toLowerCase();
+        if (!emails.putIfAbsent(StudentCodec.emailIndexItem(norm, studentId))) {
+            throw ConditionalCheckFailedException.builder().message("Email already registered: " + norm).build();
+        }
+    }
+
+    @Override
+    public boolean emailExists(String email) {
+        return email != null && emails.get(email.toLowerCase(), null) != null;
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.registration.dao.embedded;
+
+import org.example.registration.codec.EnrollmentCodec;
+import org.example.registration.dao.EnrollmentStore;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.*;
+
+class EmbeddedEnrollmentStore implements EnrollmentStore {
+    private final Table enrollments;
+
+    EmbeddedEnrollmentStore(Table enrollments) {
+        this.enrollments = enrollments;
+    }
+
+    @Override
+    public void putEnrollment(String studentId, String courseId, String status) {
+        enrollments.put(EnrollmentCodec.item(studentId, courseId, status));
+    }
+
+    @Override
+    public boolean deleteEnrollment(String studentId, String courseId) {
+        return enrollments.delete(studentId, courseId) != null;
+    }
+
+    @Override
+    public boolean isEnrolled(String studentId, String courseId) {
+        return enrollments.get(studentId, courseId) != null;
+    }
+
+    @Override
+    public Set<String> findExisting(Collection<String> studentCoursePairs) {
+        Set<String> existing = new HashSet<>();
+        if (studentCoursePairs == null) return existing;
+        for (String pair : studentCoursePairs) {
+            int sep = pair.indexOf('#');
+            if (sep > 0 && isEnrolled(pair.substring(0, sep), pair.substring(sep + 1))) existing.add(pair);
+        }
+        return existing;
+    }
+
+    @Override
+    public List<Map<String, AttributeValue>> listEnrollmentsByStudent(String studentId) {
+        return enrollments.query(studentId, 0);
+    }
+
+    @Override
+    public List<Map<String, AttributeValue>> listAllEnrollments() {
+        List<Map<String, AttributeValue>> out = new ArrayList<>();
+        enrollments.scan(out::add);
+        return out;
+    }
+
+    @Override
+    public List<Map<String, AttributeValue>> listEnrollmentsByCourse(String courseId) {
+        List<Map<String, AttributeValue>> out = new ArrayList<>();
+        enrollments.scan(item -> {
+            if (courseId.equals(Items.str(item, "courseId"))) out.add(item);
+        });
+        return out;
+    }
+}
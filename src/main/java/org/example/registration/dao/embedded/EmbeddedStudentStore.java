@@ -0,0 +1,87 @@
+package org.example.registration.dao.embedded;
+
+import org.example.registration.dao.StudentStore;
+import org.example.registration.model.Student;
+import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Students held in memory; existence checks are map lookups, so there is no filter to load.
+ */
+class EmbeddedStudentStore implements StudentStore {
+    private final Table students;
+
+    EmbeddedStudentStore(Table students) {
+        this.students = students;
+    }
+
+    @Override
+    public void updatePassword(String studentId, String hashedPassword) {
+        boolean updated = students.update(studentId, null, current -> current == null
+                ? null
+                : Items.with(current, "passwordHash", Items.s(hashedPassword)));
+        if (!updated) {
+            throw ConditionalCheckFailedException.builder().message("Student not found: " + studentId).build();
+        }
+    }
+
+    @Override
+    public boolean replacePasswordHash(String studentId, String previousHash, String newHash) {
+        return students.update(studentId, null, current -> current != null && previousHash.equals(Items.str(current, "passwordHash"))
+                ? Items.with(current, "passwordHash", Items.s(newHash))
+                : current);
+    }
+
+    @Override
+    public void putStudent(Student s) {
+        if (!students.putIfAbsent(s.toItem())) {
+            throw ConditionalCheckFailedException.builder().message("Student already exists: " + s.studentId).build();
+        }
+    }
+
+    @Override
+    public Student getStudent(String studentId) {
+        return studentId == null ? null : Student.fromItem(students.get(studentId, null));
+    }
+
+    @Override
+    public void deleteStudentById(String studentId) {
+        students.delete(studentId, null);
+    }
+
+    @Override
+    public boolean mightExist(String studentId) {
+        return exists(studentId);
+    }
+
+    @Override
+    public boolean exists(String studentId) {
+        return studentId != null && students.get(studentId, null) != null;
+    }
+
+    @Override
+    public Set<String> findExisting(Collection<String> studentIds) {
+        Set<String> existing = new HashSet<>();
+        if (studentIds == null) return existing;
+        for (String id : studentIds) if (exists(id)) existing.add(id);
+        return existing;
+    }
+
+    @Override
+    public void markKnown(String studentId) {
+        // every student is already in memory
+    }
+
+    @Override
+    public void warmUp() {
+        // nothing to load; recovery already brought every row into memory
+    }
+
+    @Override
+    public String existenceStats() {
+        return "StudentExistence[embedded, " + students.size() + " students in memory]";
+    }
+}
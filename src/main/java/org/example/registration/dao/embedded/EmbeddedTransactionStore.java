@@ -0,0 +1,105 @@
+package org.example.registration.dao.embedded;
+
+import org.example.registration.codec.EnrollmentCodec;
+import org.example.registration.codec.StudentCodec;
+import org.example.registration.dao.TransactionStore;
+import org.example.registration.model.Student;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+/**
+ * The multi-row writes as ordered single-row steps, each a conditional change, with compensation
+ * where a later step fails: a seat is reserved before the enrollment row is claimed and handed
+ * back if the claim loses. Concurrent callers therefore see the same outcomes as with
+ * TransactWriteItems; only a crash between steps can leave an operation half applied.
+ */
+class EmbeddedTransactionStore implements TransactionStore {
+    private final Table students;
+    private final Table emails;
+    private final Table enrollments;
+    private final Table waitlistByStudent;
+    private final EmbeddedCourseStore courses;
+    private final EmbeddedWaitlistStore waitlists;
+    private final EmbeddedDropStore drops;
+
+    EmbeddedTransactionStore(Table students, Table emails, Table enrollments, Table waitlistByStudent,
+                             EmbeddedCourseStore courses, EmbeddedWaitlistStore waitlists, EmbeddedDropStore drops) {
+        this.students = students;
+        this.emails = emails;
+        this.enrollments = enrollments;
+        this.waitlistByStudent = waitlistByStudent;
+        this.courses = courses;
+        this.waitlists = waitlists;
+        this.drops = drops;
+    }
+
+    @Override
+    public SignupResult signup(Student student) {
+        try {
+            Map<String, AttributeValue> row = student.toItem();
+            if (!students.putIfAbsent(row)) return SignupResult.ID_TAKEN;
+            String email = student.email == null ? "" : student.email.toLowerCase();
+            if (!emails.putIfAbsent(StudentCodec.emailIndexItem(email, student.studentId))) {
+                students.deleteIfCurrent(student.studentId, null, students.get(student.studentId, null));
+                return SignupResult.EMAIL_TAKEN;
+            }
+            return SignupResult.CREATED;
+        } catch (Exception e) {
+            System.err.println("Error in signup: " + e.getMessage());
+            return SignupResult.ERROR;
+        }
+    }
+
+    /**
+     * shardCount is ignored: embedded courses keep a single seat counter.
+     */
+    @Override
+    public EnrollResult enroll(String studentId, String courseId, int shardCount) {
+        try {
+            if (enrollments.get(studentId, courseId) != null) return EnrollResult.ALREADY_ENROLLED;
+            if (waitlistByStudent.get(studentId, courseId) != null) return EnrollResult.ALREADY_WAITLISTED;
+            if (courses.reserveSeats(courseId, 1) != 1) return EnrollResult.COURSE_FULL;
+            if (!enrollments.putIfAbsent(EnrollmentCodec.item(studentId, courseId, EnrollmentCodec.ENROLLED))) {
+                courses.releaseSeat(courseId); // a concurrent enroll of the same student won
+                return EnrollResult.ALREADY_ENROLLED;
+            }
+            return EnrollResult.ENROLLED;
+        } catch (Exception e) {
+            System.err.println("Error in enroll: " + e.getMessage());
+            return EnrollResult.ERROR;
+        }
+    }
+
+    /**
+     * Deletes the enrollment, then pops waitlist heads until one can take the seat; a popped student
+     * who is already enrolled is discarded, as in the DynamoDB transaction. shardCount is ignored.
+     */
+    @Override
+    public DropOutcome dropAndPromote(String studentId, String courseId, String reason, int shardCount) {
+        try {
+            if (enrollments.delete(studentId, courseId) == null) {
+                return new DropOutcome(DropOutcome.Status.NOT_ENROLLED, null);
+            }
+            drops.recordDrop(studentId, courseId, "STUDENT", reason);
+
+            while (true) {
+                String promoted = waitlists.popFirstWaitlistedStudent(courseId);
+                if (promoted == null) {
+                    if (!courses.releaseSeat(courseId)) {
+                        System.err.println("Warning: seat counter for " + courseId + " was already 0 on drop");
+                    }
+                    return new DropOutcome(DropOutcome.Status.DROPPED, null);
+                }
+                if (enrollments.putIfAbsent(EnrollmentCodec.item(promoted, courseId, EnrollmentCodec.ENROLLED))) {
+                    drops.recordDrop(promoted, courseId, "SYSTEM", "Promoted from waitlist after drop");
+                    return new DropOutcome(DropOutcome.Status.DROPPED_AND_PROMOTED, promoted);
+                }
+                // stale entry: already enrolled, try the next head
+            }
+        } catch (Exception e) {
+            System.err.println("Error in drop: " + e.getMessage());
+            return new DropOutcome(DropOutcome.Status.ERROR, null);
+        }
+    }
+}
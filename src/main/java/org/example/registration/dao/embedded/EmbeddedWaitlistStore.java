@@ -0,0 +1,149 @@
+package org.example.registration.dao.embedded;
+
+import org.example.registration.codec.WaitlistCodec;
+import org.example.registration.dao.WaitlistStore;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.*;
+
+/**
+ * Waitlist entries (courseId, createdAt) plus the per-student index (studentId, courseId), as in
+ * DynamoDB. The index row is claimed first and is the one-entry-per-student guard. createdAt
+ * comes from {@link WaitlistCodec#nextCreatedAt()}; should it still collide with an existing entry
+ * (one replayed from another process's log), the entry takes a fresh key. Popping the head is a
+ * conditional delete of the exact row read, so two concurrent pops never return the same student.
+ */
+class EmbeddedWaitlistStore implements WaitlistStore {
+    private final Table entries;
+    private final Table byStudent;
+
+    EmbeddedWaitlistStore(Table entries, Table byStudent) {
+        this.entries = entries;
+        this.byStudent = byStudent;
+    }
+
+    @Override
+    public boolean addToWaitlist(String courseId, String studentId, Map<String, String> extra) {
+        String claimed = WaitlistCodec.nextCreatedAt();
+        AttributeValue sid = Items.s(studentId);
+        AttributeValue cid = Items.s(courseId);
+        if (!byStudent.putIfAbsent(WaitlistCodec.indexItem(sid, cid, Items.s(claimed)))) return false; // already waitlisted
+
+        String ts = claimed;
+        while (!entries.putIfAbsent(WaitlistCodec.entry(cid, Items.s(ts), sid, extra))) ts = WaitlistCodec.nextCreatedAt();
+
+        String createdAt = ts;
+        if (!createdAt.equals(claimed)) {
+            // point the index at the slot actually taken, unless the entry was already popped
+            byStudent.update(studentId, courseId, current -> current != null && claimed.equals(Items.str(current, "createdAt"))
+                    ? Items.with(current, "createdAt", Items.s(createdAt))
+                    : current);
+        }
+        return true;
+    }
+
+    @Override
+    public String popFirstWaitlistedStudent(String courseId) {
+        Map<String, AttributeValue> head = popHead(courseId);
+        return head == null ? null : Items.str(head, "studentId");
+    }
+
+    @Override
+    public List<Map<String, AttributeValue>> popWaitlistEntries(String courseId, int max) {
+        List<Map<String, AttributeValue>> popped = new ArrayList<>();
+        for (Map<String, AttributeValue> next; popped.size() < max && (next = popHead(courseId)) != null; ) popped.add(next);
+        return popped;
+    }
+
+    private Map<String, AttributeValue> popHead(String courseId) {
+        while (true) {
+            Map<String, AttributeValue> head = entries.first(courseId);
+            if (head == null) return null;
+            String createdAt = Items.str(head, "createdAt");
+            if (entries.deleteIfCurrent(courseId, createdAt, head)) {
+                dropIndexRow(Items.str(head, "studentId"), courseId, createdAt);
+                return head;
+            }
+            // another pop claimed this head first; try the new head
+        }
+    }
+
+    @Override
+    public boolean restoreWaitlistEntry(Map<String, AttributeValue> entry) {
+        String studentId = Items.str(entry, "studentId");
+        String courseId = Items.str(entry, "courseId");
+        String createdAt = Items.str(entry, "createdAt");
+        if (!byStudent.putIfAbsent(WaitlistCodec.indexItem(entry.get("studentId"), entry.get("courseId"), entry.get("createdAt")))) {
+            return false; // rejoined meanwhile
+        }
+        if (entries.putIfAbsent(entry)) return true;
+        // slot taken: withdraw the index row just written
+        byStudent.update(studentId, courseId, current -> current != null && createdAt.equals(Items.str(current, "createdAt"))
+                ? null
+                : current);
+        return false;
+    }
+
+    @Override
+    public boolean removeWaitlistEntry(String courseId, String createdAt) {
+        Map<String, AttributeValue> removed = entries.delete(courseId, createdAt);
+        if (removed != null) dropIndexRow(Items.str(removed, "studentId"), courseId, createdAt);
+        return true;
+    }
+
+    @Override
+    public boolean removeAllWaitlistEntries(String courseId, String studentId) {
+        Map<String, AttributeValue> index = byStudent.get(studentId, courseId);
+        if (index == null) return false;
+
+        Map<String, AttributeValue> entry = entries.get(courseId, Items.str(index, "createdAt"));
+        if (entry == null || !studentId.equals(Items.str(entry, "studentId"))) {
+            // index not yet pointed at a bumped slot; find the student's entry in the course
+            entry = null;
+            for (var candidate : entries.query(courseId, 0)) {
+                if (studentId.equals(Items.str(candidate, "studentId"))) {
+                    entry = candidate;
+                    break;
+                }
+            }
+        }
+        if (entry != null) entries.deleteIfCurrent(courseId, Items.str(entry, "createdAt"), entry);
+        byStudent.delete(studentId, courseId);
+        return true;
+    }
+
+    @Override
+    public List<Map<String, AttributeValue>> getWaitlistsByStudent(String studentId, int limit) {
+        return byStudent.query(studentId, limit);
+    }
+
+    @Override
+    public List<Map<String, AttributeValue>> getWaitlistsByCourse(String courseId) {
+        return entries.query(courseId, 0);
+    }
+
+    @Override
+    public List<Map<String, AttributeValue>> getWaitlistHead(String courseId, int limit) {
+        return limit <= 0 ? List.of() : entries.query(courseId, limit);
+    }
+
+    @Override
+    public boolean isStudentOnWaitlist(String courseId, String studentId) {
+        return byStudent.get(studentId, courseId) != null;
+    }
+
+    // Removes the index row if it belongs to the removed entry (or to the provisional slot the
+    // entry was claimed with), not to a newer entry the student added since.
+    private void dropIndexRow(String studentId, String courseId, String createdAt) {
+        if (studentId == null) return;
+        byStudent.update(studentId, courseId, current -> current != null && notNewer(Items.str(current, "createdAt"), createdAt)
+                ? null
+                : current);
+    }
+
+    private static boolean notNewer(String indexCreatedAt, String entryCreatedAt) {
+        if (indexCreatedAt == null) return true;
+        if (indexCreatedAt.length() != entryCreatedAt.length()) return indexCreatedAt.length() < entryCreatedAt.length();
+        return indexCreatedAt.compareTo(entryCreatedAt) <= 0;
+    }
+}
@@ -0,0 +1,171 @@
+package org.example.registration.dao.embedded;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary form of one row change, shared by the write-ahead log and snapshots.
+ *
+ * Frame:   int length, int crc32(payload), payload
+ * Payload: table, partition key, sort key, long seq, int attribute count (-1 for a delete),
+ *          then per attribute: name, type tag ('S', 'N', 'B', '0') and value
+ *
+ * Only scalar attributes are stored; the registration tables use nothing else.
+ */
+final class ItemCodec {
+    static final int MAX_FRAME = 16 * 1024 * 1024;
+
+    private ItemCodec() {
+    }
+
+    /**
+     * A decoded row change; item is null for a delete.
+     */
+    static final class Record {
+        final String table;
+        final String pk;
+        final String sk;
+        final long seq;
+        final Map<String, AttributeValue> item;
+
+        Record(String table, String pk, String sk, long seq, Map<String, AttributeValue> item) {
+            this.table = table;
+            this.pk = pk;
+            this.sk = sk;
+            this.seq = seq;
+            this.item = item;
+        }
+    }
+
+    static byte[] encode(String table, String pk, String sk, long seq, Map<String, AttributeValue> item) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, table);
+            writeString(out, pk);
+            writeString(out, sk);
+            out.writeLong(seq);
+            if (item == null) {
+                out.writeInt(-1);
+            } else {
+                out.writeInt(item.size());
+                for (var e : item.entrySet()) {
+                    writeString(out, e.getKey());
+                    writeValue(out, e.getKey(), e.getValue());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // in-memory stream
+        }
+        return bytes.toByteArray();
+    }
+
+    static Record decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        String table = readString(in);
+        String pk = readString(in);
+        String sk = readString(in);
+        long seq = in.readLong();
+        int count = in.readInt();
+        Map<String, AttributeValue> item = null;
+        if (count >= 0) {
+            item = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                String name = readString(in);
+                item.put(name, readValue(in));
+            }
+        }
+        return new Record(table, pk, sk, seq, item);
+    }
+
+    static void writeFrame(DataOutputStream out, byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        out.writeInt(payload.length);
+        out.writeInt((int) crc.getValue());
+        out.write(payload);
+    }
+
+    /**
+     * Next frame's payload, or null at a clean end of stream. A torn or corrupt frame (crash
+     * mid-write) throws {@link TornFrameException}; everything before it is intact.
+     */
+    static byte[] readFrame(DataInputStream in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException eof) {
+            return null;
+        }
+        if (length < 0 || length > MAX_FRAME) throw new TornFrameException("bad frame length " + length);
+        try {
+            int expected = in.readInt();
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != expected) throw new TornFrameException("checksum mismatch");
+            return payload;
+        } catch (EOFException eof) {
+            throw new TornFrameException("truncated frame");
+        }
+    }
+
+    static class TornFrameException extends IOException {
+        TornFrameException(String message) {
+            super(message);
+        }
+    }
+
+    private static void writeValue(DataOutputStream out, String name, AttributeValue v) throws IOException {
+        if (v.s() != null) {
+            out.writeByte('S');
+            writeString(out, v.s());
+        } else if (v.n() != null) {
+            out.writeByte('N');
+            writeString(out, v.n());
+        } else if (v.bool() != null) {
+            out.writeByte('B');
+            out.writeBoolean(v.bool());
+        } else if (Boolean.TRUE.equals(v.nul())) {
+            out.writeByte('0');
+        } else {
+            throw new IllegalArgumentException("Unsupported attribute type for '" + name + "': " + v);
+        }
+    }
+
+    private static AttributeValue readValue(DataInputStream in) throws IOException {
+        int tag = in.readByte();
+        switch (tag) {
+            case 'S':
+                return AttributeValue.builder().s(readString(in)).build();
+            case 'N':
+                return AttributeValue.builder().n(readString(in)).build();
+            case 'B':
+                return AttributeValue.builder().bool(in.readBoolean()).build();
+            case '0':
+                return AttributeValue.builder().nul(true).build();
+            default:
+                throw new IOException("Unknown attribute tag " + tag);
+        }
+    }
+
+    // length-prefixed UTF-8 (writeUTF caps strings at 64 KB)
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_FRAME) throw new IOException("bad string length " + length);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,41 @@
+package org.example.registration.dao.embedded;
+
+import org.example.registration.codec.Attributes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Small helpers for reading and copy-on-write editing of stored items; scalar values come from the
+ * shared {@link Attributes} codec so cached constants are reused here too.
+ */
+final class Items {
+    private Items() {
+    }
+
+    static AttributeValue s(String value) {
+        return Attributes.s(value);
+    }
+
+    static AttributeValue n(long value) {
+        return Attributes.n(value);
+    }
+
+    static String str(Map<String, AttributeValue> item, String name) {
+        return Attributes.str(item, name);
+    }
+
+    static int intAttr(Map<String, AttributeValue> item, String name) {
+        return Attributes.intOf(item, name);
+    }
+
+    /**
+     * A copy of the item with one attribute replaced; stored items are never modified in place.
+     */
+    static Map<String, AttributeValue> with(Map<String, AttributeValue> item, String name, AttributeValue value) {
+        Map<String, AttributeValue> copy = new HashMap<>(item);
+        copy.put(name, value);
+        return copy;
+    }
+}
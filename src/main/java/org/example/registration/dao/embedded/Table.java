@@ -0,0 +1,223 @@
+package org.example.registration.dao.embedded;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * One in-memory table with the same key schema and item shape as its DynamoDB counterpart:
+ * a concurrent hash map of partitions, each a sorted map of rows by sort key.
+ *
+ * Every change is a compare-and-set of the row object, so readers never block and writers to
+ * different rows never contend. A change takes a fresh sequence number after it has read the row
+ * it replaces, so on any one row the sequence numbers of successful changes only grow; replay
+ * keeps the highest one per row and the order of records in the log does not matter. Deleted
+ * rows stay behind as tombstones until the next checkpoint purges them.
+ */
+final class Table {
+    final String name;
+    private final String partitionKey;
+    private final String sortKey;
+    private final Comparator<String> sortOrder;
+    private final EmbeddedDatabase db;
+    private final ConcurrentHashMap<String, ConcurrentSkipListMap<String, Row>> partitions = new ConcurrentHashMap<>();
+
+    /**
+     * A row version; compared by identity, so a CAS only succeeds against the exact version read.
+     */
+    static final class Row {
+        final long seq;
+        final Map<String, AttributeValue> item; // null for a tombstone
+
+        Row(long seq, Map<String, AttributeValue> item) {
+            this.seq = seq;
+            this.item = item;
+        }
+    }
+
+    /**
+     * @param sortKey        null for a partition-key-only table
+     * @param numericSortKey sort by numeric value (non-negative integers) instead of by string
+     */
+    Table(EmbeddedDatabase db, String name, String partitionKey, String sortKey, boolean numericSortKey) {
+        this.db = db;
+        this.name = name;
+        this.partitionKey = partitionKey;
+        this.sortKey = sortKey;
+        this.sortOrder = numericSortKey
+                ? Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder())
+                : Comparator.naturalOrder();
+    }
+
+    // ----------------------
+    // Reads
+    // ----------------------
+
+    Map<String, AttributeValue> get(String pk, String sk) {
+        var partition = partitions.get(pk);
+        if (partition == null) return null;
+        Row row = partition.get(sk == null ? "" : sk);
+        return row == null ? null : row.item;
+    }
+
+    /**
+     * Items of one partition in sort-key order.
+     */
+    List<Map<String, AttributeValue>> query(String pk, int limit) {
+        List<Map<String, AttributeValue>> out = new ArrayList<>();
+        var partition = partitions.get(pk);
+        if (partition == null) return out;
+        for (Row row : partition.values()) {
+            if (row.item == null) continue;
+            out.add(row.item);
+            if (limit > 0 && out.size() >= limit) break;
+        }
+        return out;
+    }
+
+    /**
+     * Lowest-sorting item of a partition, or null.
+     */
+    Map<String, AttributeValue> first(String pk) {
+        List<Map<String, AttributeValue>> head = query(pk, 1);
+        return head.isEmpty() ? null : head.get(0);
+    }
+
+    void scan(Consumer<Map<String, AttributeValue>> sink) {
+        for (var partition : partitions.values()) {
+            for (Row row : partition.values()) {
+                if (row.item != null) sink.accept(row.item);
+            }
+        }
+    }
+
+    long size() {
+        long n = 0;
+        for (var partition : partitions.values()) {
+            for (Row row : partition.values()) if (row.item != null) n++;
+        }
+        return n;
+    }
+
+    // ----------------------
+    // Changes
+    // ----------------------
+
+    /**
+     * Atomically replaces a row with {@code change.apply(current)}, where current is null if the
+     * row does not exist. Returning current itself leaves the row untouched (a failed condition);
+     * returning null deletes it. The function may run more than once under contention.
+     *
+     * @return true if the row was changed
+     */
+    boolean update(String pk, String sk, UnaryOperator<Map<String, AttributeValue>> change) {
+        String sortValue = sk == null ? "" : sk;
+        var partition = partitions.computeIfAbsent(pk, k -> new ConcurrentSkipListMap<>(sortOrder));
+        db.beginChange();
+        try {
+            while (true) {
+                Row current = partition.get(sortValue);
+                Map<String, AttributeValue> before = current == null ? null : current.item;
+                Map<String, AttributeValue> after = change.apply(before);
+                if (after == before) return false;
+
+                Row next = new Row(db.nextSeq(), after == null ? null : Map.copyOf(after));
+                boolean swapped = current == null
+                        ? partition.putIfAbsent(sortValue, next) == null
+                        : partition.replace(sortValue, current, next);
+                if (swapped) {
+                    db.logChange(this, pk, sortValue, next);
+                    if (next.item == null) db.tombstoned(partition, sortValue, next);
+                    return true;
+                }
+            }
+        } finally {
+            db.endChange();
+        }
+    }
+
+    void put(Map<String, AttributeValue> item) {
+        update(keyOf(item, partitionKey), sortKey == null ? null : keyOf(item, sortKey), current -> item);
+    }
+
+    /**
+     * False if a row with the item's key already exists.
+     */
+    boolean putIfAbsent(Map<String, AttributeValue> item) {
+        return update(keyOf(item, partitionKey), sortKey == null ? null : keyOf(item, sortKey),
+                current -> current == null ? item : current);
+    }
+
+    /**
+     * Deletes the row and returns its item, or null if there was none.
+     */
+    Map<String, AttributeValue> delete(String pk, String sk) {
+        Map<String, AttributeValue>[] removed = newHolder();
+        update(pk, sk, current -> {
+            removed[0] = current;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Deletes the row only if {@code expected} (by identity) is still its current item.
+     */
+    boolean deleteIfCurrent(String pk, String sk, Map<String, AttributeValue> expected) {
+        return expected != null && update(pk, sk, current -> current == expected ? null : current);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, AttributeValue>[] newHolder() {
+        return (Map<String, AttributeValue>[]) new Map[1];
+    }
+
+    private static String keyOf(Map<String, AttributeValue> item, String attribute) {
+        AttributeValue v = item.get(attribute);
+        if (v == null || (v.s() == null && v.n() == null)) {
+            throw new IllegalArgumentException("item is missing key attribute " + attribute);
+        }
+        return v.s() != null ? v.s() : v.n();
+    }
+
+    // ----------------------
+    // Recovery / snapshots (single-threaded or under the checkpoint lock)
+    // ----------------------
+
+    /**
+     * Applies a logged or snapshotted row version if it is newer than what is held.
+     */
+    void replay(String pk, String sk, long seq, Map<String, AttributeValue> item) {
+        var partition = partitions.computeIfAbsent(pk, k -> new ConcurrentSkipListMap<>(sortOrder));
+        Row current = partition.get(sk);
+        if (current == null || seq > current.seq) {
+            partition.put(sk, new Row(seq, item == null ? null : Map.copyOf(item)));
+        }
+    }
+
+    void purgeTombstones() {
+        for (var partition : partitions.values()) {
+            partition.values().removeIf(row -> row.item == null);
+        }
+    }
+
+    /**
+     * Live rows as (pk, sk, row) for a snapshot.
+     */
+    void forEachRow(RowVisitor visitor) throws IOException {
+        for (var p : partitions.entrySet()) {
+            for (var r : p.getValue().entrySet()) {
+                if (r.getValue().item != null) visitor.visit(p.getKey(), r.getKey(), r.getValue());
+            }
+        }
+    }
+
+    interface RowVisitor {
+        void visit(String pk, String sk, Row row) throws IOException;
+    }
+}
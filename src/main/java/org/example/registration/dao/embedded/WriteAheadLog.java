@@ -0,0 +1,178 @@
+package org.example.registration.dao.embedded;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only log of row changes, split into numbered segment files (wal-0000000001.log, ...).
+ * Appends go into a buffer under a short monitor; a flusher thread writes and fsyncs them in
+ * groups. In {@link Durability#ALWAYS} mode an append returns only once its frame is on disk
+ * (concurrent appenders share one fsync); in {@link Durability#INTERVAL} mode a crash can lose
+ * the last {@link #FLUSH_INTERVAL_MILLIS} of writes.
+ */
+final class WriteAheadLog implements Closeable {
+    static final long FLUSH_INTERVAL_MILLIS = 20;
+    private static final int BUFFER_SIZE = 256 * 1024;
+
+    enum Durability { ALWAYS, INTERVAL }
+
+    private final Path dir;
+    private final Durability durability;
+    private final Thread flusher;
+
+    private FileChannel channel;
+    private DataOutputStream out;
+    private long segment;
+    private long appended;
+    private long durable;
+    private boolean closed;
+
+    WriteAheadLog(Path dir, long firstSegment, Durability durability) throws IOException {
+        this.dir = dir;
+        this.durability = durability;
+        openSegment(firstSegment);
+        this.flusher = new Thread(this::flushLoop, "embedded-wal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    static String segmentName(long segment) {
+        return String.format("wal-%010d.log", segment);
+    }
+
+    /**
+     * Segment number of a wal-*.log file name, or -1 if the name is not a segment.
+     */
+    static long segmentOf(String fileName) {
+        if (!fileName.startsWith("wal-") || !fileName.endsWith(".log")) return -1;
+        try {
+            return Long.parseLong(fileName.substring(4, fileName.length() - 4));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        channel = FileChannel.open(dir.resolve(segmentName(number)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+        segment = number;
+    }
+
+    void append(byte[] payload) throws IOException {
+        long ticket;
+        synchronized (this) {
+            if (closed) throw new IOException("write-ahead log is closed");
+            ItemCodec.writeFrame(out, payload);
+            ticket = ++appended;
+            if (durability == Durability.ALWAYS) notifyAll(); // wake the flusher now
+        }
+        if (durability == Durability.ALWAYS) awaitDurable(ticket);
+    }
+
+    private synchronized void awaitDurable(long ticket) throws IOException {
+        while (durable < ticket) {
+            if (closed) throw new IOException("write-ahead log closed before the write was synced");
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("interrupted waiting for fsync");
+            }
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            FileChannel target;
+            long upTo;
+            synchronized (this) {
+                try {
+                    if (!closed && durable == appended) wait(FLUSH_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (closed) return;
+                if (durable == appended) continue;
+                try {
+                    out.flush();
+                } catch (IOException e) {
+                    System.err.println("Error flushing write-ahead log: " + e.getMessage());
+                    continue;
+                }
+                target = channel;
+                upTo = appended;
+            }
+            try {
+                target.force(false); // outside the monitor: appends keep buffering meanwhile
+            } catch (ClosedChannelException rotated) {
+                // rotate() synced and closed this segment itself
+            } catch (IOException e) {
+                System.err.println("Error syncing write-ahead log: " + e.getMessage());
+                continue;
+            }
+            synchronized (this) {
+                durable = Math.max(durable, upTo);
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Syncs and closes the current segment and starts the next one.
+     *
+     * @return the new segment's number; every change logged from now on is in it or a later one
+     */
+    synchronized long rotate() throws IOException {
+        syncAndClose();
+        openSegment(segment + 1);
+        return segment;
+    }
+
+    private void syncAndClose() throws IOException {
+        out.flush();
+        channel.force(false);
+        out.close();
+        durable = appended;
+        notifyAll();
+    }
+
+    synchronized long appended() {
+        return appended;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            try {
+                syncAndClose();
+            } finally {
+                closed = true;
+                notifyAll();
+            }
+        }
+        try {
+            flusher.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Deletes segments older than {@code keepFrom} (already covered by a snapshot).
+     */
+    static void deleteSegmentsBefore(Path dir, long keepFrom) throws IOException {
+        try (var files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                long n = segmentOf(p.getFileName().toString());
+                if (n >= 0 && n < keepFrom) Files.deleteIfExists(p);
+            }
+        }
+    }
+}
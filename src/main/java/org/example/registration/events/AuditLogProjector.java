@@ -0,0 +1,36 @@
+package org.example.registration.events;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends one human-readable line per event to an audit file (see {@link RegistrationEvent#toString()}).
+ */
+public class AuditLogProjector implements EventProjector {
+    private final Path file;
+
+    public AuditLogProjector(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public String name() {
+        return "audit-log";
+    }
+
+    @Override
+    public void project(List<RegistrationEvent> batch) throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            for (RegistrationEvent event : batch) {
+                out.write(event.toString());
+                out.newLine();
+            }
+        }
+    }
+}
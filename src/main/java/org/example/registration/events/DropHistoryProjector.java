@@ -0,0 +1,49 @@
+package org.example.registration.events;
+
+import org.example.registration.dao.DropStore;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes drop-ledger records for the event types that carry one ({@link RegistrationEvent.Type#dropHistory}).
+ * Events with the same course, actor and reason go out as one {@link DropStore#recordDrops} call.
+ *
+ * A replayed batch records its drops again; the ledger is keyed by time, so that shows up as a
+ * duplicate line in the history rather than a lost one.
+ */
+public class DropHistoryProjector implements EventProjector {
+    private final DropStore drops;
+
+    public DropHistoryProjector(DropStore drops) {
+        this.drops = drops;
+    }
+
+    @Override
+    public String name() {
+        return "drop-history";
+    }
+
+    @Override
+    public void project(List<RegistrationEvent> batch) {
+        Map<List<String>, List<String>> groups = new LinkedHashMap<>();
+        for (RegistrationEvent event : batch) {
+            if (!event.type.dropHistory) continue;
+            groups.computeIfAbsent(List.of(event.courseId, event.actor, event.reason), k -> new ArrayList<>())
+                    .add(event.studentId);
+        }
+        for (Map.Entry<List<String>, List<String>> group : groups.entrySet()) {
+            String courseId = group.getKey().get(0);
+            String actor = group.getKey().get(1);
+            String reason = group.getKey().get(2);
+            List<String> studentIds = group.getValue();
+            if (studentIds.size() == 1) {
+                drops.recordDrop(studentIds.get(0), courseId, actor, reason);
+            } else {
+                drops.recordDrops(courseId, studentIds, actor, reason);
+            }
+        }
+    }
+}
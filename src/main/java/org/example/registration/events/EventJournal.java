@@ -0,0 +1,208 @@
+package org.example.registration.events;
+
+import org.example.registration.util.FileSync;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Append-only event log on local disk, one event per line ({@link RegistrationEvent#toLine()}).
+ *
+ * Directory layout:
+ *   events-N.log     events from seq N on, until the next segment starts; a new segment is started
+ *                    at every open and once the current one passes {@link #SEGMENT_BYTES}
+ *   events.cursor    highest seq every projector has applied; replaced atomically on commit
+ *
+ * Appends reach the OS before {@link #append} returns and are fsynced on commit and close, so a
+ * process crash loses nothing but a machine crash can lose the events after the last commit.
+ * The exception is a batch holding drop-history events ({@link RegistrationEvent.Type#dropHistory}):
+ * the journal is their only record until projected, so such an append is fsynced before it returns.
+ * A torn last line is ignored on open. Segments wholly at or behind the cursor are deleted.
+ */
+final class EventJournal implements Closeable {
+    static final long SEGMENT_BYTES = 8L * 1024 * 1024;
+    static final String CURSOR_FILE = "events.cursor";
+
+    private final Path dir;
+    private final TreeSet<Long> segments = new TreeSet<>();
+    private final List<RegistrationEvent> pending;
+    private FileChannel channel;
+    private Writer out;
+    private long segmentBytes;
+    private long nextSeq;
+    private long committed;
+    private boolean closed;
+
+    private EventJournal(Path dir, long committed, long nextSeq, List<RegistrationEvent> pending) {
+        this.dir = dir;
+        this.committed = committed;
+        this.nextSeq = nextSeq;
+        this.pending = pending;
+    }
+
+    /**
+     * Opens (or creates) the journal in {@code dir}, collects the events behind the cursor and
+     * starts a fresh segment.
+     */
+    static EventJournal open(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        long committed = readCursor(dir);
+        long lastSeq = committed;
+        List<RegistrationEvent> pending = new ArrayList<>();
+        TreeSet<Long> found = new TreeSet<>();
+        try (var files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) {
+                long n = segmentOf(p.getFileName().toString());
+                if (n >= 0) found.add(n);
+            }
+        }
+        for (long n : found) {
+            for (RegistrationEvent event : readSegment(dir.resolve(segmentName(n)))) {
+                lastSeq = Math.max(lastSeq, event.seq);
+                if (event.seq > committed) pending.add(event);
+            }
+        }
+        EventJournal journal = new EventJournal(dir, committed, lastSeq + 1, pending);
+        journal.segments.addAll(found);
+        journal.openSegment();
+        return journal;
+    }
+
+    static String segmentName(long firstSeq) {
+        return String.format("events-%019d.log", firstSeq);
+    }
+
+    /**
+     * First seq of an events-*.log file name, or -1 if the name is not a segment.
+     */
+    static long segmentOf(String fileName) {
+        if (!fileName.startsWith("events-") || !fileName.endsWith(".log")) return -1;
+        try {
+            return Long.parseLong(fileName.substring(7, fileName.length() - 4));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long readCursor(Path dir) throws IOException {
+        Path cursor = dir.resolve(CURSOR_FILE);
+        if (!Files.exists(cursor)) return 0;
+        try {
+            return Long.parseLong(Files.readString(cursor, StandardCharsets.UTF_8).trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Unreadable event cursor " + cursor, e);
+        }
+    }
+
+    private static List<RegistrationEvent> readSegment(Path segment) throws IOException {
+        String text = Files.readString(segment, StandardCharsets.UTF_8);
+        String[] lines = text.split("\n", -1);
+        List<RegistrationEvent> events = new ArrayList<>(lines.length);
+        // the last element follows the final newline: empty, or a line cut off by a crash
+        for (int i = 0; i < lines.length - 1; i++) {
+            RegistrationEvent event = RegistrationEvent.parse(lines[i]);
+            if (event != null) events.add(event);
+        }
+        return events;
+    }
+
+    private void openSegment() throws IOException {
+        channel = FileChannel.open(dir.resolve(segmentName(nextSeq)),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        out = new BufferedWriter(new OutputStreamWriter(Channels.newOutputStream(channel), StandardCharsets.UTF_8));
+        segments.add(nextSeq);
+        segmentBytes = channel.size();
+        FileSync.syncDirectory(dir); // so a synced append is not lost with the segment's directory entry
+    }
+
+    /**
+     * Events found behind the cursor when the journal was opened, oldest first.
+     */
+    List<RegistrationEvent> pending() {
+        return pending;
+    }
+
+    /**
+     * Numbers and writes the events, in order; fsynced before returning if any is a drop-history event.
+     *
+     * @return the events with their seq set
+     */
+    synchronized List<RegistrationEvent> append(List<RegistrationEvent> events) throws IOException {
+        if (closed) throw new IOException("event journal is closed");
+        if (segmentBytes >= SEGMENT_BYTES) rotate();
+        List<RegistrationEvent> numbered = new ArrayList<>(events.size());
+        boolean sync = false;
+        for (RegistrationEvent event : events) {
+            sync |= event.type.dropHistory;
+            RegistrationEvent withSeq = event.withSeq(nextSeq++);
+            String line = withSeq.toLine();
+            out.write(line);
+            out.write('\n');
+            segmentBytes += line.length() + 1;
+            numbered.add(withSeq);
+        }
+        out.flush();
+        if (sync) channel.force(false);
+        return numbered;
+    }
+
+    private void rotate() throws IOException {
+        out.flush();
+        channel.force(false);
+        out.close();
+        openSegment();
+    }
+
+    /**
+     * Records that every event up to {@code seq} has been projected and drops the segments that
+     * hold nothing newer.
+     */
+    synchronized void commit(long seq) throws IOException {
+        if (seq <= committed) return;
+        // the cursor must never point past events that are not on disk yet
+        if (!closed) channel.force(false);
+        Path tmp = dir.resolve(CURSOR_FILE + ".tmp");
+        try (FileChannel cursor = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            cursor.write(StandardCharsets.UTF_8.encode(Long.toString(seq)));
+            cursor.force(false);
+        }
+        Files.move(tmp, dir.resolve(CURSOR_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        FileSync.syncDirectory(dir);
+        committed = seq;
+
+        Long first;
+        while ((first = segments.first()) != null) {
+            Long next = segments.higher(first);
+            if (next == null || next - 1 > committed) break;
+            Files.deleteIfExists(dir.resolve(segmentName(first)));
+            segments.remove(first);
+        }
+    }
+
+    synchronized long committed() {
+        return committed;
+    }
+
+    /**
+     * Seq of the last event appended (or found on open); 0 if there has been none.
+     */
+    synchronized long lastSeq() {
+        return nextSeq - 1;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        out.flush();
+        channel.force(false);
+        out.close();
+    }
+}
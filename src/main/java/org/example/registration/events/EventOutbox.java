@@ -0,0 +1,177 @@
+package org.example.registration.events;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Journals registration events on the request path and projects them off it. {@link #emit} only
+ * appends to the {@link EventJournal} and queues the events; a dispatcher thread drains the queue
+ * in batches of up to {@link #MAX_BATCH}, hands each batch to every projector in parallel and
+ * advances the journal cursor once all of them have applied it.
+ *
+ * A failed projector gets the batch again with backoff (capped at {@link #MAX_BACKOFF_MILLIS}) until
+ * it applies it; the cursor stays behind the batch meanwhile, so a record the projector cannot
+ * apply stalls projection (logged every {@link #MAX_ATTEMPTS} attempts) rather than being lost.
+ * Closing gives up on such a batch and leaves it for the next start. Events behind the cursor at
+ * startup (the process stopped before projecting them) are projected first, so delivery is at
+ * least once and a projector can see the last batch before a crash twice.
+ */
+public class EventOutbox implements EventSink, AutoCloseable {
+    public static final int MAX_BATCH = 256;
+    static final int MAX_ATTEMPTS = 5;
+    static final long MAX_BACKOFF_MILLIS = 5_000;
+    private static final long POLL_MILLIS = 100;
+    private static final long BACKOFF_MILLIS = 50;
+
+    private final EventJournal journal;
+    private final List<EventProjector> projectors;
+    private final BlockingQueue<RegistrationEvent> queue = new LinkedBlockingQueue<>();
+    // journal order and queue order must match for the cursor to mean "everything up to here"
+    private final Object appendLock = new Object();
+    private final ExecutorService pool;
+    private final Thread dispatcher;
+    private volatile boolean closed;
+
+    private EventOutbox(EventJournal journal, List<EventProjector> projectors) {
+        this.journal = journal;
+        this.projectors = List.copyOf(projectors);
+        this.pool = Executors.newFixedThreadPool(Math.max(1, this.projectors.size()), r -> {
+            Thread t = new Thread(r, "event-projector");
+            t.setDaemon(true);
+            return t;
+        });
+        this.dispatcher = new Thread(this::dispatchLoop, "event-dispatcher");
+        this.dispatcher.setDaemon(true);
+    }
+
+    /**
+     * Opens the journal in {@code dir}, queues whatever it had not projected yet and starts the
+     * dispatcher.
+     */
+    public static EventOutbox open(Path dir, List<EventProjector> projectors) throws IOException {
+        EventOutbox outbox = new EventOutbox(EventJournal.open(dir), projectors);
+        List<RegistrationEvent> replay = outbox.journal.pending();
+        if (!replay.isEmpty()) {
+            System.out.println("Replaying " + replay.size() + " unprojected registration event(s) from " + dir);
+            outbox.queue.addAll(replay);
+        }
+        outbox.dispatcher.start();
+        return outbox;
+    }
+
+    @Override
+    public void emit(List<RegistrationEvent> events) {
+        if (events.isEmpty()) return;
+        synchronized (appendLock) {
+            if (!closed) {
+                try {
+                    queue.addAll(journal.append(events));
+                    return;
+                } catch (IOException e) {
+                    System.err.println("Error journaling registration events: " + e.getMessage());
+                }
+            }
+        }
+        // closed or not journaled: apply now rather than lose the records
+        for (EventProjector projector : projectors) EventSink.inline(projector).emit(events);
+    }
+
+    /**
+     * Events journaled but not yet projected.
+     */
+    public long backlog() {
+        return journal.lastSeq() - journal.committed();
+    }
+
+    private void dispatchLoop() {
+        List<RegistrationEvent> batch = new ArrayList<>(MAX_BATCH);
+        while (true) {
+            RegistrationEvent first;
+            try {
+                first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (first == null) {
+                if (closed) return;
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, MAX_BATCH - 1);
+            if (!project(batch)) return; // interrupted or closed: leave the batch behind the cursor
+            try {
+                journal.commit(batch.get(batch.size() - 1).seq);
+            } catch (IOException e) {
+                // the batch is projected; a restart before the next commit projects it again
+                System.err.println("Error committing event cursor: " + e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * @return false if interrupted, or closed while a projector kept failing, before every
+     *         projector had applied the batch
+     */
+    private boolean project(List<RegistrationEvent> batch) {
+        List<RegistrationEvent> view = List.copyOf(batch);
+        List<EventProjector> remaining = projectors;
+        for (int attempt = 1; ; attempt++) {
+            List<Future<?>> results = new ArrayList<>(remaining.size());
+            for (EventProjector projector : remaining) {
+                results.add(pool.submit(() -> {
+                    projector.project(view);
+                    return null;
+                }));
+            }
+            List<EventProjector> failed = new ArrayList<>();
+            String lastError = null;
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    results.get(i).get();
+                } catch (ExecutionException e) {
+                    failed.add(remaining.get(i));
+                    lastError = remaining.get(i).name() + ": " + e.getCause().getMessage();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            if (failed.isEmpty()) return true;
+            if (attempt % MAX_ATTEMPTS == 0) {
+                System.err.println("Error projecting events #" + view.get(0).seq + "-#" + view.get(view.size() - 1).seq
+                        + ", still failing after " + attempt + " attempts (" + lastError + ")");
+                if (closed) return false;
+            }
+            remaining = failed;
+            try {
+                Thread.sleep(Math.min(MAX_BACKOFF_MILLIS, BACKOFF_MILLIS << Math.min(attempt - 1, 10)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Stops taking new events, projects the queued ones and closes the journal. A batch a projector
+     * still fails after {@link #MAX_ATTEMPTS} more attempts stays behind the cursor for the next start.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            if (closed) return;
+            closed = true;
+        }
+        try {
+            dispatcher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool.shutdown();
+        journal.close();
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.registration.events;
+
+import java.util.List;
+
+/**
+ * Builds derived data (drop history, audit trail, ...) from the event stream.
+ *
+ * Delivery is at least once: a batch that was being projected when the process stopped is handed
+ * over again after the restart.
+ */
+public interface EventProjector {
+
+    String name();
+
+    /**
+     * Applies one batch, oldest event first. Throwing makes the outbox retry the whole batch.
+     */
+    void project(List<RegistrationEvent> batch) throws Exception;
+}
@@ -0,0 +1,33 @@
+package org.example.registration.events;
+
+import java.util.List;
+
+/**
+ * Where the services send registration events. {@link EventOutbox} journals them and projects them
+ * in the background; a service built without an outbox applies them inline instead.
+ */
+@FunctionalInterface
+public interface EventSink {
+
+    /**
+     * Emits events in order; a list emitted together is projected as (part of) one batch.
+     */
+    void emit(List<RegistrationEvent> events);
+
+    default void emit(RegistrationEvent event) {
+        emit(List.of(event));
+    }
+
+    /**
+     * Applies every event on the caller's thread, as the services did before the outbox existed.
+     */
+    static EventSink inline(EventProjector projector) {
+        return events -> {
+            try {
+                projector.project(events);
+            } catch (Exception e) {
+                System.err.println("Error projecting events (" + projector.name() + "): " + e.getMessage());
+            }
+        };
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.registration.events;
+
+/**
+ * One registration fact as it goes through the event journal. seq is assigned when the event is
+ * appended (0 before that); at is the time the service emitted it.
+ */
+public final class RegistrationEvent {
+
+    public enum Type {
+        ENROLLED(false),
+        WAITLISTED(false),
+        // the drop transaction writes the ledger records for these two itself
+        DROPPED(false),
+        PROMOTED(false),
+        LEFT_WAITLIST(true),
+        ADMIN_PROMOTED(true),
+        COURSE_DROPPED(true),
+        SEATS_CHANGED(false),
+        COURSE_DELETED(false);
+
+        /**
+         * Whether {@link DropHistoryProjector} turns the event into a drop-ledger record.
+         */
+        public final boolean dropHistory;
+
+        Type(boolean dropHistory) {
+            this.dropHistory = dropHistory;
+        }
+    }
+
+    public final long seq;
+    public final Type type;
+    public final long at;
+    public final String studentId;
+    public final String courseId;
+    public final String actor;
+    public final String reason;
+
+    public RegistrationEvent(Type type, String studentId, String courseId, String actor, String reason) {
+        this(0, type, System.currentTimeMillis(), studentId, courseId, actor, reason);
+    }
+
+    RegistrationEvent(long seq, Type type, long at, String studentId, String courseId, String actor, String reason) {
+        this.seq = seq;
+        this.type = type;
+        this.at = at;
+        this.studentId = studentId == null ? "" : studentId;
+        this.courseId = courseId == null ? "" : courseId;
+        this.actor = actor == null ? "" : actor;
+        this.reason = reason == null ? "" : reason;
+    }
+
+    RegistrationEvent withSeq(long seq) {
+        return new RegistrationEvent(seq, type, at, studentId, courseId, actor, reason);
+    }
+
+    /**
+     * Journal form: tab-separated fields, with tabs, newlines and backslashes escaped.
+     */
+    String toLine() {
+        StringBuilder sb = new StringBuilder(64 + reason.length());
+        sb.append(seq).append('\t').append(type.name()).append('\t').append(at);
+        for (String field : new String[]{studentId, courseId, actor, reason}) {
+            sb.append('\t');
+            escape(sb, field);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parses a journal line; null if it is not a complete event (a torn last write).
+     */
+    static RegistrationEvent parse(String line) {
+        String[] f = line.split("\t", -1);
+        if (f.length != 7) return null;
+        try {
+            return new RegistrationEvent(Long.parseLong(f[0]), Type.valueOf(f[1]), Long.parseLong(f[2]),
+                    unescape(f[3]), unescape(f[4]), unescape(f[5]), unescape(f[6]));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void escape(StringBuilder sb, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '\\' -> sb.append("\\\\");
+                case '\t' -> sb.append("\\t");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                default -> sb.append(ch);
+            }
+        }
+    }
+
+    private static String unescape(String s) {
+        if (s.indexOf('\\') < 0) return s;
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            if (ch != '\\' || i + 1 == s.length()) {
+                sb.append(ch);
+                continue;
+            }
+            char next = s.charAt(++i);
+            sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "#" + seq + " " + java.time.Instant.ofEpochMilli(at) + " " + type + " student=" + studentId
+                + " course=" + courseId + " actor=" + actor + (reason.isEmpty() ? "" : " reason=" + reason);
+    }
+}
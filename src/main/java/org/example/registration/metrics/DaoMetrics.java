@@ -0,0 +1,166 @@
+package org.example.registration.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide call metrics for the data layer. {@link DynamoDbMetricsInterceptor} records every
+ * DynamoDB request here (latency per table and operation, conditional-check failures, throttles,
+ * retries, consumed capacity); service methods open an {@link #operation(String) operation scope}
+ * so the requests and capacity they cause are also attributed to them, e.g. the read units of
+ * one getMyCourses.
+ */
+public final class DaoMetrics {
+    public enum Outcome { OK, CONDITIONAL_CHECK_FAILED, THROTTLED, ERROR }
+
+    private static final ConcurrentHashMap<String, CallStats> CALLS = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, MethodStats> METHODS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+    private static final Scope NESTED = new Scope(null, 0);
+    // requests made outside any service method (warm-up, tools)
+    static final String UNSCOPED = "(no service method)";
+
+    private DaoMetrics() {
+    }
+
+    static final class CallStats {
+        final String table;
+        final String operation;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder conditionalFailures = new LongAdder();
+        final LongAdder throttles = new LongAdder();
+        final LongAdder retries = new LongAdder();
+        final DoubleAdder readUnits = new DoubleAdder();
+        final DoubleAdder writeUnits = new DoubleAdder();
+
+        CallStats(String table, String operation) {
+            this.table = table;
+            this.operation = operation;
+        }
+    }
+
+    static final class MethodStats {
+        final String method;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder requests = new LongAdder();
+        final DoubleAdder readUnits = new DoubleAdder();
+        final DoubleAdder writeUnits = new DoubleAdder();
+
+        MethodStats(String method) {
+            this.method = method;
+        }
+    }
+
+    /**
+     * Marks the current thread as working on behalf of a service method until closed. Nested scopes
+     * leave the outermost one in charge, so a method calling another is counted once.
+     */
+    public static final class Scope implements AutoCloseable {
+        private final String method;
+        private final long started;
+
+        private Scope(String method, long started) {
+            this.method = method;
+            this.started = started;
+        }
+
+        @Override
+        public void close() {
+            if (method == null) return;
+            CURRENT.remove();
+            METHODS.computeIfAbsent(method, MethodStats::new).latency.record(System.nanoTime() - started);
+        }
+    }
+
+    public static Scope operation(String method) {
+        if (CURRENT.get() != null) return NESTED;
+        CURRENT.set(method);
+        return new Scope(method, System.nanoTime());
+    }
+
+    /**
+     * The service method the current thread is working for, or null.
+     */
+    public static String currentOperation() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Wraps a task handed to another thread so its requests count towards the caller's method.
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        String method = CURRENT.get();
+        if (method == null) return task;
+        return () -> {
+            String previous = CURRENT.get();
+            CURRENT.set(method);
+            try {
+                return task.call();
+            } finally {
+                if (previous == null) CURRENT.remove();
+                else CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Records one request (all of its attempts).
+     *
+     * @param method service method it was made for, or null
+     */
+    public static void recordCall(String table, String operation, String method, long nanos, int attempts,
+                                  Outcome outcome, double readUnits, double writeUnits) {
+        CallStats call = CALLS.computeIfAbsent(table + '\u0000' + operation, k -> new CallStats(table, operation));
+        call.latency.record(nanos);
+        if (attempts > 1) call.retries.add(attempts - 1);
+        switch (outcome) {
+            case CONDITIONAL_CHECK_FAILED -> call.conditionalFailures.increment();
+            case THROTTLED -> {
+                call.throttles.increment();
+                call.errors.increment();
+            }
+            case ERROR -> call.errors.increment();
+            default -> {
+            }
+        }
+        call.readUnits.add(readUnits);
+        call.writeUnits.add(writeUnits);
+
+        MethodStats m = METHODS.computeIfAbsent(method == null ? UNSCOPED : method, MethodStats::new);
+        m.requests.increment();
+        m.readUnits.add(readUnits);
+        m.writeUnits.add(writeUnits);
+    }
+
+    public static MetricsSnapshot snapshot() {
+        List<MetricsSnapshot.Call> calls = new ArrayList<>();
+        for (CallStats c : CALLS.values()) {
+            LatencyHistogram h = c.latency;
+            calls.add(new MetricsSnapshot.Call(c.table, c.operation, h.count(), c.errors.sum(),
+                    c.conditionalFailures.sum(), c.throttles.sum(), c.retries.sum(),
+                    h.percentileNanos(0.50), h.percentileNanos(0.99), h.percentileNanos(0.999), h.maxNanos(),
+                    c.readUnits.sum(), c.writeUnits.sum()));
+        }
+        calls.sort(Comparator.comparing(MetricsSnapshot.Call::table).thenComparing(MetricsSnapshot.Call::operation));
+
+        List<MetricsSnapshot.Method> methods = new ArrayList<>();
+        for (MethodStats m : METHODS.values()) {
+            LatencyHistogram h = m.latency;
+            methods.add(new MetricsSnapshot.Method(m.method, h.count(), m.requests.sum(), m.readUnits.sum(),
+                    m.writeUnits.sum(), h.percentileNanos(0.50), h.percentileNanos(0.99)));
+        }
+        methods.sort(Comparator.comparing(MetricsSnapshot.Method::method));
+        return new MetricsSnapshot(calls, methods);
+    }
+
+    public static void reset() {
+        CALLS.clear();
+        METHODS.clear();
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.registration.metrics;
+
+import software.amazon.awssdk.core.SdkRequest;
+import software.amazon.awssdk.core.SdkResponse;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Feeds {@link DaoMetrics} from the DynamoDB clients, so every DAO call is measured without
+ * touching the DAOs: asks for ReturnConsumedCapacity=TOTAL on item, query and batch/transaction
+ * requests that did not set it, times each request across its retries and classifies how it
+ * ended. Throttled attempts that a retry rescued count as retries; throttles are requests that
+ * failed throttled after the SDK gave up.
+ */
+public class DynamoDbMetricsInterceptor implements ExecutionInterceptor {
+    private static final ExecutionAttribute<Long> STARTED = new ExecutionAttribute<>("registration.metrics.started");
+    private static final ExecutionAttribute<Integer> ATTEMPTS = new ExecutionAttribute<>("registration.metrics.attempts");
+    private static final ExecutionAttribute<String> METHOD = new ExecutionAttribute<>("registration.metrics.method");
+    private static final ExecutionAttribute<String> TABLE = new ExecutionAttribute<>("registration.metrics.table");
+    private static final Set<String> READ_OPERATIONS = Set.of("GetItem", "BatchGetItem", "Query", "Scan", "TransactGetItems");
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes attributes) {
+        attributes.putAttribute(STARTED, System.nanoTime());
+        attributes.putAttribute(ATTEMPTS, 0);
+        // the caller's thread: async completions run elsewhere
+        String method = DaoMetrics.currentOperation();
+        if (method != null) attributes.putAttribute(METHOD, method);
+        attributes.putAttribute(TABLE, tableOf(context.request()));
+    }
+
+    @Override
+    public SdkRequest modifyRequest(Context.ModifyRequest context, ExecutionAttributes attributes) {
+        return withConsumedCapacity(context.request());
+    }
+
+    @Override
+    public void beforeTransmission(Context.BeforeTransmission context, ExecutionAttributes attributes) {
+        Integer attempts = attributes.getAttribute(ATTEMPTS);
+        attributes.putAttribute(ATTEMPTS, attempts == null ? 1 : attempts + 1);
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes attributes) {
+        double units = capacityOf(context.response());
+        boolean read = READ_OPERATIONS.contains(operation(attributes));
+        record(attributes, DaoMetrics.Outcome.OK, read ? units : 0, read ? 0 : units);
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes attributes) {
+        record(attributes, outcomeOf(context.exception()), 0, 0);
+    }
+
+    private void record(ExecutionAttributes attributes, DaoMetrics.Outcome outcome, double readUnits, double writeUnits) {
+        Long started = attributes.getAttribute(STARTED);
+        Integer attempts = attributes.getAttribute(ATTEMPTS);
+        String table = attributes.getAttribute(TABLE);
+        DaoMetrics.recordCall(table == null ? "-" : table, operation(attributes), attributes.getAttribute(METHOD),
+                started == null ? 0 : System.nanoTime() - started, attempts == null ? 1 : attempts,
+                outcome, readUnits, writeUnits);
+    }
+
+    private static String operation(ExecutionAttributes attributes) {
+        String name = attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        return name == null ? "-" : name;
+    }
+
+    static DaoMetrics.Outcome outcomeOf(Throwable t) {
+        if (t instanceof ConditionalCheckFailedException) return DaoMetrics.Outcome.CONDITIONAL_CHECK_FAILED;
+        if (t instanceof TransactionCanceledException tce && tce.hasCancellationReasons()) {
+            for (CancellationReason r : tce.cancellationReasons()) {
+                if ("ConditionalCheckFailed".equals(r.code())) return DaoMetrics.Outcome.CONDITIONAL_CHECK_FAILED;
+            }
+            for (CancellationReason r : tce.cancellationReasons()) {
+                if ("ThrottlingError".equals(r.code())) return DaoMetrics.Outcome.THROTTLED;
+            }
+        }
+        if (t instanceof SdkServiceException se && se.isThrottlingException()) return DaoMetrics.Outcome.THROTTLED;
+        return DaoMetrics.Outcome.ERROR;
+    }
+
+    static SdkRequest withConsumedCapacity(SdkRequest request) {
+        ReturnConsumedCapacity total = ReturnConsumedCapacity.TOTAL;
+        if (request instanceof GetItemRequest r && r.returnConsumedCapacity() == null)
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        if (request instanceof PutItemRequest r && r.returnConsumedCapacity() == null)
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        if (request instanceof UpdateItemRequest r && r.returnConsumedCapacity() == null)
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        if (request instanceof DeleteItemRequest r && r.returnConsumedCapacity() == null)
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        if (request instanceof QueryRequest r && r.returnConsumedCapacity() == null)
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        if (request instanceof ScanRequest r && r.returnConsumedCapacity() == null)
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        if (request instanceof BatchGetItemRequest r && r.returnConsumedCapacity() == null)
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        if (request instanceof BatchWriteItemRequest r && r.returnConsumedCapacity() == null)
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        if (request instanceof TransactWriteItemsRequest r && r.returnConsumedCapacity() == null)
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        if (request instanceof TransactGetItemsRequest r && r.returnConsumedCapacity() == null)
+            return r.toBuilder().returnConsumedCapacity(total).build();
+        return request;
+    }
+
+    static double capacityOf(SdkResponse response) {
+        if (response instanceof GetItemResponse r) return units(r.consumedCapacity());
+        if (response instanceof PutItemResponse r) return units(r.consumedCapacity());
+        if (response instanceof UpdateItemResponse r) return units(r.consumedCapacity());
+        if (response instanceof DeleteItemResponse r) return units(r.consumedCapacity());
+        if (response instanceof QueryResponse r) return units(r.consumedCapacity());
+        if (response instanceof ScanResponse r) return units(r.consumedCapacity());
+        if (response instanceof BatchGetItemResponse r) return units(r.consumedCapacity());
+        if (response instanceof BatchWriteItemResponse r) return units(r.consumedCapacity());
+        if (response instanceof TransactWriteItemsResponse r) return units(r.consumedCapacity());
+        if (response instanceof TransactGetItemsResponse r) return units(r.consumedCapacity());
+        return 0;
+    }
+
+    private static double units(ConsumedCapacity c) {
+        return c == null || c.capacityUnits() == null ? 0 : c.capacityUnits();
+    }
+
+    private static double units(List<ConsumedCapacity> list) {
+        double sum = 0;
+        if (list != null) for (ConsumedCapacity c : list) sum += units(c);
+        return sum;
+    }
+
+    /**
+     * Table a request targets; batches and transactions list every table they touch, joined with '+'.
+     */
+    static String tableOf(SdkRequest request) {
+        if (request instanceof GetItemRequest r) return r.tableName();
+        if (request instanceof PutItemRequest r) return r.tableName();
+        if (request instanceof UpdateItemRequest r) return r.tableName();
+        if (request instanceof DeleteItemRequest r) return r.tableName();
+        if (request instanceof QueryRequest r) return r.tableName();
+        if (request instanceof ScanRequest r) return r.tableName();
+        if (request instanceof DescribeTableRequest r) return r.tableName();
+        if (request instanceof BatchGetItemRequest r) return String.join("+", new TreeSet<>(r.requestItems().keySet()));
+        if (request instanceof BatchWriteItemRequest r) return String.join("+", new TreeSet<>(r.requestItems().keySet()));
+        if (request instanceof TransactWriteItemsRequest r) {
+            Set<String> tables = new TreeSet<>();
+            for (TransactWriteItem item : r.transactItems()) {
+                if (item.put() != null) tables.add(item.put().tableName());
+                if (item.update() != null) tables.add(item.update().tableName());
+                if (item.delete() != null) tables.add(item.delete().tableName());
+                if (item.conditionCheck() != null) tables.add(item.conditionCheck().tableName());
+            }
+            return String.join("+", tables);
+        }
+        if (request instanceof TransactGetItemsRequest r) {
+            Set<String> tables = new TreeSet<>();
+            for (TransactGetItem item : r.transactItems()) {
+                if (item.get() != null) tables.add(item.get().tableName());
+            }
+            return String.join("+", tables);
+        }
+        return "-";
+    }
+}
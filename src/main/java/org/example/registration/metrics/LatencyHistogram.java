@@ -0,0 +1,76 @@
+package org.example.registration.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with HDR-style log-linear buckets: every power-of-two range is split
+ * into 64 linear sub-buckets, so any recorded value is reported within 1/64 (~1.6%) of its true
+ * value, from 1 ns up to {@link #MAX_TRACKABLE_NANOS}. Memory is fixed (~18 KB) whatever the count.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 6;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    static final long MAX_TRACKABLE_NANOS = 1L << 40; // ~18 minutes
+    private static final int BUCKETS = indexOf(MAX_TRACKABLE_NANOS) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long v = Math.max(0, Math.min(nanos, MAX_TRACKABLE_NANOS));
+        counts.incrementAndGet(indexOf(v));
+        total.increment();
+        sumNanos.add(v);
+        max.accumulateAndGet(v, Math::max);
+    }
+
+    public long count() {
+        return total.sum();
+    }
+
+    public long maxNanos() {
+        return max.get();
+    }
+
+    public double meanNanos() {
+        long n = total.sum();
+        return n == 0 ? 0 : (double) sumNanos.sum() / n;
+    }
+
+    /**
+     * Value at quantile q in [0, 1] (nearest rank), or 0 if nothing was recorded. Reads racing
+     * with writes see a consistent-enough picture; counts are never lost.
+     */
+    public long percentileNanos(double q) {
+        long[] snapshot = new long[BUCKETS];
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) n += snapshot[i] = counts.get(i);
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return Math.min(valueOf(i), max.get());
+        }
+        return max.get();
+    }
+
+    // values below 2 * SUB_COUNT are exact; above, keep the top SUB_BITS + 1 bits
+    static int indexOf(long v) {
+        if (v < 2 * SUB_COUNT) return (int) v;
+        int shift = (63 - Long.numberOfLeadingZeros(v)) - SUB_BITS;
+        return (shift + 1) * SUB_COUNT + (int) ((v >>> shift) - SUB_COUNT);
+    }
+
+    // midpoint of the bucket's range
+    static long valueOf(int index) {
+        if (index < 2 * SUB_COUNT) return index;
+        int shift = index / SUB_COUNT - 1;
+        long lower = (long) (index % SUB_COUNT + SUB_COUNT) << shift;
+        return lower + ((1L << shift) >> 1);
+    }
+}
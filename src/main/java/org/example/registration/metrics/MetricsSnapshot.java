@@ -0,0 +1,62 @@
+package org.example.registration.metrics;
+
+import java.util.List;
+
+/**
+ * Point-in-time copy of {@link DaoMetrics}. Latencies are in nanoseconds; capacity is in read and
+ * write units as reported by DynamoDB (zero for backends that do not report it).
+ */
+public record MetricsSnapshot(List<Call> calls, List<Method> methods) {
+
+    /**
+     * One table and operation, e.g. Enrollment / Query. Transactions and batches spanning several
+     * tables are listed under the tables joined with '+'.
+     */
+    public record Call(String table, String operation, long count, long errors, long conditionalCheckFailures,
+                       long throttles, long retries, long p50Nanos, long p99Nanos, long p999Nanos, long maxNanos,
+                       double readUnits, double writeUnits) {
+    }
+
+    /**
+     * One service method: its invocations (for ones that ran inside a scope) and the requests and
+     * capacity they caused.
+     */
+    public record Method(String method, long invocations, long requests, double readUnits, double writeUnits,
+                         long p50Nanos, long p99Nanos) {
+
+        public double readUnitsPerInvocation() {
+            return invocations == 0 ? 0 : readUnits / invocations;
+        }
+
+        public double writeUnitsPerInvocation() {
+            return invocations == 0 ? 0 : writeUnits / invocations;
+        }
+    }
+
+    public String format() {
+        if (calls.isEmpty() && methods.isEmpty()) return "No data-layer calls recorded yet.";
+        StringBuilder sb = new StringBuilder();
+        sb.append("DynamoDB calls by table / operation\n");
+        sb.append(String.format("%-28s %-18s %8s %8s %8s %8s %8s %9s %9s %9s %10s %10s%n",
+                "table", "operation", "calls", "errors", "ccf", "throttle", "retries",
+                "p50 ms", "p99 ms", "p999 ms", "RCU", "WCU"));
+        for (Call c : calls) {
+            sb.append(String.format("%-28s %-18s %8d %8d %8d %8d %8d %9.2f %9.2f %9.2f %10.1f %10.1f%n",
+                    c.table, c.operation, c.count, c.errors, c.conditionalCheckFailures, c.throttles, c.retries,
+                    millis(c.p50Nanos), millis(c.p99Nanos), millis(c.p999Nanos), c.readUnits, c.writeUnits));
+        }
+        sb.append("\nBy service method\n");
+        sb.append(String.format("%-28s %8s %9s %9s %9s %10s %10s%n",
+                "method", "calls", "requests", "p50 ms", "p99 ms", "RCU/call", "WCU/call"));
+        for (Method m : methods) {
+            sb.append(String.format("%-28s %8d %9d %9.2f %9.2f %10.2f %10.2f%n",
+                    m.method, m.invocations, m.requests, millis(m.p50Nanos), millis(m.p99Nanos),
+                    m.readUnitsPerInvocation(), m.writeUnitsPerInvocation()));
+        }
+        return sb.toString().stripTrailing();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
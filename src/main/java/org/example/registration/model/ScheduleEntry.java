@@ -0,0 +1,28 @@
+package org.example.registration.model;
+
+public class ScheduleEntry {
+    public static final String ENROLLED = "ENROLLED";
+    public static final String WAITLIST = "WAITLIST";
+
+    public String courseId;
+    public String title;
+    public String status;
+
+    public ScheduleEntry() {
+    }
+
+    public ScheduleEntry(String courseId, String title, String status) {
+        this.courseId = courseId;
+        this.title = title;
+        this.status = status;
+    }
+
+    public boolean isWaitlisted() {
+        return WAITLIST.equals(status);
+    }
+
+    @Override
+    public String toString() {
+        return courseId + " - " + title + " (" + status + ")";
+    }
+}
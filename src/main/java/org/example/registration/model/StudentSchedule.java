@@ -0,0 +1,35 @@
+package org.example.registration.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A student's enrolled and waitlisted courses, enrollments first.
+ */
+public class StudentSchedule {
+    public String studentId;
+    public List<ScheduleEntry> entries = new ArrayList<>();
+
+    public StudentSchedule() {
+    }
+
+    public StudentSchedule(String studentId) {
+        this.studentId = studentId;
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public List<ScheduleEntry> enrolled() {
+        return entries.stream().filter(e -> !e.isWaitlisted()).toList();
+    }
+
+    public List<ScheduleEntry> waitlisted() {
+        return entries.stream().filter(ScheduleEntry::isWaitlisted).toList();
+    }
+}
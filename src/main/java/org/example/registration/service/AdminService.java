@@ -1,38 +1,65 @@
 package org.example.registration.service;
 
 import org.example.registration.dao.CourseDao;
-import org.example.registration.dao.DropDao;
+import org.example.registration.dao.CourseStore;
+import org.example.registration.dao.CourseStore.SeatChange;
+import org.example.registration.dao.DropStore;
 import org.example.registration.dao.EnrollmentDao;
-import org.example.registration.dao.WaitlistDao;
+import org.example.registration.dao.EnrollmentStore;
+import org.example.registration.dao.StudentDao;
+import org.example.registration.dao.StudentStore;
+import org.example.registration.dao.Stores;
+import org.example.registration.dao.WaitlistStore;
+import org.example.registration.events.DropHistoryProjector;
+import org.example.registration.events.EventSink;
+import org.example.registration.events.RegistrationEvent;
+import org.example.registration.metrics.DaoMetrics;
 import org.example.registration.model.Course;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public class AdminService {
+    static final int MAX_ENROLL_ATTEMPTS = 3;
+
     private final DynamoDbClient client;
-    private final CourseDao courseDao;
-    private final EnrollmentDao enrollmentDao;
-    private final WaitlistDao waitlistDao;
-    private final DropDao dropDao;
+    private final CourseStore courseDao;
+    private final EnrollmentStore enrollmentDao;
+    private final WaitlistStore waitlistDao;
+    private final DropStore dropDao;
+    private final StudentStore studentDao;
+    // null: no outbox, events are projected inline (see publish)
+    private final EventSink events;
 
     public AdminService(DynamoDbClient client) {
-        this.client = client;
-        this.courseDao = new CourseDao(client);
-        this.enrollmentDao = new EnrollmentDao(client);
-        this.waitlistDao = new WaitlistDao(client);
-        this.dropDao = new DropDao(client);
+        this(Stores.dynamoDb(client));
+    }
+
+    public AdminService(Stores stores) {
+        this.client = stores.dynamoDbClient;
+        this.courseDao = stores.courses;
+        this.enrollmentDao = stores.enrollments;
+        this.waitlistDao = stores.waitlists;
+        this.dropDao = stores.drops;
+        this.studentDao = stores.students;
+        this.events = stores.events;
     }
 
     // ------------------------------------------------------
     //  1 LIST ALL COURSES
     // ------------------------------------------------------
-    public java.util.List<Course> listAllCourses() {
-        try {
+    public List<Course> listAllCourses() {
+        try (DaoMetrics.Scope op = DaoMetrics.operation("admin.listAllCourses")) {
             return courseDao.listAllCourses();
         } catch (Exception e) {
             System.err.println("Error listing courses: " + e.getMessage());
-            return java.util.Collections.emptyList();
+            return Collections.emptyList();
         }
     }
 
@@ -40,7 +67,7 @@ public class AdminService {
     // 2 ADD COURSE (no duplicates allowed)
     // ------------------------------------------------------
     public String addCourse(String courseId, String title, int maxSeats) {
-        try {
+        try (DaoMetrics.Scope op = DaoMetrics.operation("admin.addCourse")) {
             if (courseId == null || courseId.trim().isEmpty() ||
                     title == null || title.trim().isEmpty() || maxSeats <= 0) {
                 return "Invalid input. Please provide valid course details.";
@@ -75,9 +102,10 @@ public class AdminService {
 
     // ------------------------------------------------------
     // 3 UPDATE COURSE SEATS (defensive: only update if course truly exists)
+    //   Added seats go straight to the head of the waitlist, in bulk.
     // ------------------------------------------------------
     public String updateCourseSeats(String courseId, int newSeats) {
-        try {
+        try (DaoMetrics.Scope op = DaoMetrics.operation("admin.updateCourseSeats")) {
             if (courseId == null || courseId.trim().isEmpty()) {
                 return "Invalid Course ID.";
             }
@@ -87,30 +115,118 @@ public class AdminService {
                 return "Seats must be a positive integer.";
             }
 
-            Course c = courseDao.getCourse(courseId);
-
-            if (c == null || c.courseId == null || !courseId.equals(c.courseId)) {
-                return "Course not found: " + courseId;
-            }
-
-            if (newSeats < c.currentEnrolled) {
-                return "Cannot reduce seats below current enrollment count (" + c.currentEnrolled + ").";
+            // conditional on the course version, so enrolls running meanwhile are never overwritten
+            SeatChange change = courseDao.updateMaxSeats(courseId, newSeats);
+            switch (change.status) {
+                case NOT_FOUND:
+                    return "Course not found: " + courseId;
+                case BELOW_ENROLLED:
+                    return "Cannot reduce seats below current enrollment count (" + change.before.currentEnrolled + ").";
+                case CONFLICT:
+                    return "Course " + courseId + " kept changing while updating seats. Please try again.";
+                case ERROR:
+                    return "Could not update seats for " + courseId + ". Please try again.";
+                default:
+                    break;
             }
 
-            c.maxSeats = newSeats;
-            courseDao.putCourseForUpdate(c);
-            return "Seats updated successfully for " + courseId;
+            Course c = change.before;
+            publish(List.of(new RegistrationEvent(RegistrationEvent.Type.SEATS_CHANGED, null, courseId, "ADMIN",
+                    c.maxSeats + " -> " + newSeats + " seats")));
+            String message = "Seats updated successfully for " + courseId;
+            if (newSeats <= c.maxSeats) return message;
+            return message + promoteFromWaitlist(courseId, newSeats - c.currentEnrolled);
         } catch (Exception e) {
             System.err.println("Error updating seats: " + e.getMessage());
             return "Error updating seats: " + e.getMessage();
         }
     }
 
+    /**
+     * Moves up to {@code seats} students from the head of the waitlist into the course. The
+     * reservation is sized by who is actually waiting (one query over the head), since seats held
+     * for nobody turn concurrent enrollers away until they are released. Then one bulk pop of the
+     * seats granted, batched enrollment rows and batched history records. Popped students who are
+     * already enrolled leave the waitlist without a second seat. An enrollment row that still fails
+     * after {@link #MAX_ENROLL_ATTEMPTS} puts its student back on the waitlist in their old place.
+     * Seats left unfilled are released.
+     *
+     * @return a summary to append to the caller's message, empty if nobody was waiting
+     */
+    private String promoteFromWaitlist(String courseId, int seats) {
+        if (seats <= 0) return "";
+        int waiting = waitlistDao.getWaitlistHead(courseId, seats).size();
+        if (waiting == 0) return "";
+        int granted = courseDao.reserveSeats(courseId, waiting);
+        if (granted <= 0) return "";
+        List<Map<String, AttributeValue>> popped = waitlistDao.popWaitlistEntries(courseId, granted);
+
+        Map<String, Map<String, AttributeValue>> entries = new LinkedHashMap<>();
+        for (var entry : popped) entries.put(entry.get("studentId").s(), entry);
+        List<String> pairs = new ArrayList<>(entries.size());
+        for (String studentId : entries.keySet()) pairs.add(studentId + "#" + courseId);
+        Set<String> enrolled = enrollmentDao.findExisting(pairs);
+        List<String> promoted = new ArrayList<>(entries.size());
+        List<String> alreadyEnrolled = new ArrayList<>();
+        for (String studentId : entries.keySet()) {
+            if (enrolled.contains(studentId + "#" + courseId)) alreadyEnrolled.add(studentId);
+            else promoted.add(studentId);
+        }
+
+        List<String> failed = enrollmentDao.putEnrollments(courseId, promoted, "ENROLLED");
+        for (int attempt = 1; !failed.isEmpty() && attempt < MAX_ENROLL_ATTEMPTS; attempt++) {
+            failed = enrollmentDao.putEnrollments(courseId, failed, "ENROLLED");
+        }
+        promoted.removeAll(failed);
+        List<String> requeued = new ArrayList<>();
+        List<String> lost = new ArrayList<>();
+        for (String studentId : failed) {
+            if (waitlistDao.restoreWaitlistEntry(entries.get(studentId))) {
+                requeued.add(studentId);
+            } else {
+                System.err.println("Error promoting " + studentId + " in " + courseId + ": not enrolled and not requeued");
+                lost.add(studentId);
+            }
+        }
+        if (promoted.size() < granted) courseDao.releaseSeats(courseId, granted - promoted.size());
+        if (popped.isEmpty()) return "";
+
+        List<RegistrationEvent> promotions = new ArrayList<>(promoted.size());
+        for (String studentId : promoted) {
+            promotions.add(new RegistrationEvent(RegistrationEvent.Type.ADMIN_PROMOTED, studentId, courseId, "SYSTEM",
+                    "Promoted from waitlist after seat increase"));
+        }
+        publish(promotions);
+
+        StringBuilder sb = new StringBuilder(". Promoted ").append(promoted.size()).append(" from the waitlist");
+        appendIds(sb, promoted);
+        if (!alreadyEnrolled.isEmpty()) {
+            sb.append("; ").append(alreadyEnrolled.size()).append(" already enrolled, removed from the waitlist");
+            appendIds(sb, alreadyEnrolled);
+        }
+        if (!requeued.isEmpty()) {
+            sb.append("; ").append(requeued.size()).append(" kept their waitlist place (enrollment write failed)");
+            appendIds(sb, requeued);
+        }
+        if (!lost.isEmpty()) {
+            sb.append("; ").append(lost.size()).append(" could not be enrolled or requeued");
+            appendIds(sb, lost);
+        }
+        return sb.append('.').toString();
+    }
+
+    private static void appendIds(StringBuilder sb, List<String> ids) {
+        if (ids.isEmpty()) return;
+        int shown = Math.min(ids.size(), 10);
+        sb.append(": ").append(String.join(", ", ids.subList(0, shown)));
+        if (ids.size() > shown) sb.append(", ... (+").append(ids.size() - shown).append(" more)");
+    }
+
     // ------------------------------------------------------
     // 4 PROMOTE WAITLISTED STUDENT
     // ------------------------------------------------------
     public String promoteWaitlistedStudent(String courseId) {
-        try {
+        try (DaoMetrics.Scope op = DaoMetrics.operation("admin.promoteWaitlistedStudent")) {
             Course c = courseDao.getCourse(courseId);
             if (c == null) return "Course not found: " + courseId;
 
@@ -121,13 +237,14 @@ public class AdminService {
             // Try to reserve a seat for them first (atomic check & increment)
             boolean reserved = courseDao.reserveSeatIfAvailable(courseId);
             if (!reserved) {
-                waitlistDao.addToWaitlist(courseId, next, java.util.Collections.emptyMap());
+                waitlistDao.addToWaitlist(courseId, next, Collections.emptyMap());
                 return "Promotion failed: no seats available for " + courseId + ". Student requeued.";
             }
 
             // Seat reserved successfully — create enrollment
             enrollmentDao.putEnrollment(next, courseId, "ENROLLED");
-            dropDao.recordDrop(next, courseId, "SYSTEM", "Promoted from waitlist by admin");
+            publish(List.of(new RegistrationEvent(RegistrationEvent.Type.ADMIN_PROMOTED, next, courseId, "SYSTEM",
+                    "Promoted from waitlist by admin")));
             return "Promoted " + next + " from waitlist to enrolled.";
         } catch (Exception e) {
             System.err.println("Error promoting waitlisted student: " + e.getMessage());
@@ -144,31 +261,21 @@ public class AdminService {
         }
         courseId = courseId.trim();
 
-        try {
+        try (DaoMetrics.Scope op = DaoMetrics.operation("admin.deleteCourse")) {
             Course c = courseDao.getCourse(courseId);
             if (c == null) {
                 return "Course not found. Please check the Course ID.";
             }
 
-            // Remove all enrollments for this course
+            // Remove all enrollments for this course; their drop records go out with the deletion event
+            List<RegistrationEvent> dropped = new ArrayList<>();
             try {
-                var scanReq = software.amazon.awssdk.services.dynamodb.model.ScanRequest.builder()
-                        .tableName("Enrollment")
-                        .filterExpression("courseId = :cid")
-                        .expressionAttributeValues(Map.of(":cid",
-                                AttributeValue.builder().s(courseId).build()))
-                        .build();
-
-                var res = client.scan(scanReq);
-                for (var item : res.items()) {
+                for (var item : enrollmentDao.listEnrollmentsByCourse(courseId)) {
                     if (item.containsKey("studentId")) {
                         String studentId = item.get("studentId").s();
                         enrollmentDao.deleteEnrollment(studentId, courseId);
-                        try {
-                            dropDao.recordDrop(studentId, courseId, "ADMIN", "Course deleted by admin");
-                        } catch (Exception ex) {
-                            System.err.println("Warning: failed to record drop for " + studentId + ": " + ex.getMessage());
-                        }
+                        dropped.add(new RegistrationEvent(RegistrationEvent.Type.COURSE_DROPPED, studentId, courseId,
+                                "ADMIN", "Course deleted by admin"));
                     }
                 }
             } catch (Exception e) {
@@ -177,15 +284,7 @@ public class AdminService {
 
             // Remove waitlist entries
             try {
-                var scanWait = software.amazon.awssdk.services.dynamodb.model.ScanRequest.builder()
-                        .tableName("Waitlist")
-                        .filterExpression("courseId = :cid")
-                        .expressionAttributeValues(Map.of(":cid",
-                                AttributeValue.builder().s(courseId).build()))
-                        .build();
-
-                var waitRes = client.scan(scanWait);
-                for (var item : waitRes.items()) {
+                for (var item : waitlistDao.getWaitlistsByCourse(courseId)) {
                     if (item.containsKey("createdAt")) {
                         try {
                             String createdAt = item.get("createdAt").s();
@@ -201,6 +300,8 @@ public class AdminService {
 
             // Delete the course record from Course table
             courseDao.deleteCourse(courseId);
+            dropped.add(new RegistrationEvent(RegistrationEvent.Type.COURSE_DELETED, null, courseId, "ADMIN", null));
+            publish(dropped);
 
             return "Course " + courseId + " deleted successfully, with enrollments & waitlist cleaned up.";
 
@@ -214,7 +315,7 @@ public class AdminService {
     // 6 LIST WAITLISTED STUDENTS (only for existing courses)
     // ------------------------------------------------------
     public String listWaitlistedStudents(String courseId) {
-        try {
+        try (DaoMetrics.Scope op = DaoMetrics.operation("admin.listWaitlistedStudents")) {
             if (courseId == null || courseId.trim().isEmpty()) {
                 return "Invalid Course ID.";
             }
@@ -247,7 +348,7 @@ public class AdminService {
     // 7 VIEW DROP HISTORY (only for courses that exist)
     // ------------------------------------------------------
     public String listDropHistoryForCourse(String courseId) {
-        try {
+        try (DaoMetrics.Scope op = DaoMetrics.operation("admin.listDropHistoryForCourse")) {
             if (courseId == null || courseId.trim().isEmpty()) {
                 return "Invalid Course ID.";
             }
@@ -273,4 +374,85 @@ public class AdminService {
             return "Error fetching drop history: " + e.getMessage();
         }
     }
+
+    // ------------------------------------------------------
+    // 8 SHARD COURSE SEATS (spread a hot course's seat counter)
+    // ------------------------------------------------------
+    public String shardCourseSeats(String courseId, int shards) {
+        try (DaoMetrics.Scope op = DaoMetrics.operation("admin.shardCourseSeats")) {
+            if (courseId == null || courseId.trim().isEmpty()) {
+                return "Invalid Course ID.";
+            }
+            courseId = courseId.trim();
+
+            if (shards < 2 || shards > CourseDao.MAX_SHARDS) {
+                return "Shard count must be between 2 and " + CourseDao.MAX_SHARDS + ".";
+            }
+
+            Course c = courseDao.getCourseFresh(courseId);
+            if (c == null) {
+                return "Course not found: " + courseId;
+            }
+            if (c.shardCount > 0) {
+                return "Seats for " + courseId + " are already split across " + c.shardCount + " shards.";
+            }
+
+            if (!courseDao.enableSharding(courseId, shards)) {
+                return "Could not shard seats for " + courseId + ". Please try again.";
+            }
+            return "Seats for " + courseId + " split across " + shards + " shards.";
+        } catch (Exception e) {
+            System.err.println("Error sharding course seats: " + e.getMessage());
+            return "Error sharding course seats: " + e.getMessage();
+        }
+    }
+
+    // ------------------------------------------------------
+    // 9 IMPORT ENROLLMENTS (CSV or NDJSON of studentId,courseId)
+    // ------------------------------------------------------
+    public String importEnrollments(String path) {
+        if (path == null || path.trim().isEmpty()) {
+            return "Please provide the path of the enrollment file.";
+        }
+        java.nio.file.Path file = java.nio.file.Path.of(path.trim());
+        if (!java.nio.file.Files.isReadable(file)) {
+            return "File not found or not readable: " + file;
+        }
+
+        // the importer streams through BatchWriteItem/BatchGetItem, so it needs the DynamoDB DAOs
+        if (client == null || !(courseDao instanceof CourseDao courses) || !(studentDao instanceof StudentDao students)
+                || !(enrollmentDao instanceof EnrollmentDao enrollments)) {
+            return "Enrollment import is only available with the DynamoDB backend.";
+        }
+
+        try (DaoMetrics.Scope op = DaoMetrics.operation("admin.importEnrollments")) {
+            return new EnrollmentImporter(client, courses, students, enrollments).importFile(file).toString();
+        } catch (Exception e) {
+            System.err.println("Error importing enrollments: " + e.getMessage());
+            return "Error importing enrollments: " + e.getMessage();
+        }
+    }
+
+    // ------------------------------------------------------
+    // 10 DATA-LAYER METRICS (latency, failures, consumed capacity)
+    // ------------------------------------------------------
+    public String metricsReport() {
+        String report = DaoMetrics.snapshot().format();
+        if (client == null) report += "\n(This backend makes no DynamoDB requests; only service-method timings are shown.)";
+        return report;
+    }
+
+    /**
+     * Hands events to the outbox; never fails the admin operation that produced them.
+     */
+    private void publish(List<RegistrationEvent> batch) {
+        if (batch.isEmpty()) return;
+        // without an outbox the drop-history records are written inline, as before
+        EventSink sink = events != null ? events : EventSink.inline(new DropHistoryProjector(dropDao));
+        try {
+            sink.emit(batch);
+        } catch (RuntimeException e) {
+            System.err.println("Error publishing registration events: " + e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,271 @@
+package org.example.registration.service;
+
+import org.example.registration.codec.DropCodec;
+import org.example.registration.dao.*;
+import org.example.registration.model.Course;
+import org.example.registration.model.ScheduleEntry;
+import org.example.registration.model.Student;
+import org.example.registration.model.StudentSchedule;
+import org.example.registration.util.ValidationUtil;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Non-blocking facade over the async DAOs. Messages match {@link RegistrationService}; independent
+ * reads are issued concurrently and no method parks a thread while a request is in flight. BCrypt
+ * work runs on the supplied {@link PasswordHasher} pool, never on SDK completion threads. Signup,
+ * enroll and drop use the same single transactions as the blocking service ({@link AsyncTransactionDao}).
+ */
+public class AsyncRegistrationService {
+    private final AsyncStudentDao studentDao;
+    private final AsyncEmailIndexDao emailIndexDao;
+    private final AsyncCourseDao courseDao;
+    private final AsyncEnrollmentDao enrollmentDao;
+    private final AsyncWaitlistDao waitlistDao;
+    private final AsyncDropDao dropDao;
+    private final AsyncTransactionDao transactionDao;
+    private final PasswordHasher passwordHasher;
+
+    public AsyncRegistrationService(DynamoDbAsyncClient client) {
+        this(
+                new AsyncStudentDao(client),
+                new AsyncEmailIndexDao(client),
+                new AsyncCourseDao(client),
+                new AsyncEnrollmentDao(client),
+                new AsyncWaitlistDao(client),
+                new AsyncDropDao(client),
+                new AsyncTransactionDao(client),
+                new PasswordHasher()
+        );
+    }
+
+    public AsyncRegistrationService(
+            AsyncStudentDao studentDao,
+            AsyncEmailIndexDao emailIndexDao,
+            AsyncCourseDao courseDao,
+            AsyncEnrollmentDao enrollmentDao,
+            AsyncWaitlistDao waitlistDao,
+            AsyncDropDao dropDao,
+            AsyncTransactionDao transactionDao,
+            PasswordHasher passwordHasher
+    ) {
+        this.studentDao = studentDao;
+        this.emailIndexDao = emailIndexDao;
+        this.courseDao = courseDao;
+        this.enrollmentDao = enrollmentDao;
+        this.waitlistDao = waitlistDao;
+        this.dropDao = dropDao;
+        this.transactionDao = transactionDao;
+        this.passwordHasher = passwordHasher;
+    }
+
+    // ---------------- SIGNUP ----------------
+    public CompletableFuture<String> signup(String studentId, String name, String email, String password) {
+        if (studentId == null || name == null || email == null || password == null)
+            return done("All fields are required.");
+
+        String normEmail = ValidationUtil.normalizeEmail(email);
+
+        if (!ValidationUtil.isValidStudentId(studentId))
+            return done("Invalid student ID format.");
+        if (!ValidationUtil.isValidEmail(normEmail))
+            return done("Invalid email format.");
+        if (!ValidationUtil.isValidPassword(password))
+            return done("Weak password. Must include uppercase, lowercase, special character & ≥8 chars.");
+
+        Student s = new Student();
+        s.studentId = studentId;
+        s.name = name;
+        s.email = normEmail;
+        // both conditional puts in one transaction: no pre-check reads, no orphan Student rows
+        return passwordHasher.hashAsync(password)
+                .thenCompose(h -> {
+                    s.passwordHash = h;
+                    return transactionDao.signup(s);
+                })
+                .thenApply(result -> {
+                    switch (result) {
+                        case CREATED:
+                            return "Signed up successfully.";
+                        case ID_TAKEN:
+                            return "Student ID already exists.";
+                        case EMAIL_TAKEN:
+                            return "Email already exists.";
+                        default:
+                            return "Unexpected error while signing up. Please try again.";
+                    }
+                })
+                .exceptionally(t -> {
+                    Throwable cause = unwrap(t);
+                    if (cause instanceof PasswordHasher.HasherBusyException) return "Server is busy. Please try again in a moment.";
+                    System.err.println("Signup unexpected error: " + cause.getMessage());
+                    return "Unexpected error: " + cause.getMessage();
+                });
+    }
+
+    // ---------------- LOGIN ----------------
+    public CompletableFuture<Boolean> login(String studentId, String password) {
+        return studentDao.getStudent(studentId)
+                .thenCompose(s -> {
+                    if (s == null) return CompletableFuture.completedFuture(false);
+                    return passwordHasher.verifyAsync(password, s.passwordHash);
+                })
+                .exceptionally(t -> {
+                    System.err.println("Login error: " + unwrap(t).getMessage());
+                    return false;
+                });
+    }
+
+    // ---------------- LIST COURSES ----------------
+    public CompletableFuture<List<Course>> listCourses() {
+        return courseDao.listAllCourses();
+    }
+
+    // ---------------- ENROLL ----------------
+    public CompletableFuture<String> enroll(String studentId, String courseId, boolean waitlistConsent) {
+        if (studentId == null || studentId.trim().isEmpty())
+            return done("Please login first.");
+        if (courseId == null || courseId.trim().isEmpty())
+            return done("Invalid course ID.");
+        String sid = studentId.trim();
+        String cid = courseId.trim();
+
+        // the precondition reads are independent: issue them together
+        CompletableFuture<Boolean> exists = studentDao.exists(sid);
+        CompletableFuture<Course> course = courseDao.getCourse(cid);
+
+        return exists.thenCombine(course, (found, c) -> {
+                    if (!found) return "Student not found. Please sign up first.";
+                    if (c == null || c.courseId == null || !cid.equals(c.courseId)) return "Course not found.";
+                    return null;
+                })
+                .thenCompose(rejected -> {
+                    if (rejected != null) return done(rejected);
+                    // seat, enrollment row and "not waitlisted" check commit together in one request
+                    return transactionDao.enroll(sid, cid, course.join().shardCount).thenCompose(result -> {
+                        switch (result) {
+                            case ENROLLED:
+                                return done("Enrolled successfully.");
+                            case ALREADY_ENROLLED:
+                                return done("You are already enrolled in this course.");
+                            case ALREADY_WAITLISTED:
+                                return done("You are already on the waitlist for this course.");
+                            case COURSE_FULL:
+                                return joinWaitlist(sid, cid, waitlistConsent);
+                            default:
+                                return done("Enrollment error: could not complete enrollment. Please try again.");
+                        }
+                    });
+                })
+                .exceptionally(t -> {
+                    System.err.println("Enrollment error: " + unwrap(t).getMessage());
+                    return "Enrollment error: " + unwrap(t).getMessage();
+                });
+    }
+
+    private CompletableFuture<String> joinWaitlist(String sid, String cid, boolean waitlistConsent) {
+        if (!waitlistConsent)
+            return done("Course full. Would you like to join the waitlist? (Y/N)");
+        return studentDao.getStudent(sid)
+                .thenCompose(s -> waitlistDao.addToWaitlist(cid, sid, s == null ? Collections.emptyMap() :
+                        Map.of("name", s.name == null ? "" : s.name, "email", s.email == null ? "" : s.email)))
+                .thenApply(added -> added
+                        ? "Course full. Added to waitlist."
+                        : "You are already on the waitlist for this course.");
+    }
+
+    // ---------------- DROP ----------------
+    public CompletableFuture<String> drop(String studentId, String courseId) {
+        if (studentId == null || studentId.trim().isEmpty())
+            return done("Please login first.");
+        if (courseId == null || courseId.trim().isEmpty())
+            return done("Invalid course ID.");
+        String sid = studentId.trim();
+        String cid = courseId.trim();
+
+        CompletableFuture<Boolean> exists = studentDao.exists(sid);
+        CompletableFuture<Course> course = courseDao.getCourse(cid);
+        CompletableFuture<Boolean> droppedBefore = dropDao.hasDroppedBefore(sid, cid);
+
+        return CompletableFuture.allOf(exists, course, droppedBefore)
+                .thenCompose(v -> {
+                    if (!exists.join()) return done("Student record not found. Please sign up first.");
+                    Course c = course.join();
+                    if (c == null) return done("Course not found. Please check the Course ID.");
+                    if (droppedBefore.join()) return done("You have already dropped this course earlier.");
+
+                    // drop + head-of-waitlist promotion commit together; NOT_ENROLLED falls through to the waitlist
+                    return transactionDao.dropAndPromote(sid, cid, "Dropped from enrolled course", c.shardCount)
+                            .thenCompose(outcome -> {
+                                switch (outcome.status) {
+                                    case DROPPED_AND_PROMOTED:
+                                        return done("Dropped from course. Promoted " + outcome.promotedStudentId + " from waitlist.");
+                                    case DROPPED:
+                                        return done("Dropped from course.");
+                                    case ERROR:
+                                        return done("Could not complete the drop. Please try again.");
+                                    default:
+                                        return leaveWaitlist(sid, cid);
+                                }
+                            });
+                })
+                .exceptionally(t -> {
+                    System.err.println("Drop error: " + unwrap(t).getMessage());
+                    return "Drop error: " + unwrap(t).getMessage();
+                });
+    }
+
+    private CompletableFuture<String> leaveWaitlist(String sid, String cid) {
+        return waitlistDao.removeAllWaitlistEntries(cid, sid).thenCompose(removed -> {
+            if (!removed) return done("You are not enrolled or waitlisted for this course.");
+            return dropDao.recordDrop(sid, cid, DropCodec.ACTOR_STUDENT, DropCodec.REASON_LEFT_WAITLIST)
+                    .thenApply(x -> "Dropped from waitlist.");
+        });
+    }
+
+    // ---------------- MY COURSES ----------------
+    public CompletableFuture<StudentSchedule> getMyCourses(String studentId) {
+        CompletableFuture<List<Map<String, AttributeValue>>> enrollments =
+                enrollmentDao.listEnrollmentsByStudent(studentId);
+        CompletableFuture<List<Map<String, AttributeValue>>> waitlists =
+                waitlistDao.getWaitlistsByStudent(studentId);
+
+        return enrollments.thenCombine(waitlists, (enr, wait) -> {
+                    Map<String, String> statusByCourse = new LinkedHashMap<>();
+                    for (var item : enr) {
+                        if (!item.containsKey("courseId")) continue;
+                        String status = item.containsKey("status") ? item.get("status").s() : ScheduleEntry.ENROLLED;
+                        statusByCourse.put(item.get("courseId").s(), status);
+                    }
+                    for (var w : wait) {
+                        if (w.containsKey("courseId")) statusByCourse.putIfAbsent(w.get("courseId").s(), ScheduleEntry.WAITLIST);
+                    }
+                    return statusByCourse;
+                })
+                .thenCompose(statusByCourse -> courseDao.getCourseTitles(statusByCourse.keySet()).thenApply(titles -> {
+                    StudentSchedule schedule = new StudentSchedule(studentId);
+                    for (var e : statusByCourse.entrySet()) {
+                        schedule.entries.add(new ScheduleEntry(e.getKey(), titles.getOrDefault(e.getKey(), "(Unknown Title)"), e.getValue()));
+                    }
+                    return schedule;
+                }))
+                .exceptionally(t -> {
+                    System.err.println("Error fetching student's courses: " + unwrap(t).getMessage());
+                    return new StudentSchedule(studentId);
+                });
+    }
+
+    // ---------------- HELPERS ----------------
+    private static CompletableFuture<String> done(String message) {
+        return CompletableFuture.completedFuture(message);
+    }
+
+    private static Throwable unwrap(Throwable t) {
+        while (t instanceof CompletionException && t.getCause() != null) t = t.getCause();
+        return t;
+    }
+}
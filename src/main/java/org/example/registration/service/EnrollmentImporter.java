@@ -0,0 +1,274 @@
+package org.example.registration.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.example.registration.dao.BatchWriter;
+import org.example.registration.dao.CourseDao;
+import org.example.registration.dao.EnrollmentDao;
+import org.example.registration.dao.StudentDao;
+import org.example.registration.model.Course;
+import org.example.registration.util.ValidationUtil;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk enrollment import. The file (CSV or NDJSON of studentId,courseId) is streamed in chunks;
+ * for each chunk, student and enrollment existence are checked with BatchGetItem, seats are
+ * reserved with one aggregated update per course (per shard when sharded), and the enrollment rows
+ * are written by a parallel {@link BatchWriter}. Seats held for rows that still fail after the
+ * writer's retries are given back at the end.
+ *
+ * Rows do not go through the enroll transaction: a student who enrolls through the CLI between
+ * the existence check and the write is counted twice.
+ */
+class EnrollmentImporter {
+    static final int CHUNK_SIZE = 5000;
+
+    private final DynamoDbClient client;
+    private final CourseDao courseDao;
+    private final StudentDao studentDao;
+    private final EnrollmentDao enrollmentDao;
+
+    /**
+     * Outcome counts for one import.
+     */
+    static class Report {
+        long rows, imported, invalid, duplicates, unknownCourse, unknownStudent, alreadyEnrolled, noSeat, failed;
+        long elapsedMillis;
+
+        @Override
+        public String toString() {
+            double secs = Math.max(0.001, elapsedMillis / 1000.0);
+            return String.format("Imported %,d of %,d rows in %.1fs (%,.0f rows/s): %,d already enrolled, "
+                            + "%,d without a seat, %,d unknown course, %,d unknown student, %,d invalid, "
+                            + "%,d duplicate, %,d failed writes.",
+                    imported, rows, secs, rows / secs, alreadyEnrolled, noSeat, unknownCourse, unknownStudent,
+                    invalid, duplicates, failed);
+        }
+    }
+
+    EnrollmentImporter(DynamoDbClient client, CourseDao courseDao, StudentDao studentDao, EnrollmentDao enrollmentDao) {
+        this.client = client;
+        this.courseDao = courseDao;
+        this.studentDao = studentDao;
+        this.enrollmentDao = enrollmentDao;
+    }
+
+    Report importFile(Path file) throws IOException {
+        try (RowSource rows = RowSource.open(file)) {
+            return importRows(rows);
+        }
+    }
+
+    Report importRows(RowSource rows) throws IOException {
+        long start = System.currentTimeMillis();
+        Report report = new Report();
+        Set<String> seen = new HashSet<>();
+
+        try (BatchWriter writer = new BatchWriter(client)) {
+            List<String[]> chunk = new ArrayList<>(CHUNK_SIZE);
+            for (String[] row; (row = rows.next()) != null; ) {
+                report.rows++;
+                chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    importChunk(chunk, writer, report, seen);
+                    chunk.clear();
+                }
+            }
+            importChunk(chunk, writer, report, seen);
+            writer.flush();
+
+            report.imported = writer.written();
+            // seats were reserved up front; hand back the ones whose rows never landed
+            Map<String, Integer> failedByCourse = new HashMap<>();
+            for (var failure : writer.failures()) {
+                var item = failure.item();
+                if (item != null && item.get("courseId") != null) failedByCourse.merge(item.get("courseId").s(), 1, Integer::sum);
+            }
+            failedByCourse.forEach(courseDao::releaseSeats);
+            report.failed = failedByCourse.values().stream().mapToLong(Integer::longValue).sum();
+        }
+        report.elapsedMillis = System.currentTimeMillis() - start;
+        return report;
+    }
+
+    private void importChunk(List<String[]> chunk, BatchWriter writer, Report report, Set<String> seen) {
+        if (chunk.isEmpty()) return;
+
+        Map<String, List<String>> studentsByCourse = new LinkedHashMap<>();
+        Set<String> studentIds = new LinkedHashSet<>();
+        List<String> pairs = new ArrayList<>();
+        for (String[] row : chunk) {
+            String sid = row.length > 0 && row[0] != null ? row[0].trim() : "";
+            String cid = row.length > 1 && row[1] != null ? row[1].trim().toUpperCase(Locale.ROOT) : "";
+            if (!ValidationUtil.isValidStudentId(sid) || cid.isEmpty()) {
+                report.invalid++;
+                continue;
+            }
+            if (!seen.add(sid + "#" + cid)) {
+                report.duplicates++;
+                continue;
+            }
+            studentsByCourse.computeIfAbsent(cid, k -> new ArrayList<>()).add(sid);
+            studentIds.add(sid);
+            pairs.add(sid + "#" + cid);
+        }
+        if (pairs.isEmpty()) return;
+
+        Set<String> knownStudents;
+        Set<String> enrolled;
+        try (ReadFanOut reads = new ReadFanOut()) {
+            Future<Set<String>> students = reads.fork(() -> studentDao.findExisting(studentIds));
+            Future<Set<String>> existing = reads.fork(() -> enrollmentDao.findExisting(pairs));
+            knownStudents = reads.join(students);
+            enrolled = reads.join(existing);
+        } catch (Exception e) {
+            throw new IllegalStateException("Existence checks failed: " + e.getMessage(), e);
+        }
+
+        for (var entry : studentsByCourse.entrySet()) {
+            String cid = entry.getKey();
+            List<String> sids = entry.getValue();
+
+            Course c = courseDao.getCourse(cid);
+            if (c == null) {
+                report.unknownCourse += sids.size();
+                continue;
+            }
+
+            List<String> candidates = new ArrayList<>(sids.size());
+            for (String sid : sids) {
+                if (!knownStudents.contains(sid)) report.unknownStudent++;
+                else if (enrolled.contains(sid + "#" + cid)) report.alreadyEnrolled++;
+                else candidates.add(sid);
+            }
+            if (candidates.isEmpty()) continue;
+
+            // cached capacity screens out full courses; confirm with a fresh read before turning anyone away
+            if (c.currentEnrolled >= c.maxSeats) {
+                c = courseDao.getCourseFresh(cid);
+                if (c == null || c.currentEnrolled >= c.maxSeats) {
+                    report.noSeat += candidates.size();
+                    continue;
+                }
+            }
+
+            int granted = courseDao.reserveSeats(cid, candidates.size());
+            for (String sid : candidates.subList(0, granted)) {
+                enrollmentDao.queueEnrollment(writer, sid, cid, "ENROLLED");
+            }
+            report.noSeat += candidates.size() - granted;
+        }
+    }
+
+    // ----------------------
+    // Input formats
+    // ----------------------
+
+    /**
+     * (studentId, courseId) rows from an import file; entries may be null or blank when a row is malformed.
+     */
+    interface RowSource extends Closeable {
+        String[] next() throws IOException;
+
+        /**
+         * NDJSON or a JSON array for .json/.ndjson/.jsonl files or files starting with '{' or '[';
+         * CSV otherwise.
+         */
+        static RowSource open(Path file) throws IOException {
+            String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+            BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+            boolean json = name.endsWith(".json") || name.endsWith(".ndjson") || name.endsWith(".jsonl");
+            if (!json && !name.endsWith(".csv")) {
+                reader.mark(4096);
+                int ch;
+                while ((ch = reader.read()) != -1 && Character.isWhitespace(ch)) { }
+                json = ch == '{' || ch == '[';
+                reader.reset();
+            }
+            return json ? new JsonRows(reader) : new CsvRows(reader);
+        }
+    }
+
+    /**
+     * studentId,courseId per line. A header line, blank lines and '#' comments are skipped.
+     */
+    static class CsvRows implements RowSource {
+        private final BufferedReader reader;
+        private boolean first = true;
+
+        CsvRows(Reader reader) {
+            this.reader = reader instanceof BufferedReader br ? br : new BufferedReader(reader);
+        }
+
+        @Override
+        public String[] next() throws IOException {
+            for (String line; (line = reader.readLine()) != null; ) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] fields = line.split(",", -1);
+                for (int i = 0; i < fields.length; i++) fields[i] = unquote(fields[i].trim());
+                boolean header = first && fields[0].equalsIgnoreCase("studentId");
+                first = false;
+                if (header) continue;
+                return new String[]{fields[0], fields.length > 1 ? fields[1] : null};
+            }
+            return null;
+        }
+
+        private static String unquote(String f) {
+            return f.length() >= 2 && f.startsWith("\"") && f.endsWith("\"") ? f.substring(1, f.length() - 1) : f;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * One {"studentId": ..., "courseId": ...} object per line, or a JSON array of them. Read with
+     * Jackson's streaming parser, so only the current object is held in memory.
+     */
+    static class JsonRows implements RowSource {
+        private static final JsonFactory JSON = new JsonFactory();
+        private final JsonParser parser;
+
+        JsonRows(Reader reader) throws IOException {
+            this.parser = JSON.createParser(reader);
+        }
+
+        @Override
+        public String[] next() throws IOException {
+            for (JsonToken t; (t = parser.nextToken()) != null; ) {
+                if (t != JsonToken.START_OBJECT) continue; // array brackets between objects
+                String sid = null, cid = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if (value.isStructStart()) {
+                        parser.skipChildren();
+                    } else if ("studentId".equals(field)) {
+                        sid = parser.getValueAsString();
+                    } else if ("courseId".equals(field)) {
+                        cid = parser.getValueAsString();
+                    }
+                }
+                return new String[]{sid, cid};
+            }
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
+}
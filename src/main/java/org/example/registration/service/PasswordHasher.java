@@ -0,0 +1,234 @@
+package org.example.registration.service;
+
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * BCrypt hashing and verification on a dedicated, bounded pool so a login rush cannot starve the
+ * rest of the node. Work beyond the queue depth is rejected with {@link HasherBusyException}
+ * instead of piling up.
+ *
+ * Tuning (system properties):
+ *   registration.bcrypt.cost        target work factor (default 10, BCrypt's gensalt default)
+ *   registration.bcrypt.targetMillis if set, pick the cost whose hash takes about this long
+ *   registration.bcrypt.threads     worker threads (default: number of cores)
+ *   registration.bcrypt.queueDepth  queued requests beyond the busy workers (default threads * 16)
+ */
+public class PasswordHasher {
+    public static final String COST_PROPERTY = "registration.bcrypt.cost";
+    public static final String TARGET_MILLIS_PROPERTY = "registration.bcrypt.targetMillis";
+    public static final String THREADS_PROPERTY = "registration.bcrypt.threads";
+    public static final String QUEUE_DEPTH_PROPERTY = "registration.bcrypt.queueDepth";
+
+    static final int DEFAULT_COST = 10;
+    static final int MIN_COST = 4;
+    static final int MAX_COST = 31;
+
+    private static final AtomicInteger POOL_IDS = new AtomicInteger();
+
+    private final int cost;
+    private final ThreadPoolExecutor pool;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong rehashes = new AtomicLong();
+    private final AtomicLong queueNanos = new AtomicLong();
+    private final AtomicLong workNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /**
+     * Thrown when the hashing queue is full; callers should answer "busy, try again".
+     */
+    public static class HasherBusyException extends RejectedExecutionException {
+        public HasherBusyException(String message) {
+            super(message);
+        }
+    }
+
+    public PasswordHasher() {
+        this(configuredCost(), intProperty(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()), -1);
+    }
+
+    /**
+     * @param queueDepth queued requests allowed beyond busy workers; negative means threads * 16
+     */
+    public PasswordHasher(int cost, int threads, int queueDepth) {
+        if (cost < MIN_COST || cost > MAX_COST) throw new IllegalArgumentException("cost must be in [4, 31]");
+        if (threads <= 0) throw new IllegalArgumentException("threads must be positive");
+        int depth = queueDepth >= 0 ? queueDepth : intProperty(QUEUE_DEPTH_PROPERTY, threads * 16);
+        this.cost = cost;
+
+        int poolId = POOL_IDS.incrementAndGet();
+        AtomicInteger threadIds = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                depth == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(depth), r -> {
+                    Thread t = new Thread(r, "bcrypt-" + poolId + "-worker-" + threadIds.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, (r, executor) -> {
+                    rejected.incrementAndGet();
+                    throw new HasherBusyException("Password hashing queue is full (" + executor.getQueue().size() + " waiting)");
+                });
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    public static int configuredCost() {
+        String target = System.getProperty(TARGET_MILLIS_PROPERTY);
+        if (target != null) {
+            try {
+                return calibrateCost(Long.parseLong(target.trim()));
+            } catch (NumberFormatException e) {
+                System.err.println("Warning: ignoring invalid " + TARGET_MILLIS_PROPERTY + ": " + target);
+            }
+        }
+        int cost = intProperty(COST_PROPERTY, DEFAULT_COST);
+        return Math.max(MIN_COST, Math.min(MAX_COST, cost));
+    }
+
+    /**
+     * Largest cost whose hash on this machine stays within targetMillis. Each step doubles the work,
+     * so one timing at a cheap cost is enough to extrapolate.
+     */
+    static int calibrateCost(long targetMillis) {
+        int probe = 8;
+        BCrypt.hashpw("calibration", BCrypt.gensalt(probe)); // warm up
+        long start = System.nanoTime();
+        BCrypt.hashpw("calibration", BCrypt.gensalt(probe));
+        double millis = Math.max(0.01, (System.nanoTime() - start) / 1_000_000.0);
+
+        int cost = probe;
+        while (cost < MAX_COST && millis * 2 <= targetMillis) {
+            millis *= 2;
+            cost++;
+        }
+        while (cost > MIN_COST && millis > targetMillis) {
+            millis /= 2;
+            cost--;
+        }
+        return cost;
+    }
+
+    private static int intProperty(String name, int def) {
+        try {
+            int v = Integer.parseInt(System.getProperty(name, String.valueOf(def)).trim());
+            return v >= 0 ? v : def;
+        } catch (NumberFormatException e) {
+            return def;
+        }
+    }
+
+    // ---------------- HASHING ----------------
+
+    public CompletableFuture<String> hashAsync(String password) {
+        return submit(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost)));
+    }
+
+    public CompletableFuture<Boolean> verifyAsync(String password, String hash) {
+        return submit(() -> BCrypt.checkpw(password, hash));
+    }
+
+    /**
+     * Blocks the caller (cheaply, if it is a virtual thread) until the pool has hashed the password.
+     */
+    public String hash(String password) {
+        return await(hashAsync(password));
+    }
+
+    public boolean verify(String password, String hash) {
+        return await(verifyAsync(password, hash));
+    }
+
+    /**
+     * True when the stored hash was produced with a different work factor than the current target.
+     * Unparseable hashes are left alone; they fail verification anyway.
+     */
+    public boolean needsRehash(String hash) {
+        int stored = costOf(hash);
+        return stored > 0 && stored != cost;
+    }
+
+    /**
+     * Work factor encoded in a "$2a$NN$..." hash, or -1 if it cannot be read.
+     */
+    static int costOf(String hash) {
+        if (hash == null || hash.length() < 7 || hash.charAt(0) != '$') return -1;
+        int sep = hash.indexOf('$', 1);
+        if (sep < 0 || sep + 3 >= hash.length() || hash.charAt(sep + 3) != '$') return -1;
+        try {
+            return Integer.parseInt(hash.substring(sep + 1, sep + 3));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    void countRehash() {
+        rehashes.incrementAndGet();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        long queuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    return work.get();
+                } finally {
+                    long done = System.nanoTime();
+                    queueNanos.addAndGet(startedAt - queuedAt);
+                    workNanos.addAndGet(done - startedAt);
+                    maxLatencyNanos.accumulateAndGet(done - queuedAt, Math::max);
+                    completed.incrementAndGet();
+                }
+            }, pool);
+        } catch (HasherBusyException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> f) {
+        try {
+            return f.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing", e);
+        }
+    }
+
+    // ---------------- METRICS ----------------
+
+    public int getCost() {
+        return cost;
+    }
+
+    public int queueDepth() {
+        return pool.getQueue().size();
+    }
+
+    public long completed() {
+        return completed.get();
+    }
+
+    public long rejected() {
+        return rejected.get();
+    }
+
+    public long rehashes() {
+        return rehashes.get();
+    }
+
+    @Override
+    public String toString() {
+        long n = Math.max(1, completed.get());
+        return String.format("PasswordHasher[cost=%d, threads=%d, active=%d, queued=%d, completed=%d, rejected=%d, "
+                        + "rehashed=%d, avgQueueMs=%.1f, avgWorkMs=%.1f, maxLatencyMs=%.1f]",
+                cost, pool.getMaximumPoolSize(), pool.getActiveCount(), queueDepth(), completed.get(), rejected.get(),
+                rehashes.get(), queueNanos.get() / 1e6 / n, workNanos.get() / 1e6 / n, maxLatencyNanos.get() / 1e6);
+    }
+}
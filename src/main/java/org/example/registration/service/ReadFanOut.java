@@ -0,0 +1,54 @@
+package org.example.registration.service;
+
+import org.example.registration.metrics.DaoMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Runs independent precondition reads concurrently, one virtual thread each. Closing the scope
+ * cancels every read that is still in flight, so returning early on a failed check does not
+ * leave requests running. Forked reads are attributed to the caller's service method in DaoMetrics.
+ *
+ * <pre>
+ * try (ReadFanOut reads = new ReadFanOut()) {
+ *     Future&lt;Boolean&gt; exists = reads.fork(() -&gt; ...);
+ *     Future&lt;Course&gt; course = reads.fork(() -&gt; ...);
+ *     if (!reads.join(exists)) return "...";   // course read is cancelled on close
+ * }
+ * </pre>
+ */
+final class ReadFanOut implements AutoCloseable {
+    private static final ExecutorService READS = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final List<Future<?>> forks = new ArrayList<>();
+
+    <T> Future<T> fork(Callable<T> read) {
+        Future<T> f = READS.submit(DaoMetrics.propagate(read));
+        forks.add(f);
+        return f;
+    }
+
+    /**
+     * Waits for a forked read; failures are rethrown unwrapped.
+     */
+    <T> T join(Future<T> fork) throws Exception {
+        try {
+            return fork.get();
+        } catch (ExecutionException e) {
+            close();
+            if (e.getCause() instanceof Exception ex) throw ex;
+            throw e;
+        } catch (InterruptedException e) {
+            close();
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Future<?> f : forks) f.cancel(true);
+    }
+}
@@ -1,46 +1,96 @@
 package org.example.registration.service;
 
+import org.example.registration.codec.DropCodec;
 import org.example.registration.dao.*;
+import org.example.registration.events.DropHistoryProjector;
+import org.example.registration.events.EventSink;
+import org.example.registration.events.RegistrationEvent;
+import org.example.registration.metrics.DaoMetrics;
 import org.example.registration.model.Course;
+import org.example.registration.model.ScheduleEntry;
 import org.example.registration.model.Student;
+import org.example.registration.model.StudentSchedule;
 import org.example.registration.util.ValidationUtil;
-import org.mindrot.jbcrypt.BCrypt;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
-import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
-import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
-import software.amazon.awssdk.services.dynamodb.model.ConditionalCheckFailedException;
 
 import java.util.*;
+import java.util.concurrent.Future;
 
 public class RegistrationService {
     private final DynamoDbClient client;
-    private final StudentDao studentDao;
-    private final EmailIndexDao emailIndexDao;
-    private final CourseDao courseDao;
-    private final EnrollmentDao enrollmentDao;
-    private final WaitlistDao waitlistDao;
-    private final DropDao dropDao;
+    private final StudentStore studentDao;
+    private final EmailIndexStore emailIndexDao;
+    private final CourseStore courseDao;
+    private final EnrollmentStore enrollmentDao;
+    private final WaitlistStore waitlistDao;
+    private final DropStore dropDao;
+    private final TransactionStore transactionDao;
+    private final PasswordHasher passwordHasher;
+    // null: no outbox, events are projected inline (see publish)
+    private final EventSink events;
 
     public RegistrationService(DynamoDbClient client) {
+        this(Stores.dynamoDb(client));
+    }
+
+    /**
+     * Runs against any storage backend (DynamoDB or embedded).
+     */
+    public RegistrationService(Stores stores) {
         this(
-                client,
-                new StudentDao(client),
-                new EmailIndexDao(client),
-                new CourseDao(client),
-                new EnrollmentDao(client),
-                new WaitlistDao(client),
-                new DropDao(client)
+                stores.dynamoDbClient,
+                stores.students,
+                stores.emails,
+                stores.courses,
+                stores.enrollments,
+                stores.waitlists,
+                stores.drops,
+                stores.transactions,
+                new PasswordHasher(),
+                stores.events
         );
     }
 
     public RegistrationService(
             DynamoDbClient client,
-            StudentDao studentDao,
-            EmailIndexDao emailIndexDao,
-            CourseDao courseDao,
-            EnrollmentDao enrollmentDao,
-            WaitlistDao waitlistDao,
-            DropDao dropDao
+            StudentStore studentDao,
+            EmailIndexStore emailIndexDao,
+            CourseStore courseDao,
+            EnrollmentStore enrollmentDao,
+            WaitlistStore waitlistDao,
+            DropStore dropDao,
+            TransactionStore transactionDao
+    ) {
+        this(client, studentDao, emailIndexDao, courseDao, enrollmentDao, waitlistDao, dropDao, transactionDao,
+                new PasswordHasher());
+    }
+
+    public RegistrationService(
+            DynamoDbClient client,
+            StudentStore studentDao,
+            EmailIndexStore emailIndexDao,
+            CourseStore courseDao,
+            EnrollmentStore enrollmentDao,
+            WaitlistStore waitlistDao,
+            DropStore dropDao,
+            TransactionStore transactionDao,
+            PasswordHasher passwordHasher
+    ) {
+        this(client, studentDao, emailIndexDao, courseDao, enrollmentDao, waitlistDao, dropDao, transactionDao,
+                passwordHasher, null);
+    }
+
+    public RegistrationService(
+            DynamoDbClient client,
+            StudentStore studentDao,
+            EmailIndexStore emailIndexDao,
+            CourseStore courseDao,
+            EnrollmentStore enrollmentDao,
+            WaitlistStore waitlistDao,
+            DropStore dropDao,
+            TransactionStore transactionDao,
+            PasswordHasher passwordHasher,
+            EventSink events
     ) {
         this.client = client;
         this.studentDao = studentDao;
@@ -49,62 +99,88 @@ public class RegistrationService {
         this.enrollmentDao = enrollmentDao;
         this.waitlistDao = waitlistDao;
         this.dropDao = dropDao;
+        this.transactionDao = transactionDao;
+        this.passwordHasher = passwordHasher;
+        this.events = events;
+    }
+
+    public PasswordHasher getPasswordHasher() {
+        return passwordHasher;
     }
 
     // ---------------- SIGNUP ----------------
     public String signup(String studentId, String name, String email, String password) {
-        if (studentId == null || name == null || email == null || password == null)
-            return "All fields are required.";
-
-        String normEmail = ValidationUtil.normalizeEmail(email);
-
-        if (!ValidationUtil.isValidStudentId(studentId))
-            return "Invalid student ID format.";
-        if (!ValidationUtil.isValidEmail(normEmail))
-            return "Invalid email format.";
-        if (!ValidationUtil.isValidPassword(password))
-            return "Weak password. Must include uppercase, lowercase, special character & ≥8 chars.";
-
-        try {
-            if (isStudentIdExists(studentId)) return "Student ID already exists.";
-            if (isEmailExists(normEmail)) return "Email already exists.";
-        } catch (RuntimeException e) {
-            return "Database error while checking duplicates: " + e.getMessage();
-        }
-
-        Student s = new Student();
-        s.studentId = studentId;
-        s.name = name;
-        s.email = normEmail;
-        s.passwordHash = BCrypt.hashpw(password, BCrypt.gensalt());
+        try (DaoMetrics.Scope op = DaoMetrics.operation("signup")) {
+            if (studentId == null || name == null || email == null || password == null)
+                return "All fields are required.";
+
+            String normEmail = ValidationUtil.normalizeEmail(email);
+
+            if (!ValidationUtil.isValidStudentId(studentId))
+                return "Invalid student ID format.";
+            if (!ValidationUtil.isValidEmail(normEmail))
+                return "Invalid email format.";
+            if (!ValidationUtil.isValidPassword(password))
+                return "Weak password. Must include uppercase, lowercase, special character & ≥8 chars.";
+
+            Student s = new Student();
+            s.studentId = studentId;
+            s.name = name;
+            s.email = normEmail;
+            try {
+                s.passwordHash = passwordHasher.hash(password);
+            } catch (PasswordHasher.HasherBusyException e) {
+                return "Server is busy. Please try again in a moment.";
+            }
 
-        try {
-            studentDao.putStudent(s);
-            emailIndexDao.putEmail(normEmail, studentId);
-            return "Signed up successfully.";
-        } catch (ConditionalCheckFailedException e) {
-            return "Student ID or Email already exists.";
-        } catch (Exception e) {
-            System.err.println("Signup unexpected error: " + e.getMessage());
-            return "Unexpected error: " + e.getMessage();
+            // both conditional puts in one transaction: no pre-check reads, no orphan Student rows
+            switch (transactionDao.signup(s)) {
+                case CREATED:
+                    studentDao.markKnown(studentId);
+                    return "Signed up successfully.";
+                case ID_TAKEN:
+                    studentDao.markKnown(studentId);
+                    return "Student ID already exists.";
+                case EMAIL_TAKEN:
+                    return "Email already exists.";
+                default:
+                    return "Unexpected error while signing up. Please try again.";
+            }
         }
     }
 
     // ---------------- LOGIN ----------------
     public boolean login(String studentId, String password) {
-        try {
+        try (DaoMetrics.Scope op = DaoMetrics.operation("login")) {
+            // no existence filter here: the read is needed anyway, and a stale filter would lock out new students
             Student s = studentDao.getStudent(studentId);
             if (s == null) return false;
-            return BCrypt.checkpw(password, s.passwordHash);
+            if (!passwordHasher.verify(password, s.passwordHash)) return false;
+            if (passwordHasher.needsRehash(s.passwordHash)) rehashInBackground(studentId, password, s.passwordHash);
+            return true;
         } catch (Exception e) {
             System.err.println("Login error: " + e.getMessage());
             return false;
         }
     }
 
+    // Upgrades a hash made with an old work factor; best effort, the next login retries on failure.
+    // Conditional on the hash read at login, so a password reset that lands first is never undone.
+    private void rehashInBackground(String studentId, String password, String previousHash) {
+        passwordHasher.hashAsync(password)
+                .thenAccept(hash -> {
+                    if (studentDao.replacePasswordHash(studentId, previousHash, hash)) passwordHasher.countRehash();
+                })
+                .exceptionally(t -> {
+                    Throwable cause = t instanceof java.util.concurrent.CompletionException && t.getCause() != null ? t.getCause() : t;
+                    System.err.println("Warning: could not rehash password for " + studentId + ": " + cause.getMessage());
+                    return null;
+                });
+    }
+
     // ---------------- RESET PASSWORD ----------------
     public String resetPassword(String studentId, String newPassword) {
-        try {
+        try (DaoMetrics.Scope op = DaoMetrics.operation("resetPassword")) {
             if (studentId == null || studentId.isBlank()) {
                 return "Student ID cannot be empty.";
             }
@@ -114,7 +190,7 @@ public class RegistrationService {
             if (!isStudentIdExists(studentId)) {
                 return "Student not found. Please sign up first.";
             }
-            String hashed = BCrypt.hashpw(newPassword, BCrypt.gensalt());
+            String hashed = passwordHasher.hash(newPassword);
             studentDao.updatePassword(studentId, hashed);
             return "Password reset successfully.";
         } catch (Exception e) {
@@ -125,7 +201,7 @@ public class RegistrationService {
 
     // ---------------- LIST COURSES ----------------
     public List<Course> listCourses() {
-        try {
+        try (DaoMetrics.Scope op = DaoMetrics.operation("listCourses")) {
             return courseDao.listAllCourses();
         } catch (Exception e) {
             System.err.println("Error listing courses: " + e.getMessage());
@@ -133,27 +209,9 @@ public class RegistrationService {
         }
     }
 
-    // Helper: check Enrollment table for (studentId, courseId)
-    private boolean isStudentEnrolled(String studentId, String courseId) {
-        try {
-            GetItemRequest req = GetItemRequest.builder()
-                    .tableName("Enrollment")
-                    .key(Map.of(
-                            "studentId", AttributeValue.builder().s(studentId).build(),
-                            "courseId", AttributeValue.builder().s(courseId).build()
-                    ))
-                    .consistentRead(true)
-                    .build();
-            return client.getItem(req).hasItem();
-        } catch (Exception e) {
-            System.err.println("Error checking enrollment: " + e.getMessage());
-            return false;
-        }
-    }
-
     // ---------------- ENROLL ----------------
     public String enroll(String studentId, String courseId, boolean waitlistConsent) {
-        try {
+        try (DaoMetrics.Scope op = DaoMetrics.operation("enroll")) {
             if (studentId == null || studentId.trim().isEmpty())
                 return "Please login first.";
             studentId = studentId.trim();
@@ -162,34 +220,48 @@ public class RegistrationService {
                 return "Invalid course ID.";
             courseId = courseId.trim();
 
-            if (!isStudentIdExists(studentId))
-                return "Student not found. Please sign up first.";
+            // independent reads run concurrently; closing the scope cancels whatever is still in flight
+            final String sid = studentId, cid = courseId;
+            int shardCount;
+            try (ReadFanOut reads = new ReadFanOut()) {
+                Future<Boolean> exists = reads.fork(() -> isStudentIdExists(sid));
+                Future<Course> course = reads.fork(() -> courseDao.getCourse(cid));
 
-            if (isStudentEnrolled(studentId, courseId))
-                return "You are already enrolled in this course.";
+                if (!reads.join(exists))
+                    return "Student not found. Please sign up first.";
 
-            if (waitlistDao.isStudentOnWaitlist(courseId, studentId))
-                return "You are already on the waitlist for this course.";
+                Course c = reads.join(course);
+                if (c == null || c.courseId == null || !courseId.equals(c.courseId))
+                    return "Course not found.";
+                shardCount = c.shardCount;
+            }
 
-            Course c = courseDao.getCourse(courseId);
-            if (c == null || c.courseId == null || !courseId.equals(c.courseId))
-                return "Course not found.";
+            // seat, enrollment row and "not waitlisted" check commit together in one request
+            switch (transactionDao.enroll(studentId, courseId, shardCount)) {
+                case ENROLLED:
+                    publish(new RegistrationEvent(RegistrationEvent.Type.ENROLLED, studentId, courseId, "STUDENT", null));
+                    return "Enrolled successfully.";
+                case ALREADY_ENROLLED:
+                    return "You are already enrolled in this course.";
+                case ALREADY_WAITLISTED:
+                    return "You are already on the waitlist for this course.";
+                case COURSE_FULL:
+                    break;
+                default:
+                    return "Enrollment error: could not complete enrollment. Please try again.";
+            }
 
-            boolean reserved = courseDao.reserveSeatIfAvailable(courseId);
-            if (reserved) {
-                enrollmentDao.putEnrollment(studentId, courseId, "ENROLLED");
-                return "Enrolled successfully.";
-            } else {
-                if (!waitlistConsent)
-                    return "Course full. Would you like to join the waitlist? (Y/N)";
+            if (!waitlistConsent)
+                return "Course full. Would you like to join the waitlist? (Y/N)";
 
-                Student s = studentDao.getStudent(studentId);
-                Map<String, String> extra = s == null ? Collections.emptyMap() :
-                        Map.of("name", s.name == null ? "" : s.name, "email", s.email == null ? "" : s.email);
+            Student s = studentDao.getStudent(studentId);
+            Map<String, String> extra = s == null ? Collections.emptyMap() :
+                    Map.of("name", s.name == null ? "" : s.name, "email", s.email == null ? "" : s.email);
 
-                waitlistDao.addToWaitlist(courseId, studentId, extra);
-                return "Course full. Added to waitlist.";
-            }
+            if (!waitlistDao.addToWaitlist(courseId, studentId, extra))
+                return "You are already on the waitlist for this course.";
+            publish(new RegistrationEvent(RegistrationEvent.Type.WAITLISTED, studentId, courseId, "STUDENT", null));
+            return "Course full. Added to waitlist.";
         } catch (Exception e) {
             System.err.println("Enrollment error: " + e.getMessage());
             return "Enrollment error: " + e.getMessage();
@@ -198,59 +270,58 @@ public class RegistrationService {
 
     // ---------------- DROP ----------------
     public String drop(String studentId, String courseId) {
-        try {
+        try (DaoMetrics.Scope op = DaoMetrics.operation("drop")) {
             if (studentId == null || studentId.trim().isEmpty())
                 return "Please login first.";
             studentId = studentId.trim();
 
-            if (!isStudentIdExists(studentId))
-                return "Student record not found. Please sign up first.";
-
             if (courseId == null || courseId.trim().isEmpty())
                 return "Invalid course ID.";
             courseId = courseId.trim();
 
-            Course course = courseDao.getCourse(courseId);
-            if (course == null)
-                return "Course not found. Please check the Course ID.";
+            final String sid = studentId, cid = courseId;
+            int shardCount;
+            try (ReadFanOut reads = new ReadFanOut()) {
+                Future<Boolean> exists = reads.fork(() -> isStudentIdExists(sid));
+                Future<Course> course = reads.fork(() -> courseDao.getCourse(cid));
+                Future<Boolean> droppedBefore = reads.fork(() -> dropDao.hasDroppedBefore(sid, cid));
 
-            if (dropDao.hasDroppedBefore(studentId, courseId)) {
-                return "You have already dropped this course earlier.";
-            }
+                if (!reads.join(exists))
+                    return "Student record not found. Please sign up first.";
 
-            boolean currentlyEnrolled = isStudentEnrolled(studentId, courseId);
-            if (currentlyEnrolled) {
-                boolean deletedFromEnrollment = enrollmentDao.deleteEnrollment(studentId, courseId);
-                if (deletedFromEnrollment) {
-                    boolean recorded = dropDao.recordDrop(studentId, courseId, "STUDENT", "Dropped from enrolled course");
-                    if (!recorded) {
-                        System.err.println("Error: recordDrop failed for " + studentId + " / " + courseId);
-                        return "Dropped from course but failed to persist drop record. Please contact admin.";
-                    }
+                Course c = reads.join(course);
+                if (c == null)
+                    return "Course not found. Please check the Course ID.";
+                shardCount = c.shardCount;
 
-                    courseDao.releaseSeat(courseId);
-
-                    String promoted = waitlistDao.popFirstWaitlistedStudent(courseId);
-                    if (promoted != null) {
-                        boolean reservedForPromoted = courseDao.reserveSeatIfAvailable(courseId);
-                        if (reservedForPromoted) {
-                            enrollmentDao.putEnrollment(promoted, courseId, "ENROLLED");
-                            dropDao.recordDrop(promoted, courseId, "SYSTEM", "Promoted from waitlist after drop");
-                            return "Dropped from course. Promoted " + promoted + " from waitlist.";
-                        } else {
-                            waitlistDao.addToWaitlist(courseId, promoted, Collections.emptyMap());
-                            return "Dropped from course. (Promotion skipped due to concurrency.)";
-                        }
-                    }
+                if (reads.join(droppedBefore))
+                    return "You have already dropped this course earlier.";
+            }
+
+            // drop + head-of-waitlist promotion commit together; NOT_ENROLLED falls through to the waitlist
+            TransactionStore.DropOutcome outcome =
+                    transactionDao.dropAndPromote(studentId, courseId, "Dropped from enrolled course", shardCount);
+            switch (outcome.status) {
+                case DROPPED_AND_PROMOTED:
+                    publish(new RegistrationEvent(RegistrationEvent.Type.DROPPED, studentId, courseId, "STUDENT",
+                                    "Dropped from enrolled course"),
+                            new RegistrationEvent(RegistrationEvent.Type.PROMOTED, outcome.promotedStudentId, courseId,
+                                    "SYSTEM", "Promoted from waitlist after drop"));
+                    return "Dropped from course. Promoted " + outcome.promotedStudentId + " from waitlist.";
+                case DROPPED:
+                    publish(new RegistrationEvent(RegistrationEvent.Type.DROPPED, studentId, courseId, "STUDENT",
+                            "Dropped from enrolled course"));
                     return "Dropped from course.";
-                } else {
-                    return "Could not remove enrollment due to concurrency. Please try again.";
-                }
+                case ERROR:
+                    return "Could not complete the drop. Please try again.";
+                default:
+                    break;
             }
 
             boolean removedFromWaitlist = waitlistDao.removeAllWaitlistEntries(courseId, studentId);
             if (removedFromWaitlist) {
-                dropDao.recordDrop(studentId, courseId, "STUDENT", "Removed from waitlist by student");
+                publish(new RegistrationEvent(RegistrationEvent.Type.LEFT_WAITLIST, studentId, courseId, "STUDENT",
+                        DropCodec.REASON_LEFT_WAITLIST));
                 return "Dropped from waitlist.";
             }
 
@@ -262,62 +333,65 @@ public class RegistrationService {
     }
 
     // ---------------- MY COURSES (Enhanced: includes titles) ----------------
-    public List<String> getMyCourses(String studentId) {
-        List<String> list = new ArrayList<>();
-        try {
-            var scanReq = software.amazon.awssdk.services.dynamodb.model.ScanRequest.builder()
-                    .tableName("Enrollment")
-                    .filterExpression("studentId = :sid")
-                    .expressionAttributeValues(Map.of(":sid", AttributeValue.builder().s(studentId).build()))
-                    .build();
-
-            var res = client.scan(scanReq);
-            for (var item : res.items()) {
-                String cid = item.get("courseId").s();
-                String status = item.get("status").s();
-
-                Course course = courseDao.getCourse(cid);
-                String title = (course != null && course.title != null) ? course.title : "(Unknown Title)";
-                list.add(cid + " - " + title + " (" + status + ")");
+    // Constant round trips: one Query per index plus one BatchGetItem for all titles.
+    public StudentSchedule getMyCourses(String studentId) {
+        StudentSchedule schedule = new StudentSchedule(studentId);
+        try (DaoMetrics.Scope op = DaoMetrics.operation("getMyCourses")) {
+            Map<String, String> statusByCourse = new LinkedHashMap<>();
+            for (var item : enrollmentDao.listEnrollmentsByStudent(studentId)) {
+                if (!item.containsKey("courseId")) continue;
+                String status = item.containsKey("status") ? item.get("status").s() : ScheduleEntry.ENROLLED;
+                statusByCourse.put(item.get("courseId").s(), status);
             }
 
             var waitlists = waitlistDao.getWaitlistsByStudent(studentId, 0);
             if (waitlists != null) {
                 for (var w : waitlists) {
                     if (w.containsKey("courseId")) {
-                        String cid = w.get("courseId").s();
-                        boolean already = list.stream().anyMatch(s -> s.startsWith(cid + " "));
-                        if (!already) {
-                            Course course = courseDao.getCourse(cid);
-                            String title = (course != null && course.title != null) ? course.title : "(Unknown Title)";
-                            list.add(cid + " - " + title + " (WAITLIST)");
-                        }
+                        statusByCourse.putIfAbsent(w.get("courseId").s(), ScheduleEntry.WAITLIST);
                     }
                 }
             }
+            if (statusByCourse.isEmpty()) return schedule;
+
+            Map<String, String> titles = courseDao.getCourseTitles(statusByCourse.keySet());
+            for (var e : statusByCourse.entrySet()) {
+                String title = titles.getOrDefault(e.getKey(), "(Unknown Title)");
+                schedule.entries.add(new ScheduleEntry(e.getKey(), title, e.getValue()));
+            }
         } catch (Exception e) {
             System.err.println("Error fetching student's courses: " + e.getMessage());
         }
-        return list;
+        return schedule;
     }
 
     // ---------------- DEBUG HELPER ----------------
+    // DynamoDB only; the helper lives on DropDao, not on the storage interface
     public void debugPrintDrops(String studentId, String courseId) {
         try {
-            dropDao.debugFindDrops(studentId, courseId);
+            if (dropDao instanceof DropDao dynamo) dynamo.debugFindDrops(studentId, courseId);
+            else System.out.println("Debug: drop records can only be printed with the DynamoDB backend");
         } catch (Exception e) {
             System.err.println("debugPrintDrops error: " + e.getMessage());
         }
     }
 
+    // ---------------- STARTUP ----------------
+    // Prepares student existence checks (DynamoDB: loads the Bloom filter); returns a one-line report.
+    public String warmUp() {
+        try {
+            studentDao.warmUp();
+            return studentDao.existenceStats();
+        } catch (Exception e) {
+            System.err.println("Warning: student existence filter not loaded: " + e.getMessage());
+            return "Student existence filter disabled (" + e.getMessage() + ")";
+        }
+    }
+
     // ---------------- HELPERS ----------------
     public boolean isStudentIdExists(String studentId) {
         try {
-            var req = GetItemRequest.builder()
-                    .tableName("Student")
-                    .key(Map.of("studentId", AttributeValue.builder().s(studentId).build()))
-                    .build();
-            return client.getItem(req).hasItem();
+            return studentDao.exists(studentId);
         } catch (Exception e) {
             System.err.println("isStudentIdExists error: " + e.getMessage());
             return false;
@@ -326,14 +400,23 @@ public class RegistrationService {
 
     public boolean isEmailExists(String email) {
         try {
-            var req = GetItemRequest.builder()
-                    .tableName("EmailIndex")
-                    .key(Map.of("email", AttributeValue.builder().s(email.toLowerCase()).build()))
-                    .build();
-            return client.getItem(req).hasItem();
+            return emailIndexDao.emailExists(email);
         } catch (Exception e) {
             System.err.println("isEmailExists error: " + e.getMessage());
             return false;
         }
     }
+
+    /**
+     * Hands events to the outbox; never fails the request that produced them.
+     */
+    private void publish(RegistrationEvent... batch) {
+        // without an outbox the drop-history records are written inline, as before
+        EventSink sink = events != null ? events : EventSink.inline(new DropHistoryProjector(dropDao));
+        try {
+            sink.emit(List.of(batch));
+        } catch (RuntimeException e) {
+            System.err.println("Error publishing registration events: " + e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,401 @@
+package org.example.registration.tools;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.example.registration.config.DynamoDbConfig;
+import org.example.registration.dao.BatchWriter;
+import org.example.registration.dao.CourseDao;
+import org.example.registration.dao.EmailIndexDao;
+import org.example.registration.dao.StudentDao;
+import org.example.registration.model.Course;
+import org.example.registration.model.Student;
+import org.example.registration.service.PasswordHasher;
+import org.example.registration.util.ValidationUtil;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bulk loader for the course catalog and student roster, replacing the one-CLI-call-per-item
+ * sample_data/load_sample_data.sh.
+ *
+ * Files are read with Jackson's streaming parser, one record at a time. Accepted shapes: a JSON
+ * array of plain objects, NDJSON, or BatchWriteItem request JSON ({"Table": [{"PutRequest":
+ * {"Item": {...typed attributes...}}}]}). Records are mapped onto the current schema (Course,
+ * Student, EmailIndex; legacy courseName/currentEnrolledCount are accepted) and written through a
+ * parallel {@link BatchWriter}. Plaintext passwords, or --default-password for records without a
+ * usable bcrypt hash, are hashed in parallel on a {@link PasswordHasher} pool.
+ *
+ * Student rows are overwritten, not merged. Courses already in the table are left as they are:
+ * a put would reset their seat counter and version and drop their shard layout, so they are
+ * checked in batches (BatchGetItem) and only new ones are written. Duplicate ids and emails within
+ * a file are skipped; that key set is the only state that grows with the input. Students are checked against the table in
+ * batches before they are written (BatchGetItem on Student and EmailIndex): one whose email
+ * already belongs to another student is skipped and reported, and when a student's email changes
+ * the old EmailIndex row is removed.
+ *
+ * <pre>
+ * mvn -q compile exec:java -Dexec.mainClass=org.example.registration.tools.BulkLoader \
+ *     -Dexec.args="--courses sample_data/courses.json --students sample_data/students.json"
+ * </pre>
+ */
+public class BulkLoader {
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final Set<String> TYPED_SCALARS = Set.of("S", "N", "BOOL");
+    // courses or students checked against the table per lookup (one BatchGetItem page each)
+    static final int CHECK_BATCH = 100;
+
+    private final BatchWriter writer;
+    private final CourseDao courseDao;
+    private final StudentDao studentDao;
+    private final EmailIndexDao emailIndexDao;
+    private final PasswordHasher hasher;
+    private final String defaultPassword;
+    private final Semaphore hashSlots;
+    private final int hashSlotsCapacity;
+
+    private final AtomicLong courses = new AtomicLong();
+    private final AtomicLong students = new AtomicLong();
+    private final AtomicLong hashed = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+    private final AtomicLong withoutPassword = new AtomicLong();
+    private final AtomicLong emailConflicts = new AtomicLong();
+    private final AtomicLong existingCourses = new AtomicLong();
+    private final List<Course> uncheckedCourses = new ArrayList<>();
+    private final List<Student> unchecked = new ArrayList<>();
+    private final Set<String> seenCourseIds = new HashSet<>();
+    private final Set<String> seenStudentIds = new HashSet<>();
+    private final Set<String> seenEmails = new HashSet<>();
+
+    public BulkLoader(DynamoDbClient client, BatchWriter writer, PasswordHasher hasher, int hashThreads,
+                      String defaultPassword) {
+        this.writer = writer;
+        this.courseDao = new CourseDao(client);
+        this.studentDao = new StudentDao(client);
+        this.emailIndexDao = new EmailIndexDao(client);
+        this.hasher = hasher;
+        this.defaultPassword = defaultPassword;
+        // never hand the hasher more than its queue can take
+        this.hashSlotsCapacity = hashThreads * 4;
+        this.hashSlots = new Semaphore(hashSlotsCapacity);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parseArgs(args);
+        if (opts.containsKey("help")) {
+            System.out.println("Usage: BulkLoader [--courses FILE] [--students FILE] [--endpoint URL]\n"
+                    + "                  [--default-password PW] [--cost N] [--parallelism N]\n"
+                    + "Defaults: sample_data/courses.json, sample_data/students.json, " + DynamoDbConfig.LOCAL_ENDPOINT);
+            return;
+        }
+        boolean explicit = opts.containsKey("courses") || opts.containsKey("students");
+        Path coursesFile = explicit ? pathOrNull(opts.get("courses")) : Path.of("sample_data", "courses.json");
+        Path studentsFile = explicit ? pathOrNull(opts.get("students")) : Path.of("sample_data", "students.json");
+
+        int hashThreads = Runtime.getRuntime().availableProcessors();
+        int cost = Integer.parseInt(opts.getOrDefault("cost", String.valueOf(PasswordHasher.configuredCost())));
+        int parallelism = Integer.parseInt(opts.getOrDefault("parallelism", String.valueOf(BatchWriter.configuredParallelism())));
+
+        DynamoDbClient client = DynamoDbConfig.createClient(opts.getOrDefault("endpoint", DynamoDbConfig.LOCAL_ENDPOINT));
+        PasswordHasher hasher = new PasswordHasher(cost, hashThreads, hashThreads * 4);
+        long start = System.nanoTime();
+        BulkLoader loader;
+        try (BatchWriter writer = new BatchWriter(client, parallelism)) {
+            loader = new BulkLoader(client, writer, hasher, hashThreads, opts.get("default-password"));
+            if (coursesFile != null) loader.loadCourses(coursesFile);
+            if (studentsFile != null) loader.loadStudents(studentsFile);
+            loader.finish();
+            System.out.println(loader.report(writer, System.nanoTime() - start));
+        } finally {
+            client.close();
+        }
+    }
+
+    // ---------------- COURSES ----------------
+    public void loadCourses(Path file) throws IOException {
+        System.out.println("Loading courses from " + file + " ...");
+        readRecords(file, record -> {
+            Course c = toCourse(record);
+            if (c == null || !seenCourseIds.add(c.courseId)) {
+                skipped.incrementAndGet();
+                return;
+            }
+            uncheckedCourses.add(c);
+            if (uncheckedCourses.size() >= CHECK_BATCH) writeCourses();
+        });
+        if (!uncheckedCourses.isEmpty()) writeCourses();
+    }
+
+    private void writeCourses() {
+        List<Course> batch = new ArrayList<>(uncheckedCourses);
+        uncheckedCourses.clear();
+        Set<String> existing;
+        try {
+            existing = courseDao.findExistingIds(batch.stream().map(c -> c.courseId).toList());
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            System.err.println("Warning: could not check " + batch.size() + " courses against the table, skipping them: " + e.getMessage());
+            skipped.addAndGet(batch.size());
+            return;
+        }
+        for (Course c : batch) {
+            if (existing.contains(c.courseId)) {
+                existingCourses.incrementAndGet();
+                continue;
+            }
+            courseDao.queueCourse(writer, c);
+            courses.incrementAndGet();
+        }
+    }
+
+    static Course toCourse(Map<String, String> r) {
+        String id = r.get("courseId");
+        String title = r.getOrDefault("title", r.get("courseName"));
+        String max = r.get("maxSeats");
+        if (id == null || id.isBlank() || title == null || max == null) return null;
+        try {
+            Course c = new Course();
+            c.courseId = id.trim().toUpperCase(Locale.ROOT);
+            c.title = title.trim();
+            c.maxSeats = Integer.parseInt(max.trim());
+            c.currentEnrolled = Integer.parseInt(r.getOrDefault("currentEnrolled", r.getOrDefault("currentEnrolledCount", "0")).trim());
+            return c.maxSeats > 0 && c.currentEnrolled >= 0 && c.currentEnrolled <= c.maxSeats ? c : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // ---------------- STUDENTS ----------------
+    public void loadStudents(Path file) throws IOException {
+        System.out.println("Loading students from " + file + " ...");
+        readRecords(file, record -> {
+            Student s = toStudent(record);
+            if (s == null || !seenStudentIds.add(s.studentId) || !seenEmails.add(s.email)) {
+                skipped.incrementAndGet();
+                return;
+            }
+
+            String plain = record.get("password");
+            if (plain == null && !isBcrypt(s.passwordHash)) plain = defaultPassword;
+            if (plain == null) {
+                if (!isBcrypt(s.passwordHash)) withoutPassword.incrementAndGet();
+                queueStudent(s);
+                return;
+            }
+
+            hashSlots.acquireUninterruptibly();
+            hasher.hashAsync(plain).whenComplete((hash, error) -> {
+                try {
+                    if (error != null) {
+                        System.err.println("Warning: could not hash password for " + s.studentId + ": " + error.getMessage());
+                        skipped.incrementAndGet();
+                        return;
+                    }
+                    s.passwordHash = hash;
+                    hashed.incrementAndGet();
+                    queueStudent(s);
+                } finally {
+                    hashSlots.release();
+                }
+            });
+        });
+    }
+
+    private void queueStudent(Student s) {
+        List<Student> batch;
+        synchronized (unchecked) {
+            unchecked.add(s);
+            if (unchecked.size() < CHECK_BATCH) return;
+            batch = new ArrayList<>(unchecked);
+            unchecked.clear();
+        }
+        writeStudents(batch);
+    }
+
+    private void writeStudents(List<Student> batch) {
+        EmailCheck check;
+        try {
+            List<String> ids = batch.stream().map(st -> st.studentId).toList();
+            Map<String, String> currentEmails = studentDao.findEmails(ids);
+            Set<String> emails = new HashSet<>(currentEmails.values());
+            for (Student st : batch) emails.add(st.email);
+            check = EmailCheck.of(batch, currentEmails, emailIndexDao.findOwners(emails));
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            System.err.println("Warning: could not check " + batch.size() + " students against the table, skipping them: " + e.getMessage());
+            skipped.addAndGet(batch.size());
+            return;
+        }
+        for (String conflict : check.conflicts()) System.err.println("Skipping " + conflict);
+        emailConflicts.addAndGet(check.conflicts().size());
+        for (String stale : check.staleEmails()) emailIndexDao.queueRemoval(writer, stale);
+        for (Student st : check.accepted()) {
+            studentDao.queueStudent(writer, st);
+            emailIndexDao.queueEmail(writer, st.email, st.studentId);
+            students.incrementAndGet();
+        }
+    }
+
+    /**
+     * Which students of a batch may be written, given the current email of each existing student
+     * and the owner of each EmailIndex row: a student is rejected if its email belongs to someone
+     * else, and an accepted student's previous email row is stale if it still points at them.
+     */
+    record EmailCheck(List<Student> accepted, List<String> staleEmails, List<String> conflicts) {
+        static EmailCheck of(List<Student> batch, Map<String, String> currentEmails, Map<String, String> owners) {
+            List<Student> accepted = new ArrayList<>();
+            List<String> stale = new ArrayList<>();
+            List<String> conflicts = new ArrayList<>();
+            for (Student s : batch) {
+                String owner = owners.get(s.email);
+                if (owner != null && !owner.equals(s.studentId)) {
+                    conflicts.add(s.studentId + ": " + s.email + " already belongs to " + owner);
+                    continue;
+                }
+                String previous = currentEmails.get(s.studentId);
+                if (previous != null && !previous.equals(s.email) && s.studentId.equals(owners.get(previous))) {
+                    stale.add(previous);
+                }
+                accepted.add(s);
+            }
+            return new EmailCheck(accepted, stale, conflicts);
+        }
+    }
+
+    static Student toStudent(Map<String, String> r) {
+        String id = r.get("studentId");
+        String email = ValidationUtil.normalizeEmail(r.get("email"));
+        if (!ValidationUtil.isValidStudentId(id) || !ValidationUtil.isValidEmail(email)) return null;
+        Student s = new Student();
+        s.studentId = id;
+        s.name = r.getOrDefault("name", "");
+        s.email = email;
+        s.passwordHash = r.getOrDefault("passwordHash", "");
+        return s;
+    }
+
+    private static boolean isBcrypt(String hash) {
+        return hash != null && hash.startsWith("$2") && hash.length() == 60;
+    }
+
+    /**
+     * Waits for outstanding password hashes; the writer is flushed by its owner.
+     */
+    public void finish() {
+        // every permit back means every hash has completed and queued its rows
+        hashSlots.acquireUninterruptibly(hashSlotsCapacity);
+        hashSlots.release(hashSlotsCapacity);
+        List<Student> rest;
+        synchronized (unchecked) {
+            rest = new ArrayList<>(unchecked);
+            unchecked.clear();
+        }
+        if (!rest.isEmpty()) writeStudents(rest);
+        writer.flush();
+    }
+
+    // ---------------- REPORT ----------------
+    public String report(BatchWriter writer, long elapsedNanos) {
+        double secs = Math.max(0.001, elapsedNanos / 1e9);
+        return String.format("Loaded %,d courses and %,d students (%,d passwords hashed) in %.2fs: "
+                        + "%,d items written at %,.0f items/s, %,d batches, %,d retries, %,d failed, %,d skipped, "
+                        + "%,d existing courses left unchanged, %,d email conflicts, "
+                        + "%,d students without a usable password.%n%s",
+                courses.get(), students.get(), hashed.get(), secs, writer.written(), writer.written() / secs,
+                writer.batches(), writer.retries(), writer.failures().size(), skipped.get(), existingCourses.get(),
+                emailConflicts.get(), withoutPassword.get(), hasher);
+    }
+
+    // ---------------- STREAMING JSON ----------------
+
+    /**
+     * Streams flat records (attribute name -> scalar text) out of any of the accepted file shapes.
+     */
+    static void readRecords(Path file, Consumer<Map<String, String>> sink) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            readRecords(reader, sink);
+        }
+    }
+
+    static void readRecords(Reader reader, Consumer<Map<String, String>> sink) throws IOException {
+        try (JsonParser p = JSON.createParser(reader)) {
+            for (JsonToken t; (t = p.nextToken()) != null; ) {
+                if (t == JsonToken.START_ARRAY) {
+                    readArray(p, sink);
+                } else if (t == JsonToken.START_OBJECT) {
+                    // either one NDJSON record or a {"Table": [ ... ]} batch document
+                    Map<String, String> record = new LinkedHashMap<>();
+                    while (p.nextToken() == JsonToken.FIELD_NAME) {
+                        String name = p.currentName();
+                        if (p.nextToken() == JsonToken.START_ARRAY) readArray(p, sink);
+                        else readField(p, name, record);
+                    }
+                    if (!record.isEmpty()) sink.accept(record);
+                }
+            }
+        }
+    }
+
+    private static void readArray(JsonParser p, Consumer<Map<String, String>> sink) throws IOException {
+        for (JsonToken t; (t = p.nextToken()) != JsonToken.END_ARRAY && t != null; ) {
+            if (t == JsonToken.START_OBJECT) sink.accept(readObject(p));
+            else p.skipChildren();
+        }
+    }
+
+    private static Map<String, String> readObject(JsonParser p) throws IOException {
+        Map<String, String> out = new LinkedHashMap<>();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.currentName();
+            p.nextToken();
+            readField(p, name, out);
+        }
+        return out;
+    }
+
+    // parser is on the field's value
+    private static void readField(JsonParser p, String name, Map<String, String> out) throws IOException {
+        JsonToken v = p.currentToken();
+        if (v == JsonToken.START_OBJECT) {
+            Map<String, String> nested = readObject(p);
+            if (nested.size() == 1 && TYPED_SCALARS.contains(nested.keySet().iterator().next())) {
+                out.put(name, nested.values().iterator().next()); // {"S": "..."} typed attribute
+            } else if ("PutRequest".equals(name) || "Item".equals(name)) {
+                out.putAll(nested); // BatchWriteItem wrapper
+            }
+        } else if (v == JsonToken.START_ARRAY) {
+            p.skipChildren();
+        } else if (v != JsonToken.VALUE_NULL) {
+            out.put(name, p.getValueAsString());
+        }
+    }
+
+    // ---------------- ARGS ----------------
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            if (a.equals("-h") || a.equals("--help")) {
+                opts.put("help", "");
+            } else if (a.startsWith("--") && i + 1 < args.length) {
+                opts.put(a.substring(2), args[++i]);
+            } else {
+                throw new IllegalArgumentException("Unexpected argument: " + a + " (try --help)");
+            }
+        }
+        return opts;
+    }
+
+    private static Path pathOrNull(String p) {
+        return p == null || p.isBlank() ? null : Path.of(p);
+    }
+}
@@ -0,0 +1,350 @@
+package org.example.registration.tools;
+
+import org.example.registration.config.StorageConfig;
+import org.example.registration.dao.Stores;
+import org.example.registration.model.Course;
+import org.example.registration.service.PasswordHasher;
+import org.example.registration.service.RegistrationService;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Reproduces the first minute of registration: thousands of virtual-thread students are released
+ * at once to sign up, log in, enroll (accepting the waitlist) in a few hot courses and sometimes
+ * drop one, all through {@link RegistrationService}. Reports throughput, p50/p99/p999 latency and
+ * outcome counts per operation, then checks the invariants a rush must not break:
+ *   - each course's currentEnrolled equals its number of Enrollment rows
+ *   - no course holds more enrollments than maxSeats
+ *   - no student is on a course's waitlist twice, or both enrolled and waitlisted
+ *
+ * Outcomes such as "course full" or "already enrolled" are where a conditional write was rejected;
+ * the conditional-rejection rate is their share of an operation's calls. Exits with status 1 if an
+ * invariant is violated.
+ *
+ * <pre>
+ * mvn -q compile exec:java -Dexec.mainClass=org.example.registration.tools.RushLoadGenerator \
+ *     -Dexec.args="--storage embedded --students 5000 --courses 3 --seats 100"
+ * </pre>
+ */
+public class RushLoadGenerator {
+    static final String PASSWORD = "Rush#Passw0rd";
+    private static final int MAX_BUSY_RETRIES = 30;
+    private static final long MAX_BACKOFF_MILLIS = 1000;
+
+    private final RegistrationService service;
+    private final Stores stores;
+    private final Options options;
+    private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+
+    static class Options {
+        int students = 2000;
+        int courses = 3;
+        int seats = 50;
+        int coursesPerStudent = 2;
+        double dropRate = 0.1;
+        int shards = 0;
+        long seed = System.nanoTime();
+        String prefix = "RUSH" + Long.toString(System.currentTimeMillis(), 36).toUpperCase(Locale.ROOT);
+    }
+
+    public RushLoadGenerator(Stores stores, Options options) {
+        this.stores = stores;
+        this.options = options;
+        this.service = new RegistrationService(stores);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parseArgs(args);
+        if (opts.containsKey("help")) {
+            System.out.println("Usage: RushLoadGenerator [--storage dynamodb|embedded] [--students N] [--courses N]\n"
+                    + "                         [--seats N] [--per-student N] [--drop-rate 0..1] [--shards N]\n"
+                    + "                         [--cost N] [--seed N]\n"
+                    + "Defaults: 2000 students, 3 courses of 50 seats, 2 courses each, 10% drop one, configured BCrypt cost.\n"
+                    + "The embedded store uses a temporary directory unless -D" + StorageConfig.DATA_DIR_PROPERTY + " is set.");
+            return;
+        }
+        Options options = new Options();
+        options.students = Integer.parseInt(opts.getOrDefault("students", String.valueOf(options.students)));
+        options.courses = Integer.parseInt(opts.getOrDefault("courses", String.valueOf(options.courses)));
+        options.seats = Integer.parseInt(opts.getOrDefault("seats", String.valueOf(options.seats)));
+        options.coursesPerStudent = Math.min(options.courses,
+                Integer.parseInt(opts.getOrDefault("per-student", String.valueOf(options.coursesPerStudent))));
+        options.dropRate = Double.parseDouble(opts.getOrDefault("drop-rate", String.valueOf(options.dropRate)));
+        options.shards = Integer.parseInt(opts.getOrDefault("shards", "0"));
+        if (opts.containsKey("seed")) options.seed = Long.parseLong(opts.get("seed"));
+        // read by the PasswordHasher the service creates
+        if (opts.containsKey("cost")) System.setProperty(PasswordHasher.COST_PROPERTY, opts.get("cost"));
+        if (opts.containsKey("storage")) System.setProperty(StorageConfig.BACKEND_PROPERTY, opts.get("storage"));
+        if ("embedded".equalsIgnoreCase(System.getProperty(StorageConfig.BACKEND_PROPERTY, ""))
+                && System.getProperty(StorageConfig.DATA_DIR_PROPERTY) == null) {
+            System.setProperty(StorageConfig.DATA_DIR_PROPERTY, Files.createTempDirectory("rush").toString());
+        }
+
+        Stores stores = StorageConfig.createStores();
+        List<String> violations;
+        try {
+            RushLoadGenerator rush = new RushLoadGenerator(stores, options);
+            List<String> courseIds = rush.createCourses();
+            long elapsed = rush.run(courseIds);
+            System.out.println(rush.report(elapsed));
+            violations = rush.checkInvariants(courseIds);
+        } finally {
+            StorageConfig.shutdown(stores);
+        }
+        if (violations.isEmpty()) {
+            System.out.println("Invariants: OK");
+        } else {
+            System.out.println("Invariants: " + violations.size() + " VIOLATED");
+            violations.forEach(v -> System.out.println("  " + v));
+            System.exit(1);
+        }
+    }
+
+    // ---------------- SETUP ----------------
+    List<String> createCourses() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < options.courses; i++) {
+            Course c = new Course();
+            c.courseId = options.prefix + "-C" + i;
+            c.title = "Hot course " + i;
+            c.maxSeats = options.seats;
+            if (!stores.courses.putCourse(c)) throw new IllegalStateException("Could not create course " + c.courseId);
+            if (options.shards > 1) stores.courses.enableSharding(c.courseId, options.shards);
+            ids.add(c.courseId);
+        }
+        return ids;
+    }
+
+    // ---------------- RUSH ----------------
+
+    /**
+     * Releases every student at once and waits for all of them.
+     *
+     * @return wall-clock nanoseconds from release to the last student finishing
+     */
+    long run(List<String> courseIds) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        long began;
+        try (ExecutorService students = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.students; i++) {
+                String studentId = String.format("%s-S%06d", options.prefix, i);
+                Random random = new Random(options.seed + i);
+                students.submit(() -> {
+                    start.await();
+                    student(studentId, courseIds, random);
+                    return null;
+                });
+            }
+            began = System.nanoTime();
+            start.countDown();
+        } // close() waits for every student
+        return System.nanoTime() - began;
+    }
+
+    private void student(String studentId, List<String> courseIds, Random random) throws InterruptedException {
+        // a busy hasher pool sheds signups and logins; like a real student, keep trying with backoff
+        String signup = null;
+        for (int attempt = 0; attempt <= MAX_BUSY_RETRIES; attempt++) {
+            signup = timed("signup", () -> service.signup(studentId, "Rush " + studentId,
+                    studentId.toLowerCase(Locale.ROOT) + "@rush.example.edu", PASSWORD), RushLoadGenerator::signupOutcome);
+            if (signup == null || !"BUSY".equals(signupOutcome(signup))) break;
+            backoff(attempt, random);
+        }
+        if (signup == null || !signup.startsWith("Signed up")) return;
+
+        // the password is right, so a rejected login is the hasher shedding load (or an error)
+        for (int attempt = 0; attempt <= MAX_BUSY_RETRIES; attempt++) {
+            if (Boolean.TRUE.equals(timed("login", () -> service.login(studentId, PASSWORD), ok -> ok ? "OK" : "REJECTED"))) break;
+            backoff(attempt, random);
+        }
+
+        List<String> picks = new ArrayList<>(courseIds);
+        Collections.shuffle(picks, random);
+        picks = picks.subList(0, options.coursesPerStudent);
+        for (String courseId : picks) {
+            timed("enroll", () -> service.enroll(studentId, courseId, true), RushLoadGenerator::enrollOutcome);
+        }
+
+        if (!picks.isEmpty() && random.nextDouble() < options.dropRate) {
+            String courseId = picks.get(random.nextInt(picks.size()));
+            timed("drop", () -> service.drop(studentId, courseId), RushLoadGenerator::dropOutcome);
+        }
+    }
+
+    private static void backoff(int attempt, Random random) throws InterruptedException {
+        long ceiling = Math.min(MAX_BACKOFF_MILLIS, 25L << Math.min(attempt, 6));
+        Thread.sleep(ceiling / 2 + random.nextInt((int) (ceiling / 2) + 1));
+    }
+
+    private <T> T timed(String operation, Callable<T> call, Function<T, String> outcome) {
+        OperationStats stats = operations.computeIfAbsent(operation, k -> new OperationStats());
+        long t0 = System.nanoTime();
+        T result;
+        try {
+            result = call.call();
+        } catch (Exception e) {
+            stats.record(System.nanoTime() - t0, "EXCEPTION");
+            return null;
+        }
+        stats.record(System.nanoTime() - t0, outcome.apply(result));
+        return result;
+    }
+
+    // The service answers in messages; map them onto outcomes. Outcomes listed in CONDITIONAL are a
+    // conditional write (seat counter, enrollment row, key uniqueness) saying no.
+    static final Set<String> CONDITIONAL = Set.of(
+            "ID_TAKEN", "EMAIL_TAKEN", "WAITLISTED", "ALREADY_ENROLLED", "ALREADY_WAITLISTED", "NOT_ENROLLED");
+
+    static String signupOutcome(String message) {
+        if (message.startsWith("Signed up")) return "CREATED";
+        if (message.startsWith("Student ID already exists")) return "ID_TAKEN";
+        if (message.startsWith("Email already exists")) return "EMAIL_TAKEN";
+        if (message.startsWith("Server is busy")) return "BUSY";
+        return "ERROR";
+    }
+
+    static String enrollOutcome(String message) {
+        if (message.startsWith("Enrolled")) return "ENROLLED";
+        if (message.startsWith("Course full. Added to waitlist")) return "WAITLISTED";
+        if (message.contains("already enrolled")) return "ALREADY_ENROLLED";
+        if (message.contains("already on the waitlist")) return "ALREADY_WAITLISTED";
+        return "ERROR";
+    }
+
+    static String dropOutcome(String message) {
+        if (message.startsWith("Dropped from course. Promoted")) return "DROPPED_AND_PROMOTED";
+        if (message.startsWith("Dropped from course")) return "DROPPED";
+        if (message.startsWith("Dropped from waitlist")) return "LEFT_WAITLIST";
+        if (message.startsWith("You are not enrolled")) return "NOT_ENROLLED";
+        return "ERROR";
+    }
+
+    // ---------------- INVARIANTS ----------------
+    List<String> checkInvariants(List<String> courseIds) {
+        List<String> violations = new ArrayList<>();
+        for (String courseId : courseIds) {
+            Course c = stores.courses.getCourseFresh(courseId);
+            if (c == null) {
+                violations.add(courseId + ": course row missing");
+                continue;
+            }
+            Set<String> enrolled = new HashSet<>();
+            int rows = 0;
+            for (Map<String, AttributeValue> e : stores.enrollments.listEnrollmentsByCourse(courseId)) {
+                rows++;
+                enrolled.add(e.get("studentId").s());
+            }
+            if (c.currentEnrolled != rows) {
+                violations.add(courseId + ": currentEnrolled=" + c.currentEnrolled + " but " + rows + " Enrollment rows");
+            }
+            if (rows > c.maxSeats || c.currentEnrolled > c.maxSeats) {
+                violations.add(courseId + ": overbooked, " + rows + " enrolled for maxSeats=" + c.maxSeats);
+            }
+
+            Set<String> waiting = new HashSet<>();
+            for (Map<String, AttributeValue> w : stores.waitlists.getWaitlistsByCourse(courseId)) {
+                String studentId = w.get("studentId").s();
+                if (!waiting.add(studentId)) violations.add(courseId + ": " + studentId + " is on the waitlist twice");
+                if (enrolled.contains(studentId)) violations.add(courseId + ": " + studentId + " is enrolled and waitlisted");
+            }
+        }
+        return violations;
+    }
+
+    // ---------------- REPORT ----------------
+    String report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        long total = 0;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-8s %8s %10s %10s %10s %10s %10s  %s%n",
+                "op", "calls", "ops/s", "p50 ms", "p99 ms", "p999 ms", "cond.rej", "outcomes"));
+        for (String op : List.of("signup", "login", "enroll", "drop")) {
+            OperationStats s = operations.get(op);
+            if (s == null) continue;
+            long n = s.count();
+            total += n;
+            sb.append(String.format("%-8s %8d %10.0f %10.2f %10.2f %10.2f %9.1f%%  %s%n",
+                    op, n, n / seconds,
+                    s.percentileMillis(0.50), s.percentileMillis(0.99), s.percentileMillis(0.999),
+                    100.0 * s.conditionalRejections() / Math.max(1, n), s.outcomes()));
+        }
+        sb.append(String.format("%d students, %d operations in %.2f s (%.0f ops/s)",
+                options.students, total, seconds, total / seconds));
+        return sb.toString();
+    }
+
+    /**
+     * Latencies and outcome counts of one operation; a rush is a few thousand samples per
+     * operation, so they are all kept and sorted once for the percentiles.
+     */
+    static class OperationStats {
+        private long[] latencies = new long[1024];
+        private int size;
+        private final Map<String, LongAdder> outcomes = new ConcurrentSkipListMap<>();
+
+        void record(long nanos, String outcome) {
+            synchronized (this) {
+                if (size == latencies.length) latencies = Arrays.copyOf(latencies, size * 2);
+                latencies[size++] = nanos;
+            }
+            outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+        }
+
+        synchronized long count() {
+            return size;
+        }
+
+        /**
+         * Nearest-rank percentile, q in (0, 1].
+         */
+        synchronized double percentileMillis(double q) {
+            if (size == 0) return 0;
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            int rank = (int) Math.ceil(q * size);
+            return sorted[Math.max(0, Math.min(size, rank) - 1)] / 1e6;
+        }
+
+        long conditionalRejections() {
+            long n = 0;
+            for (var e : outcomes.entrySet()) if (CONDITIONAL.contains(e.getKey())) n += e.getValue().sum();
+            return n;
+        }
+
+        long outcome(String name) {
+            LongAdder n = outcomes.get(name);
+            return n == null ? 0 : n.sum();
+        }
+
+        String outcomes() {
+            StringJoiner j = new StringJoiner(" ");
+            outcomes.forEach((k, v) -> j.add(k + "=" + v.sum()));
+            return j.toString();
+        }
+    }
+
+    OperationStats stats(String operation) {
+        return operations.get(operation);
+    }
+
+    // ---------------- ARGS ----------------
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            if (a.equals("-h") || a.equals("--help")) {
+                opts.put("help", "");
+            } else if (a.startsWith("--") && i + 1 < args.length) {
+                opts.put(a.substring(2), args[++i]);
+            } else {
+                throw new IllegalArgumentException("Unexpected argument: " + a + " (try --help)");
+            }
+        }
+        return opts;
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.registration.util;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Directory fsync. Syncing a file makes its contents durable, but a rename or a new file only
+ * survives a power loss once the directory holding it is synced too.
+ */
+public final class FileSync {
+    private FileSync() {
+    }
+
+    /**
+     * Makes every rename, creation and deletion so far in {@code dir} durable. A no-op where
+     * directories cannot be opened (Windows), which commits them with the file instead.
+     */
+    public static void syncDirectory(Path dir) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException e) {
+            // Windows: directories cannot be opened as files
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.registration.codec;
+
+import org.example.registration.model.Course;
+import org.example.registration.model.Student;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodecTest {
+
+    @Test
+    void smallNumbers_andEmptyString_areShared() {
+        assertSame(Attributes.n(1), Attributes.n(1));
+        assertSame(Attributes.ZERO, Attributes.n(0));
+        assertSame(Attributes.EMPTY, Attributes.s(""));
+        assertSame(Attributes.EMPTY, Attributes.sOrEmpty(null));
+        assertEquals("1024", Attributes.n(1024).n());
+        assertEquals("-1", Attributes.n(-1).n());
+        assertNull(Attributes.s(null).s());
+    }
+
+    @Test
+    void numericReads_fallBackOnMissingOrMalformed() {
+        Map<String, AttributeValue> item = Map.of(
+                "a", Attributes.n(7),
+                "b", AttributeValue.builder().n("x").build(),
+                "c", Attributes.s("text"));
+
+        assertEquals(7, Attributes.intOf(item, "a"));
+        assertEquals(0, Attributes.intOf(item, "b"));
+        assertEquals(0, Attributes.intOf(item, "missing"));
+        assertEquals(-1, Attributes.longOf(item, "c", -1));
+        assertEquals("text", Attributes.str(item, "c"));
+        assertEquals("", Attributes.str(item, "a", ""));
+    }
+
+    @Test
+    void course_roundTrips() {
+        Course c = new Course();
+        c.courseId = "CS101";
+        c.title = "Intro";
+        c.maxSeats = 30;
+        c.currentEnrolled = 12;
+        c.shardCount = 4;
+        c.version = 7;
+
+        Course back = CourseCodec.decode(CourseCodec.encode(c));
+
+        assertEquals("CS101", back.courseId);
+        assertEquals("Intro", back.title);
+        assertEquals(30, back.maxSeats);
+        assertEquals(12, back.currentEnrolled);
+        assertEquals(4, back.shardCount);
+        assertEquals(7, back.version);
+
+        c.shardCount = 0;
+        assertFalse(CourseCodec.encode(c).containsKey("shardCount"));
+    }
+
+    @Test
+    void course_readsLegacyAttributes() {
+        Course c = CourseCodec.decode(Map.of(
+                "courseId", Attributes.s("CS102"),
+                "courseName", Attributes.s("Data Structures"),
+                "maxSeats", Attributes.n(60),
+                "currentEnrolledCount", Attributes.n(5)));
+
+        assertEquals("Data Structures", c.title);
+        assertEquals(5, c.currentEnrolled);
+        assertEquals(0, c.version);
+        assertNull(CourseCodec.decode(Map.of("courseId", Attributes.s("CS103"))));
+    }
+
+    @Test
+    void student_missingFieldsReadAsEmpty_andEmailIsLowerCased() {
+        Student st = StudentCodec.decode(Map.of("studentId", Attributes.s("S1")));
+        assertEquals("S1", st.studentId);
+        assertEquals("", st.name);
+        assertEquals("", st.passwordHash);
+
+        st.email = "Ada@Example.EDU";
+        assertEquals("ada@example.edu", StudentCodec.encode(st).get("email").s());
+        assertEquals("ada@example.edu", StudentCodec.emailIndexItem("Ada@Example.EDU", "S1").get("email").s());
+    }
+
+    @Test
+    void records_shareEncodedIds() {
+        AttributeValue sid = Attributes.s("S1");
+        AttributeValue cid = Attributes.s("CS101");
+
+        Map<String, AttributeValue> enrollment = EnrollmentCodec.item(sid, cid, EnrollmentCodec.ENROLLED);
+        Map<String, AttributeValue> drop = DropCodec.item(sid, cid, DropCodec.ACTOR_STUDENT, "", 42);
+
+        assertSame(sid, enrollment.get("studentId"));
+        assertSame(cid, WaitlistCodec.indexKey(sid, cid).get("courseId"));
+        assertEquals("ENROLLED", enrollment.get("status").s());
+        assertEquals("S1#CS101", drop.get("studentCourse").s());
+        assertEquals("42", drop.get("droppedAt").n());
+        assertEquals(5, WaitlistCodec.entry(cid, Attributes.s("1"), sid, Map.of("name", "Ada", "email", "a@x")).size());
+        assertEquals(3, WaitlistCodec.entry(cid, Attributes.s("1"), sid, null).size());
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.registration.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderedIdsTest {
+
+    @Test
+    void keysAreFixedWidth_andSortAfterLegacyMillisKeys() {
+        OrderedIds ids = new OrderedIds(() -> 1_700_000_000_000L, "1a2b3c4d");
+
+        String first = ids.next();
+        String second = ids.next();
+
+        assertEquals("1700000000000.0000000.1a2b3c4d", first);
+        assertEquals("1700000000000.0000001.1a2b3c4d", second);
+        assertEquals(OrderedIds.LENGTH, new OrderedIds().next().length());
+        assertTrue("1700000000000".compareTo(first) < 0);
+        assertTrue("1699999999999".compareTo(first) < 0);
+        assertEquals(1_700_000_000_000L, OrderedIds.millisOf(second));
+        assertEquals(42L, OrderedIds.millisOf("42"));
+        assertEquals(-1L, OrderedIds.millisOf("not-a-key"));
+    }
+
+    @Test
+    void keysKeepIncreasing_whenClockStepsBack() {
+        AtomicLong now = new AtomicLong(1_700_000_000_500L);
+        OrderedIds ids = new OrderedIds(now::get, "1a2b3c4d");
+
+        String before = ids.next();
+        now.set(1_700_000_000_000L);
+        String after = ids.next();
+
+        assertTrue(before.compareTo(after) < 0);
+        assertEquals(1_700_000_000_500L, OrderedIds.millisOf(after));
+    }
+
+    @Test
+    void concurrentCallers_neverGetTheSameKey() throws Exception {
+        OrderedIds ids = new OrderedIds();
+        int threads = 8;
+        int perThread = 20_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(pool.submit(() -> {
+                    List<String> taken = new ArrayList<>(perThread);
+                    for (int i = 0; i < perThread; i++) taken.add(ids.next());
+                    return taken;
+                }));
+            }
+
+            Set<String> all = new HashSet<>();
+            for (Future<List<String>> f : results) {
+                List<String> taken = f.get(30, TimeUnit.SECONDS);
+                for (int i = 1; i < taken.size(); i++) {
+                    assertTrue(taken.get(i - 1).compareTo(taken.get(i)) < 0, "keys from one thread must increase");
+                }
+                all.addAll(taken);
+            }
+            assertEquals(threads * perThread, all.size());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
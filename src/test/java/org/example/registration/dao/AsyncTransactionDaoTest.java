@@ -0,0 +1,125 @@
+package org.example.registration.dao;
+
+import org.example.registration.model.Student;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class AsyncTransactionDaoTest {
+
+    private static CompletableFuture<TransactWriteItemsResponse> cancelled(String... codes) {
+        List<CancellationReason> reasons = new ArrayList<>();
+        for (String code : codes) reasons.add(CancellationReason.builder().code(code).build());
+        return CompletableFuture.failedFuture(TransactionCanceledException.builder().cancellationReasons(reasons).build());
+    }
+
+    private static CompletableFuture<TransactWriteItemsResponse> ok() {
+        return CompletableFuture.completedFuture(TransactWriteItemsResponse.builder().build());
+    }
+
+    private static Map<String, AttributeValue> entry(String createdAt, String studentId) {
+        return Map.of(
+                "courseId", AttributeValue.builder().s("CS101").build(),
+                "createdAt", AttributeValue.builder().s(createdAt).build(),
+                "studentId", AttributeValue.builder().s(studentId).build());
+    }
+
+    private static CompletableFuture<QueryResponse> heads(Map<String, AttributeValue> entry) {
+        return CompletableFuture.completedFuture(QueryResponse.builder().items(List.of(entry)).build());
+    }
+
+    @Test
+    void signup_takenEmail_writesNeitherRow() {
+        DynamoDbAsyncClient client = mock(DynamoDbAsyncClient.class);
+        when(client.transactWriteItems(any(TransactWriteItemsRequest.class)))
+                .thenReturn(cancelled("None", "ConditionalCheckFailed"));
+        Student s = new Student();
+        s.studentId = "S1";
+        s.email = "a@b.com";
+
+        assertEquals(TransactionStore.SignupResult.EMAIL_TAKEN, new AsyncTransactionDao(client).signup(s).join());
+        verify(client).transactWriteItems(argThat((TransactWriteItemsRequest r) -> r.transactItems().size() == 2));
+    }
+
+    @Test
+    void enroll_retriesConflicts_andReportsConditionFailures() {
+        DynamoDbAsyncClient client = mock(DynamoDbAsyncClient.class);
+        when(client.transactWriteItems(any(TransactWriteItemsRequest.class)))
+                .thenReturn(cancelled("TransactionConflict", "None", "None"), ok());
+        AsyncTransactionDao dao = new AsyncTransactionDao(client);
+
+        assertEquals(TransactionStore.EnrollResult.ENROLLED, dao.enroll("S1", "CS101", 0).join());
+        verify(client, times(2)).transactWriteItems(any(TransactWriteItemsRequest.class));
+
+        when(client.transactWriteItems(any(TransactWriteItemsRequest.class)))
+                .thenReturn(cancelled("None", "None", "ConditionalCheckFailed"));
+        assertEquals(TransactionStore.EnrollResult.ALREADY_WAITLISTED, dao.enroll("S1", "CS101", 0).join());
+    }
+
+    @Test
+    void enroll_courseShardedSinceRead_takesTheSeatFromAShard() {
+        DynamoDbAsyncClient client = mock(DynamoDbAsyncClient.class);
+        CancellationReason pinned = CancellationReason.builder().code("ConditionalCheckFailed")
+                .item(Map.of("shardCount", AttributeValue.builder().n("2").build())).build();
+        when(client.transactWriteItems(any(TransactWriteItemsRequest.class))).thenReturn(
+                CompletableFuture.failedFuture(TransactionCanceledException.builder()
+                        .cancellationReasons(pinned, CancellationReason.builder().code("None").build(),
+                                CancellationReason.builder().code("None").build())
+                        .build()),
+                ok());
+
+        assertEquals(TransactionStore.EnrollResult.ENROLLED, new AsyncTransactionDao(client).enroll("S1", "CS101", 0).join());
+        verify(client).transactWriteItems(argThat((TransactWriteItemsRequest r) ->
+                "CourseSeatShard".equals(r.transactItems().get(0).update().tableName())));
+    }
+
+    @Test
+    void dropAndPromote_discardsStaleHead_andPromotesTheNext() {
+        DynamoDbAsyncClient client = mock(DynamoDbAsyncClient.class);
+        when(client.query(any(QueryRequest.class))).thenReturn(heads(entry("1", "S1")), heads(entry("2", "S2")));
+        when(client.transactWriteItems(any(TransactWriteItemsRequest.class))).thenAnswer(inv -> {
+            TransactWriteItemsRequest r = inv.getArgument(0);
+            if (r.transactItems().size() == 2) return ok(); // discarding the stale entry
+            Put enrollment = r.transactItems().get(4).put();
+            // S1 is already enrolled: its entry is stale
+            return "S1".equals(enrollment.item().get("studentId").s())
+                    ? cancelled("None", "None", "None", "None", "ConditionalCheckFailed", "None")
+                    : ok();
+        });
+
+        TransactionStore.DropOutcome outcome =
+                new AsyncTransactionDao(client).dropAndPromote("S9", "CS101", "Dropped", 0).join();
+
+        assertEquals(TransactionStore.DropOutcome.Status.DROPPED_AND_PROMOTED, outcome.status);
+        assertEquals("S2", outcome.promotedStudentId);
+        verify(client).transactWriteItems(argThat((TransactWriteItemsRequest r) -> r.transactItems().size() == 2
+                && "1".equals(r.transactItems().get(0).delete().key().get("createdAt").s())));
+    }
+
+    @Test
+    void dropAndPromote_notEnrolled_andEmptyWaitlist() {
+        DynamoDbAsyncClient client = mock(DynamoDbAsyncClient.class);
+        when(client.query(any(QueryRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(QueryResponse.builder().items(List.of()).build()));
+        when(client.transactWriteItems(any(TransactWriteItemsRequest.class)))
+                .thenReturn(cancelled("ConditionalCheckFailed", "None", "None"), ok());
+        AsyncTransactionDao dao = new AsyncTransactionDao(client);
+
+        assertEquals(TransactionStore.DropOutcome.Status.NOT_ENROLLED,
+                dao.dropAndPromote("S9", "CS101", "Dropped", 0).join().status);
+        assertEquals(TransactionStore.DropOutcome.Status.DROPPED,
+                dao.dropAndPromote("S9", "CS101", "Dropped", 0).join().status);
+        // the seat goes back on the Course item
+        verify(client, times(2)).transactWriteItems(argThat((TransactWriteItemsRequest r) -> r.transactItems().size() == 3
+                && "Course".equals(r.transactItems().get(2).update().tableName())));
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.registration.dao;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BatchWriterTest {
+
+    private static Map<String, AttributeValue> item(int i) {
+        return Map.of("id", AttributeValue.builder().s("K" + i).build());
+    }
+
+    @Test
+    void put_splitsIntoBatchesOfTwentyFive() {
+        DynamoDbClient client = mock(DynamoDbClient.class);
+        when(client.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenReturn(BatchWriteItemResponse.builder().build());
+
+        try (BatchWriter writer = new BatchWriter(client, 4)) {
+            for (int i = 0; i < 60; i++) writer.put("T", item(i));
+            writer.flush();
+            assertEquals(60, writer.written());
+            assertEquals(3, writer.batches());
+            assertTrue(writer.failures().isEmpty());
+        }
+        verify(client, times(3)).batchWriteItem(argThat((BatchWriteItemRequest r) -> r.requestItems().get("T").size() <= 25));
+    }
+
+    @Test
+    void unprocessedItems_areRetried() {
+        DynamoDbClient client = mock(DynamoDbClient.class);
+        AtomicBoolean first = new AtomicBoolean(true);
+        when(client.batchWriteItem(any(BatchWriteItemRequest.class))).thenAnswer(inv -> {
+            BatchWriteItemRequest req = inv.getArgument(0);
+            List<WriteRequest> sent = req.requestItems().get("T");
+            if (first.getAndSet(false)) {
+                // throttle the last five writes of the first call
+                return BatchWriteItemResponse.builder()
+                        .unprocessedItems(Map.of("T", sent.subList(sent.size() - 5, sent.size())))
+                        .build();
+            }
+            return BatchWriteItemResponse.builder().build();
+        });
+
+        BatchWriter writer = new BatchWriter(client, 1);
+        for (int i = 0; i < 20; i++) writer.put("T", item(i));
+        writer.close();
+
+        assertEquals(20, writer.written());
+        assertEquals(1, writer.retries());
+        verify(client, times(2)).batchWriteItem(any(BatchWriteItemRequest.class));
+    }
+
+    @Test
+    void failedBatch_isReportedWithItsItems() {
+        DynamoDbClient client = mock(DynamoDbClient.class);
+        when(client.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenThrow(DynamoDbException.builder().message("boom").build());
+
+        BatchWriter writer = new BatchWriter(client, 2);
+        writer.put("T", item(1));
+        writer.put("T", item(2));
+        writer.close();
+
+        assertEquals(0, writer.written());
+        assertEquals(2, writer.failures().size());
+        assertEquals("T", writer.failures().get(0).table);
+        assertNotNull(writer.failures().get(0).item());
+    }
+}
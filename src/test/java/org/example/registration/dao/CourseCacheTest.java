@@ -0,0 +1,65 @@
+package org.example.registration.dao;
+
+import org.example.registration.model.Course;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CourseCacheTest {
+
+    private static Course course(String id, int maxSeats) {
+        Course c = new Course();
+        c.courseId = id; c.title = "T-" + id; c.maxSeats = maxSeats;
+        return c;
+    }
+
+    @Test
+    void get_countsHitsAndMisses_andReturnsCopies() {
+        CourseCache cache = new CourseCache(10, Long.MAX_VALUE);
+        assertNull(cache.get("C1"));
+
+        cache.put(course("C1", 30));
+        Course first = cache.get("C1");
+        first.maxSeats = 99; // caller mutation must not leak into the cache
+
+        assertEquals(30, cache.get("C1").maxSeats);
+        assertEquals(2, cache.hits());
+        assertEquals(1, cache.misses());
+    }
+
+    @Test
+    void entriesExpireAfterTtl() {
+        AtomicLong now = new AtomicLong();
+        CourseCache cache = new CourseCache(10, 1_000, now::get);
+        cache.put(course("C1", 30));
+
+        now.set(999);
+        assertNotNull(cache.get("C1"));
+        now.set(1_000);
+        assertNull(cache.get("C1"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBeyondMaxEntries() {
+        CourseCache cache = new CourseCache(2, Long.MAX_VALUE);
+        cache.put(course("C1", 1));
+        cache.put(course("C2", 2));
+        cache.get("C1");            // C2 is now the eldest
+        cache.put(course("C3", 3));
+
+        assertNotNull(cache.get("C1"));
+        assertNull(cache.get("C2"));
+        assertEquals(1, cache.evictions());
+    }
+
+    @Test
+    void invalidateRemovesEntry() {
+        CourseCache cache = new CourseCache(10, Long.MAX_VALUE);
+        cache.put(course("C1", 30));
+        cache.invalidate("C1");
+        assertNull(cache.get("C1"));
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.registration.dao;
+
+import org.example.registration.model.Course;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CourseDaoTest {
+
+    private static AttributeValue n(int v) {
+        return AttributeValue.builder().n(String.valueOf(v)).build();
+    }
+
+    private static DynamoDbClient shardedCourse(String courseId, int[][] shards) {
+        DynamoDbClient client = mock(DynamoDbClient.class);
+        Map<String, AttributeValue> course = new HashMap<>();
+        course.put("courseId", AttributeValue.builder().s(courseId).build());
+        course.put("title", AttributeValue.builder().s("Intro").build());
+        course.put("maxSeats", n(100));
+        course.put("currentEnrolled", n(100));
+        course.put("shardCount", n(shards.length));
+        when(client.getItem(any(GetItemRequest.class))).thenReturn(GetItemResponse.builder().item(course).build());
+
+        List<Map<String, AttributeValue>> items = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            items.add(Map.of(
+                    "courseId", AttributeValue.builder().s(courseId).build(),
+                    "shard", n(i),
+                    "maxSeats", n(shards[i][0]),
+                    "currentEnrolled", n(shards[i][1])));
+        }
+        when(client.query(any(QueryRequest.class))).thenReturn(QueryResponse.builder().items(items).build());
+        return client;
+    }
+
+    @Test
+    void getCourse_reportsShardTotals() {
+        DynamoDbClient client = shardedCourse("CSE101", new int[][]{{25, 10}, {25, 25}, {25, 3}, {25, 0}});
+        CourseDao dao = new CourseDao(client, new ParallelScanner(client, 1));
+
+        Course c = dao.getCourse("CSE101");
+
+        assertEquals(4, c.shardCount);
+        assertEquals(100, c.maxSeats);
+        assertEquals(38, c.currentEnrolled);
+    }
+
+    @Test
+    void reserveSeat_sharded_fallsBackToOtherShards() {
+        DynamoDbClient client = shardedCourse("CSE101", new int[][]{{1, 1}, {1, 1}, {1, 1}, {1, 0}});
+        // three shards are full, whichever order they are probed in
+        when(client.updateItem(any(UpdateItemRequest.class)))
+                .thenThrow(ConditionalCheckFailedException.builder().build())
+                .thenThrow(ConditionalCheckFailedException.builder().build())
+                .thenThrow(ConditionalCheckFailedException.builder().build())
+                .thenReturn(UpdateItemResponse.builder().build());
+        CourseDao dao = new CourseDao(client, new ParallelScanner(client, 1));
+
+        assertTrue(dao.reserveSeatIfAvailable("CSE101"));
+        verify(client, times(4)).updateItem(argThat((UpdateItemRequest r) -> "CourseSeatShard".equals(r.tableName())));
+    }
+
+    @Test
+    void reserveSeat_sharded_allFull_returnsFalse() {
+        DynamoDbClient client = shardedCourse("CSE101", new int[][]{{1, 1}, {1, 1}});
+        when(client.updateItem(any(UpdateItemRequest.class)))
+                .thenThrow(ConditionalCheckFailedException.builder().build());
+        CourseDao dao = new CourseDao(client, new ParallelScanner(client, 1));
+
+        assertFalse(dao.reserveSeatIfAvailable("CSE101"));
+        verify(client, times(2)).updateItem(any(UpdateItemRequest.class));
+    }
+
+    @Test
+    void reserveSeat_shardedSinceCached_neverMovesThePinnedCounter() {
+        DynamoDbClient client = shardedCourse("CSE101", new int[][]{{50, 20}, {50, 20}});
+        Course stale = new Course();
+        stale.courseId = "CSE101"; stale.title = "Intro"; stale.maxSeats = 100; stale.currentEnrolled = 40;
+        CourseCache cache = new CourseCache();
+        cache.put(stale);
+        when(client.updateItem(any(UpdateItemRequest.class))).thenAnswer(inv -> {
+            UpdateItemRequest r = inv.getArgument(0);
+            // the pinned Course item refuses; the condition is what keeps a stale caller off it
+            if ("Course".equals(r.tableName())) throw ConditionalCheckFailedException.builder().build();
+            return UpdateItemResponse.builder().build();
+        });
+        CourseDao dao = new CourseDao(client, new ParallelScanner(client, 1), cache);
+
+        assertTrue(dao.reserveSeatIfAvailable("CSE101"));
+        assertTrue(dao.releaseSeat("CSE101"));
+        verify(client).updateItem(argThat((UpdateItemRequest r) -> "Course".equals(r.tableName())
+                && r.conditionExpression().startsWith("attribute_not_exists(shardCount) AND ")));
+        verify(client, times(2)).updateItem(argThat((UpdateItemRequest r) -> "CourseSeatShard".equals(r.tableName())));
+    }
+
+    @Test
+    void reserveSeats_errorAfterAPartialGrant_reportsWhatWasTaken() {
+        DynamoDbClient client = shardedCourse("CSE101", new int[][]{{5, 0}, {5, 0}});
+        when(client.updateItem(any(UpdateItemRequest.class)))
+                .thenReturn(UpdateItemResponse.builder().build())
+                .thenThrow(DynamoDbException.builder().message("throttled").build());
+        CourseDao dao = new CourseDao(client, new ParallelScanner(client, 1));
+
+        assertEquals(5, dao.reserveSeats("CSE101", 8));
+    }
+
+    private static DynamoDbClient unshardedCourse(int maxSeats, int enrolled, long version) {
+        DynamoDbClient client = mock(DynamoDbClient.class);
+        Course c = new Course();
+        c.courseId = "CSE101"; c.title = "Intro"; c.maxSeats = maxSeats; c.currentEnrolled = enrolled; c.version = version;
+        when(client.getItem(any(GetItemRequest.class))).thenReturn(GetItemResponse.builder().item(c.toItem()).build());
+        return client;
+    }
+
+    @Test
+    void updateMaxSeats_writesOnlyCapacity_andRetriesALostRace() {
+        DynamoDbClient client = unshardedCourse(30, 30, 3);
+        when(client.updateItem(any(UpdateItemRequest.class)))
+                .thenThrow(ConditionalCheckFailedException.builder().build())
+                .thenReturn(UpdateItemResponse.builder().build());
+        CourseDao dao = new CourseDao(client, new ParallelScanner(client, 1));
+
+        CourseStore.SeatChange change = dao.updateMaxSeats("CSE101", 40);
+
+        assertEquals(CourseStore.SeatChange.Status.UPDATED, change.status);
+        assertEquals(30, change.before.maxSeats);
+        verify(client, times(2)).updateItem(argThat((UpdateItemRequest r) ->
+                "SET maxSeats = :max, version = :next".equals(r.updateExpression())
+                        && r.conditionExpression().startsWith("version = :v")
+                        && "3".equals(r.expressionAttributeValues().get(":v").n())
+                        && "4".equals(r.expressionAttributeValues().get(":next").n())));
+        verify(client, never()).putItem(any(PutItemRequest.class));
+    }
+
+    @Test
+    void updateMaxSeats_belowEnrolled_writesNothing() {
+        DynamoDbClient client = unshardedCourse(30, 25, 0);
+        CourseDao dao = new CourseDao(client, new ParallelScanner(client, 1));
+
+        CourseStore.SeatChange change = dao.updateMaxSeats("CSE101", 20);
+
+        assertEquals(CourseStore.SeatChange.Status.BELOW_ENROLLED, change.status);
+        assertEquals(25, change.before.currentEnrolled);
+        verify(client, never()).updateItem(any(UpdateItemRequest.class));
+    }
+
+    @Test
+    void updateMaxSeats_givesUpAfterBoundedRetries() {
+        DynamoDbClient client = unshardedCourse(30, 10, 0);
+        when(client.updateItem(any(UpdateItemRequest.class))).thenThrow(ConditionalCheckFailedException.builder().build());
+        CourseDao dao = new CourseDao(client, new ParallelScanner(client, 1));
+
+        assertEquals(CourseStore.SeatChange.Status.CONFLICT, dao.updateMaxSeats("CSE101", 40).status);
+        verify(client, times(5)).updateItem(argThat((UpdateItemRequest r) ->
+                r.conditionExpression().startsWith("(attribute_not_exists(version) OR version = :v)")));
+    }
+
+    @Test
+    void share_splitsEvenlyAndNeverExceedsCapacity() {
+        int total = 0;
+        for (int i = 0; i < 4; i++) total += CourseDao.share(30, 4, i);
+        assertEquals(30, total);
+        assertEquals(8, CourseDao.share(30, 4, 0));
+        assertEquals(7, CourseDao.share(30, 4, 3));
+        // a shard's count share never exceeds its seat share when enrolled <= seats
+        for (int i = 0; i < 4; i++) assertTrue(CourseDao.share(29, 4, i) <= CourseDao.share(30, 4, i));
+    }
+
+    @Test
+    void probeOrder_visitsEveryShardOnce() {
+        int[] order = CourseDao.probeOrder(5);
+        assertEquals(5, java.util.Arrays.stream(order).distinct().count());
+    }
+}
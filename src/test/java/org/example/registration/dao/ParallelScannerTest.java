@@ -0,0 +1,57 @@
+package org.example.registration.dao;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ParallelScannerTest {
+
+    private static Map<String, AttributeValue> item(String id) {
+        return Map.of("id", AttributeValue.builder().s(id).build());
+    }
+
+    @Test
+    void scanAll_followsPaginationInEverySegment() {
+        DynamoDbClient client = mock(DynamoDbClient.class);
+        // every segment returns two pages: the first carries a LastEvaluatedKey
+        when(client.scan(any(ScanRequest.class))).thenAnswer(inv -> {
+            ScanRequest req = inv.getArgument(0);
+            int seg = req.segment();
+            if (req.exclusiveStartKey() == null || req.exclusiveStartKey().isEmpty()) {
+                return ScanResponse.builder()
+                        .items(item(seg + "-a"))
+                        .lastEvaluatedKey(item(seg + "-a"))
+                        .build();
+            }
+            return ScanResponse.builder().items(item(seg + "-b")).build();
+        });
+
+        ParallelScanner scanner = new ParallelScanner(client, 4);
+        var items = scanner.scanAll(ScanRequest.builder().tableName("T").build());
+
+        Set<String> ids = new HashSet<>();
+        items.forEach(i -> ids.add(i.get("id").s()));
+        assertEquals(8, items.size());
+        assertTrue(ids.containsAll(List.of("0-a", "0-b", "3-a", "3-b")));
+        verify(client, times(8)).scan(any(ScanRequest.class));
+    }
+
+    @Test
+    void scan_propagatesSegmentFailure() {
+        DynamoDbClient client = mock(DynamoDbClient.class);
+        when(client.scan(any(ScanRequest.class))).thenThrow(new IllegalStateException("boom"));
+
+        ParallelScanner scanner = new ParallelScanner(client, 2);
+
+        assertThrows(IllegalStateException.class,
+                () -> scanner.scanAll(ScanRequest.builder().tableName("T").build()));
+    }
+}
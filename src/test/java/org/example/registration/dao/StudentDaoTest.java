@@ -0,0 +1,110 @@
+package org.example.registration.dao;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class StudentDaoTest {
+
+    private static Map<String, AttributeValue> id(String sid) {
+        return Map.of("studentId", AttributeValue.builder().s(sid).build());
+    }
+
+    private static StudentDao loadedDao(DynamoDbClient client, String... ids) {
+        stubTable(client, ids);
+        StudentDao dao = new StudentDao(client, new ParallelScanner(client, 2));
+        dao.loadExistenceFilter();
+        return dao;
+    }
+
+    private static void stubTable(DynamoDbClient client, String... ids) {
+        when(client.describeTable(any(DescribeTableRequest.class))).thenReturn(DescribeTableResponse.builder()
+                .table(TableDescription.builder().itemCount((long) ids.length).build())
+                .build());
+        when(client.scan(any(ScanRequest.class))).thenAnswer(inv -> {
+            ScanRequest req = inv.getArgument(0);
+            // hand every id to segment 0, leave the others empty
+            List<Map<String, AttributeValue>> items = req.segment() == 0
+                    ? java.util.Arrays.stream(ids).map(StudentDaoTest::id).toList()
+                    : List.of();
+            return ScanResponse.builder().items(items).build();
+        });
+    }
+
+    @Test
+    void exists_beforeFilterLoad_alwaysAsksDynamo() {
+        DynamoDbClient client = mock(DynamoDbClient.class);
+        when(client.getItem(any(GetItemRequest.class)))
+                .thenReturn(GetItemResponse.builder().item(Map.of()).build());
+        StudentDao dao = new StudentDao(client, new ParallelScanner(client, 2));
+
+        assertTrue(dao.mightExist("S1"));
+        assertFalse(dao.exists("S1"));
+        verify(client, times(1)).getItem(any(GetItemRequest.class));
+    }
+
+    @Test
+    void exists_definiteNegative_skipsNetwork() {
+        DynamoDbClient client = mock(DynamoDbClient.class);
+        StudentDao dao = loadedDao(client, "S1", "S2");
+
+        assertFalse(dao.exists("UNKNOWN-ID"));
+        verify(client, never()).getItem(any(GetItemRequest.class));
+    }
+
+    @Test
+    void exists_positiveIsConfirmedOnceThenCached() {
+        DynamoDbClient client = mock(DynamoDbClient.class);
+        StudentDao dao = loadedDao(client, "S1");
+        when(client.getItem(any(GetItemRequest.class)))
+                .thenReturn(GetItemResponse.builder().item(id("S1")).build());
+
+        assertTrue(dao.exists("S1"));
+        assertTrue(dao.exists("S1"));
+        verify(client, times(1)).getItem(any(GetItemRequest.class));
+    }
+
+    @Test
+    void putStudent_updatesFilter_andDeleteDropsCachedPositive() {
+        DynamoDbClient client = mock(DynamoDbClient.class);
+        StudentDao dao = loadedDao(client);
+        var s = new org.example.registration.model.Student();
+        s.studentId = "NEW1";
+
+        assertFalse(dao.mightExist("NEW1"));
+        dao.putStudent(s);
+        assertTrue(dao.mightExist("NEW1"));
+        assertTrue(dao.exists("NEW1"));
+        verify(client, never()).getItem(any(GetItemRequest.class));
+
+        dao.deleteStudentById("NEW1");
+        when(client.getItem(any(GetItemRequest.class)))
+                .thenReturn(GetItemResponse.builder().item(Map.of()).build());
+        assertFalse(dao.exists("NEW1"));
+    }
+
+    @Test
+    void exists_expiredFilter_asksDynamo_andReloads() {
+        DynamoDbClient client = mock(DynamoDbClient.class);
+        stubTable(client, "S1");
+        AtomicLong now = new AtomicLong();
+        StudentDao dao = new StudentDao(client, new ParallelScanner(client, 2), TimeUnit.SECONDS.toNanos(60), now::get);
+        dao.loadExistenceFilter();
+        // created by another writer after the filter was loaded
+        when(client.getItem(any(GetItemRequest.class)))
+                .thenReturn(GetItemResponse.builder().item(id("ELSEWHERE")).build());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        assertTrue(dao.exists("ELSEWHERE"));
+        verify(client, timeout(5000).times(2)).describeTable(any(DescribeTableRequest.class));
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.registration.dao;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WaitlistDaoTest {
+
+    private static Map<String, AttributeValue> entry(String createdAt, String studentId) {
+        return Map.of(
+                "courseId", AttributeValue.builder().s("CS101").build(),
+                "createdAt", AttributeValue.builder().s(createdAt).build(),
+                "studentId", AttributeValue.builder().s(studentId).build());
+    }
+
+    /**
+     * Entry deletes succeed with ALL_OLD attributes, except for createdAt values in {@code taken},
+     * which fail their condition as if another pop had claimed them.
+     */
+    private static DynamoDbClient waitlist(List<Map<String, AttributeValue>> entries, Set<String> taken) {
+        DynamoDbClient client = mock(DynamoDbClient.class);
+        when(client.query(any(QueryRequest.class))).thenAnswer(inv -> {
+            QueryRequest q = inv.getArgument(0);
+            return QueryResponse.builder().items(entries.subList(0, Math.min(q.limit(), entries.size()))).build();
+        });
+        when(client.deleteItem(any(DeleteItemRequest.class))).thenAnswer(inv -> {
+            DeleteItemRequest r = inv.getArgument(0);
+            if (!"Waitlist".equals(r.tableName())) return DeleteItemResponse.builder().build();
+            String createdAt = r.key().get("createdAt").s();
+            if (taken.contains(createdAt)) throw ConditionalCheckFailedException.builder().build();
+            for (var e : entries) {
+                if (createdAt.equals(e.get("createdAt").s())) return DeleteItemResponse.builder().attributes(e).build();
+            }
+            throw ConditionalCheckFailedException.builder().build();
+        });
+        return client;
+    }
+
+    @Test
+    void pop_claimsHeadWithConditionalDelete_andReleasesItsIndexRow() {
+        DynamoDbClient client = waitlist(List.of(entry("1", "S1"), entry("2", "S2")), Set.of());
+
+        assertEquals("S1", new WaitlistDao(client).popFirstWaitlistedStudent("CS101"));
+
+        verify(client).deleteItem(argThat((DeleteItemRequest r) -> "Waitlist".equals(r.tableName())
+                && "attribute_exists(createdAt)".equals(r.conditionExpression())
+                && r.returnValues() == ReturnValue.ALL_OLD));
+        verify(client).deleteItem(argThat((DeleteItemRequest r) -> "WaitlistByStudent".equals(r.tableName())
+                && "S1".equals(r.key().get("studentId").s())
+                && "1".equals(r.expressionAttributeValues().get(":ts").s())));
+    }
+
+    @Test
+    void pop_lostHead_claimsTheNextOldestEntry() {
+        DynamoDbClient client = waitlist(List.of(entry("1", "S1"), entry("2", "S2"), entry("3", "S3")), Set.of("1"));
+
+        String popped = new WaitlistDao(client).popFirstWaitlistedStudent("CS101");
+
+        assertEquals("S2", popped);
+        verify(client).query(argThat((QueryRequest q) -> q.limit() == WaitlistDao.CLAIM_WINDOW));
+    }
+
+    @Test
+    void pop_everyEntryTaken_returnsNull() {
+        DynamoDbClient client = waitlist(List.of(entry("1", "S1")), Set.of("1"));
+        assertNull(new WaitlistDao(client).popFirstWaitlistedStudent("CS101"));
+
+        List<Map<String, AttributeValue>> empty = List.of();
+        assertNull(new WaitlistDao(waitlist(empty, Set.of())).popFirstWaitlistedStudent("CS101"));
+    }
+
+    @Test
+    void bulkPop_skipsEntriesClaimedElsewhere_andStopsAtMax() {
+        DynamoDbClient client = waitlist(
+                List.of(entry("1", "S1"), entry("2", "S2"), entry("3", "S3"), entry("4", "S4")), Set.of("2"));
+
+        List<Map<String, AttributeValue>> popped = new WaitlistDao(client).popWaitlistEntries("CS101", 3);
+
+        assertEquals(List.of("S1", "S3"), popped.stream().map(e -> e.get("studentId").s()).toList());
+        verify(client).query(argThat((QueryRequest q) -> q.limit() == 3));
+    }
+}
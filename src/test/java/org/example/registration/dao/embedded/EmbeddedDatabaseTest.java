@@ -0,0 +1,241 @@
+package org.example.registration.dao.embedded;
+
+import org.example.registration.dao.CourseStore.SeatChange;
+import org.example.registration.dao.Stores;
+import org.example.registration.dao.TransactionStore.DropOutcome;
+import org.example.registration.dao.TransactionStore.EnrollResult;
+import org.example.registration.dao.TransactionStore.SignupResult;
+import org.example.registration.model.Course;
+import org.example.registration.model.Student;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddedDatabaseTest {
+
+    @TempDir
+    Path dir;
+
+    private static Course course(String id, int maxSeats) {
+        Course c = new Course();
+        c.courseId = id;
+        c.title = "Course " + id;
+        c.maxSeats = maxSeats;
+        return c;
+    }
+
+    private static Path onlySegment(Path dir) throws Exception {
+        try (var files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith("wal-")).findFirst().orElseThrow();
+        }
+    }
+
+    @Test
+    void reopen_replaysLogWithoutSnapshot() throws Exception {
+        EmbeddedDatabase db = EmbeddedDatabase.open(dir);
+        Stores stores = db.stores();
+        stores.courses.putCourse(course("CS101", 2));
+        assertEquals(EnrollResult.ENROLLED, stores.transactions.enroll("S1", "CS101"));
+        db.abandon(); // no final snapshot: only the log is on disk
+
+        try (EmbeddedDatabase reopened = EmbeddedDatabase.open(dir)) {
+            Stores again = reopened.stores();
+            assertEquals(1, again.courses.getCourse("CS101").currentEnrolled);
+            assertTrue(again.enrollments.isEnrolled("S1", "CS101"));
+        }
+    }
+
+    @Test
+    void reopen_afterCloseLoadsSnapshot() throws Exception {
+        try (EmbeddedDatabase db = EmbeddedDatabase.open(dir)) {
+            Stores stores = db.stores();
+            stores.courses.putCourse(course("CS101", 5));
+            stores.transactions.enroll("S1", "CS101");
+            stores.transactions.enroll("S2", "CS101");
+            stores.transactions.dropAndPromote("S1", "CS101", "schedule");
+        }
+
+        try (EmbeddedDatabase db = EmbeddedDatabase.open(dir)) {
+            Stores stores = db.stores();
+            assertEquals(1, stores.courses.getCourse("CS101").currentEnrolled);
+            assertFalse(stores.enrollments.isEnrolled("S1", "CS101"));
+            assertTrue(stores.enrollments.isEnrolled("S2", "CS101"));
+            assertTrue(stores.drops.hasDroppedBefore("S1", "CS101"));
+        }
+    }
+
+    @Test
+    void reopen_toleratesTornTail() throws Exception {
+        EmbeddedDatabase db = EmbeddedDatabase.open(dir);
+        db.stores().courses.putCourse(course("CS101", 5));
+        db.abandon();
+
+        // half a frame at the end, as left by a crash mid-append
+        try (RandomAccessFile f = new RandomAccessFile(onlySegment(dir).toFile(), "rw")) {
+            f.seek(f.length());
+            f.writeInt(64);
+            f.write(new byte[]{1, 2, 3});
+        }
+
+        try (EmbeddedDatabase reopened = EmbeddedDatabase.open(dir)) {
+            assertNotNull(reopened.stores().courses.getCourse("CS101"));
+        }
+    }
+
+    @Test
+    void concurrentEnrolls_neverOversell() throws Exception {
+        try (EmbeddedDatabase db = EmbeddedDatabase.open(dir)) {
+            Stores stores = db.stores();
+            stores.courses.putCourse(course("CS101", 10));
+            AtomicInteger enrolled = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(8);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String sid = "S" + i;
+                futures.add(pool.submit(() -> {
+                    if (stores.transactions.enroll(sid, "CS101") == EnrollResult.ENROLLED) enrolled.incrementAndGet();
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+            pool.shutdown();
+
+            assertEquals(10, enrolled.get());
+            assertEquals(10, stores.courses.getCourse("CS101").currentEnrolled);
+            assertEquals(10, stores.enrollments.listEnrollmentsByCourse("CS101").size());
+        }
+    }
+
+    @Test
+    void dropAndPromote_handsSeatToWaitlistHead() throws Exception {
+        try (EmbeddedDatabase db = EmbeddedDatabase.open(dir)) {
+            Stores stores = db.stores();
+            stores.courses.putCourse(course("CS101", 1));
+            assertEquals(EnrollResult.ENROLLED, stores.transactions.enroll("S1", "CS101"));
+            assertEquals(EnrollResult.COURSE_FULL, stores.transactions.enroll("S2", "CS101"));
+            assertTrue(stores.waitlists.addToWaitlist("CS101", "S2", Map.of()));
+            assertTrue(stores.waitlists.addToWaitlist("CS101", "S3", Map.of()));
+            assertFalse(stores.waitlists.addToWaitlist("CS101", "S2", Map.of()));
+            assertEquals(EnrollResult.ALREADY_WAITLISTED, stores.transactions.enroll("S2", "CS101"));
+
+            DropOutcome outcome = stores.transactions.dropAndPromote("S1", "CS101", "conflict");
+
+            assertEquals(DropOutcome.Status.DROPPED_AND_PROMOTED, outcome.status);
+            assertEquals("S2", outcome.promotedStudentId);
+            assertTrue(stores.enrollments.isEnrolled("S2", "CS101"));
+            assertFalse(stores.waitlists.isStudentOnWaitlist("CS101", "S2"));
+            assertEquals(1, stores.courses.getCourse("CS101").currentEnrolled);
+            assertEquals(1, stores.waitlists.getWaitlistsByCourse("CS101").size());
+        }
+    }
+
+    @Test
+    void promotedStudent_canStillDrop() throws Exception {
+        try (EmbeddedDatabase db = EmbeddedDatabase.open(dir)) {
+            Stores stores = db.stores();
+            stores.courses.putCourse(course("CS101", 1));
+            assertEquals(EnrollResult.ENROLLED, stores.transactions.enroll("S1", "CS101"));
+            assertTrue(stores.waitlists.addToWaitlist("CS101", "S2", Map.of()));
+            assertTrue(stores.waitlists.addToWaitlist("CS101", "S3", Map.of()));
+            assertTrue(stores.waitlists.removeAllWaitlistEntries("CS101", "S3"));
+            stores.drops.recordDrop("S3", "CS101", "STUDENT", "Removed from waitlist by student");
+
+            assertEquals("S2", stores.transactions.dropAndPromote("S1", "CS101", "Dropped from enrolled course").promotedStudentId);
+
+            assertTrue(stores.drops.hasDroppedBefore("S1", "CS101"));
+            assertFalse(stores.drops.hasDroppedBefore("S2", "CS101")); // only the SYSTEM promotion record
+            assertFalse(stores.drops.hasDroppedBefore("S3", "CS101")); // left the waitlist, never enrolled
+            assertEquals(DropOutcome.Status.DROPPED, stores.transactions.dropAndPromote("S2", "CS101", "Dropped from enrolled course").status);
+            assertTrue(stores.drops.hasDroppedBefore("S2", "CS101"));
+        }
+    }
+
+    @Test
+    void restoredWaitlistEntry_keepsItsPlace_unlessTheStudentRejoined() throws Exception {
+        try (EmbeddedDatabase db = EmbeddedDatabase.open(dir)) {
+            Stores stores = db.stores();
+            for (String sid : List.of("S1", "S2", "S3")) assertTrue(stores.waitlists.addToWaitlist("CS101", sid, Map.of()));
+
+            var popped = stores.waitlists.popWaitlistEntries("CS101", 2);
+            assertEquals(List.of("S1", "S2"), popped.stream().map(e -> e.get("studentId").s()).toList());
+            assertTrue(stores.waitlists.restoreWaitlistEntry(popped.get(0)));
+            assertTrue(stores.waitlists.isStudentOnWaitlist("CS101", "S1"));
+            assertEquals("S1", stores.waitlists.popFirstWaitlistedStudent("CS101"));
+
+            assertTrue(stores.waitlists.addToWaitlist("CS101", "S2", Map.of()));
+            assertFalse(stores.waitlists.restoreWaitlistEntry(popped.get(1)));
+            assertEquals(List.of("S3", "S2"), stores.waitlists.getWaitlistHead("CS101", 5).stream()
+                    .map(e -> e.get("studentId").s()).toList());
+        }
+    }
+
+    @Test
+    void updateMaxSeats_keepsEnrollmentCount_andBumpsVersion() throws Exception {
+        try (EmbeddedDatabase db = EmbeddedDatabase.open(dir)) {
+            Stores stores = db.stores();
+            stores.courses.putCourse(course("CS101", 2));
+            assertEquals(EnrollResult.ENROLLED, stores.transactions.enroll("S1", "CS101"));
+
+            SeatChange change = stores.courses.updateMaxSeats("CS101", 5);
+            assertEquals(SeatChange.Status.UPDATED, change.status);
+            assertEquals(2, change.before.maxSeats);
+
+            Course after = stores.courses.getCourse("CS101");
+            assertEquals(5, after.maxSeats);
+            assertEquals(1, after.currentEnrolled);
+            assertEquals(1, after.version);
+            assertEquals(SeatChange.Status.BELOW_ENROLLED, stores.courses.updateMaxSeats("CS101", 0).status);
+            assertEquals(SeatChange.Status.NOT_FOUND, stores.courses.updateMaxSeats("CS999", 5).status);
+        }
+    }
+
+    @Test
+    void replacePasswordHash_neverUndoesAPasswordChange() throws Exception {
+        try (EmbeddedDatabase db = EmbeddedDatabase.open(dir)) {
+            Stores stores = db.stores();
+            Student s = new Student();
+            s.studentId = "S1";
+            s.passwordHash = "old";
+            stores.students.putStudent(s);
+
+            stores.students.updatePassword("S1", "reset"); // lands while a login's rehash is in flight
+            assertFalse(stores.students.replacePasswordHash("S1", "old", "rehashed"));
+            assertEquals("reset", stores.students.getStudent("S1").passwordHash);
+
+            assertTrue(stores.students.replacePasswordHash("S1", "reset", "rehashed"));
+            assertEquals("rehashed", stores.students.getStudent("S1").passwordHash);
+        }
+    }
+
+    @Test
+    void signup_emailTakenLeavesNoStudentRow() throws Exception {
+        try (EmbeddedDatabase db = EmbeddedDatabase.open(dir)) {
+            Stores stores = db.stores();
+            Student a = new Student();
+            a.studentId = "S1";
+            a.name = "A";
+            a.email = "a@x.edu";
+            a.passwordHash = "h";
+            Student b = new Student();
+            b.studentId = "S2";
+            b.name = "B";
+            b.email = "A@x.edu";
+            b.passwordHash = "h";
+
+            assertEquals(SignupResult.CREATED, stores.transactions.signup(a));
+            assertEquals(SignupResult.EMAIL_TAKEN, stores.transactions.signup(b));
+            assertNull(stores.students.getStudent("S2"));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.registration.events;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private static RegistrationEvent event(String studentId, String reason) {
+        return new RegistrationEvent(RegistrationEvent.Type.LEFT_WAITLIST, studentId, "CS101", "STUDENT", reason);
+    }
+
+    @Test
+    void reopen_replaysOnlyEventsAfterTheCursor_andKeepsNumbering() throws Exception {
+        try (EventJournal journal = EventJournal.open(dir)) {
+            List<RegistrationEvent> appended = journal.append(List.of(event("S1", "a"), event("S2", "b"), event("S3", "c")));
+            assertEquals(List.of(1L, 2L, 3L), appended.stream().map(e -> e.seq).toList());
+            journal.commit(2);
+        }
+
+        try (EventJournal journal = EventJournal.open(dir)) {
+            assertEquals(2, journal.committed());
+            assertEquals(List.of("S3"), journal.pending().stream().map(e -> e.studentId).toList());
+            assertEquals(4, journal.append(List.of(event("S4", "d"))).get(0).seq);
+        }
+    }
+
+    @Test
+    void tornLastLine_isIgnored_andFieldsSurviveEscaping() throws Exception {
+        try (EventJournal journal = EventJournal.open(dir)) {
+            journal.append(List.of(event("S1", "tab\there\nnewline \\ backslash")));
+        }
+        Path segment = dir.resolve(EventJournal.segmentName(1));
+        Files.writeString(segment, "2\tLEFT_WAITLIST\t17", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (EventJournal journal = EventJournal.open(dir)) {
+            assertEquals(1, journal.pending().size());
+            assertEquals("tab\there\nnewline \\ backslash", journal.pending().get(0).reason);
+            assertEquals(1, journal.lastSeq());
+        }
+    }
+
+    @Test
+    void commit_deletesSegmentsWhollyBehindTheCursor() throws Exception {
+        try (EventJournal journal = EventJournal.open(dir)) {
+            journal.append(List.of(event("S1", "a"), event("S2", "b")));
+        }
+        try (EventJournal journal = EventJournal.open(dir)) {
+            journal.append(List.of(event("S3", "c")));
+            journal.commit(1);
+            assertTrue(Files.exists(dir.resolve(EventJournal.segmentName(1))), "seq 2 is not projected yet");
+
+            journal.commit(3);
+            assertFalse(Files.exists(dir.resolve(EventJournal.segmentName(1))));
+            assertTrue(Files.exists(dir.resolve(EventJournal.segmentName(3))));
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.registration.events;
+
+import org.example.registration.dao.DropStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class EventOutboxTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Records every event it is given; fails its first {@code failures} batches.
+     */
+    private static class Recording implements EventProjector {
+        final List<RegistrationEvent> seen = Collections.synchronizedList(new ArrayList<>());
+        final AtomicInteger calls = new AtomicInteger();
+        final int failures;
+
+        Recording(int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public String name() {
+            return "recording";
+        }
+
+        @Override
+        public void project(List<RegistrationEvent> batch) throws InterruptedException {
+            if (calls.incrementAndGet() <= failures) throw new IllegalStateException("not yet");
+            seen.addAll(batch);
+        }
+    }
+
+    private static RegistrationEvent enrolled(String studentId) {
+        return new RegistrationEvent(RegistrationEvent.Type.ENROLLED, studentId, "CS101", "STUDENT", null);
+    }
+
+    @Test
+    void emittedEvents_areProjectedInOrder_andCommitted() throws Exception {
+        CountDownLatch emitted = new CountDownLatch(1);
+        Recording projector = new Recording(0) {
+            @Override
+            public void project(List<RegistrationEvent> batch) throws InterruptedException {
+                emitted.await(10, TimeUnit.SECONDS); // let the queue build up behind the first batch
+                super.project(batch);
+            }
+        };
+        try (EventOutbox outbox = EventOutbox.open(dir, List.of(projector))) {
+            for (int i = 0; i < 500; i++) outbox.emit(enrolled("S" + i));
+            emitted.countDown();
+        }
+
+        assertEquals(500, projector.seen.size());
+        for (int i = 0; i < 500; i++) assertEquals(i + 1, projector.seen.get(i).seq);
+        assertTrue(projector.calls.get() < 500, "events should be projected in batches");
+        try (EventJournal journal = EventJournal.open(dir)) {
+            assertEquals(500, journal.committed());
+            assertEquals(List.of(), journal.pending());
+        }
+    }
+
+    @Test
+    void failedProjector_isRetried_withoutReplayingToTheOthers() throws Exception {
+        Recording flaky = new Recording(2);
+        Recording steady = new Recording(0);
+        try (EventOutbox outbox = EventOutbox.open(dir, List.of(flaky, steady))) {
+            outbox.emit(List.of(enrolled("S1"), enrolled("S2")));
+        }
+
+        assertEquals(3, flaky.calls.get());
+        assertEquals(List.of("S1", "S2"), flaky.seen.stream().map(e -> e.studentId).toList());
+        assertEquals(1, steady.calls.get());
+    }
+
+    @Test
+    void failingProjector_keepsTheCursorBehindItsBatch() throws Exception {
+        Recording broken = new Recording(Integer.MAX_VALUE);
+        Recording steady = new Recording(0);
+        try (EventOutbox outbox = EventOutbox.open(dir, List.of(broken, steady))) {
+            outbox.emit(List.of(enrolled("S1"), enrolled("S2")));
+        }
+
+        assertTrue(broken.calls.get() >= EventOutbox.MAX_ATTEMPTS);
+        assertEquals(1, steady.calls.get());
+        Recording fixed = new Recording(0);
+        try (EventOutbox ignored = EventOutbox.open(dir, List.of(fixed))) {
+            // close drains the replayed events
+        }
+        assertEquals(List.of("S1", "S2"), fixed.seen.stream().map(e -> e.studentId).toList());
+    }
+
+    @Test
+    void unprojectedEvents_areReplayedOnOpen() throws Exception {
+        try (EventJournal journal = EventJournal.open(dir)) {
+            journal.append(List.of(enrolled("S1"), enrolled("S2")));
+            journal.commit(1);
+        }
+
+        Recording projector = new Recording(0);
+        try (EventOutbox ignored = EventOutbox.open(dir, List.of(projector))) {
+            // close drains the replayed events
+        }
+        assertEquals(List.of("S2"), projector.seen.stream().map(e -> e.studentId).toList());
+    }
+
+    @Test
+    void dropHistory_groupsLedgerEvents_andSkipsTheRest() {
+        DropStore drops = mock(DropStore.class);
+        String reason = "Promoted from waitlist after seat increase";
+
+        new DropHistoryProjector(drops).project(List.of(
+                enrolled("S0"),
+                new RegistrationEvent(RegistrationEvent.Type.ADMIN_PROMOTED, "S1", "CS101", "SYSTEM", reason),
+                new RegistrationEvent(RegistrationEvent.Type.DROPPED, "S9", "CS101", "STUDENT", "Dropped from enrolled course"),
+                new RegistrationEvent(RegistrationEvent.Type.ADMIN_PROMOTED, "S2", "CS101", "SYSTEM", reason),
+                new RegistrationEvent(RegistrationEvent.Type.LEFT_WAITLIST, "S3", "CS101", "STUDENT", "Removed from waitlist by student")));
+
+        verify(drops).recordDrops("CS101", List.of("S1", "S2"), "SYSTEM", reason);
+        verify(drops).recordDrop("S3", "CS101", "STUDENT", "Removed from waitlist by student");
+        verify(drops, never()).recordDrop(eq("S9"), anyString(), anyString(), anyString());
+        verifyNoMoreInteractions(drops);
+    }
+}
@@ -0,0 +1,106 @@
+package org.example.registration.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DaoMetricsTest {
+
+    @BeforeEach
+    void reset() {
+        DaoMetrics.reset();
+    }
+
+    private static MetricsSnapshot.Method method(MetricsSnapshot snapshot, String name) {
+        return snapshot.methods().stream().filter(m -> m.method().equals(name)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void recordCall_countsOutcomesAndCapacityPerTableAndOperation() {
+        DaoMetrics.recordCall("Course", "UpdateItem", null, 2_000_000, 1, DaoMetrics.Outcome.OK, 0, 1.0);
+        DaoMetrics.recordCall("Course", "UpdateItem", null, 4_000_000, 3, DaoMetrics.Outcome.CONDITIONAL_CHECK_FAILED, 0, 0);
+        DaoMetrics.recordCall("Course", "UpdateItem", null, 9_000_000, 4, DaoMetrics.Outcome.THROTTLED, 0, 0);
+
+        MetricsSnapshot.Call call = DaoMetrics.snapshot().calls().get(0);
+        assertEquals("Course", call.table());
+        assertEquals(3, call.count());
+        assertEquals(1, call.conditionalCheckFailures());
+        assertEquals(1, call.throttles());
+        assertEquals(1, call.errors());
+        assertEquals(5, call.retries());
+        assertEquals(1.0, call.writeUnits());
+    }
+
+    @Test
+    void scope_attributesCapacityToOutermostServiceMethod() {
+        try (DaoMetrics.Scope op = DaoMetrics.operation("getMyCourses")) {
+            try (DaoMetrics.Scope nested = DaoMetrics.operation("isStudentIdExists")) {
+                DaoMetrics.recordCall("Enrollment", "Query", DaoMetrics.currentOperation(), 1000, 1, DaoMetrics.Outcome.OK, 0.5, 0);
+            }
+            DaoMetrics.recordCall("Course", "BatchGetItem", DaoMetrics.currentOperation(), 1000, 1, DaoMetrics.Outcome.OK, 1.5, 0);
+        }
+        assertNull(DaoMetrics.currentOperation());
+
+        MetricsSnapshot.Method m = method(DaoMetrics.snapshot(), "getMyCourses");
+        assertEquals(1, m.invocations());
+        assertEquals(2, m.requests());
+        assertEquals(2.0, m.readUnitsPerInvocation());
+        assertTrue(DaoMetrics.snapshot().methods().stream().noneMatch(x -> x.method().equals("isStudentIdExists")));
+    }
+
+    @Test
+    void propagate_carriesScopeToAnotherThread() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try (DaoMetrics.Scope op = DaoMetrics.operation("enroll")) {
+            assertEquals("enroll", pool.submit(DaoMetrics.propagate(DaoMetrics::currentOperation)).get());
+        } finally {
+            pool.shutdown();
+        }
+        assertNull(DaoMetrics.currentOperation());
+    }
+
+    @Test
+    void interceptor_requestsConsumedCapacityUnlessSet() {
+        var get = (GetItemRequest) DynamoDbMetricsInterceptor.withConsumedCapacity(GetItemRequest.builder().tableName("Student").build());
+        assertEquals(ReturnConsumedCapacity.TOTAL, get.returnConsumedCapacity());
+
+        var query = QueryRequest.builder().tableName("Waitlist").returnConsumedCapacity(ReturnConsumedCapacity.INDEXES).build();
+        assertSame(query, DynamoDbMetricsInterceptor.withConsumedCapacity(query));
+    }
+
+    @Test
+    void interceptor_namesTablesAndSumsCapacity() {
+        var tx = TransactWriteItemsRequest.builder().transactItems(
+                TransactWriteItem.builder().update(Update.builder().tableName("Course").build()).build(),
+                TransactWriteItem.builder().put(Put.builder().tableName("Enrollment").build()).build(),
+                TransactWriteItem.builder().conditionCheck(ConditionCheck.builder().tableName("WaitlistByStudent").build()).build())
+                .build();
+        assertEquals("Course+Enrollment+WaitlistByStudent", DynamoDbMetricsInterceptor.tableOf(tx));
+
+        var response = TransactWriteItemsResponse.builder().consumedCapacity(
+                ConsumedCapacity.builder().tableName("Course").capacityUnits(2.0).build(),
+                ConsumedCapacity.builder().tableName("Enrollment").capacityUnits(2.0).build()).build();
+        assertEquals(4.0, DynamoDbMetricsInterceptor.capacityOf(response));
+    }
+
+    @Test
+    void interceptor_classifiesFailures() {
+        assertEquals(DaoMetrics.Outcome.CONDITIONAL_CHECK_FAILED,
+                DynamoDbMetricsInterceptor.outcomeOf(ConditionalCheckFailedException.builder().message("no").build()));
+        assertEquals(DaoMetrics.Outcome.CONDITIONAL_CHECK_FAILED, DynamoDbMetricsInterceptor.outcomeOf(
+                TransactionCanceledException.builder().cancellationReasons(
+                        CancellationReason.builder().code("None").build(),
+                        CancellationReason.builder().code("ConditionalCheckFailed").build()).build()));
+        assertEquals(DaoMetrics.Outcome.THROTTLED, DynamoDbMetricsInterceptor.outcomeOf(
+                ProvisionedThroughputExceededException.builder().statusCode(400)
+                        .awsErrorDetails(AwsErrorDetails.builder()
+                                .errorCode("ProvisionedThroughputExceededException").build()).build()));
+        assertEquals(DaoMetrics.Outcome.ERROR, DynamoDbMetricsInterceptor.outcomeOf(new IllegalStateException("boom")));
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.registration.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void empty_reportsZero() {
+        LatencyHistogram h = new LatencyHistogram();
+
+        assertEquals(0, h.count());
+        assertEquals(0, h.percentileNanos(0.99));
+    }
+
+    @Test
+    void percentiles_withinBucketPrecision() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long ms = 1; ms <= 1000; ms++) h.record(ms * 1_000_000);
+
+        assertEquals(1000, h.count());
+        assertEquals(500e6, h.percentileNanos(0.50), 500e6 / 64);
+        assertEquals(990e6, h.percentileNanos(0.99), 990e6 / 64);
+        assertEquals(999e6, h.percentileNanos(0.999), 999e6 / 64);
+        assertEquals(1000_000_000L, h.maxNanos());
+        assertEquals(500.5e6, h.meanNanos(), 1);
+    }
+
+    @Test
+    void smallValues_areExact() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(3);
+        h.record(100);
+
+        assertEquals(3, h.percentileNanos(0.5));
+        assertEquals(100, h.percentileNanos(1.0));
+    }
+
+    @Test
+    void bucketIndex_isContinuousAndMonotonic() {
+        int previous = LatencyHistogram.indexOf(0);
+        for (long v = 1; v < 1 << 20; v++) {
+            int index = LatencyHistogram.indexOf(v);
+            assertTrue(index == previous || index == previous + 1, "gap at " + v);
+            long mid = LatencyHistogram.valueOf(index);
+            assertTrue(Math.abs(mid - v) <= Math.max(1, v / 64), "value " + v + " reported as " + mid);
+            previous = index;
+        }
+    }
+
+    @Test
+    void hugeValues_areClamped() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(Long.MAX_VALUE);
+
+        assertEquals(LatencyHistogram.MAX_TRACKABLE_NANOS, h.maxNanos());
+        assertTrue(h.percentileNanos(1.0) <= LatencyHistogram.MAX_TRACKABLE_NANOS);
+    }
+}
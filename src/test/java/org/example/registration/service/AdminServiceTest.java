@@ -78,18 +78,29 @@ class AdminServiceTest {
         verify(courseDao, never()).putCourse(any());
     }
 
-    @Test
-    void updateCourseSeats_updatesViaPutCourseForUpdate() {
+    private static CourseStore.SeatChange seatChange(CourseStore.SeatChange.Status status, int maxSeats, int enrolled) {
         Course c = new Course();
-        c.courseId = "C3"; c.title = "ML"; c.maxSeats = 30; c.currentEnrolled = 10;
-        when(courseDao.getCourse("C3")).thenReturn(c);
+        c.courseId = "C3"; c.title = "ML"; c.maxSeats = maxSeats; c.currentEnrolled = enrolled;
+        return new CourseStore.SeatChange(status, c);
+    }
+
+    @Test
+    void updateCourseSeats_updatesViaConditionalUpdate() {
+        when(courseDao.updateMaxSeats("C3", 40)).thenReturn(seatChange(CourseStore.SeatChange.Status.UPDATED, 30, 10));
 
         String msg = admin.updateCourseSeats("C3", 40);
 
         assertTrue(msg.contains("updated"));
-        verify(courseDao).putCourseForUpdate(argThat(updated ->
-                "C3".equals(updated.courseId) && updated.maxSeats == 40 && updated.currentEnrolled == 10
-        ));
+        verify(courseDao).updateMaxSeats("C3", 40);
+        verify(courseDao, never()).putCourse(any());
+    }
+
+    @Test
+    void updateCourseSeats_reportsConcurrentChanges() {
+        when(courseDao.updateMaxSeats("C3", 40)).thenReturn(seatChange(CourseStore.SeatChange.Status.CONFLICT, 30, 10));
+
+        assertTrue(admin.updateCourseSeats("C3", 40).contains("Please try again"));
+        verify(waitlistDao, never()).popWaitlistEntries(anyString(), anyInt());
     }
 
     @Test
@@ -100,14 +111,109 @@ class AdminServiceTest {
 
     @Test
     void updateCourseSeats_cannotReduceBelowCurrent() {
-        Course c = new Course();
-        c.courseId = "C3"; c.title = "ML"; c.maxSeats = 30; c.currentEnrolled = 25;
-        when(courseDao.getCourse("C3")).thenReturn(c);
+        when(courseDao.updateMaxSeats("C3", 20)).thenReturn(seatChange(CourseStore.SeatChange.Status.BELOW_ENROLLED, 30, 25));
 
         String msg = admin.updateCourseSeats("C3", 20);
 
-        assertTrue(msg.contains("Cannot reduce seats below current enrollment"));
-        verify(courseDao, never()).putCourseForUpdate(any());
+        assertTrue(msg.contains("Cannot reduce seats below current enrollment count (25)"));
+        verify(waitlistDao, never()).popWaitlistEntries(anyString(), anyInt());
+    }
+
+    private static List<Map<String, AttributeValue>> waiting(String... studentIds) {
+        List<Map<String, AttributeValue>> entries = new ArrayList<>();
+        for (int i = 0; i < studentIds.length; i++) {
+            entries.add(Map.of("courseId", AttributeValue.fromS("C3"), "createdAt", AttributeValue.fromS("t" + i),
+                    "studentId", AttributeValue.fromS(studentIds[i])));
+        }
+        return entries;
+    }
+
+    @Test
+    void updateCourseSeats_promotesWaitlistInBulk() {
+        when(courseDao.updateMaxSeats("C3", 33)).thenReturn(seatChange(CourseStore.SeatChange.Status.UPDATED, 30, 30));
+        when(waitlistDao.getWaitlistHead("C3", 3)).thenReturn(waiting("S1", "S2"));
+        when(courseDao.reserveSeats("C3", 2)).thenReturn(2); // only two are waiting
+        when(waitlistDao.popWaitlistEntries("C3", 2)).thenReturn(waiting("S1", "S2"));
+        when(enrollmentDao.putEnrollments("C3", List.of("S1", "S2"), "ENROLLED")).thenReturn(List.of());
+
+        String msg = admin.updateCourseSeats("C3", 33);
+
+        assertEquals("Seats updated successfully for C3. Promoted 2 from the waitlist: S1, S2.", msg);
+        verify(courseDao, never()).releaseSeats(anyString(), anyInt());
+        verify(dropDao).recordDrops(eq("C3"), eq(List.of("S1", "S2")), eq("SYSTEM"), contains("Promoted"));
+        verify(waitlistDao, never()).addToWaitlist(anyString(), anyString(), any());
+    }
+
+    @Test
+    void updateCourseSeats_popsOnlyForGrantedSeats() {
+        when(courseDao.updateMaxSeats("C3", 33)).thenReturn(seatChange(CourseStore.SeatChange.Status.UPDATED, 30, 30));
+        when(waitlistDao.getWaitlistHead("C3", 3)).thenReturn(waiting("S1", "S2", "S3"));
+        when(courseDao.reserveSeats("C3", 3)).thenReturn(2); // an enroller took one seat meanwhile
+        when(waitlistDao.popWaitlistEntries("C3", 2)).thenReturn(waiting("S1", "S2"));
+        when(enrollmentDao.putEnrollments("C3", List.of("S1", "S2"), "ENROLLED")).thenReturn(List.of());
+
+        String msg = admin.updateCourseSeats("C3", 33);
+
+        assertTrue(msg.contains("Promoted 2 from the waitlist: S1, S2"));
+        verify(courseDao, never()).releaseSeats(anyString(), anyInt());
+        verify(waitlistDao, never()).addToWaitlist(anyString(), anyString(), any());
+    }
+
+    @Test
+    void updateCourseSeats_skipsEnrolledStudentsAndReleasesUnfilledSeats() {
+        when(courseDao.updateMaxSeats("C3", 33)).thenReturn(seatChange(CourseStore.SeatChange.Status.UPDATED, 30, 30));
+        when(waitlistDao.getWaitlistHead("C3", 3)).thenReturn(waiting("S1", "S2", "S3"));
+        when(courseDao.reserveSeats("C3", 3)).thenReturn(3);
+        when(waitlistDao.popWaitlistEntries("C3", 3)).thenReturn(waiting("S1", "S2", "S3"));
+        when(enrollmentDao.findExisting(List.of("S1#C3", "S2#C3", "S3#C3"))).thenReturn(Set.of("S3#C3"));
+        when(enrollmentDao.putEnrollments("C3", List.of("S1", "S2"), "ENROLLED")).thenReturn(List.of());
+
+        String msg = admin.updateCourseSeats("C3", 33);
+
+        assertTrue(msg.contains("Promoted 2 from the waitlist: S1, S2"));
+        assertTrue(msg.contains("1 already enrolled, removed from the waitlist: S3"));
+        verify(courseDao).releaseSeats("C3", 1);
+        verify(dropDao).recordDrops(eq("C3"), eq(List.of("S1", "S2")), eq("SYSTEM"), contains("Promoted"));
+    }
+
+    @Test
+    void updateCourseSeats_retriesFailedRows_thenRestoresTheStudentsPlace() {
+        when(courseDao.updateMaxSeats("C3", 33)).thenReturn(seatChange(CourseStore.SeatChange.Status.UPDATED, 30, 30));
+        List<Map<String, AttributeValue>> head = waiting("S1", "S2", "S3");
+        when(waitlistDao.getWaitlistHead("C3", 3)).thenReturn(head);
+        when(courseDao.reserveSeats("C3", 3)).thenReturn(3);
+        when(waitlistDao.popWaitlistEntries("C3", 3)).thenReturn(head);
+        when(enrollmentDao.putEnrollments("C3", List.of("S1", "S2", "S3"), "ENROLLED")).thenReturn(List.of("S2", "S3"));
+        when(enrollmentDao.putEnrollments("C3", List.of("S2", "S3"), "ENROLLED")).thenReturn(List.of("S2"));
+        when(enrollmentDao.putEnrollments("C3", List.of("S2"), "ENROLLED")).thenReturn(List.of("S2"));
+        when(waitlistDao.restoreWaitlistEntry(head.get(1))).thenReturn(true);
+
+        String msg = admin.updateCourseSeats("C3", 33);
+
+        assertTrue(msg.contains("Promoted 2 from the waitlist: S1, S3"));
+        assertTrue(msg.contains("1 kept their waitlist place (enrollment write failed): S2"));
+        verify(enrollmentDao, times(AdminService.MAX_ENROLL_ATTEMPTS)).putEnrollments(eq("C3"), any(), eq("ENROLLED"));
+        verify(courseDao).releaseSeats("C3", 1);
+        verify(waitlistDao, never()).addToWaitlist(anyString(), anyString(), any());
+    }
+
+    @Test
+    void updateCourseSeats_nobodyWaiting_reservesNothing() {
+        when(courseDao.updateMaxSeats("C3", 33)).thenReturn(seatChange(CourseStore.SeatChange.Status.UPDATED, 30, 30));
+
+        assertEquals("Seats updated successfully for C3", admin.updateCourseSeats("C3", 33));
+        verify(courseDao, never()).reserveSeats(anyString(), anyInt());
+        verify(waitlistDao, never()).popWaitlistEntries(anyString(), anyInt());
+    }
+
+    @Test
+    void updateCourseSeats_noSeatGranted_popsNobody() {
+        when(courseDao.updateMaxSeats("C3", 33)).thenReturn(seatChange(CourseStore.SeatChange.Status.UPDATED, 30, 30));
+        when(waitlistDao.getWaitlistHead("C3", 3)).thenReturn(waiting("S1"));
+        when(courseDao.reserveSeats("C3", 1)).thenReturn(0);
+
+        assertEquals("Seats updated successfully for C3", admin.updateCourseSeats("C3", 33));
+        verify(waitlistDao, never()).popWaitlistEntries(anyString(), anyInt());
     }
 
     @Test
@@ -163,4 +269,23 @@ class AdminServiceTest {
         assertTrue(msg.contains("S1 dropped"));
         assertTrue(msg.contains("S2 dropped"));
     }
+
+    @Test
+    void shardCourseSeats_enablesShardingOnce() {
+        Course c = new Course(); c.courseId = "C1"; c.maxSeats = 200;
+        when(courseDao.getCourseFresh("C1")).thenReturn(c);
+        when(courseDao.enableSharding("C1", 8)).thenReturn(true);
+
+        assertEquals("Seats for C1 split across 8 shards.", admin.shardCourseSeats("C1", 8));
+
+        c.shardCount = 8;
+        assertTrue(admin.shardCourseSeats("C1", 4).contains("already split"));
+        verify(courseDao, times(1)).enableSharding(anyString(), anyInt());
+    }
+
+    @Test
+    void shardCourseSeats_rejectsBadShardCount() {
+        assertTrue(admin.shardCourseSeats("C1", 1).startsWith("Shard count must be"));
+        verify(courseDao, never()).enableSharding(anyString(), anyInt());
+    }
 }
@@ -0,0 +1,91 @@
+package org.example.registration.service;
+
+import org.example.registration.dao.*;
+import org.example.registration.model.Course;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AsyncRegistrationServiceTest {
+
+    @Mock AsyncStudentDao studentDao;
+    @Mock AsyncEmailIndexDao emailIndexDao;
+    @Mock AsyncCourseDao courseDao;
+    @Mock AsyncEnrollmentDao enrollmentDao;
+    @Mock AsyncWaitlistDao waitlistDao;
+    @Mock AsyncDropDao dropDao;
+    @Mock AsyncTransactionDao transactionDao;
+
+    AsyncRegistrationService service;
+
+    private static <T> CompletableFuture<T> done(T value) {
+        return CompletableFuture.completedFuture(value);
+    }
+
+    @BeforeEach
+    void setUp() {
+        service = new AsyncRegistrationService(studentDao, emailIndexDao, courseDao, enrollmentDao, waitlistDao,
+                dropDao, transactionDao, new PasswordHasher(4, 2, 16));
+        Course c = new Course();
+        c.courseId = "C1"; c.title = "DSA"; c.maxSeats = 1; c.shardCount = 4;
+        when(courseDao.getCourse("C1")).thenReturn(done(c));
+        when(studentDao.exists("S1")).thenReturn(done(true));
+        when(dropDao.hasDroppedBefore(anyString(), anyString())).thenReturn(done(false));
+    }
+
+    @Test
+    void signup_goesThroughOneTransaction() {
+        when(transactionDao.signup(any())).thenReturn(done(TransactionStore.SignupResult.EMAIL_TAKEN));
+
+        assertEquals("Email already exists.", service.signup("S1", "Alice", "a@b.com", "Strong1!").join());
+        verify(transactionDao).signup(argThat(s -> "S1".equals(s.studentId) && s.passwordHash.startsWith("$2a$04$")));
+        verifyNoInteractions(emailIndexDao);
+    }
+
+    @Test
+    void enroll_passesShardCount_andWaitlistsWhenFull() {
+        when(transactionDao.enroll("S1", "C1", 4)).thenReturn(
+                done(TransactionStore.EnrollResult.ENROLLED), done(TransactionStore.EnrollResult.COURSE_FULL));
+        when(studentDao.getStudent("S1")).thenReturn(done(null));
+        when(waitlistDao.addToWaitlist(eq("C1"), eq("S1"), any())).thenReturn(done(true));
+
+        assertEquals("Enrolled successfully.", service.enroll("S1", "C1", true).join());
+        assertEquals("Course full. Added to waitlist.", service.enroll("S1", "C1", true).join());
+        verify(courseDao, never()).reserveSeatIfAvailable(anyString());
+        verifyNoInteractions(enrollmentDao);
+    }
+
+    @Test
+    void drop_promotesInTheSameTransaction() {
+        when(transactionDao.dropAndPromote("S1", "C1", "Dropped from enrolled course", 4)).thenReturn(
+                done(new TransactionStore.DropOutcome(TransactionStore.DropOutcome.Status.DROPPED_AND_PROMOTED, "S7")));
+
+        assertEquals("Dropped from course. Promoted S7 from waitlist.", service.drop("S1", "C1").join());
+        verify(waitlistDao, never()).addToWaitlist(anyString(), anyString(), any());
+        verify(courseDao, never()).releaseSeat(anyString());
+    }
+
+    @Test
+    void drop_notEnrolled_leavesTheWaitlist() {
+        when(transactionDao.dropAndPromote(eq("S1"), eq("C1"), anyString(), eq(4))).thenReturn(
+                done(new TransactionStore.DropOutcome(TransactionStore.DropOutcome.Status.NOT_ENROLLED, null)));
+        when(waitlistDao.removeAllWaitlistEntries("C1", "S1")).thenReturn(done(true));
+        when(dropDao.recordDrop(eq("S1"), eq("C1"), eq("STUDENT"), anyString())).thenReturn(done(true));
+
+        assertEquals("Dropped from waitlist.", service.drop("S1", "C1").join());
+    }
+}
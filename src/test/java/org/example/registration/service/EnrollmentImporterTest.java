@@ -0,0 +1,118 @@
+package org.example.registration.service;
+
+import org.example.registration.codec.EnrollmentCodec;
+import org.example.registration.dao.BatchWriter;
+import org.example.registration.dao.CourseDao;
+import org.example.registration.dao.EnrollmentDao;
+import org.example.registration.dao.StudentDao;
+import org.example.registration.model.Course;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+
+import java.io.StringReader;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class EnrollmentImporterTest {
+
+    @Mock DynamoDbClient client;
+    @Mock CourseDao courseDao;
+    @Mock StudentDao studentDao;
+    @Mock EnrollmentDao enrollmentDao;
+
+    EnrollmentImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        importer = new EnrollmentImporter(client, courseDao, studentDao, enrollmentDao);
+        when(client.batchWriteItem(any(BatchWriteItemRequest.class))).thenReturn(BatchWriteItemResponse.builder().build());
+        doAnswer(inv -> {
+            BatchWriter writer = inv.getArgument(0);
+            writer.put("Enrollment", EnrollmentCodec.item(inv.getArgument(1), inv.getArgument(2), inv.getArgument(3)));
+            return null;
+        }).when(enrollmentDao).queueEnrollment(any(), anyString(), anyString(), anyString());
+    }
+
+    private static Course course(String id, int max, int enrolled) {
+        Course c = new Course();
+        c.courseId = id; c.title = id; c.maxSeats = max; c.currentEnrolled = enrolled;
+        return c;
+    }
+
+    @Test
+    void importRows_reservesSeatsOncePerCourse() throws Exception {
+        when(courseDao.getCourse("C1")).thenReturn(course("C1", 100, 0));
+        when(studentDao.findExisting(any())).thenReturn(Set.of("S1", "S2", "S3"));
+        when(enrollmentDao.findExisting(any())).thenReturn(Set.of("S3#C1"));
+        when(courseDao.reserveSeats("C1", 2)).thenReturn(2);
+
+        String csv = "studentId,courseId\nS1,C1\nS2,c1\nS3,C1\nS1,C1\nS4,NOPE\n!!,C1\n";
+        EnrollmentImporter.Report r = importer.importRows(new EnrollmentImporter.CsvRows(new StringReader(csv)));
+
+        assertEquals(6, r.rows);
+        assertEquals(2, r.imported);
+        assertEquals(1, r.alreadyEnrolled);
+        assertEquals(1, r.duplicates);
+        assertEquals(1, r.invalid);
+        assertEquals(1, r.unknownCourse);
+        verify(courseDao, times(1)).reserveSeats("C1", 2);
+        verify(courseDao, never()).reserveSeatIfAvailable(anyString());
+    }
+
+    @Test
+    void importRows_countsRowsBeyondGrantedSeats() throws Exception {
+        when(courseDao.getCourse("C1")).thenReturn(course("C1", 10, 9));
+        when(studentDao.findExisting(any())).thenReturn(Set.of("S1", "S2", "S3"));
+        when(enrollmentDao.findExisting(any())).thenReturn(Set.of());
+        when(courseDao.reserveSeats("C1", 3)).thenReturn(1);
+
+        EnrollmentImporter.Report r = importer.importRows(
+                new EnrollmentImporter.CsvRows(new StringReader("S1,C1\nS2,C1\nS3,C1\n")));
+
+        assertEquals(1, r.imported);
+        assertEquals(2, r.noSeat);
+    }
+
+    @Test
+    void importRows_fullCourseInCache_isConfirmedBeforeRejecting() throws Exception {
+        when(courseDao.getCourse("C1")).thenReturn(course("C1", 10, 10));
+        when(courseDao.getCourseFresh("C1")).thenReturn(course("C1", 10, 10));
+        when(studentDao.findExisting(any())).thenReturn(Set.of("S1"));
+        when(enrollmentDao.findExisting(any())).thenReturn(Set.of());
+
+        EnrollmentImporter.Report r = importer.importRows(
+                new EnrollmentImporter.CsvRows(new StringReader("S1,C1\n")));
+
+        assertEquals(1, r.noSeat);
+        verify(courseDao).getCourseFresh("C1");
+        verify(courseDao, never()).reserveSeats(anyString(), anyInt());
+    }
+
+    @Test
+    void jsonRows_readsNdjsonAndArrays() throws Exception {
+        var ndjson = new EnrollmentImporter.JsonRows(new StringReader(
+                "{\"studentId\":\"S1\",\"courseId\":\"C1\"}\n{\"courseId\":\"C2\",\"extra\":{\"x\":1},\"studentId\":\"S2\"}\n"));
+        assertArrayEquals(new String[]{"S1", "C1"}, ndjson.next());
+        assertArrayEquals(new String[]{"S2", "C2"}, ndjson.next());
+        assertNull(ndjson.next());
+
+        var array = new EnrollmentImporter.JsonRows(new StringReader(
+                "[{\"studentId\":\"S3\",\"courseId\":\"C3\"}]"));
+        assertArrayEquals(new String[]{"S3", "C3"}, array.next());
+        assertNull(array.next());
+    }
+}
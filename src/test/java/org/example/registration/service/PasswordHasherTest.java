@@ -0,0 +1,65 @@
+package org.example.registration.service;
+
+import org.junit.jupiter.api.Test;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+
+    @Test
+    void hash_usesConfiguredCost_andVerifies() {
+        PasswordHasher hasher = new PasswordHasher(5, 2, 8);
+
+        String hash = hasher.hash("Strong1!");
+
+        assertEquals(5, PasswordHasher.costOf(hash));
+        assertTrue(hasher.verify("Strong1!", hash));
+        assertFalse(hasher.verify("wrong", hash));
+        assertEquals(3, hasher.completed());
+    }
+
+    @Test
+    void needsRehash_onlyWhenCostDiffers() {
+        PasswordHasher hasher = new PasswordHasher(5, 1, 4);
+
+        assertFalse(hasher.needsRehash(BCrypt.hashpw("x", BCrypt.gensalt(5))));
+        assertTrue(hasher.needsRehash(BCrypt.hashpw("x", BCrypt.gensalt(4))));
+        assertFalse(hasher.needsRehash(""));
+        assertFalse(hasher.needsRehash(null));
+    }
+
+    @Test
+    void costOf_parsesModularCryptFormat() {
+        assertEquals(12, PasswordHasher.costOf("$2a$12$abcdefghijklmnopqrstuv"));
+        assertEquals(-1, PasswordHasher.costOf("plaintext"));
+        assertEquals(-1, PasswordHasher.costOf("$2a$x1$abc"));
+    }
+
+    @Test
+    void fullQueue_rejectsInsteadOfQueueingForever() {
+        // one worker, no queue: a burst can only be served one at a time
+        PasswordHasher hasher = new PasswordHasher(10, 1, 0);
+        List<CompletableFuture<String>> burst = new ArrayList<>();
+        for (int i = 0; i < 8; i++) burst.add(hasher.hashAsync("Strong1!"));
+
+        long failed = burst.stream().filter(CompletableFuture::isCompletedExceptionally).count();
+        assertTrue(failed > 0, "expected some requests to be rejected");
+        assertEquals(failed, hasher.rejected());
+
+        CompletionException ex = assertThrows(CompletionException.class,
+                () -> burst.stream().filter(CompletableFuture::isCompletedExceptionally).findFirst().get().join());
+        assertInstanceOf(PasswordHasher.HasherBusyException.class, ex.getCause());
+    }
+
+    @Test
+    void invalidCost_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(3, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHasher(10, 0, 1));
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.registration.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadFanOutTest {
+
+    @Test
+    void join_returnsEachRead_andReadsRunConcurrently() throws Exception {
+        // each read waits for the other to start, so this only finishes if they run at the same time
+        CountDownLatch started = new CountDownLatch(2);
+        try (ReadFanOut reads = new ReadFanOut()) {
+            Future<Boolean> exists = reads.fork(() -> {
+                started.countDown();
+                return started.await(5, TimeUnit.SECONDS);
+            });
+            Future<String> title = reads.fork(() -> {
+                started.countDown();
+                started.await(5, TimeUnit.SECONDS);
+                return "DSA";
+            });
+
+            assertTrue(reads.join(exists));
+            assertEquals("DSA", reads.join(title));
+        }
+    }
+
+    @Test
+    void join_rethrowsTheReadsOwnException_andCancelsTheOthers() throws Exception {
+        IllegalStateException failure = new IllegalStateException("table missing");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (ReadFanOut reads = new ReadFanOut()) {
+            Future<Object> slow = reads.fork(() -> waitForInterrupt(started, interrupted));
+            Future<Object> failing = reads.fork(() -> {
+                throw failure;
+            });
+            started.await(5, TimeUnit.SECONDS);
+
+            IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> reads.join(failing));
+            assertSame(failure, thrown);
+            assertTrue(slow.isCancelled());
+            assertTrue(interrupted.await(5, TimeUnit.SECONDS), "still-running read was not interrupted");
+        }
+    }
+
+    @Test
+    void close_cancelsReadsStillInFlight() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        Future<String> done;
+        Future<Object> running;
+        try (ReadFanOut reads = new ReadFanOut()) {
+            done = reads.fork(() -> "ok");
+            running = reads.fork(() -> waitForInterrupt(started, interrupted));
+            assertEquals("ok", reads.join(done));
+            started.await(5, TimeUnit.SECONDS);
+            // returning early here, as a failed precondition would
+        }
+
+        assertTrue(running.isCancelled());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "still-running read was not interrupted");
+        assertFalse(done.isCancelled());
+    }
+
+    private static Object waitForInterrupt(CountDownLatch started, CountDownLatch interrupted) {
+        started.countDown();
+        try {
+            Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+        }
+        return null;
+    }
+}
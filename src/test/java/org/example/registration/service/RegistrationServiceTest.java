@@ -3,6 +3,7 @@ package org.example.registration.service;
 import org.example.registration.dao.*;
 import org.example.registration.model.Course;
 import org.example.registration.model.Student;
+import org.example.registration.model.StudentSchedule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,11 +16,14 @@ import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
 
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 @MockitoSettings(strictness = Strictness.LENIENT)
@@ -32,6 +36,7 @@ class RegistrationServiceTest {
     @Mock EnrollmentDao enrollmentDao;
     @Mock WaitlistDao waitlistDao;
     @Mock DropDao dropDao;
+    @Mock TransactionDao transactionDao;
 
     RegistrationService service;
 
@@ -39,43 +44,47 @@ class RegistrationServiceTest {
         return GetItemResponse.builder().item(Map.of()).build();
     }
 
-    private static GetItemResponse nonEmptyItem() {
-        return GetItemResponse.builder()
-                .item(Map.of("pk", AttributeValue.builder().s("X").build()))
-                .build();
-    }
-
     @BeforeEach
     void setUp() {
         service = new RegistrationService(
-                client, studentDao, emailIndexDao, courseDao, enrollmentDao, waitlistDao, dropDao
+                client, studentDao, emailIndexDao, courseDao, enrollmentDao, waitlistDao, dropDao, transactionDao
         );
         // By default: “not found / not enrolled”
         when(client.getItem(any(GetItemRequest.class))).thenReturn(emptyItem());
+        when(studentDao.mightExist(anyString())).thenReturn(true);
     }
 
     // ---------- SIGNUP ----------
 
     @Test
     void signup_success_returnsMessage() {
-        // email not taken
-        when(emailIndexDao.emailExists("a@b.com")).thenReturn(false);
+        when(transactionDao.signup(any())).thenReturn(TransactionDao.SignupResult.CREATED);
 
         String msg = service.signup("S1", "Alice", "a@b.com", "Strong1!");
 
-        assertNotNull(msg);
-        assertFalse(msg.isBlank());
+        assertEquals("Signed up successfully.", msg);
+        verify(transactionDao).signup(argThat(s -> "S1".equals(s.studentId) && "a@b.com".equals(s.email)));
     }
 
     @Test
     void signup_duplicateId_returnsMessage() {
-        // pretend id already exists
-        when(client.getItem(any(GetItemRequest.class))).thenReturn(nonEmptyItem());
+        when(transactionDao.signup(any())).thenReturn(TransactionDao.SignupResult.ID_TAKEN);
 
         String msg = service.signup("S1", "Alice", "a@b.com", "Strong1!");
 
-        assertNotNull(msg);
-        assertFalse(msg.isBlank());
+        assertEquals("Student ID already exists.", msg);
+        // no pre-check reads
+        verify(client, never()).getItem(any(GetItemRequest.class));
+        verify(emailIndexDao, never()).emailExists(anyString());
+    }
+
+    @Test
+    void signup_duplicateEmail_returnsMessage() {
+        when(transactionDao.signup(any())).thenReturn(TransactionDao.SignupResult.EMAIL_TAKEN);
+
+        String msg = service.signup("S1", "Alice", "a@b.com", "Strong1!");
+
+        assertEquals("Email already exists.", msg);
     }
 
     // ---------- LOGIN ----------
@@ -92,6 +101,30 @@ class RegistrationServiceTest {
         assertFalse(service.login("S9", "wrong"));
     }
 
+    @Test
+    void login_withOutdatedCost_rehashesAndStores() {
+        Student s = new Student();
+        s.studentId = "S9";
+        s.passwordHash = org.mindrot.jbcrypt.BCrypt.hashpw("Strong1!", org.mindrot.jbcrypt.BCrypt.gensalt(4));
+        when(studentDao.getStudent("S9")).thenReturn(s);
+
+        assertTrue(service.login("S9", "Strong1!"));
+        verify(studentDao, timeout(5000)).replacePasswordHash(eq("S9"), eq(s.passwordHash), argThat(h -> h.startsWith("$2a$10$")));
+        verify(studentDao, never()).updatePassword(anyString(), anyString());
+    }
+
+    @Test
+    void login_readsTheStudent_evenWhenTheFilterSaysUnknown() {
+        Student s = new Student();
+        s.studentId = "NEW1";
+        s.passwordHash = org.mindrot.jbcrypt.BCrypt.hashpw("Strong1!", org.mindrot.jbcrypt.BCrypt.gensalt(10));
+        when(studentDao.mightExist("NEW1")).thenReturn(false);
+        when(studentDao.getStudent("NEW1")).thenReturn(s);
+
+        assertTrue(service.login("NEW1", "Strong1!"));
+        assertFalse(service.login("NOPE", "Strong1!"));
+    }
+
     // ---------- ENROLL ----------
 
     @Test
@@ -108,6 +141,47 @@ class RegistrationServiceTest {
         assertFalse(msg.isBlank());
     }
 
+    @Test
+    void enroll_usesSingleTransaction_withoutPreReads() {
+        when(studentDao.exists("S1")).thenReturn(true);
+        Course c = new Course();
+        c.courseId = "C1"; c.title = "DSA"; c.maxSeats = 40; c.currentEnrolled = 20;
+        when(courseDao.getCourse("C1")).thenReturn(c);
+        when(transactionDao.enroll("S1", "C1", 0)).thenReturn(TransactionDao.EnrollResult.ENROLLED);
+
+        String msg = service.enroll("S1", "C1", false);
+
+        assertEquals("Enrolled successfully.", msg);
+        verify(waitlistDao, never()).isStudentOnWaitlist(anyString(), anyString());
+        verify(courseDao, never()).reserveSeatIfAvailable(anyString());
+        verify(enrollmentDao, never()).putEnrollment(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void enroll_shardedCourse_passesShardCountToTransaction() {
+        when(studentDao.exists("S1")).thenReturn(true);
+        Course c = new Course();
+        c.courseId = "C9"; c.title = "Intro"; c.maxSeats = 500; c.shardCount = 8;
+        when(courseDao.getCourse("C9")).thenReturn(c);
+        when(transactionDao.enroll("S1", "C9", 8)).thenReturn(TransactionDao.EnrollResult.ENROLLED);
+
+        assertEquals("Enrolled successfully.", service.enroll("S1", "C9", false));
+    }
+
+    @Test
+    void enroll_whenFull_withoutConsent_asksToJoinWaitlist() {
+        when(studentDao.exists("S2")).thenReturn(true);
+        Course c = new Course();
+        c.courseId = "C2"; c.title = "OS"; c.maxSeats = 1; c.currentEnrolled = 1;
+        when(courseDao.getCourse("C2")).thenReturn(c);
+        when(transactionDao.enroll("S2", "C2", 0)).thenReturn(TransactionDao.EnrollResult.COURSE_FULL);
+
+        String msg = service.enroll("S2", "C2", false);
+
+        assertTrue(msg.contains("Would you like to join the waitlist"));
+        verify(waitlistDao, never()).addToWaitlist(anyString(), anyString(), any());
+    }
+
     @Test
     void enroll_whenFull_andConsent_returnsMessage() {
         Course c = new Course();
@@ -125,8 +199,45 @@ class RegistrationServiceTest {
         assertFalse(msg.isBlank());
     }
 
+    // ---------- MY COURSES ----------
+
+    @Test
+    void getMyCourses_mergesEnrollmentsAndWaitlist_withOneTitleLookup() {
+        when(enrollmentDao.listEnrollmentsByStudent("S4")).thenReturn(List.of(
+                Map.of("courseId", AttributeValue.builder().s("C1").build(),
+                        "status", AttributeValue.builder().s("ENROLLED").build())));
+        when(waitlistDao.getWaitlistsByStudent("S4", 0)).thenReturn(List.of(
+                Map.of("courseId", AttributeValue.builder().s("C1").build()),
+                Map.of("courseId", AttributeValue.builder().s("C2").build())));
+        when(courseDao.getCourseTitles(any())).thenReturn(Map.of("C1", "DSA", "C2", "OS"));
+
+        StudentSchedule schedule = service.getMyCourses("S4");
+
+        assertEquals(2, schedule.size());
+        assertEquals("C1 - DSA (ENROLLED)", schedule.entries.get(0).toString());
+        assertEquals("C2 - OS (WAITLIST)", schedule.entries.get(1).toString());
+        verify(courseDao, times(1)).getCourseTitles(any());
+        verify(courseDao, never()).getCourse(anyString());
+    }
+
     // ---------- DROP ----------
 
+    @Test
+    void drop_promotesHeadOfWaitlistInOneTransaction() {
+        when(studentDao.exists("S3")).thenReturn(true);
+        Course c = new Course(); c.courseId = "C3";
+        when(courseDao.getCourse("C3")).thenReturn(c);
+        when(transactionDao.dropAndPromote(eq("S3"), eq("C3"), anyString(), eq(0)))
+                .thenReturn(new TransactionDao.DropOutcome(TransactionDao.DropOutcome.Status.DROPPED_AND_PROMOTED, "S7"));
+
+        String msg = service.drop("S3", "C3");
+
+        assertEquals("Dropped from course. Promoted S7 from waitlist.", msg);
+        verify(courseDao, never()).releaseSeat(anyString());
+        verify(courseDao, never()).reserveSeatIfAvailable(anyString());
+        verify(waitlistDao, never()).addToWaitlist(anyString(), anyString(), any());
+    }
+
     @Test
     void drop_waitlistedOrNot_returnsMessage() {
         String msg = service.drop("S3", "C3");
@@ -0,0 +1,97 @@
+package org.example.registration.tools;
+
+import org.example.registration.model.Course;
+import org.example.registration.model.Student;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkLoaderTest {
+
+    private static List<Map<String, String>> read(String json) throws Exception {
+        List<Map<String, String>> records = new ArrayList<>();
+        BulkLoader.readRecords(new StringReader(json), records::add);
+        return records;
+    }
+
+    @Test
+    void readRecords_plainArray() throws Exception {
+        List<Map<String, String>> records = read("[{\"courseId\":\"cs101\",\"title\":\"Intro\",\"maxSeats\":30},"
+                + "{\"courseId\":\"CS102\",\"title\":\"Data\",\"maxSeats\":2}]");
+
+        assertEquals(2, records.size());
+        assertEquals("cs101", records.get(0).get("courseId"));
+        assertEquals("30", records.get(0).get("maxSeats"));
+    }
+
+    @Test
+    void readRecords_ndjson() throws Exception {
+        List<Map<String, String>> records = read("{\"studentId\":\"S1001\"}\n{\"studentId\":\"S1002\"}\n");
+
+        assertEquals(List.of("S1001", "S1002"), records.stream().map(r -> r.get("studentId")).toList());
+    }
+
+    @Test
+    void readRecords_batchWriteItemShape() throws Exception {
+        List<Map<String, String>> records = read("{\"Course\":[{\"PutRequest\":{\"Item\":{"
+                + "\"courseId\":{\"S\":\"CS101\"},\"title\":{\"S\":\"Intro\"},\"maxSeats\":{\"N\":\"30\"}}}}]}");
+
+        assertEquals(1, records.size());
+        assertEquals("CS101", records.get(0).get("courseId"));
+        assertEquals("Intro", records.get(0).get("title"));
+        assertEquals("30", records.get(0).get("maxSeats"));
+    }
+
+    @Test
+    void toCourse_acceptsLegacyFieldNames() {
+        Course c = BulkLoader.toCourse(Map.of("courseId", "cs101", "courseName", "Intro",
+                "maxSeats", "30", "currentEnrolledCount", "4"));
+
+        assertNotNull(c);
+        assertEquals("CS101", c.courseId);
+        assertEquals("Intro", c.title);
+        assertEquals(4, c.currentEnrolled);
+    }
+
+    @Test
+    void toCourse_rejectsOverfullOrIncomplete() {
+        assertNull(BulkLoader.toCourse(Map.of("courseId", "CS101", "title", "Intro", "maxSeats", "2", "currentEnrolled", "3")));
+        assertNull(BulkLoader.toCourse(Map.of("courseId", "CS101", "title", "Intro")));
+    }
+
+    private static Student student(String id, String email) {
+        Student s = new Student();
+        s.studentId = id;
+        s.email = email;
+        return s;
+    }
+
+    @Test
+    void emailCheck_skipsTakenEmails_andRemovesTheOldRowOnAChange() {
+        Student taken = student("S1", "bob@example.com");       // bob's address belongs to S2
+        Student moved = student("S3", "carol.new@example.com"); // S3 changes email
+        Student same = student("S2", "bob@example.com");        // reloading S2 as-is
+
+        BulkLoader.EmailCheck check = BulkLoader.EmailCheck.of(List.of(taken, moved, same),
+                Map.of("S2", "bob@example.com", "S3", "carol@example.com"),
+                Map.of("bob@example.com", "S2", "carol@example.com", "S3"));
+
+        assertEquals(List.of(moved, same), check.accepted());
+        assertEquals(List.of("carol@example.com"), check.staleEmails());
+        assertEquals(List.of("S1: bob@example.com already belongs to S2"), check.conflicts());
+    }
+
+    @Test
+    void toStudent_normalizesEmailAndRejectsInvalid() {
+        Student s = BulkLoader.toStudent(Map.of("studentId", "S1001", "email", " Alice@Example.com "));
+
+        assertNotNull(s);
+        assertEquals("alice@example.com", s.email);
+        assertNull(BulkLoader.toStudent(Map.of("studentId", "S1001", "email", "not-an-email")));
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.registration.tools;
+
+import org.example.registration.dao.Stores;
+import org.example.registration.dao.embedded.EmbeddedDatabase;
+import org.example.registration.service.PasswordHasher;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RushLoadGeneratorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void outcomes_mapServiceMessages() {
+        assertEquals("CREATED", RushLoadGenerator.signupOutcome("Signed up successfully."));
+        assertEquals("EMAIL_TAKEN", RushLoadGenerator.signupOutcome("Email already exists."));
+        assertEquals("BUSY", RushLoadGenerator.signupOutcome("Server is busy. Please try again in a moment."));
+        assertEquals("WAITLISTED", RushLoadGenerator.enrollOutcome("Course full. Added to waitlist."));
+        assertEquals("ALREADY_ENROLLED", RushLoadGenerator.enrollOutcome("You are already enrolled in this course."));
+        assertEquals("DROPPED_AND_PROMOTED", RushLoadGenerator.dropOutcome("Dropped from course. Promoted S2 from waitlist."));
+        assertEquals("ERROR", RushLoadGenerator.enrollOutcome("Enrollment error: boom"));
+    }
+
+    @Test
+    void operationStats_nearestRankPercentiles() {
+        RushLoadGenerator.OperationStats stats = new RushLoadGenerator.OperationStats();
+        for (int i = 1; i <= 1000; i++) stats.record(i * 1_000_000L, i % 10 == 0 ? "WAITLISTED" : "ENROLLED");
+
+        assertEquals(1000, stats.count());
+        assertEquals(500.0, stats.percentileMillis(0.50));
+        assertEquals(990.0, stats.percentileMillis(0.99));
+        assertEquals(999.0, stats.percentileMillis(0.999));
+        assertEquals(100, stats.conditionalRejections());
+    }
+
+    @Test
+    void rush_onEmbeddedStore_keepsInvariants() throws Exception {
+        System.setProperty(PasswordHasher.COST_PROPERTY, "4");
+        try (EmbeddedDatabase db = EmbeddedDatabase.open(dir)) {
+            Stores stores = db.stores();
+            RushLoadGenerator.Options options = new RushLoadGenerator.Options();
+            options.students = 300;
+            options.courses = 2;
+            options.seats = 25;
+            options.coursesPerStudent = 2;
+            options.dropRate = 0.3;
+            options.seed = 42;
+
+            RushLoadGenerator rush = new RushLoadGenerator(stores, options);
+            List<String> courseIds = rush.createCourses();
+            rush.run(courseIds);
+
+            assertEquals(List.of(), rush.checkInvariants(courseIds));
+            RushLoadGenerator.OperationStats enroll = rush.stats("enroll");
+            assertEquals(0, enroll.outcome("ERROR") + enroll.outcome("EXCEPTION"));
+            // both courses filled up (seats released by drops may be taken again) and the rest waited
+            assertTrue(enroll.outcome("ENROLLED") >= 2L * options.seats);
+            assertTrue(enroll.outcome("WAITLISTED") > 0);
+        } finally {
+            System.clearProperty(PasswordHasher.COST_PROPERTY);
+        }
+    }
+}